@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.circuitbreaker;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Compares the throughput of the {@link EventCounter}s of different {@link CircuitBreakerCounterType}s
+ * when many threads report the events to the same {@link CircuitBreaker}.
+ *
+ * <p>Run with {@code -Pjmh.threads=<n>} to change the number of the threads.
+ */
+@State(Scope.Benchmark)
+@Threads(32)
+public class CircuitBreakerCounterBenchmark {
+
+    @Param({ "SLIDING_WINDOW", "STRIPED_SLIDING_WINDOW" })
+    private CircuitBreakerCounterType counterType;
+
+    @Param({ "1000", "10" })
+    private long updateIntervalMillis;
+
+    private EventCounter counter;
+
+    @Setup
+    public void setUp() {
+        final Duration slidingWindow = Duration.ofSeconds(20);
+        final Duration updateInterval = Duration.ofMillis(updateIntervalMillis);
+        switch (counterType) {
+            case SLIDING_WINDOW:
+                counter = new SlidingWindowCounter(Ticker.systemTicker(), slidingWindow, updateInterval);
+                break;
+            case STRIPED_SLIDING_WINDOW:
+                counter = new StripedSlidingWindowCounter(Ticker.systemTicker(), slidingWindow,
+                                                          updateInterval);
+                break;
+            default:
+                throw new Error();
+        }
+    }
+
+    @Benchmark
+    public Optional<EventCount> onSuccess() {
+        return counter.onSuccess();
+    }
+
+    @Benchmark
+    public Optional<EventCount> onSuccessAndFailure() {
+        counter.onSuccess();
+        return counter.onFailure();
+    }
+}
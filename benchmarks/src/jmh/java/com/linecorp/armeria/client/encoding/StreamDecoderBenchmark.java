@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.encoding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.unsafe.ByteBufHttpData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+
+/**
+ * Compares the throughput of decoding a gzip-encoded response with {@link ZlibStreamDecoder} against
+ * decoding it with Netty's {@link ZlibCodecFactory#newZlibDecoder(ZlibWrapper) ZlibDecoder} in an
+ * {@link EmbeddedChannel}, which is how responses used to be decoded.
+ */
+@State(Scope.Thread)
+public class StreamDecoderBenchmark {
+
+    // The typical size of an HTTP/2 DATA frame.
+    private static final int CHUNK_SIZE = 16384;
+
+    private static final ByteBufAllocator alloc = PooledByteBufAllocator.DEFAULT;
+
+    @Param({ "1024", "65536", "1048576" })
+    private int bodySize;
+
+    private ByteBuf compressed;
+
+    @Setup
+    public void setUp() throws IOException {
+        // JSON-like content which compresses moderately.
+        final Random random = new Random(42);
+        final StringBuilder buf = new StringBuilder(bodySize);
+        while (buf.length() < bodySize) {
+            buf.append("{\"id\":").append(random.nextInt(100000))
+               .append(",\"name\":\"item-").append(random.nextInt(1000)).append("\"},");
+        }
+        buf.setLength(bodySize);
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bos)) {
+            out.write(buf.toString().getBytes());
+        }
+        compressed = alloc.directBuffer().writeBytes(bos.toByteArray());
+    }
+
+    @TearDown
+    public void tearDown() {
+        compressed.release();
+    }
+
+    @Benchmark
+    public long zlibStreamDecoder() {
+        final StreamDecoder decoder = new ZlibStreamDecoder(ZlibWrapper.GZIP, alloc);
+        long length = 0;
+        for (int i = compressed.readerIndex(); i < compressed.writerIndex(); i += CHUNK_SIZE) {
+            length += consume(decoder.decode(chunk(i)));
+        }
+        return length + consume(decoder.finish());
+    }
+
+    @Benchmark
+    public long embeddedChannel() {
+        final EmbeddedChannel decoder =
+                new EmbeddedChannel(false, ZlibCodecFactory.newZlibDecoder(ZlibWrapper.GZIP));
+        decoder.config().setAllocator(alloc);
+        long length = 0;
+        for (int i = compressed.readerIndex(); i < compressed.writerIndex(); i += CHUNK_SIZE) {
+            decoder.writeInbound(chunk(i).content());
+            length += drain(decoder);
+        }
+        decoder.finish();
+        return length + drain(decoder);
+    }
+
+    private ByteBufHttpData chunk(int index) {
+        final int length = Math.min(CHUNK_SIZE, compressed.writerIndex() - index);
+        return new ByteBufHttpData(compressed.retainedSlice(index, length), false);
+    }
+
+    private static int consume(HttpData data) {
+        final int length = data.length();
+        if (data instanceof ByteBufHolder) {
+            ((ByteBufHolder) data).release();
+        }
+        return length;
+    }
+
+    private static int drain(EmbeddedChannel decoder) {
+        int length = 0;
+        for (;;) {
+            final ByteBuf buf = decoder.readInbound();
+            if (buf == null) {
+                return length;
+            }
+            length += buf.readableBytes();
+            buf.release();
+        }
+    }
+}
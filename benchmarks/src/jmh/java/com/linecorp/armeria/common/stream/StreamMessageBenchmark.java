@@ -16,6 +16,8 @@
 
 package com.linecorp.armeria.common.stream;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -55,6 +57,8 @@ public class StreamMessageBenchmark {
 
         public enum StreamType {
             DEFAULT_STREAM_MESSAGE,
+            // Writes all values with tryWriteAll() and consumes them with a BatchSubscriber.
+            DEFAULT_STREAM_MESSAGE_BATCHED,
             FIXED_STREAM_MESSAGE,
             DEFERRED_FIXED_STREAM_MESSAGE,
         }
@@ -70,7 +74,7 @@ public class StreamMessageBenchmark {
 
         private Integer[] values;
 
-        private long sum;
+        long sum;
 
         private SummingSubscriber subscriber;
 
@@ -91,7 +95,11 @@ public class StreamMessageBenchmark {
                 values[i] = i;
                 sum += i;
             }
-            subscriber = new SummingSubscriber(completedLatch, flowControl);
+            if (streamType == StreamType.DEFAULT_STREAM_MESSAGE_BATCHED) {
+                subscriber = new BatchSummingSubscriber(completedLatch, flowControl);
+            } else {
+                subscriber = new SummingSubscriber(completedLatch, flowControl);
+            }
         }
 
         private long computedSum() {
@@ -108,8 +116,14 @@ public class StreamMessageBenchmark {
             if (stream instanceof StreamWriter) {
                 @SuppressWarnings("unchecked")
                 final StreamWriter<Integer> writer = (StreamWriter<Integer>) stream;
-                for (Integer i : values) {
-                    writer.write(i);
+                if (streamType == StreamType.DEFAULT_STREAM_MESSAGE_BATCHED) {
+                    if (!writer.tryWriteAll(Arrays.asList(values))) {
+                        throw ClosedPublisherException.get();
+                    }
+                } else {
+                    for (Integer i : values) {
+                        writer.write(i);
+                    }
                 }
                 writer.close();
             }
@@ -159,6 +173,7 @@ public class StreamMessageBenchmark {
     private static StreamMessage<Integer> newStream(StreamObjects streamObjects) {
         switch (streamObjects.streamType) {
             case DEFAULT_STREAM_MESSAGE:
+            case DEFAULT_STREAM_MESSAGE_BATCHED:
                 return new DefaultStreamMessage<>();
             case FIXED_STREAM_MESSAGE:
                 switch (streamObjects.num) {
@@ -180,18 +195,18 @@ public class StreamMessageBenchmark {
         }
     }
 
-    private static final class SummingSubscriber implements Subscriber<Integer> {
+    private static class SummingSubscriber implements Subscriber<Integer> {
 
         private final CountDownLatch completedLatch;
-        private final boolean flowControl;
+        final boolean flowControl;
 
-        private Subscription subscription;
+        Subscription subscription;
 
-        private long sum;
+        long sum;
         private boolean complete;
         private Throwable error;
 
-        private SummingSubscriber(CountDownLatch completedLatch, boolean flowControl) {
+        SummingSubscriber(CountDownLatch completedLatch, boolean flowControl) {
             this.completedLatch = completedLatch;
             this.flowControl = flowControl;
         }
@@ -238,4 +253,22 @@ public class StreamMessageBenchmark {
             completedLatch.countDown();
         }
     }
+
+    private static final class BatchSummingSubscriber extends SummingSubscriber
+            implements BatchSubscriber<Integer> {
+
+        BatchSummingSubscriber(CountDownLatch completedLatch, boolean flowControl) {
+            super(completedLatch, flowControl);
+        }
+
+        @Override
+        public void onNextBatch(List<Integer> values) {
+            for (Integer value : values) {
+                sum += value;
+            }
+            if (flowControl) {
+                subscription.request(1);
+            }
+        }
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.core.client.endpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.EndpointGroupRegistry;
+import com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy;
+import com.linecorp.armeria.client.endpoint.EndpointSelector;
+import com.linecorp.armeria.client.endpoint.StaticEndpointGroup;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+
+/**
+ * Compares the overhead of {@link EndpointSelectionStrategy#LEAST_LOADED}, which updates the statistics of
+ * the selected {@link Endpoint} when the request is complete, with the round-robin strategies.
+ */
+@State(Scope.Benchmark)
+public class LeastLoadedStrategyBenchmark {
+
+    public enum Strategy {
+        ROUND_ROBIN(EndpointSelectionStrategy.ROUND_ROBIN),
+        WEIGHTED_ROUND_ROBIN(EndpointSelectionStrategy.WEIGHTED_ROUND_ROBIN),
+        LEAST_LOADED(EndpointSelectionStrategy.LEAST_LOADED);
+
+        final EndpointSelectionStrategy strategy;
+
+        Strategy(EndpointSelectionStrategy strategy) {
+            this.strategy = strategy;
+        }
+    }
+
+    @Param({ "10", "500" })
+    private int numEndpoints;
+
+    @Param
+    private Strategy strategy;
+
+    private EndpointSelector selector;
+    private String groupName;
+
+    @Setup
+    public void setUp() {
+        final List<Endpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < numEndpoints; i++) {
+            endpoints.add(Endpoint.of("127.0.0.1", i + 1));
+        }
+
+        groupName = "least-loaded-" + strategy.name().toLowerCase() + '-' + numEndpoints;
+        EndpointGroupRegistry.register(groupName, new StaticEndpointGroup(endpoints), strategy.strategy);
+        selector = EndpointGroupRegistry.getNodeSelector(groupName);
+    }
+
+    @TearDown
+    public void tearDown() {
+        EndpointGroupRegistry.unregister(groupName);
+    }
+
+    @Benchmark
+    public Endpoint selectAndComplete() {
+        final ClientRequestContext ctx = ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+        final Endpoint endpoint = selector.select(ctx);
+        ctx.logBuilder().endRequest();
+        ctx.logBuilder().endResponse();
+        return endpoint;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.metric.NoopMeterRegistry;
+
+/**
+ * Compares the {@link Router}s of different {@link RouterType}s with a large number of {@link Route}s.
+ */
+@State(Scope.Thread)
+public class RoutersBenchmark {
+
+    private static final HttpService SERVICE = (ctx, req) -> HttpResponse.of(HttpStatus.OK);
+
+    @Param({ "TRIE", "COMPILED" })
+    private RouterType routerType;
+
+    @Param({ "100", "3000" })
+    private int numServices;
+
+    private VirtualHost virtualHost;
+
+    private String exactPath;
+    private String parameterizedPath;
+    private String prefixPath;
+
+    @Setup
+    public void setUp() {
+        final ServerBuilder sb = new ServerBuilder().routerType(routerType)
+                                                    .meterRegistry(NoopMeterRegistry.get());
+        // Bind 3 routes per service, similar to an annotated service.
+        for (int i = 0; i < numServices / 3; i++) {
+            sb.route().get("/services/" + i + "/users").produces(MediaType.JSON_UTF_8).build(SERVICE);
+            sb.route().get("/services/" + i + "/users/{id}").produces(MediaType.JSON_UTF_8).build(SERVICE);
+            sb.route().pathUnder("/services/" + i + "/static").build(SERVICE);
+        }
+        virtualHost = sb.build().config().defaultVirtualHost();
+    }
+
+    @Setup(Level.Invocation)
+    @SuppressWarnings("RedundantStringConstructorCall")
+    public void setUpPaths() {
+        // Create a new String for paths every time to avoid constant folding and hash code caching.
+        final int i = numServices / 6;
+        exactPath = new String("/services/" + i + "/users");
+        parameterizedPath = new String("/services/" + i + "/users/12345");
+        prefixPath = new String("/services/" + i + "/static/js/main.js");
+    }
+
+    @Benchmark
+    public Routed<ServiceConfig> exact() {
+        return virtualHost.findServiceConfig(routingCtx(exactPath));
+    }
+
+    @Benchmark
+    public Routed<ServiceConfig> parameterized() {
+        return virtualHost.findServiceConfig(routingCtx(parameterizedPath));
+    }
+
+    @Benchmark
+    public Routed<ServiceConfig> prefix() {
+        return virtualHost.findServiceConfig(routingCtx(prefixPath));
+    }
+
+    private RoutingContext routingCtx(String path) {
+        return new DefaultRoutingContext(virtualHost, "localhost", HttpMethod.GET, path, null,
+                                         null, ImmutableList.of(MediaType.JSON_UTF_8), false);
+    }
+}
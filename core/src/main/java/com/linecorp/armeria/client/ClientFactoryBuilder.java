@@ -41,9 +41,11 @@ import com.google.common.base.MoreObjects.ToStringHelper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
+import com.linecorp.armeria.client.endpoint.EndpointGroupRegistry;
 import com.linecorp.armeria.common.CommonPools;
 import com.linecorp.armeria.common.Flags;
 import com.linecorp.armeria.common.Request;
+import com.linecorp.armeria.common.SessionProtocol;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Metrics;
@@ -54,6 +56,7 @@ import io.netty.handler.codec.http2.Http2CodecUtil;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.resolver.AddressResolverGroup;
 import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.util.AttributeMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectArrayMap;
 
 /**
@@ -100,6 +103,9 @@ public final class ClientFactoryBuilder {
     private int http2InitialStreamWindowSize = Flags.defaultHttp2InitialStreamWindowSize();
     private int http2MaxFrameSize = Flags.defaultHttp2MaxFrameSize();
     private long http2MaxHeaderListSize = Flags.defaultHttp2MaxHeaderListSize();
+    private int http2MinConnectionsPerEndpoint = 1;
+    private int http2MaxConnectionsPerEndpoint = Integer.MAX_VALUE;
+    private int http2TargetStreamsPerConnection = Integer.MAX_VALUE;
     private int http1MaxInitialLineLength = Flags.defaultHttp1MaxInitialLineLength();
     private int http1MaxHeaderSize = Flags.defaultHttp1MaxHeaderSize();
     private int http1MaxChunkSize = Flags.defaultHttp1MaxChunkSize();
@@ -108,8 +114,10 @@ public final class ClientFactoryBuilder {
     private long idleTimeoutMillis = Flags.defaultClientIdleTimeoutMillis();
     private boolean useHttp2Preface = Flags.defaultUseHttp2Preface();
     private boolean useHttp1Pipelining = Flags.defaultUseHttp1Pipelining();
+    private boolean useLoadAwareEventLoopScheduling;
     private ConnectionPoolListener connectionPoolListener = DEFAULT_CONNECTION_POOL_LISTENER;
     private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private final List<ConnectionWarmUp> connectionWarmUps = new ArrayList<>();
 
     /**
      * Creates a new instance.
@@ -278,6 +286,48 @@ public final class ClientFactoryBuilder {
         return this;
     }
 
+    /**
+     * Sets the minimum number of HTTP/2 connections to an endpoint in each event loop. If there are fewer
+     * connections than this value when a request is sent, a new connection is opened in the background
+     * while the request is sent over the existing connection. The default is {@code 1}.
+     */
+    public ClientFactoryBuilder http2MinConnectionsPerEndpoint(int http2MinConnectionsPerEndpoint) {
+        checkArgument(http2MinConnectionsPerEndpoint > 0,
+                      "http2MinConnectionsPerEndpoint: %s (expected: > 0)", http2MinConnectionsPerEndpoint);
+        this.http2MinConnectionsPerEndpoint = http2MinConnectionsPerEndpoint;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of HTTP/2 connections to an endpoint in each event loop which are opened
+     * because the existing connections have more active streams than
+     * {@link #http2TargetStreamsPerConnection(int)}. Note that a new connection is always opened when all
+     * connections reached the {@code MAX_CONCURRENT_STREAMS} setting of the server.
+     * The default is {@link Integer#MAX_VALUE}.
+     */
+    public ClientFactoryBuilder http2MaxConnectionsPerEndpoint(int http2MaxConnectionsPerEndpoint) {
+        checkArgument(http2MaxConnectionsPerEndpoint > 0,
+                      "http2MaxConnectionsPerEndpoint: %s (expected: > 0)", http2MaxConnectionsPerEndpoint);
+        this.http2MaxConnectionsPerEndpoint = http2MaxConnectionsPerEndpoint;
+        return this;
+    }
+
+    /**
+     * Sets the soft limit of the number of active streams in an HTTP/2 connection. A request is sent over
+     * the connection with the fewest active streams, and a new connection is opened in the background when
+     * even that connection has this many active streams, up to
+     * {@link #http2MaxConnectionsPerEndpoint(int)}. Because the requests to an endpoint are spread across
+     * event loops by their load, the new connections are spread across event loops as well.
+     * The default is {@link Integer#MAX_VALUE}, which opens a new connection only when the
+     * {@code MAX_CONCURRENT_STREAMS} setting of the server is reached.
+     */
+    public ClientFactoryBuilder http2TargetStreamsPerConnection(int http2TargetStreamsPerConnection) {
+        checkArgument(http2TargetStreamsPerConnection > 0,
+                      "http2TargetStreamsPerConnection: %s (expected: > 0)", http2TargetStreamsPerConnection);
+        this.http2TargetStreamsPerConnection = http2TargetStreamsPerConnection;
+        return this;
+    }
+
     /**
      * Sets the maximum length of an HTTP/1 response initial line.
      */
@@ -351,6 +401,21 @@ public final class ClientFactoryBuilder {
         return this;
     }
 
+    /**
+     * Sets whether to take the load of the event loops across all endpoints into account when assigning
+     * an event loop to a request. If enabled, a request is assigned to the less loaded one of the event loop
+     * which handles the most of the requests to the same endpoint and a randomly chosen event loop,
+     * by the number of active requests and pending tasks of the event loops. The load of each event loop is
+     * exported as {@code armeria.client.eventLoop.activeRequests} and
+     * {@code armeria.client.eventLoop.pendingTasks} gauges, which are tagged with {@code clientFactory}
+     * that distinguishes the {@link ClientFactory}s and {@code eventLoop} that is the index of the event loop.
+     * The gauges are removed when the {@link ClientFactory} is closed. This option is disabled by default.
+     */
+    public ClientFactoryBuilder useLoadAwareEventLoopScheduling(boolean useLoadAwareEventLoopScheduling) {
+        this.useLoadAwareEventLoopScheduling = useLoadAwareEventLoopScheduling;
+        return this;
+    }
+
     /**
      * Sets the listener which is notified on a connection pool event.
      */
@@ -360,6 +425,33 @@ public final class ClientFactoryBuilder {
         return this;
     }
 
+    /**
+     * Keeps the specified number of connections to the specified {@link Endpoint} open, so that the requests
+     * do not have to wait for a new connection when the {@link ClientFactory} has just been created or
+     * the existing connections have been closed. The connections are opened when the {@link ClientFactory}
+     * is built and are replaced before they are closed due to the idle timeout.
+     * {@link ConnectionPoolListener#connectionWarmedUp(SessionProtocol, InetSocketAddress,
+     * InetSocketAddress, AttributeMap)} is invoked whenever a connection is opened by this option.
+     *
+     * <p>If the {@link Endpoint} is a group, the connections to all {@link Endpoint}s in the group are kept
+     * open, including the {@link Endpoint}s added to the group later. The group must be registered to
+     * {@link EndpointGroupRegistry} before {@link #build()} is invoked.
+     *
+     * @param protocol the {@link SessionProtocol} of the connections
+     * @param endpoint the {@link Endpoint} to connect to
+     * @param numConnections the number of the connections to keep open per host
+     */
+    public ClientFactoryBuilder warmUpConnections(SessionProtocol protocol, Endpoint endpoint,
+                                                  int numConnections) {
+        requireNonNull(protocol, "protocol");
+        requireNonNull(endpoint, "endpoint");
+        checkArgument(numConnections > 0, "numConnections: %s (expected: > 0)", numConnections);
+        checkArgument(protocol != SessionProtocol.PROXY, "protocol: %s (expected: an HTTP protocol)",
+                      protocol);
+        connectionWarmUps.add(new ConnectionWarmUp(protocol, endpoint, numConnections));
+        return this;
+    }
+
     /**
      * Sets the {@link MeterRegistry} which collects various stats.
      */
@@ -372,6 +464,10 @@ public final class ClientFactoryBuilder {
      * Returns a newly-created {@link ClientFactory} based on the properties of this builder.
      */
     public ClientFactory build() {
+        checkState(http2MinConnectionsPerEndpoint <= http2MaxConnectionsPerEndpoint,
+                   "http2MinConnectionsPerEndpoint: %s (expected: <= http2MaxConnectionsPerEndpoint (%s))",
+                   http2MinConnectionsPerEndpoint, http2MaxConnectionsPerEndpoint);
+
         final Function<? super EventLoopGroup,
                        ? extends AddressResolverGroup<? extends InetSocketAddress>> addressResolverGroupFactory;
         if (this.addressResolverGroupFactory != null) {
@@ -384,9 +480,11 @@ public final class ClientFactoryBuilder {
         return new DefaultClientFactory(new HttpClientFactory(
                 workerGroup, shutdownWorkerGroupOnClose, channelOptions, sslContextCustomizer,
                 addressResolverGroupFactory, http2InitialConnectionWindowSize, http2InitialStreamWindowSize,
-                http2MaxFrameSize, http2MaxHeaderListSize, http1MaxInitialLineLength, http1MaxHeaderSize,
-                http1MaxChunkSize, idleTimeoutMillis, useHttp2Preface,
-                useHttp1Pipelining, connectionPoolListener, meterRegistry));
+                http2MaxFrameSize, http2MaxHeaderListSize, http2MinConnectionsPerEndpoint,
+                http2MaxConnectionsPerEndpoint, http2TargetStreamsPerConnection,
+                http1MaxInitialLineLength, http1MaxHeaderSize, http1MaxChunkSize, idleTimeoutMillis,
+                useHttp2Preface, useHttp1Pipelining, useLoadAwareEventLoopScheduling,
+                connectionPoolListener, meterRegistry, ImmutableList.copyOf(connectionWarmUps)));
     }
 
     @Override
@@ -394,8 +492,11 @@ public final class ClientFactoryBuilder {
         return toString(this, workerGroup, shutdownWorkerGroupOnClose, channelOptions,
                         sslContextCustomizer, addressResolverGroupFactory, http2InitialConnectionWindowSize,
                         http2InitialStreamWindowSize, http2MaxFrameSize, http2MaxHeaderListSize,
-                        http1MaxInitialLineLength, http1MaxHeaderSize, http1MaxChunkSize, idleTimeoutMillis,
-                        useHttp2Preface, useHttp1Pipelining, connectionPoolListener, meterRegistry);
+                        http2MinConnectionsPerEndpoint, http2MaxConnectionsPerEndpoint,
+                        http2TargetStreamsPerConnection, http1MaxInitialLineLength, http1MaxHeaderSize,
+                        http1MaxChunkSize, idleTimeoutMillis, useHttp2Preface, useHttp1Pipelining,
+                        useLoadAwareEventLoopScheduling, connectionPoolListener, meterRegistry,
+                        connectionWarmUps);
     }
 
     static String toString(
@@ -407,10 +508,12 @@ public final class ClientFactoryBuilder {
             Function<? super EventLoopGroup,
                      ? extends AddressResolverGroup<? extends InetSocketAddress>> addressResolverGroupFactory,
             int http2InitialConnectionWindowSize, int http2InitialStreamWindowSize, int http2MaxFrameSize,
-            long http2MaxHeaderListSize, int http1MaxInitialLineLength, int http1MaxHeaderSize,
+            long http2MaxHeaderListSize, int http2MinConnectionsPerEndpoint,
+            int http2MaxConnectionsPerEndpoint, int http2TargetStreamsPerConnection,
+            int http1MaxInitialLineLength, int http1MaxHeaderSize,
             int http1MaxChunkSize, long idleTimeoutMillis, boolean useHttp2Preface, boolean useHttp1Pipelining,
-            ConnectionPoolListener connectionPoolListener,
-            MeterRegistry meterRegistry) {
+            boolean useLoadAwareEventLoopScheduling, ConnectionPoolListener connectionPoolListener,
+            MeterRegistry meterRegistry, List<ConnectionWarmUp> connectionWarmUps) {
 
         final ToStringHelper helper = MoreObjects.toStringHelper(self).omitNullValues();
         helper.add("workerGroup", workerGroup + " (shutdownOnClose=" + shutdownWorkerGroupOnClose + ')')
@@ -419,12 +522,16 @@ public final class ClientFactoryBuilder {
               .add("http2InitialStreamWindowSize", http2InitialStreamWindowSize)
               .add("http2MaxFrameSize", http2MaxFrameSize)
               .add("http2MaxHeaderListSize", http2MaxHeaderListSize)
+              .add("http2MinConnectionsPerEndpoint", http2MinConnectionsPerEndpoint)
+              .add("http2MaxConnectionsPerEndpoint", http2MaxConnectionsPerEndpoint)
+              .add("http2TargetStreamsPerConnection", http2TargetStreamsPerConnection)
               .add("http1MaxInitialLineLength", http1MaxInitialLineLength)
               .add("http1MaxHeaderSize", http1MaxHeaderSize)
               .add("http1MaxChunkSize", http1MaxChunkSize)
               .add("idleTimeoutMillis", idleTimeoutMillis)
               .add("useHttp2Preface", useHttp2Preface)
-              .add("useHttp1Pipelining", useHttp1Pipelining);
+              .add("useHttp1Pipelining", useHttp1Pipelining)
+              .add("useLoadAwareEventLoopScheduling", useLoadAwareEventLoopScheduling);
 
         if (connectionPoolListener != DEFAULT_CONNECTION_POOL_LISTENER) {
             helper.add("connectionPoolListener", connectionPoolListener);
@@ -438,6 +545,10 @@ public final class ClientFactoryBuilder {
             helper.add("addressResolverGroupFactory", addressResolverGroupFactory);
         }
 
+        if (!connectionWarmUps.isEmpty()) {
+            helper.add("connectionWarmUps", connectionWarmUps);
+        }
+
         helper.add("meterRegistry", meterRegistry);
 
         return helper.toString();
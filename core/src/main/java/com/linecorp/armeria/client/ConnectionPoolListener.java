@@ -48,4 +48,15 @@ public interface ConnectionPoolListener {
                           InetSocketAddress remoteAddr,
                           InetSocketAddress localAddr,
                           AttributeMap attrs) throws Exception;
+
+    /**
+     * Invoked when a connection has been opened in advance to keep the number of the idle connections
+     * configured by {@link ClientFactoryBuilder#warmUpConnections(SessionProtocol, Endpoint, int)}.
+     * {@link #connectionOpen(SessionProtocol, InetSocketAddress, InetSocketAddress, AttributeMap)} is
+     * invoked before this method.
+     */
+    default void connectionWarmedUp(SessionProtocol protocol,
+                                    InetSocketAddress remoteAddr,
+                                    InetSocketAddress localAddr,
+                                    AttributeMap attrs) throws Exception {}
 }
@@ -60,4 +60,12 @@ public class ConnectionPoolListenerWrapper implements ConnectionPoolListener {
                                  AttributeMap attrs) throws Exception {
         delegate().connectionClosed(protocol, remoteAddr, localAddr, attrs);
     }
+
+    @Override
+    public void connectionWarmedUp(SessionProtocol protocol,
+                                   InetSocketAddress remoteAddr,
+                                   InetSocketAddress localAddr,
+                                   AttributeMap attrs) throws Exception {
+        delegate().connectionWarmedUp(protocol, remoteAddr, localAddr, attrs);
+    }
 }
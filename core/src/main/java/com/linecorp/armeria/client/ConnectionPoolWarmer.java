@@ -0,0 +1,186 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linecorp.armeria.client.HttpChannelPool.PoolKey;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointGroupRegistry;
+import com.linecorp.armeria.common.util.ReleasableHolder;
+import com.linecorp.armeria.common.util.SafeCloseable;
+
+import io.netty.channel.EventLoop;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.util.concurrent.Future;
+
+/**
+ * Keeps the idle connections to an {@link Endpoint} warm as configured by a {@link ConnectionWarmUp}.
+ * If the {@link Endpoint} is a group, the connections to the {@link Endpoint}s added to the group later
+ * are opened as well, and the connections to the removed {@link Endpoint}s are no longer kept warm.
+ *
+ * <p>The connections are kept in the {@link HttpChannelPool} of the {@link EventLoop} which is assigned to
+ * the requests to the {@link Endpoint} when there are no other requests in progress, so that the first
+ * requests after a restart or an {@link EndpointGroup} update do not have to wait for a new connection.
+ */
+final class ConnectionPoolWarmer implements SafeCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolWarmer.class);
+
+    private final HttpClientFactory factory;
+    private final AddressResolverGroup<InetSocketAddress> addressResolverGroup;
+    private final ConnectionWarmUp warmUp;
+    private final EventLoop eventLoop;
+    @Nullable
+    private final EndpointGroup endpointGroup;
+    private final Consumer<List<Endpoint>> endpointGroupListener = this::update;
+
+    // Accessed only by the event loop:
+    private final Set<Endpoint> endpoints = new HashSet<>();
+    private final Map<Endpoint, PoolKey> poolKeys = new HashMap<>();
+
+    private volatile boolean closed;
+
+    ConnectionPoolWarmer(HttpClientFactory factory,
+                         AddressResolverGroup<InetSocketAddress> addressResolverGroup,
+                         ConnectionWarmUp warmUp) {
+        this.factory = factory;
+        this.addressResolverGroup = addressResolverGroup;
+        this.warmUp = warmUp;
+
+        final Endpoint endpoint = warmUp.endpoint();
+        final ReleasableHolder<EventLoop> acquiredEventLoop = factory.acquireEventLoop(endpoint);
+        eventLoop = acquiredEventLoop.get();
+        acquiredEventLoop.release();
+
+        if (endpoint.isGroup()) {
+            endpointGroup = EndpointGroupRegistry.get(endpoint.groupName());
+            if (endpointGroup == null) {
+                throw new IllegalArgumentException("unknown endpoint group: " + endpoint.groupName());
+            }
+        } else {
+            endpointGroup = null;
+        }
+    }
+
+    /**
+     * Opens the connections and starts to keep them warm.
+     */
+    void start() {
+        if (endpointGroup != null) {
+            endpointGroup.addListener(endpointGroupListener);
+            update(endpointGroup.endpoints());
+        } else {
+            update(warmUp.endpoint());
+        }
+    }
+
+    private void update(List<Endpoint> endpoints) {
+        update(endpoints.toArray(new Endpoint[0]));
+    }
+
+    private void update(Endpoint... endpoints) {
+        if (!eventLoop.inEventLoop()) {
+            eventLoop.execute(() -> update(endpoints));
+            return;
+        }
+
+        if (closed || factory.isClosing()) {
+            return;
+        }
+
+        final HttpChannelPool pool = factory.pool(eventLoop);
+        final Set<Endpoint> newEndpoints = new HashSet<>();
+        for (Endpoint e : endpoints) {
+            newEndpoints.add(e.withDefaultPort(warmUp.protocol().defaultPort()));
+        }
+
+        // Stop warming up the connections to the removed endpoints.
+        for (final Iterator<Endpoint> i = this.endpoints.iterator(); i.hasNext();) {
+            final Endpoint endpoint = i.next();
+            if (!newEndpoints.contains(endpoint)) {
+                i.remove();
+                final PoolKey key = poolKeys.remove(endpoint);
+                if (key != null) {
+                    pool.stopWarmUp(key);
+                }
+            }
+        }
+
+        // Warm up the connections to the added endpoints.
+        for (Endpoint endpoint : newEndpoints) {
+            if (this.endpoints.add(endpoint)) {
+                warmUp(pool, endpoint);
+            }
+        }
+    }
+
+    private void warmUp(HttpChannelPool pool, Endpoint endpoint) {
+        if (endpoint.hasIpAddr()) {
+            warmUp(pool, endpoint, endpoint.ipAddr());
+            return;
+        }
+
+        final Future<InetSocketAddress> resolveFuture =
+                addressResolverGroup.getResolver(eventLoop)
+                                    .resolve(InetSocketAddress.createUnresolved(endpoint.host(),
+                                                                                endpoint.port()));
+        resolveFuture.addListener(unused -> {
+            if (resolveFuture.isSuccess()) {
+                warmUp(pool, endpoint, resolveFuture.getNow().getAddress().getHostAddress());
+            } else {
+                logger.warn("Failed to resolve {} to warm up the connections",
+                            endpoint, resolveFuture.cause());
+            }
+        });
+    }
+
+    private void warmUp(HttpChannelPool pool, Endpoint endpoint, String ipAddr) {
+        if (closed || !endpoints.contains(endpoint)) {
+            // Closed or removed while resolving the address.
+            return;
+        }
+
+        final PoolKey key = new PoolKey(endpoint.host(), ipAddr, endpoint.port());
+        poolKeys.put(endpoint, key);
+        pool.warmUp(warmUp.protocol(), key, warmUp.numConnections());
+    }
+
+    @Override
+    public void close() {
+        if (endpointGroup != null) {
+            endpointGroup.removeListener(endpointGroupListener);
+        }
+        closed = true;
+    }
+
+    @Override
+    public String toString() {
+        return warmUp.toString();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.SessionProtocol;
+
+/**
+ * The connections to warm up, configured by
+ * {@link ClientFactoryBuilder#warmUpConnections(SessionProtocol, Endpoint, int)}.
+ */
+final class ConnectionWarmUp {
+
+    private final SessionProtocol protocol;
+    private final Endpoint endpoint;
+    private final int numConnections;
+
+    ConnectionWarmUp(SessionProtocol protocol, Endpoint endpoint, int numConnections) {
+        this.protocol = protocol;
+        this.endpoint = endpoint;
+        this.numConnections = numConnections;
+    }
+
+    SessionProtocol protocol() {
+        return protocol;
+    }
+
+    Endpoint endpoint() {
+        return endpoint;
+    }
+
+    int numConnections() {
+        return numConnections;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("protocol", protocol)
+                          .add("endpoint", endpoint)
+                          .add("numConnections", numConnections)
+                          .toString();
+    }
+}
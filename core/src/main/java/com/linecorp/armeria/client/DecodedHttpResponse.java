@@ -16,6 +16,8 @@
 
 package com.linecorp.armeria.client;
 
+import static java.util.Objects.requireNonNull;
+
 import javax.annotation.Nullable;
 
 import com.linecorp.armeria.common.DefaultHttpResponse;
@@ -24,6 +26,7 @@ import com.linecorp.armeria.common.HttpObject;
 import com.linecorp.armeria.internal.InboundTrafficController;
 
 import io.netty.channel.EventLoop;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.EventExecutor;
 
 final class DecodedHttpResponse extends DefaultHttpResponse {
@@ -62,6 +65,21 @@ final class DecodedHttpResponse extends DefaultHttpResponse {
         return published;
     }
 
+    @Override
+    public boolean tryWriteAll(Iterable<? extends HttpObject> objs) {
+        // Write one by one so that every object goes through tryWrite(HttpObject).
+        requireNonNull(objs, "objs");
+        boolean published = true;
+        for (HttpObject obj : objs) {
+            if (published) {
+                published = tryWrite(obj);
+            } else {
+                ReferenceCountUtil.safeRelease(obj);
+            }
+        }
+        return published;
+    }
+
     @Override
     protected void onRemoval(HttpObject obj) {
         if (obj instanceof HttpData) {
@@ -21,44 +21,135 @@ import static java.util.Objects.requireNonNull;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Streams;
 
 import com.linecorp.armeria.common.util.ReleasableHolder;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
 
 final class EventLoopScheduler {
 
     private static final long CLEANUP_INTERVAL_NANOS = Duration.ofMinutes(1).toNanos();
 
+    private static final AtomicInteger nextSchedulerId = new AtomicInteger();
+
     private final List<EventLoop> eventLoops;
+    /**
+     * The load of each {@link EventLoop} in {@link #eventLoops}, or {@code null} if load-aware scheduling
+     * is disabled.
+     */
+    @Nullable
+    private final Map<EventLoop, EventLoopLoad> loads;
+    /**
+     * The gauges which export {@link #loads}, which are removed from {@link #meterRegistry} on
+     * {@link #close()}.
+     */
+    private final List<Meter> meters;
+    @Nullable
+    private final MeterRegistry meterRegistry;
     private final Map<String, State> map = new ConcurrentHashMap<>();
     private int counter;
     private volatile long lastCleanupTimeNanos = System.nanoTime();
 
     EventLoopScheduler(EventLoopGroup eventLoopGroup) {
+        this(eventLoopGroup, false, null);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param loadAware whether to choose between the {@link EventLoop} used by an endpoint and a random
+     *                  {@link EventLoop} by their load across all endpoints
+     * @param meterRegistry the {@link MeterRegistry} which collects the load of each {@link EventLoop}
+     *                      if {@code loadAware} is {@code true}. The gauges are tagged with
+     *                      {@code clientFactory} which is unique for each instance, and with
+     *                      {@code eventLoop} which is the index of the {@link EventLoop}.
+     */
+    EventLoopScheduler(EventLoopGroup eventLoopGroup, boolean loadAware,
+                       @Nullable MeterRegistry meterRegistry) {
         eventLoops = Streams.stream(eventLoopGroup)
                             .map(EventLoop.class::cast)
                             .collect(toImmutableList());
+        if (loadAware) {
+            final String schedulerId = String.valueOf(nextSchedulerId.getAndIncrement());
+            final Map<EventLoop, EventLoopLoad> loads = new IdentityHashMap<>();
+            final ImmutableList.Builder<Meter> meters = ImmutableList.builder();
+            for (int i = 0; i < eventLoops.size(); i++) {
+                final EventLoop eventLoop = eventLoops.get(i);
+                final EventLoopLoad load = new EventLoopLoad(eventLoop);
+                loads.put(eventLoop, load);
+                if (meterRegistry != null) {
+                    final List<Tag> tags = ImmutableList.of(Tag.of("clientFactory", schedulerId),
+                                                            Tag.of("eventLoop", String.valueOf(i)));
+                    meters.add(Gauge.builder("armeria.client.eventLoop.activeRequests", load,
+                                             EventLoopLoad::activeRequests)
+                                    .tags(tags)
+                                    .register(meterRegistry));
+                    meters.add(Gauge.builder("armeria.client.eventLoop.pendingTasks", load,
+                                             EventLoopLoad::pendingTasks)
+                                    .tags(tags)
+                                    .register(meterRegistry));
+                }
+            }
+            this.loads = Collections.unmodifiableMap(loads);
+            this.meters = meters.build();
+        } else {
+            loads = null;
+            meters = ImmutableList.of();
+        }
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Removes the gauges which export the load of each {@link EventLoop}.
+     */
+    void close() {
+        if (meterRegistry != null) {
+            meters.forEach(meterRegistry::remove);
+        }
     }
 
     Entry acquire(Endpoint endpoint) {
         requireNonNull(endpoint, "endpoint");
         final State state = state(endpoint);
-        final Entry acquired = state.acquire();
+        final Entry acquired;
+        if (loads != null) {
+            final EventLoop randomEventLoop =
+                    eventLoops.get(ThreadLocalRandom.current().nextInt(eventLoops.size()));
+            acquired = state.acquireLeastLoaded(loads, randomEventLoop);
+        } else {
+            acquired = state.acquire();
+        }
         cleanup();
         return acquired;
     }
 
+    @VisibleForTesting
+    @Nullable
+    EventLoopLoad load(EventLoop eventLoop) {
+        return loads != null ? loads.get(eventLoop) : null;
+    }
+
     @VisibleForTesting
     List<Entry> entries(Endpoint endpoint) {
         return state(endpoint).entries();
@@ -66,7 +157,7 @@ final class EventLoopScheduler {
 
     private State state(Endpoint endpoint) {
         final String authority = endpoint.authority();
-        return map.computeIfAbsent(authority, e -> new State(eventLoops));
+        return map.computeIfAbsent(authority, e -> new State(eventLoops, loads));
     }
 
     /**
@@ -110,6 +201,8 @@ final class EventLoopScheduler {
          */
         private final List<Entry> entries;
         private final List<EventLoop> eventLoops;
+        @Nullable
+        private final Map<EventLoop, EventLoopLoad> loads;
         private int nextUnusedEventLoopIdx;
         private int allActiveRequests;
 
@@ -118,8 +211,9 @@ final class EventLoopScheduler {
          */
         private long lastActivityTimeNanos = System.nanoTime();
 
-        State(List<EventLoop> eventLoops) {
+        State(List<EventLoop> eventLoops, @Nullable Map<EventLoop, EventLoopLoad> loads) {
             this.eventLoops = eventLoops;
+            this.loads = loads;
             entries = new ArrayList<>();
             nextUnusedEventLoopIdx = ThreadLocalRandom.current().nextInt(eventLoops.size());
             addUnusedEventLoop();
@@ -146,6 +240,38 @@ final class EventLoopScheduler {
             return e;
         }
 
+        /**
+         * Power of two choices between the {@link EventLoop} with the least active requests to this endpoint
+         * and the specified random {@link EventLoop}. The random {@link EventLoop} is chosen only when it is
+         * less loaded across all endpoints, so that the existing connections are reused whenever possible.
+         */
+        synchronized Entry acquireLeastLoaded(Map<EventLoop, EventLoopLoad> loads, EventLoop randomEventLoop) {
+            Entry e = entries.get(0);
+            final EventLoopLoad load = loads.get(e.get());
+            final EventLoopLoad randomLoad = loads.get(randomEventLoop);
+            if (randomLoad != load && randomLoad.load() < load.load()) {
+                e = entry(randomEventLoop);
+            }
+
+            e.activeRequests++;
+            allActiveRequests++;
+            bubbleDown(e.index());
+            loads.get(e.get()).activeRequests.incrementAndGet();
+            return e;
+        }
+
+        private Entry entry(EventLoop eventLoop) {
+            for (Entry e : entries) {
+                if (e.get() == eventLoop) {
+                    return e;
+                }
+            }
+
+            final Entry e = new Entry(this, eventLoop, entries.size());
+            push(e);
+            return e;
+        }
+
         private boolean addUnusedEventLoop() {
             if (entries.size() < eventLoops.size()) {
                 push(new Entry(this, eventLoops.get(nextUnusedEventLoopIdx), entries.size()));
@@ -163,6 +289,9 @@ final class EventLoopScheduler {
             if (--allActiveRequests == 0) {
                 lastActivityTimeNanos = System.nanoTime();
             }
+            if (loads != null) {
+                loads.get(e.get()).activeRequests.decrementAndGet();
+            }
         }
 
         // Heap implementation, modified from the public domain code at https://stackoverflow.com/a/714873
@@ -270,6 +399,39 @@ final class EventLoopScheduler {
         }
     }
 
+    /**
+     * The load of an {@link EventLoop} across all endpoints.
+     */
+    static final class EventLoopLoad {
+        private final EventLoop eventLoop;
+        private final AtomicInteger activeRequests = new AtomicInteger();
+
+        EventLoopLoad(EventLoop eventLoop) {
+            this.eventLoop = eventLoop;
+        }
+
+        /**
+         * Returns the number of the active requests assigned to the {@link EventLoop}.
+         */
+        int activeRequests() {
+            return activeRequests.get();
+        }
+
+        /**
+         * Returns the number of the tasks waiting to be run by the {@link EventLoop}.
+         */
+        int pendingTasks() {
+            if (eventLoop instanceof SingleThreadEventExecutor) {
+                return ((SingleThreadEventExecutor) eventLoop).pendingTasks();
+            }
+            return 0;
+        }
+
+        int load() {
+            return activeRequests() + pendingTasks();
+        }
+    }
+
     static final class Entry implements ReleasableHolder<EventLoop> {
         private final State parent;
         private final EventLoop eventLoop;
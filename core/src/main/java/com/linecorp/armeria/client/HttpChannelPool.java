@@ -26,6 +26,7 @@ import java.util.Deque;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -58,6 +59,9 @@ final class HttpChannelPool implements AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(HttpChannelPool.class);
 
+    private static final long MAX_WARM_UP_CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long MIN_WARM_UP_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
     private final EventLoop eventLoop;
     private boolean closed;
 
@@ -71,6 +75,18 @@ final class HttpChannelPool implements AutoCloseable {
     private final Bootstrap[] bootstraps;
     private final int connectTimeoutMillis;
 
+    // Fields for balancing the load of HTTP/2 connections:
+    private final int http2MinConnectionsPerEndpoint;
+    private final int http2MaxConnectionsPerEndpoint;
+    private final int http2TargetStreamsPerConnection;
+
+    // Fields for keeping connections warm:
+    private final Map<PoolKey, WarmUpTarget> warmUpTargets = new HashMap<>();
+    private final long idleTimeoutNanos;
+    private final long warmUpCheckIntervalNanos;
+    @Nullable
+    private ScheduledFuture<?> warmUpCheckFuture;
+
     HttpChannelPool(HttpClientFactory clientFactory, EventLoop eventLoop, ConnectionPoolListener listener) {
         this.eventLoop = eventLoop;
         pool = newEnumMap(
@@ -107,6 +123,17 @@ final class HttpChannelPool implements AutoCloseable {
                 SessionProtocol.H2, SessionProtocol.H2C);
         connectTimeoutMillis = (Integer) baseBootstrap.config().options()
                                                       .get(ChannelOption.CONNECT_TIMEOUT_MILLIS);
+
+        http2MinConnectionsPerEndpoint = clientFactory.http2MinConnectionsPerEndpoint();
+        http2MaxConnectionsPerEndpoint = clientFactory.http2MaxConnectionsPerEndpoint();
+        http2TargetStreamsPerConnection = clientFactory.http2TargetStreamsPerConnection();
+
+        idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(clientFactory.idleTimeoutMillis());
+        // Check often enough to replace the warm connections before they are closed due to idle timeout.
+        warmUpCheckIntervalNanos = Math.max(
+                idleTimeoutNanos > 0 ? Math.min(idleTimeoutNanos / 4, MAX_WARM_UP_CHECK_INTERVAL_NANOS)
+                                     : MAX_WARM_UP_CHECK_INTERVAL_NANOS,
+                MIN_WARM_UP_CHECK_INTERVAL_NANOS);
     }
 
     /**
@@ -188,6 +215,10 @@ final class HttpChannelPool implements AutoCloseable {
             return null;
         }
 
+        if (protocol.isMultiplex()) {
+            return acquireNowMultiplexed(key, protocol, queue);
+        }
+
         // Find the most recently released channel while cleaning up the unhealthy channels.
         for (int i = queue.size(); i > 0; i--) {
             final PooledChannel pooledChannel = queue.peekLast();
@@ -208,12 +239,86 @@ final class HttpChannelPool implements AutoCloseable {
             if (!protocol.isMultiplex()) {
                 queue.removeLast();
             }
+            pooledChannel.markActive();
             return pooledChannel;
         }
 
         return null;
     }
 
+    /**
+     * Finds the channel with the fewest active streams while cleaning up the unhealthy channels.
+     * Opens a new connection in the background if there are not enough connections or even the found
+     * channel has more active streams than {@link #http2TargetStreamsPerConnection}.
+     */
+    @Nullable
+    private PooledChannel acquireNowMultiplexed(PoolKey key, SessionProtocol protocol,
+                                                Deque<PooledChannel> queue) {
+        PooledChannel best = null;
+        int bestUnfinishedResponses = Integer.MAX_VALUE;
+        long bestBytesBeforeUnwritable = -1;
+        int numConnections = 0;
+
+        // Iterate from the most recently added channel, so that the older channels are closed
+        // due to idle timeout when the load is low.
+        for (final Iterator<PooledChannel> i = queue.descendingIterator(); i.hasNext();) {
+            final PooledChannel pooledChannel = i.next();
+            if (!isHealthy(pooledChannel)) {
+                i.remove();
+                continue;
+            }
+
+            numConnections++;
+            final Channel ch = pooledChannel.get();
+            final HttpSession session = HttpSession.get(ch);
+            final int unfinishedResponses = session.unfinishedResponses();
+            if (unfinishedResponses >= session.maxUnfinishedResponses()) {
+                // The channel is full of streams so we cannot create a new one.
+                continue;
+            }
+
+            // Prefer the channel with fewer bytes in flight if the numbers of active streams are same.
+            final long bytesBeforeUnwritable = ch.bytesBeforeUnwritable();
+            if (unfinishedResponses < bestUnfinishedResponses ||
+                unfinishedResponses == bestUnfinishedResponses &&
+                bytesBeforeUnwritable > bestBytesBeforeUnwritable) {
+                best = pooledChannel;
+                bestUnfinishedResponses = unfinishedResponses;
+                bestBytesBeforeUnwritable = bytesBeforeUnwritable;
+            }
+        }
+
+        if (best == null) {
+            return null;
+        }
+
+        if (numConnections < http2MinConnectionsPerEndpoint ||
+            bestUnfinishedResponses >= http2TargetStreamsPerConnection &&
+            numConnections < http2MaxConnectionsPerEndpoint) {
+            connectInBackground(protocol, key);
+        }
+
+        best.markActive();
+        return best;
+    }
+
+    /**
+     * Opens a new connection which is added to the pool when established, unless there's a connection
+     * attempt in progress already.
+     */
+    private void connectInBackground(SessionProtocol protocol, PoolKey key) {
+        if (getPendingAcquisition(protocol, key) != null) {
+            return;
+        }
+
+        final CompletableFuture<PooledChannel> promise = new CompletableFuture<>();
+        connect(protocol, key, promise, new ClientConnectionTimingsBuilder());
+        promise.exceptionally(cause -> {
+            logger.debug("Failed to open an additional connection to {}", key, cause);
+            return null;
+        });
+    }
+
     private static boolean isHealthy(PooledChannel pooledChannel) {
         final Channel ch = pooledChannel.get();
         return ch.isActive() && HttpSession.get(ch).canSendRequest();
@@ -414,6 +519,9 @@ final class HttpChannelPool implements AutoCloseable {
                     if (protocol.isMultiplex()) {
                         final Http2PooledChannel pooledChannel = new Http2PooledChannel(channel, protocol);
                         addToPool(protocol, key, pooledChannel);
+                        if (getOrCreatePool(protocol, key).size() < http2MinConnectionsPerEndpoint) {
+                            connectInBackground(protocol, key);
+                        }
                         promise.complete(pooledChannel);
                     } else {
                         promise.complete(new Http1PooledChannel(channel, protocol, key));
@@ -439,6 +547,14 @@ final class HttpChannelPool implements AutoCloseable {
                         }
                     }
 
+                    if (!closed) {
+                        // Replace the closed connection if it has to be kept warm.
+                        final WarmUpTarget warmUpTarget = warmUpTargets.get(key);
+                        if (warmUpTarget != null) {
+                            warmUp(warmUpTarget);
+                        }
+                    }
+
                     try {
                         listener.connectionClosed(protocol,
                                                   (InetSocketAddress) channel.remoteAddress(),
@@ -467,6 +583,137 @@ final class HttpChannelPool implements AutoCloseable {
         getOrCreatePool(actualProtocol, key).addLast(pooledChannel);
     }
 
+    /**
+     * Keeps the specified number of connections to the specified {@link PoolKey} open, until
+     * {@link #stopWarmUp(PoolKey)} is invoked or this pool is closed.
+     */
+    void warmUp(SessionProtocol desiredProtocol, PoolKey key, int numConnections) {
+        assert eventLoop.inEventLoop() : Thread.currentThread().getName();
+        if (closed) {
+            return;
+        }
+
+        final WarmUpTarget target = new WarmUpTarget(desiredProtocol, key, numConnections);
+        final WarmUpTarget oldTarget = warmUpTargets.put(key, target);
+        if (oldTarget != null) {
+            target.numPendingConnections = oldTarget.numPendingConnections;
+        }
+
+        if (warmUpCheckFuture == null) {
+            warmUpCheckFuture = eventLoop.scheduleWithFixedDelay(
+                    this::checkWarmUpTargets,
+                    warmUpCheckIntervalNanos, warmUpCheckIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+
+        warmUp(target);
+    }
+
+    private void warmUp(WarmUpTarget target) {
+        final SessionProtocol desiredProtocol = target.desiredProtocol;
+        final PoolKey key = target.key;
+        final int numWarmConnections = numWarmConnections(desiredProtocol, key);
+        for (int i = numWarmConnections + target.numPendingConnections; i < target.numConnections; i++) {
+            target.numPendingConnections++;
+
+            final CompletableFuture<PooledChannel> promise = new CompletableFuture<>();
+            connect(desiredProtocol, key, promise, new ClientConnectionTimingsBuilder());
+            promise.handle((pch, cause) -> {
+                target.numPendingConnections--;
+                if (cause != null) {
+                    // Will retry on the next check.
+                    logger.debug("Failed to warm up a connection to {}", key, cause);
+                    return null;
+                }
+
+                // Put the HTTP/1 connection into the pool. No-op for HTTP/2.
+                pch.release();
+
+                final Channel channel = pch.get();
+                try {
+                    listener.connectionWarmedUp(pch.protocol(),
+                                                (InetSocketAddress) channel.remoteAddress(),
+                                                (InetSocketAddress) channel.localAddress(),
+                                                channel);
+                } catch (Exception e) {
+                    if (logger.isWarnEnabled()) {
+                        logger.warn("{} Exception handling {}.connectionWarmedUp()",
+                                    channel, listener.getClass().getName(), e);
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Stops keeping the connections to the specified {@link PoolKey} open. The connections which are
+     * already open are closed when they become idle.
+     */
+    void stopWarmUp(PoolKey key) {
+        assert eventLoop.inEventLoop() : Thread.currentThread().getName();
+        warmUpTargets.remove(key);
+        if (warmUpTargets.isEmpty()) {
+            cancelWarmUpCheck();
+        }
+    }
+
+    private void checkWarmUpTargets() {
+        if (closed) {
+            warmUpTargets.clear();
+            cancelWarmUpCheck();
+            return;
+        }
+
+        warmUpTargets.values().forEach(this::warmUp);
+    }
+
+    private void cancelWarmUpCheck() {
+        if (warmUpCheckFuture != null) {
+            warmUpCheckFuture.cancel(false);
+            warmUpCheckFuture = null;
+        }
+    }
+
+    private int numWarmConnections(SessionProtocol desiredProtocol, PoolKey key) {
+        switch (desiredProtocol) {
+            case HTTP:
+                return numWarmConnectionsExact(key, SessionProtocol.H2C) +
+                       numWarmConnectionsExact(key, SessionProtocol.H1C);
+            case HTTPS:
+                return numWarmConnectionsExact(key, SessionProtocol.H2) +
+                       numWarmConnectionsExact(key, SessionProtocol.H1);
+            default:
+                return numWarmConnectionsExact(key, desiredProtocol);
+        }
+    }
+
+    /**
+     * Returns the number of the healthy connections in the pool which will not be closed due to
+     * idle timeout before the next warm-up check.
+     */
+    private int numWarmConnectionsExact(PoolKey key, SessionProtocol protocol) {
+        final Deque<PooledChannel> queue = getPool(protocol, key);
+        if (queue == null) {
+            return 0;
+        }
+
+        final long expiryTimeNanos = System.nanoTime() - idleTimeoutNanos + warmUpCheckIntervalNanos;
+        int numWarmConnections = 0;
+        for (PooledChannel pooledChannel : queue) {
+            if (!isHealthy(pooledChannel)) {
+                continue;
+            }
+            if (idleTimeoutNanos > 0 &&
+                pooledChannel.lastActiveTimeNanos() - expiryTimeNanos <= 0 &&
+                HttpSession.get(pooledChannel.get()).unfinishedResponses() == 0) {
+                // Going to be closed soon due to idle timeout.
+                continue;
+            }
+            numWarmConnections++;
+        }
+        return numWarmConnections;
+    }
+
     /**
      * Closes all {@link Channel}s managed by this pool.
      */
@@ -579,6 +826,19 @@ final class HttpChannelPool implements AutoCloseable {
         }
     }
 
+    private static final class WarmUpTarget {
+        final SessionProtocol desiredProtocol;
+        final PoolKey key;
+        final int numConnections;
+        int numPendingConnections;
+
+        WarmUpTarget(SessionProtocol desiredProtocol, PoolKey key, int numConnections) {
+            this.desiredProtocol = desiredProtocol;
+            this.key = key;
+            this.numConnections = numConnections;
+        }
+    }
+
     static final class Http2PooledChannel extends PooledChannel {
         Http2PooledChannel(Channel channel, SessionProtocol protocol) {
             super(channel, protocol);
@@ -608,6 +868,7 @@ final class HttpChannelPool implements AutoCloseable {
         }
 
         private void doRelease() {
+            markActive();
             if (isHealthy(this)) {
                 // Channel turns out to be healthy. Add it back to the pool.
                 addToPool(protocol(), key, this);
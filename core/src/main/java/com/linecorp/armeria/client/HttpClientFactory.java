@@ -16,6 +16,7 @@
 
 package com.linecorp.armeria.client;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static java.util.Objects.requireNonNull;
 
@@ -23,6 +24,7 @@ import java.net.InetSocketAddress;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -71,6 +73,9 @@ final class HttpClientFactory extends AbstractClientFactory {
     private final int http2InitialStreamWindowSize;
     private final int http2MaxFrameSize;
     private final long http2MaxHeaderListSize;
+    private final int http2MinConnectionsPerEndpoint;
+    private final int http2MaxConnectionsPerEndpoint;
+    private final int http2TargetStreamsPerConnection;
     private final int http1MaxInitialLineLength;
     private final int http1MaxHeaderSize;
     private final int http1MaxChunkSize;
@@ -84,6 +89,7 @@ final class HttpClientFactory extends AbstractClientFactory {
     private final HttpClientDelegate clientDelegate;
 
     private final EventLoopScheduler eventLoopScheduler;
+    private final List<ConnectionPoolWarmer> connectionPoolWarmers;
     private final Supplier<EventLoop> eventLoopSupplier =
             () -> RequestContext.mapCurrent(RequestContext::eventLoop, () -> eventLoopGroup().next());
 
@@ -96,9 +102,12 @@ final class HttpClientFactory extends AbstractClientFactory {
             Function<? super EventLoopGroup,
                     ? extends AddressResolverGroup<? extends InetSocketAddress>> addressResolverGroupFactory,
             int http2InitialConnectionWindowSize, int http2InitialStreamWindowSize, int http2MaxFrameSize,
-            long http2MaxHeaderListSize, int http1MaxInitialLineLength, int http1MaxHeaderSize,
+            long http2MaxHeaderListSize, int http2MinConnectionsPerEndpoint,
+            int http2MaxConnectionsPerEndpoint, int http2TargetStreamsPerConnection,
+            int http1MaxInitialLineLength, int http1MaxHeaderSize,
             int http1MaxChunkSize, long idleTimeoutMillis, boolean useHttp2Preface, boolean useHttp1Pipelining,
-            ConnectionPoolListener connectionPoolListener, MeterRegistry meterRegistry) {
+            boolean useLoadAwareEventLoopScheduling, ConnectionPoolListener connectionPoolListener,
+            MeterRegistry meterRegistry, List<ConnectionWarmUp> connectionWarmUps) {
 
         @SuppressWarnings("unchecked")
         final AddressResolverGroup<InetSocketAddress> addressResolverGroup =
@@ -122,6 +131,9 @@ final class HttpClientFactory extends AbstractClientFactory {
         this.http2InitialStreamWindowSize = http2InitialStreamWindowSize;
         this.http2MaxFrameSize = http2MaxFrameSize;
         this.http2MaxHeaderListSize = http2MaxHeaderListSize;
+        this.http2MinConnectionsPerEndpoint = http2MinConnectionsPerEndpoint;
+        this.http2MaxConnectionsPerEndpoint = http2MaxConnectionsPerEndpoint;
+        this.http2TargetStreamsPerConnection = http2TargetStreamsPerConnection;
         this.http1MaxInitialLineLength = http1MaxInitialLineLength;
         this.http1MaxHeaderSize = http1MaxHeaderSize;
         this.http1MaxChunkSize = http1MaxChunkSize;
@@ -132,7 +144,14 @@ final class HttpClientFactory extends AbstractClientFactory {
         this.meterRegistry = meterRegistry;
 
         clientDelegate = new HttpClientDelegate(this, addressResolverGroup);
-        eventLoopScheduler = new EventLoopScheduler(workerGroup);
+        eventLoopScheduler = new EventLoopScheduler(workerGroup, useLoadAwareEventLoopScheduling,
+                                                    meterRegistry);
+
+        connectionPoolWarmers =
+                connectionWarmUps.stream()
+                                 .map(w -> new ConnectionPoolWarmer(this, addressResolverGroup, w))
+                                 .collect(toImmutableList());
+        connectionPoolWarmers.forEach(ConnectionPoolWarmer::start);
     }
 
     /**
@@ -163,6 +182,18 @@ final class HttpClientFactory extends AbstractClientFactory {
         return http2MaxHeaderListSize;
     }
 
+    int http2MinConnectionsPerEndpoint() {
+        return http2MinConnectionsPerEndpoint;
+    }
+
+    int http2MaxConnectionsPerEndpoint() {
+        return http2MaxConnectionsPerEndpoint;
+    }
+
+    int http2TargetStreamsPerConnection() {
+        return http2TargetStreamsPerConnection;
+    }
+
     int http1MaxInitialLineLength() {
         return http1MaxInitialLineLength;
     }
@@ -289,6 +320,9 @@ final class HttpClientFactory extends AbstractClientFactory {
     public void close() {
         closed = true;
 
+        connectionPoolWarmers.forEach(ConnectionPoolWarmer::close);
+        eventLoopScheduler.close();
+
         for (final Iterator<HttpChannelPool> i = pools.values().iterator(); i.hasNext();) {
             i.next().close();
             i.remove();
@@ -25,10 +25,12 @@ import io.netty.channel.Channel;
 abstract class PooledChannel implements ReleasableHolder<Channel> {
     private final Channel channel;
     private final SessionProtocol protocol;
+    private long lastActiveTimeNanos;
 
     PooledChannel(Channel channel, SessionProtocol protocol) {
         this.channel = requireNonNull(channel, "channel");
         this.protocol = requireNonNull(protocol, "protocol");
+        lastActiveTimeNanos = System.nanoTime();
     }
 
     @Override
@@ -39,4 +41,16 @@ abstract class PooledChannel implements ReleasableHolder<Channel> {
     SessionProtocol protocol() {
         return protocol;
     }
+
+    /**
+     * Returns the last time when this channel was acquired or released, as returned by
+     * {@link System#nanoTime()}.
+     */
+    long lastActiveTimeNanos() {
+        return lastActiveTimeNanos;
+    }
+
+    void markActive() {
+        lastActiveTimeNanos = System.nanoTime();
+    }
 }
@@ -63,6 +63,8 @@ public final class CircuitBreakerBuilder {
 
     private Duration counterUpdateInterval = Duration.ofSeconds(Defaults.COUNTER_UPDATE_INTERVAL_SECONDS);
 
+    private CircuitBreakerCounterType counterType = CircuitBreakerCounterType.SLIDING_WINDOW;
+
     private Ticker ticker = Defaults.TICKER;
 
     private List<CircuitBreakerListener> listeners = Collections.emptyList();
@@ -207,6 +209,15 @@ public final class CircuitBreakerBuilder {
         return this;
     }
 
+    /**
+     * Sets the type of the counter which accumulates the count of events.
+     * Defaults to {@link CircuitBreakerCounterType#SLIDING_WINDOW} if unspecified.
+     */
+    public CircuitBreakerBuilder counterType(CircuitBreakerCounterType counterType) {
+        this.counterType = requireNonNull(counterType, "counterType");
+        return this;
+    }
+
     /**
      * Adds a {@link CircuitBreakerListener}.
      */
@@ -237,7 +248,7 @@ public final class CircuitBreakerBuilder {
                 ticker,
                 new CircuitBreakerConfig(name, failureRateThreshold, minimumRequestThreshold,
                                          circuitOpenWindow, trialRequestInterval,
-                                         counterSlidingWindow, counterUpdateInterval,
+                                         counterSlidingWindow, counterUpdateInterval, counterType,
                                          Collections.unmodifiableList(listeners)));
     }
 }
@@ -41,12 +41,15 @@ class CircuitBreakerConfig {
 
     private final Duration counterUpdateInterval;
 
+    private final CircuitBreakerCounterType counterType;
+
     private final List<CircuitBreakerListener> listeners;
 
     CircuitBreakerConfig(Optional<String> name,
                          double failureRateThreshold, long minimumRequestThreshold,
                          Duration circuitOpenWindow, Duration trialRequestInterval,
                          Duration counterSlidingWindow, Duration counterUpdateInterval,
+                         CircuitBreakerCounterType counterType,
                          List<CircuitBreakerListener> listeners) {
         this.name = name;
         this.failureRateThreshold = failureRateThreshold;
@@ -55,6 +58,7 @@ class CircuitBreakerConfig {
         this.trialRequestInterval = trialRequestInterval;
         this.counterSlidingWindow = counterSlidingWindow;
         this.counterUpdateInterval = counterUpdateInterval;
+        this.counterType = counterType;
         this.listeners = listeners;
     }
 
@@ -86,6 +90,10 @@ class CircuitBreakerConfig {
         return counterUpdateInterval;
     }
 
+    CircuitBreakerCounterType counterType() {
+        return counterType;
+    }
+
     List<CircuitBreakerListener> listeners() {
         return listeners;
     }
@@ -101,6 +109,7 @@ class CircuitBreakerConfig {
                 .add("trialRequestInterval", trialRequestInterval)
                 .add("counterSlidingWindow", counterSlidingWindow)
                 .add("counterUpdateInterval", counterUpdateInterval)
+                .add("counterType", counterType)
                 .toString();
     }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.circuitbreaker;
+
+/**
+ * The type of the counter which accumulates the success and failure events of a {@link CircuitBreaker}
+ * within a time window.
+ *
+ * @see CircuitBreakerBuilder#counterType(CircuitBreakerCounterType)
+ */
+public enum CircuitBreakerCounterType {
+    /**
+     * A counter which keeps the count of each {@code counterUpdateInterval} in a queue. It creates a new
+     * bucket for every {@code counterUpdateInterval}.
+     */
+    SLIDING_WINDOW,
+    /**
+     * A counter which keeps the count of each {@code counterUpdateInterval} in a ring buffer, so that
+     * counting an event does not touch a shared queue. It performs better when many threads report
+     * the events to the same {@link CircuitBreaker} at the same time, but it allocates the ring buffer
+     * as large as {@code counterSlidingWindow / counterUpdateInterval} and scans it whenever the count is
+     * updated. Therefore, it is not recommended when {@code counterUpdateInterval} is much shorter than
+     * {@code counterSlidingWindow}.
+     */
+    STRIPED_SLIDING_WINDOW
+}
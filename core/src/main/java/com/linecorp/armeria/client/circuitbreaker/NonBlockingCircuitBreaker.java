@@ -148,11 +148,20 @@ final class NonBlockingCircuitBreaker implements CircuitBreaker {
     }
 
     private State newClosedState() {
-        return new State(
-                CircuitState.CLOSED,
-                Duration.ZERO,
-                new SlidingWindowCounter(ticker, config.counterSlidingWindow(),
-                                         config.counterUpdateInterval()));
+        return new State(CircuitState.CLOSED, Duration.ZERO, newCounter());
+    }
+
+    private EventCounter newCounter() {
+        switch (config.counterType()) {
+            case SLIDING_WINDOW:
+                return new SlidingWindowCounter(ticker, config.counterSlidingWindow(),
+                                                config.counterUpdateInterval());
+            case STRIPED_SLIDING_WINDOW:
+                return new StripedSlidingWindowCounter(ticker, config.counterSlidingWindow(),
+                                                       config.counterUpdateInterval());
+            default:
+                throw new Error("unknown counter type: " + config.counterType());
+        }
     }
 
     private void logStateTransition(CircuitState circuitState, @Nullable EventCount count) {
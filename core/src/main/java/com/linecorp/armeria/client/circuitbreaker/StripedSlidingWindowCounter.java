@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.circuitbreaker;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.Ticker;
+
+/**
+ * An {@link EventCounter} that accumulates the count of events within a time window, which is designed
+ * for a {@link CircuitBreaker} which is used by many threads at the same time.
+ *
+ * <p>Unlike {@link SlidingWindowCounter}, the buckets are kept in a ring buffer indexed by the number of
+ * {@code updateInterval}s elapsed, so that counting an event neither allocates nor touches a shared queue.
+ * Each bucket counts the events with {@link LongAdder}s, which spread the updates from different threads
+ * over different cells. A bucket is replaced only when the ring buffer wraps around. Note that an event
+ * counted by a thread which has been paused for longer than the time window may be lost.
+ */
+final class StripedSlidingWindowCounter implements EventCounter {
+
+    private final Ticker ticker;
+
+    private final long updateIntervalNanos;
+
+    /**
+     * The number of the buckets in the time window.
+     */
+    private final int numWindowBuckets;
+
+    /**
+     * The ticker value of the beginning of the first bucket, which is subtracted from the ticker values
+     * so that the bucket indices are not negative.
+     */
+    private final long startNanos;
+
+    /**
+     * The ring buffer of the {@link Bucket}s. It has one more slot than {@link #numWindowBuckets}, so that
+     * the oldest bucket in the window is not replaced while it is being summed up.
+     */
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /**
+     * The index of the bucket where the latest {@link EventCount} has been computed.
+     */
+    private final AtomicLong lastUpdateIndex = new AtomicLong();
+
+    /**
+     * The latest accumulated {@link EventCount}.
+     */
+    private volatile EventCount snapshot = EventCount.ZERO;
+
+    StripedSlidingWindowCounter(Ticker ticker, Duration slidingWindow, Duration updateInterval) {
+        this.ticker = requireNonNull(ticker, "ticker");
+        final long slidingWindowNanos = requireNonNull(slidingWindow, "slidingWindow").toNanos();
+        updateIntervalNanos = requireNonNull(updateInterval, "updateInterval").toNanos();
+        numWindowBuckets =
+                Math.toIntExact((slidingWindowNanos + updateIntervalNanos - 1) / updateIntervalNanos);
+        startNanos = ticker.read();
+        buckets = new AtomicReferenceArray<>(numWindowBuckets + 1);
+        buckets.set(0, new Bucket(0));
+    }
+
+    @Override
+    public EventCount count() {
+        return snapshot;
+    }
+
+    @Override
+    public Optional<EventCount> onSuccess() {
+        final long index = currentIndex();
+        bucket(index).success.increment();
+        return update(index);
+    }
+
+    @Override
+    public Optional<EventCount> onFailure() {
+        final long index = currentIndex();
+        bucket(index).failure.increment();
+        return update(index);
+    }
+
+    private long currentIndex() {
+        // A ticker value older than the start, e.g. due to a race, is counted into the first bucket.
+        return Math.max(0, ticker.read() - startNanos) / updateIntervalNanos;
+    }
+
+    private Bucket bucket(long index) {
+        final int slot = (int) (index % buckets.length());
+        for (;;) {
+            final Bucket bucket = buckets.get(slot);
+            if (bucket != null) {
+                if (bucket.index >= index) {
+                    // Count the event into a newer bucket if the current thread was late.
+                    return bucket;
+                }
+            }
+
+            final Bucket newBucket = new Bucket(index);
+            if (buckets.compareAndSet(slot, bucket, newBucket)) {
+                return newBucket;
+            }
+        }
+    }
+
+    private Optional<EventCount> update(long index) {
+        final long lastUpdateIndex = this.lastUpdateIndex.get();
+        if (index <= lastUpdateIndex || !this.lastUpdateIndex.compareAndSet(lastUpdateIndex, index)) {
+            // Updated already in the current interval.
+            return Optional.empty();
+        }
+
+        // Sum up the buckets in the time window, excluding the current bucket being filled,
+        // as SlidingWindowCounter does.
+        long success = 0;
+        long failure = 0;
+        final long oldestIndex = index - numWindowBuckets;
+        for (int i = 0; i < buckets.length(); i++) {
+            final Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.index >= oldestIndex && bucket.index < index) {
+                success += bucket.success.sum();
+                failure += bucket.failure.sum();
+            }
+        }
+
+        final EventCount eventCount = new EventCount(success, failure);
+        snapshot = eventCount;
+        return Optional.of(eventCount);
+    }
+
+    /**
+     * Holds the count of events within {@code updateInterval}.
+     */
+    private static final class Bucket {
+
+        private final long index;
+
+        private final LongAdder success = new LongAdder();
+
+        private final LongAdder failure = new LongAdder();
+
+        private Bucket(long index) {
+            this.index = index;
+        }
+
+        @Override
+        public String toString() {
+            return "Bucket{" +
+                   "index=" + index +
+                   ", success=" + success +
+                   ", failure=" + failure +
+                   '}';
+        }
+    }
+}
@@ -13,80 +13,344 @@
  * License for the specific language governing permissions and limitations
  * under the License.
  */
-
 package com.linecorp.armeria.client.encoding;
 
+import static java.util.Objects.requireNonNull;
+
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.annotation.Nullable;
+
+import com.google.common.annotations.VisibleForTesting;
+
 import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.internal.ThreadLocalPool;
 import com.linecorp.armeria.unsafe.ByteBufHttpData;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufHolder;
-import io.netty.buffer.Unpooled;
-import io.netty.channel.embedded.EmbeddedChannel;
-import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.DecompressionException;
 import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.FastThreadLocalThread;
 
 /**
- * A {@link StreamDecoder} that user zlib ('gzip' or 'deflate'). Netty implementation used to allow
- * for incremental decoding using an {@link EmbeddedChannel}.
+ * A {@link StreamDecoder} that user zlib ('gzip' or 'deflate'). The compressed {@link HttpData} is inflated
+ * by an {@link Inflater} directly into the {@link ByteBuf}s allocated by the given {@link ByteBufAllocator}.
+ *
+ * <p>The {@link Inflater}s are taken from the pool of the current thread and returned to the pool of
+ * the current thread when {@link #finish()} is called. Only {@link FastThreadLocalThread}s, such as
+ * event loop threads, have a pool. The pooled {@link Inflater}s are ended when their thread terminates.
  */
 class ZlibStreamDecoder implements StreamDecoder {
 
-    private final EmbeddedChannel decoder;
+    /**
+     * The maximum number of {@link Inflater}s of each type pooled by a thread.
+     */
+    private static final int MAX_POOLED_INFLATERS = 16;
 
-    ZlibStreamDecoder(ZlibWrapper zlibWrapper, ByteBufAllocator alloc) {
-        decoder = new EmbeddedChannel(false, ZlibCodecFactory.newZlibDecoder(zlibWrapper));
-        decoder.config().setAllocator(alloc);
+    // See RFC 1952, section 2.3.
+    private static final int GZIP_HEADER_LENGTH = 10;
+    private static final int GZIP_TRAILER_LENGTH = 8;
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+
+    private static final ThreadLocalPool<Inflater> rawInflaters = new ThreadLocalPool<>(
+            MAX_POOLED_INFLATERS, () -> new Inflater(true), Inflater::reset, Inflater::end);
+    private static final ThreadLocalPool<Inflater> zlibInflaters = new ThreadLocalPool<>(
+            MAX_POOLED_INFLATERS, () -> new Inflater(false), Inflater::reset, Inflater::end);
+
+    private enum State {
+        HEADER, EXTRA_LENGTH, EXTRA, NAME, COMMENT, HEADER_CRC, INFLATE, TRAILER, FINISHED
     }
 
-    @Override
-    public HttpData decode(HttpData obj) {
-        if (obj instanceof ByteBufHolder) {
-            decoder.writeInbound(((ByteBufHolder) obj).content());
-        } else {
-            final ByteBuf compressed = Unpooled.wrappedBuffer(obj.array());
-            decoder.writeInbound(compressed);
+    private final boolean nowrap;
+    private final ByteBufAllocator alloc;
+    @Nullable
+    private final CRC32 crc;
+
+    @Nullable
+    private Inflater inflater;
+    private State state;
+
+    // The state of the gzip header or trailer being parsed.
+    private int flags;
+    private int fieldIndex;
+    private int fieldLength;
+    private long trailer;
+
+    ZlibStreamDecoder(ZlibWrapper zlibWrapper, ByteBufAllocator alloc) {
+        requireNonNull(zlibWrapper, "zlibWrapper");
+        this.alloc = requireNonNull(alloc, "alloc");
+        switch (zlibWrapper) {
+            case GZIP:
+                nowrap = true;
+                crc = new CRC32();
+                state = State.HEADER;
+                break;
+            case ZLIB:
+                nowrap = false;
+                crc = null;
+                state = State.INFLATE;
+                break;
+            case NONE:
+                nowrap = true;
+                crc = null;
+                state = State.INFLATE;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported zlibWrapper: " + zlibWrapper);
         }
-        return fetchDecoderOutput();
+        inflater = pool(nowrap).acquire();
     }
 
     @Override
-    public HttpData finish() {
-        if (decoder.finish()) {
-            return fetchDecoderOutput();
-        } else {
+    public HttpData decode(HttpData obj) {
+        final int length = obj.length();
+        if (length == 0 || state == State.FINISHED) {
+            ReferenceCountUtil.safeRelease(obj);
             return HttpData.EMPTY_DATA;
         }
-    }
 
-    // Mostly copied from netty's HttpContentDecoder.
-    private HttpData fetchDecoderOutput() {
-        ByteBuf decoded = null;
-        for (;;) {
-            final ByteBuf buf = decoder.readInbound();
-            if (buf == null) {
-                break;
+        ByteBuf in = null;
+        ByteBuf out = null;
+        try {
+            final byte[] array;
+            final int offset;
+            if (obj instanceof ByteBufHolder) {
+                final ByteBuf content = ((ByteBufHolder) obj).content();
+                if (content.hasArray()) {
+                    array = content.array();
+                    offset = content.arrayOffset() + content.readerIndex();
+                } else {
+                    // Inflater accepts only a byte array in Java 8.
+                    in = alloc.heapBuffer(length).writeBytes(content, content.readerIndex(), length);
+                    array = in.array();
+                    offset = in.arrayOffset();
+                }
+            } else {
+                array = obj.array();
+                offset = 0;
             }
-            if (!buf.isReadable()) {
-                buf.release();
-                continue;
+
+            out = decode(array, offset, length);
+            if (out == null || !out.isReadable()) {
+                return HttpData.EMPTY_DATA;
             }
-            if (decoded == null) {
-                decoded = buf;
-            } else {
-                try {
-                    decoded.writeBytes(buf);
-                } finally {
-                    buf.release();
+            final ByteBufHttpData decoded = new ByteBufHttpData(out, false);
+            out = null;
+            return decoded;
+        } finally {
+            if (out != null) {
+                out.release();
+            }
+            if (in != null) {
+                in.release();
+            }
+            ReferenceCountUtil.safeRelease(obj);
+        }
+    }
+
+    @Nullable
+    private ByteBuf decode(byte[] array, int offset, int length) {
+        final int end = offset + length;
+        ByteBuf out = null;
+        while (offset < end) {
+            switch (state) {
+                case INFLATE:
+                    final Inflater inflater = inflater();
+                    inflater.setInput(array, offset, end - offset);
+                    if (out == null) {
+                        out = alloc.heapBuffer(length << 1);
+                    }
+                    inflate(inflater, out);
+                    offset = end - inflater.getRemaining();
+                    if (inflater.finished()) {
+                        state = crc != null ? State.TRAILER : State.FINISHED;
+                    }
+                    break;
+                case FINISHED:
+                    // Ignore the garbage after the end of the stream.
+                    return out;
+                default:
+                    offset = readGzipField(array, offset, end);
+            }
+        }
+        return out;
+    }
+
+    private void inflate(Inflater inflater, ByteBuf out) {
+        try {
+            for (;;) {
+                out.ensureWritable(64);
+                final int writerIndex = out.writerIndex();
+                final int numBytes = inflater.inflate(out.array(), out.arrayOffset() + writerIndex,
+                                                      out.capacity() - writerIndex);
+                if (numBytes > 0) {
+                    if (crc != null) {
+                        crc.update(out.array(), out.arrayOffset() + writerIndex, numBytes);
+                    }
+                    out.writerIndex(writerIndex + numBytes);
+                    continue;
+                }
+                if (inflater.needsDictionary()) {
+                    throw new DecompressionException(
+                            "decompression failure, unable to set dictionary as non was specified");
+                }
+                if (inflater.finished() || inflater.needsInput()) {
+                    return;
                 }
             }
+        } catch (DataFormatException e) {
+            throw new DecompressionException("decompression failure", e);
         }
+    }
 
-        if (decoded == null) {
-            return HttpData.EMPTY_DATA;
+    /**
+     * Consumes the bytes of the gzip header or trailer and returns the offset of the first byte which was
+     * not consumed.
+     */
+    private int readGzipField(byte[] array, int offset, int end) {
+        assert crc != null;
+        while (offset < end) {
+            final int b = array[offset++] & 0xFF;
+            switch (state) {
+                case HEADER:
+                    if (fieldIndex == 0 && b != 0x1f || fieldIndex == 1 && b != 0x8b) {
+                        throw new DecompressionException("Input is not in the GZIP format");
+                    }
+                    if (fieldIndex == 2 && b != Deflater.DEFLATED) {
+                        throw new DecompressionException("Unsupported compression method " + b +
+                                                         " in the GZIP header");
+                    }
+                    if (fieldIndex == 3) {
+                        flags = b;
+                    }
+                    if (++fieldIndex == GZIP_HEADER_LENGTH) {
+                        nextHeaderField();
+                        return offset;
+                    }
+                    break;
+                case EXTRA_LENGTH:
+                    // XLEN is in the little endian byte order.
+                    fieldLength |= b << (fieldIndex << 3);
+                    if (++fieldIndex == 2) {
+                        flags &= ~FEXTRA;
+                        fieldIndex = 0;
+                        state = State.EXTRA;
+                        if (fieldLength == 0) {
+                            nextHeaderField();
+                            return offset;
+                        }
+                    }
+                    break;
+                case EXTRA:
+                    if (++fieldIndex == fieldLength) {
+                        nextHeaderField();
+                        return offset;
+                    }
+                    break;
+                case NAME:
+                case COMMENT:
+                    if (b == 0) {
+                        nextHeaderField();
+                        return offset;
+                    }
+                    break;
+                case HEADER_CRC:
+                    if (++fieldIndex == 2) {
+                        nextHeaderField();
+                        return offset;
+                    }
+                    break;
+                case TRAILER:
+                    trailer |= (long) b << (fieldIndex << 3);
+                    if (++fieldIndex == GZIP_TRAILER_LENGTH) {
+                        verifyTrailer();
+                        state = State.FINISHED;
+                        return offset;
+                    }
+                    break;
+                default:
+                    throw new Error("Unexpected state: " + state);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Moves to the next optional field of the gzip header, or to the compressed blocks if there are no more
+     * optional fields.
+     */
+    private void nextHeaderField() {
+        fieldIndex = 0;
+        fieldLength = 0;
+        if ((flags & FEXTRA) != 0) {
+            state = State.EXTRA_LENGTH;
+        } else if ((flags & FNAME) != 0) {
+            flags &= ~FNAME;
+            state = State.NAME;
+        } else if ((flags & FCOMMENT) != 0) {
+            flags &= ~FCOMMENT;
+            state = State.COMMENT;
+        } else if ((flags & FHCRC) != 0) {
+            flags &= ~FHCRC;
+            state = State.HEADER_CRC;
+        } else {
+            state = State.INFLATE;
         }
+    }
+
+    private void verifyTrailer() {
+        assert crc != null;
+        final long expectedCrc = trailer & 0xFFFFFFFFL;
+        final long expectedSize = trailer >>> 32;
+        if (expectedCrc != crc.getValue()) {
+            throw new DecompressionException(
+                    "CRC value mismatch. Expected: " + expectedCrc + ", Got: " + crc.getValue());
+        }
+        final long actualSize = inflater().getBytesWritten() & 0xFFFFFFFFL;
+        if (expectedSize != actualSize) {
+            throw new DecompressionException(
+                    "Number of bytes mismatch. Expected: " + expectedSize + ", Got: " + actualSize);
+        }
+    }
+
+    @Override
+    public HttpData finish() {
+        // All decoded data is returned by decode(), so there is nothing left over.
+        final Inflater inflater = this.inflater;
+        if (inflater != null) {
+            this.inflater = null;
+            state = State.FINISHED;
+            pool(nowrap).release(inflater);
+        }
+        return HttpData.EMPTY_DATA;
+    }
+
+    private Inflater inflater() {
+        final Inflater inflater = this.inflater;
+        if (inflater == null) {
+            throw new IllegalStateException("decoder finished already");
+        }
+        return inflater;
+    }
+
+    private static ThreadLocalPool<Inflater> pool(boolean nowrap) {
+        return nowrap ? rawInflaters : zlibInflaters;
+    }
 
-        return new ByteBufHttpData(decoded, false);
+    /**
+     * Returns the number of the {@link Inflater}s pooled by the current thread.
+     */
+    @VisibleForTesting
+    static int numPooledInflaters(boolean nowrap) {
+        return pool(nowrap).size();
     }
 }
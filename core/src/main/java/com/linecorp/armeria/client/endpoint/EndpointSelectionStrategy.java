@@ -16,7 +16,13 @@
 
 package com.linecorp.armeria.client.endpoint;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+
 import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.util.Ticker;
 
 /**
  * {@link Endpoint} selection strategy that creates a {@link EndpointSelector}.
@@ -34,6 +40,27 @@ public interface EndpointSelectionStrategy {
      */
     EndpointSelectionStrategy WEIGHTED_ROUND_ROBIN = new WeightedRoundRobinStrategy();
 
+    /**
+     * Least-loaded strategy which picks the better of two random {@link Endpoint}s by the number of
+     * requests in progress and the moving average of the latency of each {@link Endpoint}, relative to
+     * its weight.
+     */
+    EndpointSelectionStrategy LEAST_LOADED = new LeastLoadedStrategy();
+
+    /**
+     * Returns a weighted round-robin strategy which increases the weight of a newly added {@link Endpoint}
+     * gradually during the specified {@code slowStartWindow}, so that a newly started server does not
+     * receive its full share of the requests before it is warmed up. The weight starts from a tenth of
+     * the {@link Endpoint#weight()} and is increased in ten steps. The {@link Endpoint}s which exist when
+     * an {@link EndpointSelector} is created do not start slowly.
+     */
+    static EndpointSelectionStrategy weightedRoundRobin(Duration slowStartWindow) {
+        requireNonNull(slowStartWindow, "slowStartWindow");
+        checkArgument(!slowStartWindow.isNegative() && !slowStartWindow.isZero(),
+                      "slowStartWindow: %s (expected: > 0)", slowStartWindow);
+        return new WeightedRoundRobinStrategy(slowStartWindow.toNanos(), Ticker.systemTicker());
+    }
+
     /**
      * Creates a new {@link EndpointSelector} that selects an {@link Endpoint} from the specified
      * {@link EndpointGroup}.
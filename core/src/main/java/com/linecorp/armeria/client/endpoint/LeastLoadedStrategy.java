@@ -0,0 +1,224 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.logging.RequestLogAvailability;
+
+final class LeastLoadedStrategy implements EndpointSelectionStrategy {
+
+    /**
+     * The time it takes for the weight of a latency sample to decay to {@code 1/e}.
+     */
+    private static final double DECAY_TIME_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * The cost of an {@link Endpoint} which has requests in progress but no latency samples yet, so that
+     * a new {@link Endpoint} does not receive all requests until its first response.
+     */
+    private static final double PENALTY = Long.MAX_VALUE >> 16;
+
+    @Override
+    public EndpointSelector newSelector(EndpointGroup endpointGroup) {
+        return new LeastLoadedSelector(endpointGroup);
+    }
+
+    /**
+     * A power of two choices select strategy. Picks two random {@link Endpoint}s and selects the one with
+     * the lower cost, which is the number of requests in progress multiplied by the exponentially weighted
+     * moving average of the latency, divided by the weight of the {@link Endpoint}.
+     *
+     * <p>The moving average is weighted by time rather than by the number of samples, so that it does not
+     * depend on the request rate. A sample greater than the average replaces the average immediately, so
+     * that a slow {@link Endpoint} is avoided as soon as it responds slowly.
+     */
+    @VisibleForTesting
+    static final class LeastLoadedSelector implements EndpointSelector {
+        private final EndpointGroup endpointGroup;
+        private volatile List<EndpointStats> stats;
+
+        LeastLoadedSelector(EndpointGroup endpointGroup) {
+            this.endpointGroup = endpointGroup;
+            stats = newStats(ImmutableList.of(), endpointGroup.endpoints());
+            endpointGroup.addListener(endpoints -> stats = newStats(stats, endpoints));
+        }
+
+        /**
+         * Creates the list of {@link EndpointStats} for the specified {@link Endpoint}s, retaining the stats
+         * of the {@link Endpoint}s which remain in the group.
+         */
+        private static List<EndpointStats> newStats(List<EndpointStats> oldStats, List<Endpoint> endpoints) {
+            final Map<Endpoint, EndpointStats> oldStatsMap = new HashMap<>();
+            for (EndpointStats s : oldStats) {
+                oldStatsMap.put(s.endpoint, s);
+            }
+            return endpoints.stream()
+                            .filter(e -> e.weight() > 0)
+                            .map(e -> {
+                                final EndpointStats s = oldStatsMap.get(e);
+                                return s != null ? s : new EndpointStats(e);
+                            })
+                            .collect(toImmutableList());
+        }
+
+        @Override
+        public EndpointGroup group() {
+            return endpointGroup;
+        }
+
+        @Override
+        public EndpointSelectionStrategy strategy() {
+            return LEAST_LOADED;
+        }
+
+        @Override
+        public Endpoint select(ClientRequestContext ctx) {
+            final List<EndpointStats> stats = this.stats;
+            final int numEndpoints = stats.size();
+            if (numEndpoints == 0) {
+                throw new EndpointGroupException(endpointGroup + " is empty");
+            }
+
+            final EndpointStats selected;
+            if (numEndpoints == 1) {
+                selected = stats.get(0);
+            } else {
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                final int i = random.nextInt(numEndpoints);
+                int j = random.nextInt(numEndpoints - 1);
+                if (j >= i) {
+                    j++;
+                }
+
+                final EndpointStats a = stats.get(i);
+                final EndpointStats b = stats.get(j);
+                final long nowNanos = System.nanoTime();
+                selected = a.cost(nowNanos) <= b.cost(nowNanos) ? a : b;
+            }
+
+            selected.start();
+            ctx.log().addListener(log -> selected.finish(log.totalDurationNanos()),
+                                  RequestLogAvailability.COMPLETE);
+            return selected.endpoint;
+        }
+
+        @VisibleForTesting
+        List<EndpointStats> stats() {
+            return stats;
+        }
+    }
+
+    /**
+     * The load statistics of an {@link Endpoint}, updated without a lock.
+     */
+    @VisibleForTesting
+    static final class EndpointStats {
+        final Endpoint endpoint;
+        private final AtomicInteger inFlightRequests = new AtomicInteger();
+        /**
+         * The raw long bits of the exponentially weighted moving average of the latency in nanoseconds.
+         */
+        private final AtomicLong ewmaLatencyBits = new AtomicLong(Double.doubleToRawLongBits(0));
+        private volatile long lastUpdateTimeNanos = System.nanoTime();
+
+        EndpointStats(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        int inFlightRequests() {
+            return inFlightRequests.get();
+        }
+
+        double ewmaLatencyNanos() {
+            return Double.longBitsToDouble(ewmaLatencyBits.get());
+        }
+
+        double cost(long nowNanos) {
+            final int inFlightRequests = inFlightRequests();
+            final double ewmaLatencyNanos = decayedLatency(nowNanos);
+            final double cost;
+            if (ewmaLatencyNanos == 0) {
+                cost = inFlightRequests == 0 ? 0 : PENALTY + inFlightRequests;
+            } else {
+                cost = ewmaLatencyNanos * (inFlightRequests + 1);
+            }
+            return cost / endpoint.weight();
+        }
+
+        /**
+         * Returns the average latency decayed towards zero since the last update, so that an {@link Endpoint}
+         * which was slow once gets requests again after a while.
+         */
+        private double decayedLatency(long nowNanos) {
+            final double ewmaLatencyNanos = ewmaLatencyNanos();
+            final long elapsedNanos = nowNanos - lastUpdateTimeNanos;
+            if (elapsedNanos <= 0) {
+                return ewmaLatencyNanos;
+            }
+            return ewmaLatencyNanos * Math.exp(-elapsedNanos / DECAY_TIME_NANOS);
+        }
+
+        void start() {
+            inFlightRequests.incrementAndGet();
+        }
+
+        void finish(long latencyNanos) {
+            inFlightRequests.decrementAndGet();
+
+            final long nowNanos = System.nanoTime();
+            final long elapsedNanos = Math.max(nowNanos - lastUpdateTimeNanos, 0);
+            final double weight = Math.exp(-elapsedNanos / DECAY_TIME_NANOS);
+            for (;;) {
+                final long oldBits = ewmaLatencyBits.get();
+                final double oldLatency = Double.longBitsToDouble(oldBits);
+                final double newLatency;
+                if (latencyNanos > oldLatency) {
+                    newLatency = latencyNanos;
+                } else {
+                    newLatency = oldLatency * weight + latencyNanos * (1 - weight);
+                }
+                if (ewmaLatencyBits.compareAndSet(oldBits, Double.doubleToRawLongBits(newLatency))) {
+                    break;
+                }
+            }
+            lastUpdateTimeNanos = nowNanos;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                              .add("endpoint", endpoint)
+                              .add("inFlightRequests", inFlightRequests())
+                              .add("ewmaLatencyNanos", ewmaLatencyNanos())
+                              .toString();
+        }
+    }
+}
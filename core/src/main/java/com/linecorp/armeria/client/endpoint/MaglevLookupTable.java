@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import com.linecorp.armeria.client.Endpoint;
+
+/**
+ * A lookup table which maps a hash key to an {@link Endpoint}, as described in
+ * <a href="https://research.google.com/pubs/pub44824.html">Maglev: A Fast and Reliable Software Network
+ * Load Balancer</a>. Each {@link Endpoint} fills the slots of the table in the order of its own permutation,
+ * so that adding or removing an {@link Endpoint} moves only a few keys of the other {@link Endpoint}s.
+ * The number of the slots filled by an {@link Endpoint} is proportional to its {@link Endpoint#weight()}.
+ */
+final class MaglevLookupTable {
+
+    /**
+     * The default size of the table, which is a prime number. The table size is fixed regardless of
+     * the number of {@link Endpoint}s, because changing it would move most of the keys.
+     */
+    static final int DEFAULT_TABLE_SIZE = 65537;
+
+    private static final HashFunction offsetHash = Hashing.murmur3_32(0x4d61676c);
+    private static final HashFunction skipHash = Hashing.murmur3_32(0x65764c42);
+
+    private final List<Endpoint> endpoints;
+    @Nullable
+    private final Endpoint[] table;
+
+    MaglevLookupTable(List<Endpoint> endpoints) {
+        this(endpoints, DEFAULT_TABLE_SIZE);
+    }
+
+    MaglevLookupTable(List<Endpoint> endpoints, int tableSize) {
+        checkArgument(tableSize > 1, "tableSize: %s (expected: > 1)", tableSize);
+        // Sort so that the table does not depend on the order of the endpoints in the group.
+        this.endpoints = endpoints.stream()
+                                  .filter(e -> e.weight() > 0)
+                                  .sorted(Comparator.comparing(MaglevLookupTable::key))
+                                  .collect(toImmutableList());
+        table = this.endpoints.isEmpty() ? null : populate(this.endpoints, tableSize);
+    }
+
+    private static Endpoint[] populate(List<Endpoint> endpoints, int tableSize) {
+        final int numEndpoints = endpoints.size();
+        final long[] offsets = new long[numEndpoints];
+        final long[] skips = new long[numEndpoints];
+        final long[] nexts = new long[numEndpoints];
+        final double[] weights = new double[numEndpoints];
+        final double[] targetWeights = new double[numEndpoints];
+
+        int maxWeight = 0;
+        for (Endpoint e : endpoints) {
+            maxWeight = Math.max(maxWeight, e.weight());
+        }
+
+        for (int i = 0; i < numEndpoints; i++) {
+            final Endpoint e = endpoints.get(i);
+            final String key = key(e);
+            offsets[i] = Integer.toUnsignedLong(offsetHash.hashString(key, StandardCharsets.UTF_8).asInt()) %
+                         tableSize;
+            skips[i] = Integer.toUnsignedLong(skipHash.hashString(key, StandardCharsets.UTF_8).asInt()) %
+                       (tableSize - 1) + 1;
+            weights[i] = (double) e.weight() / maxWeight;
+        }
+
+        final Endpoint[] table = new Endpoint[tableSize];
+        int numFilledSlots = 0;
+        for (long iteration = 1;; iteration++) {
+            for (int i = 0; i < numEndpoints; i++) {
+                // An endpoint with the maximum weight fills a slot in every iteration, and an endpoint
+                // with a third of the maximum weight fills a slot in every three iterations.
+                if (iteration * weights[i] < targetWeights[i]) {
+                    continue;
+                }
+                targetWeights[i] += 1;
+
+                int slot;
+                do {
+                    slot = (int) ((offsets[i] + skips[i] * nexts[i]++) % tableSize);
+                } while (table[slot] != null);
+
+                table[slot] = endpoints.get(i);
+                if (++numFilledSlots == tableSize) {
+                    return table;
+                }
+            }
+        }
+    }
+
+    private static String key(Endpoint endpoint) {
+        final String ipAddr = endpoint.ipAddr();
+        return ipAddr != null ? endpoint.authority() + '/' + ipAddr : endpoint.authority();
+    }
+
+    /**
+     * Returns the {@link Endpoint}s in this table, which are sorted and have positive weights.
+     */
+    List<Endpoint> endpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Returns the {@link Endpoint} for the specified hash key.
+     *
+     * @return the {@link Endpoint}, or {@code null} if there are no {@link Endpoint}s
+     */
+    @Nullable
+    Endpoint select(long key) {
+        final Endpoint[] table = this.table;
+        if (table == null) {
+            return null;
+        }
+        return table[(int) Long.remainderUnsigned(mix(key), table.length)];
+    }
+
+    /**
+     * Spreads the bits of the specified key, so that the keys which differ only in a few bits are mapped to
+     * far slots.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -17,11 +17,8 @@ package com.linecorp.armeria.client.endpoint;
 
 import static java.util.Objects.requireNonNull;
 
-import java.util.List;
 import java.util.function.ToLongFunction;
 
-import com.google.common.hash.Hashing;
-
 import com.linecorp.armeria.client.ClientRequestContext;
 import com.linecorp.armeria.client.Endpoint;
 import com.linecorp.armeria.common.HttpRequest;
@@ -30,6 +27,11 @@ import com.linecorp.armeria.common.HttpRequest;
  * An {@link EndpointSelector} strategy which implements sticky load-balancing using
  * user passed {@link ToLongFunction} to compute hashes for consistent hashing.
  *
+ * <p>The {@link Endpoint} for a hash is looked up from a Maglev lookup table, which is rebuilt when
+ * the {@link EndpointGroup} changes. Each {@link Endpoint} receives the hashes in proportion to its
+ * {@link Endpoint#weight()}, and adding or removing an {@link Endpoint} moves only a few hashes
+ * between the other {@link Endpoint}s.
+ *
  * <p>This strategy can be useful when all requests that qualify some given criterias must be sent to the same
  * backend server. A common use case is to send all requests for the same logged-in user to the same backend,
  * which could have a local cache keyed by user id.
@@ -73,11 +75,14 @@ public final class StickyEndpointSelectionStrategy implements EndpointSelectionS
 
         private final ToLongFunction<ClientRequestContext> requestContextHasher;
         private final EndpointGroup endpointGroup;
+        private volatile MaglevLookupTable table;
 
         StickyEndpointSelector(ToLongFunction<ClientRequestContext> requestContextHasher,
                                EndpointGroup endpointGroup) {
             this.requestContextHasher = requireNonNull(requestContextHasher, "requestContextHasher");
             this.endpointGroup = requireNonNull(endpointGroup, "endpointGroup");
+            table = new MaglevLookupTable(endpointGroup.endpoints());
+            endpointGroup.addListener(endpoints -> table = new MaglevLookupTable(endpoints));
         }
 
         @Override
@@ -92,15 +97,12 @@ public final class StickyEndpointSelectionStrategy implements EndpointSelectionS
 
         @Override
         public Endpoint select(ClientRequestContext ctx) {
-
-            final List<Endpoint> endpoints = endpointGroup.endpoints();
-            if (endpoints.isEmpty()) {
+            final long key = requestContextHasher.applyAsLong(ctx);
+            final Endpoint endpoint = table.select(key);
+            if (endpoint == null) {
                 throw new EndpointGroupException(endpointGroup + " is empty");
             }
-
-            final long key = requestContextHasher.applyAsLong(ctx);
-            final int nearest = Hashing.consistentHash(key, endpoints.size());
-            return endpoints.get(nearest);
+            return endpoint;
         }
     }
 }
@@ -19,20 +19,51 @@ package com.linecorp.armeria.client.endpoint;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Streams;
 
 import com.linecorp.armeria.client.ClientRequestContext;
 import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.util.Ticker;
 
 final class WeightedRoundRobinStrategy implements EndpointSelectionStrategy {
 
+    /**
+     * The number of steps in which the weight of a new {@link Endpoint} is increased during the slow start
+     * window, so that the weights are not recalculated on every selection.
+     */
+    @VisibleForTesting
+    static final int NUM_SLOW_START_STEPS = 10;
+
+    private final long slowStartWindowNanos;
+    private final Ticker ticker;
+
+    WeightedRoundRobinStrategy() {
+        this(0, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates a new instance which increases the weight of a newly added {@link Endpoint} from
+     * {@code 1 / NUM_SLOW_START_STEPS} of its weight to its full weight during the specified window.
+     * The slow start is disabled if {@code slowStartWindowNanos} is {@code 0}.
+     */
+    WeightedRoundRobinStrategy(long slowStartWindowNanos, Ticker ticker) {
+        this.slowStartWindowNanos = slowStartWindowNanos;
+        this.ticker = ticker;
+    }
+
     @Override
     public EndpointSelector newSelector(EndpointGroup endpointGroup) {
-        return new WeightedRoundRobinSelector(endpointGroup);
+        return new WeightedRoundRobinSelector(this, endpointGroup);
     }
 
     /**
@@ -46,14 +77,106 @@ final class WeightedRoundRobinStrategy implements EndpointSelectionStrategy {
      * </ul>
      */
     private static final class WeightedRoundRobinSelector implements EndpointSelector {
+        private final WeightedRoundRobinStrategy strategy;
         private final EndpointGroup endpointGroup;
         private final AtomicInteger sequence = new AtomicInteger();
         private volatile EndpointsAndWeights endpointsAndWeights;
 
-        WeightedRoundRobinSelector(EndpointGroup endpointGroup) {
+        // The fields below are used only when the slow start is enabled.
+
+        /**
+         * The time when the weight of {@link #endpointsAndWeights} has to be increased next,
+         * or {@link Long#MAX_VALUE} if no {@link Endpoint}s are in the slow start window.
+         */
+        private volatile long nextSlowStartStepNanos = Long.MAX_VALUE;
+        // Guarded by this selector.
+        private List<Endpoint> endpoints;
+        // The times when the Endpoints in the slow start window were added. Guarded by this selector.
+        private final Map<Endpoint, Long> slowStartTimeNanos = new HashMap<>();
+
+        WeightedRoundRobinSelector(WeightedRoundRobinStrategy strategy, EndpointGroup endpointGroup) {
+            this.strategy = strategy;
             this.endpointGroup = endpointGroup;
-            endpointsAndWeights = new EndpointsAndWeights(endpointGroup.endpoints());
-            endpointGroup.addListener(endpoints -> endpointsAndWeights = new EndpointsAndWeights(endpoints));
+            // The initial endpoints do not start slowly because they are not new to the servers.
+            endpoints = endpointGroup.endpoints();
+            endpointsAndWeights = new EndpointsAndWeights(endpoints, Endpoint::weight);
+            if (strategy.slowStartWindowNanos > 0) {
+                endpointGroup.addListener(this::updateEndpoints);
+            } else {
+                endpointGroup.addListener(endpoints -> endpointsAndWeights =
+                        new EndpointsAndWeights(endpoints, Endpoint::weight));
+            }
+        }
+
+        private synchronized void updateEndpoints(List<Endpoint> newEndpoints) {
+            final long nowNanos = strategy.ticker.read();
+            final Set<Endpoint> oldEndpoints = new HashSet<>(endpoints);
+            slowStartTimeNanos.keySet().retainAll(new HashSet<>(newEndpoints));
+            for (Endpoint e : newEndpoints) {
+                if (!oldEndpoints.contains(e)) {
+                    slowStartTimeNanos.put(e, nowNanos);
+                }
+            }
+            endpoints = newEndpoints;
+            updateWeights(nowNanos);
+        }
+
+        private void maybeUpdateWeights() {
+            if (nextSlowStartStepNanos == Long.MAX_VALUE) {
+                return;
+            }
+
+            final long nowNanos = strategy.ticker.read();
+            if (nowNanos - nextSlowStartStepNanos < 0) {
+                return;
+            }
+
+            synchronized (this) {
+                // Check again because another thread may have updated the weights.
+                if (nextSlowStartStepNanos != Long.MAX_VALUE && nowNanos - nextSlowStartStepNanos >= 0) {
+                    updateWeights(nowNanos);
+                }
+            }
+        }
+
+        /**
+         * Rebuilds {@link #endpointsAndWeights} with the weights of the current slow start steps.
+         * Must be invoked while holding the lock of this selector.
+         */
+        private void updateWeights(long nowNanos) {
+            final long slowStartWindowNanos = strategy.slowStartWindowNanos;
+            long nextStepNanos = Long.MAX_VALUE;
+            final Map<Endpoint, Integer> weights = new HashMap<>();
+            for (Endpoint e : endpoints) {
+                final Long startTimeNanos = slowStartTimeNanos.get(e);
+                if (startTimeNanos == null) {
+                    continue;
+                }
+
+                final long elapsedNanos = nowNanos - startTimeNanos;
+                if (elapsedNanos >= slowStartWindowNanos) {
+                    slowStartTimeNanos.remove(e);
+                    continue;
+                }
+
+                final long step = Math.max(elapsedNanos, 0) * NUM_SLOW_START_STEPS / slowStartWindowNanos;
+                weights.put(e, (int) Math.max(e.weight() * (step + 1) / NUM_SLOW_START_STEPS, 1));
+
+                final long stepNanos = startTimeNanos +
+                                       ((step + 1) * slowStartWindowNanos + NUM_SLOW_START_STEPS - 1) /
+                                       NUM_SLOW_START_STEPS;
+                if (nextStepNanos == Long.MAX_VALUE || stepNanos - nextStepNanos < 0) {
+                    nextStepNanos = stepNanos;
+                }
+            }
+
+            if (weights.isEmpty()) {
+                endpointsAndWeights = new EndpointsAndWeights(endpoints, Endpoint::weight);
+            } else {
+                endpointsAndWeights = new EndpointsAndWeights(
+                        endpoints, e -> weights.getOrDefault(e, e.weight()));
+            }
+            nextSlowStartStepNanos = nextStepNanos;
         }
 
         @Override
@@ -63,11 +186,12 @@ final class WeightedRoundRobinStrategy implements EndpointSelectionStrategy {
 
         @Override
         public EndpointSelectionStrategy strategy() {
-            return WEIGHTED_ROUND_ROBIN;
+            return strategy;
         }
 
         @Override
         public Endpoint select(ClientRequestContext ctx) {
+            maybeUpdateWeights();
             final int currentSequence = sequence.getAndIncrement();
             return endpointsAndWeights.selectEndpoint(currentSequence);
         }
@@ -128,12 +252,12 @@ final class WeightedRoundRobinStrategy implements EndpointSelectionStrategy {
             private final long totalWeight; // prevent overflow by using long
             private final List<EndpointsGroupByWeight> accumulatedGroups;
 
-            EndpointsAndWeights(Iterable<Endpoint> endpoints) {
+            EndpointsAndWeights(Iterable<Endpoint> endpoints, ToIntFunction<Endpoint> weigher) {
 
                 // prepare immutable endpoints
                 this.endpoints = Streams.stream(endpoints)
                         .filter(e -> e.weight() > 0) // only process endpoint with weight > 0
-                        .sorted(Comparator.comparing(Endpoint::weight)
+                        .sorted(Comparator.comparingInt(weigher)
                                 .thenComparing(Endpoint::host)
                                 .thenComparingInt(Endpoint::port))
                         .collect(toImmutableList());
@@ -146,7 +270,7 @@ final class WeightedRoundRobinStrategy implements EndpointSelectionStrategy {
 
                 int oldWeight = -1;
                 for (Endpoint endpoint : this.endpoints) {
-                    final int weight = endpoint.weight();
+                    final int weight = weigher.applyAsInt(endpoint);
                     minWeight = Math.min(minWeight, weight);
                     maxWeight = Math.max(maxWeight, weight);
                     numberDistinctWeight += weight == oldWeight ? 0 : 1;
@@ -162,12 +286,13 @@ final class WeightedRoundRobinStrategy implements EndpointSelectionStrategy {
 
                 long rest = numEndpoints;
                 for (Endpoint endpoint : this.endpoints) {
-                    if (currentGroup == null || currentGroup.weight != endpoint.weight()) {
+                    final int weight = weigher.applyAsInt(endpoint);
+                    if (currentGroup == null || currentGroup.weight != weight) {
                         totalWeight += currentGroup == null ?
-                                endpoint.weight() * rest
-                                : (endpoint.weight() - currentGroup.weight) * rest;
+                                weight * rest
+                                : (weight - currentGroup.weight) * rest;
                         currentGroup = new EndpointsGroupByWeight(
-                                numEndpoints - rest, endpoint.weight(), totalWeight
+                                numEndpoints - rest, weight, totalWeight
                         );
                         accumulatedGroupsBuilder = accumulatedGroupsBuilder.add(currentGroup);
                     }
@@ -16,18 +16,23 @@
 package com.linecorp.armeria.client.endpoint.healthcheck;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
-import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static java.util.Objects.requireNonNull;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
 
 import com.google.common.collect.ImmutableList;
-import com.spotify.futures.CompletableFutures;
 
 import com.linecorp.armeria.client.ClientFactory;
 import com.linecorp.armeria.client.Endpoint;
@@ -39,13 +44,24 @@ import io.micrometer.core.instrument.binder.MeterBinder;
 
 /**
  * An {@link EndpointGroup} decorator that only provides healthy {@link Endpoint}s.
+ *
+ * <p>Each {@link Endpoint} is checked on its own schedule, which is jittered around the retry interval so
+ * that the checks do not burst at the same time. The healthy {@link Endpoint}s are updated as soon as
+ * the health of an {@link Endpoint} changes, without waiting for the checks of the other {@link Endpoint}s.
  */
 public abstract class HealthCheckedEndpointGroup extends DynamicEndpointGroup {
     static final Duration DEFAULT_HEALTHCHECK_RETRY_INTERVAL = Duration.ofSeconds(3);
 
+    /**
+     * The maximum ratio of the random jitter added to or subtracted from the retry interval.
+     */
+    private static final double RETRY_INTERVAL_JITTER_RATE = 0.2;
+
     private final ClientFactory clientFactory;
     private final EndpointGroup delegate;
     private final Duration retryInterval;
+    private final Consumer<List<Endpoint>> delegateListener = unused -> updateServerList();
+    private boolean closed; // Guarded by this group.
 
     volatile List<ServerConnection> allServers = ImmutableList.of();
 
@@ -66,8 +82,13 @@ public abstract class HealthCheckedEndpointGroup extends DynamicEndpointGroup {
      * A subclass being initialized with this constructor must call {@link #init()} before start being used.
      */
     protected void init() {
-        checkAndUpdateHealthyServers().join();
-        scheduleCheckAndUpdateHealthyServers();
+        delegate.addListener(delegateListener);
+        final List<ServerConnection> servers = updateServerList();
+        // Wait until the initial health of all endpoints is known.
+        CompletableFuture.allOf(servers.stream()
+                                       .map(connection -> connection.initialCheckFuture)
+                                       .toArray(CompletableFuture[]::new))
+                         .join();
     }
 
     /**
@@ -77,52 +98,56 @@ public abstract class HealthCheckedEndpointGroup extends DynamicEndpointGroup {
         return clientFactory;
     }
 
-    private void scheduleCheckAndUpdateHealthyServers() {
-        clientFactory.eventLoopGroup().schedule(
-                () -> checkAndUpdateHealthyServers().thenRun(this::scheduleCheckAndUpdateHealthyServers),
-                retryInterval.toMillis(), TimeUnit.MILLISECONDS);
-    }
-
-    private CompletableFuture<Void> checkAndUpdateHealthyServers() {
-        final List<ServerConnection> checkedServers = updateServerList();
-
-        final CompletableFuture<List<Boolean>> healthCheckResults = CompletableFutures.successfulAsList(
-                checkedServers.stream()
-                              .map(connection -> connection.healthChecker.isHealthy(connection.endpoint()))
-                              .collect(toImmutableList()),
-                t -> false);
-        return healthCheckResults.handle((result, thrown) -> {
-            final ImmutableList.Builder<Endpoint> newHealthyEndpoints = ImmutableList.builder();
-            for (int i = 0; i < result.size(); i++) {
-                if (result.get(i)) {
-                    newHealthyEndpoints.add(checkedServers.get(i).endpoint());
-                }
-            }
-            setEndpoints(newHealthyEndpoints.build());
-            return null;
-        });
-    }
-
     /**
-     * Update the servers this health checker client talks to.
+     * Update the servers this health checker client talks to, starting to check the new servers and
+     * stopping to check the removed servers.
      */
-    private List<ServerConnection> updateServerList() {
-        final Map<Endpoint, ServerConnection> allServersByEndpoint = allServers
-                .stream()
-                .collect(toImmutableMap(ServerConnection::endpoint,
-                                        Function.identity(),
-                                        (l, r) -> l));
-        return allServers = delegate
+    private synchronized List<ServerConnection> updateServerList() {
+        if (closed) {
+            return allServers;
+        }
+
+        // Duplicate entries share a connection, so that an endpoint is checked only once.
+        final Map<Endpoint, ServerConnection> allServersByEndpoint = new HashMap<>();
+        allServers.forEach(connection -> allServersByEndpoint.putIfAbsent(connection.endpoint(), connection));
+        final List<ServerConnection> newServers = delegate
                 .endpoints()
                 .stream()
-                .map(endpoint -> {
-                    ServerConnection connection = allServersByEndpoint.get(endpoint);
-                    if (connection != null) {
-                        return connection;
-                    }
-                    return new ServerConnection(endpoint, createEndpointHealthChecker(endpoint));
-                })
+                .map(endpoint -> allServersByEndpoint.computeIfAbsent(endpoint, unused -> {
+                    final ServerConnection newConnection =
+                            new ServerConnection(endpoint, createEndpointHealthChecker(endpoint));
+                    newConnection.check();
+                    return newConnection;
+                }))
                 .collect(toImmutableList());
+
+        final Set<ServerConnection> newServerSet = new HashSet<>(newServers);
+        allServers.stream()
+                  .filter(connection -> !newServerSet.contains(connection))
+                  .forEach(ServerConnection::close);
+        allServers = newServers;
+        updateHealthyEndpoints();
+        return newServers;
+    }
+
+    /**
+     * Publishes the healthy {@link Endpoint}s. Invoked whenever the health of an {@link Endpoint} changes.
+     */
+    private synchronized void updateHealthyEndpoints() {
+        setEndpoints(allServers.stream()
+                               .filter(connection -> connection.healthy)
+                               .map(ServerConnection::endpoint)
+                               .collect(toImmutableList()));
+    }
+
+    private long nextRetryDelayMillis() {
+        final long retryIntervalMillis = retryInterval.toMillis();
+        final long jitterMillis = (long) (retryIntervalMillis * RETRY_INTERVAL_JITTER_RATE);
+        if (jitterMillis == 0) {
+            return retryIntervalMillis;
+        }
+        return retryIntervalMillis +
+               ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1);
     }
 
     /**
@@ -146,6 +171,18 @@ public abstract class HealthCheckedEndpointGroup extends DynamicEndpointGroup {
         return new HealthCheckedEndpointGroupMetrics(this, idPrefix);
     }
 
+    @Override
+    public void close() {
+        final List<ServerConnection> servers;
+        synchronized (this) {
+            closed = true;
+            servers = allServers;
+        }
+        delegate.removeListener(delegateListener);
+        servers.forEach(ServerConnection::close);
+        super.close();
+    }
+
     @Override
     public String toString() {
         final StringBuilder buf = new StringBuilder();
@@ -169,11 +206,26 @@ public abstract class HealthCheckedEndpointGroup extends DynamicEndpointGroup {
     @FunctionalInterface
     public interface EndpointHealthChecker {
         CompletableFuture<Boolean> isHealthy(Endpoint endpoint);
+
+        /**
+         * Returns {@code true} if the last {@link #isHealthy(Endpoint)} waited for the health of
+         * the {@link Endpoint} to change, so that the next check can be started immediately instead of
+         * after the retry interval. This method is invoked after the last {@link CompletableFuture}
+         * returned by {@link #isHealthy(Endpoint)} is complete.
+         */
+        default boolean isLongPolling() {
+            return false;
+        }
     }
 
-    static final class ServerConnection {
+    final class ServerConnection {
         private final Endpoint endpoint;
         private final EndpointHealthChecker healthChecker;
+        final CompletableFuture<Void> initialCheckFuture = new CompletableFuture<>();
+        volatile boolean healthy;
+        private volatile boolean closed;
+        @Nullable
+        private volatile ScheduledFuture<?> scheduledFuture;
 
         private ServerConnection(Endpoint endpoint, EndpointHealthChecker healthChecker) {
             this.endpoint = endpoint;
@@ -183,5 +235,50 @@ public abstract class HealthCheckedEndpointGroup extends DynamicEndpointGroup {
         Endpoint endpoint() {
             return endpoint;
         }
+
+        void check() {
+            if (closed) {
+                return;
+            }
+
+            CompletableFuture<Boolean> future;
+            try {
+                future = healthChecker.isHealthy(endpoint);
+            } catch (Throwable cause) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(cause);
+            }
+
+            future.handle((result, cause) -> {
+                final boolean newHealthy = cause == null && Boolean.TRUE.equals(result);
+                if (closed) {
+                    return null;
+                }
+
+                if (healthy != newHealthy) {
+                    healthy = newHealthy;
+                    updateHealthyEndpoints();
+                }
+                initialCheckFuture.complete(null);
+
+                final boolean longPolling = cause == null && healthChecker.isLongPolling();
+                final long delayMillis = longPolling ? 0 : nextRetryDelayMillis();
+                scheduledFuture = clientFactory.eventLoopGroup().schedule(this::check, delayMillis,
+                                                                          TimeUnit.MILLISECONDS);
+                if (closed) {
+                    scheduledFuture.cancel(false);
+                }
+                return null;
+            });
+        }
+
+        void close() {
+            closed = true;
+            final ScheduledFuture<?> scheduledFuture = this.scheduledFuture;
+            if (scheduledFuture != null) {
+                scheduledFuture.cancel(false);
+            }
+            initialCheckFuture.complete(null);
+        }
     }
 }
@@ -20,20 +20,40 @@ import static java.util.Objects.requireNonNull;
 import java.net.StandardProtocolFamily;
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+import javax.annotation.Nullable;
+
+import com.google.common.base.Splitter;
+
 import com.linecorp.armeria.client.ClientFactory;
 import com.linecorp.armeria.client.ClientOptionsBuilder;
 import com.linecorp.armeria.client.Endpoint;
 import com.linecorp.armeria.client.HttpClient;
 import com.linecorp.armeria.client.HttpClientBuilder;
 import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.Flags;
 import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
 import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.RequestHeadersBuilder;
 import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.server.healthcheck.HttpHealthCheckService;
 
 /**
  * HTTP implementation of {@link HealthCheckedEndpointGroup}.
+ *
+ * <p>If a long-polling timeout is specified, the health check requests wait until the health of
+ * the {@link Endpoint} changes, as supported by {@link HttpHealthCheckService}, so that the changes are
+ * detected immediately with fewer requests. A server supports long-polling if it responds with
+ * the {@code "Preference-Applied: wait=<seconds>"} header. The requests are sent every retry interval as
+ * usual if the server does not support long-polling, or if it responds with {@code "304 Not Modified"}
+ * well before the requested wait time.
+ *
+ * @see HttpHealthCheckedEndpointGroupBuilder#longPollingTimeout(Duration)
  */
 public final class HttpHealthCheckedEndpointGroup extends HealthCheckedEndpointGroup {
 
@@ -76,6 +96,7 @@ public final class HttpHealthCheckedEndpointGroup extends HealthCheckedEndpointG
     private final SessionProtocol protocol;
     private final String healthCheckPath;
     private final int healthCheckPort;
+    private final long longPollingTimeoutSeconds;
     private final Function<? super ClientOptionsBuilder, ClientOptionsBuilder> configurator;
 
     /**
@@ -87,11 +108,13 @@ public final class HttpHealthCheckedEndpointGroup extends HealthCheckedEndpointG
                                    String healthCheckPath,
                                    int healthCheckPort,
                                    Duration healthCheckRetryInterval,
+                                   Duration longPollingTimeout,
                                    Function<? super ClientOptionsBuilder, ClientOptionsBuilder> configurator) {
         super(clientFactory, delegate, healthCheckRetryInterval);
         this.protocol = requireNonNull(protocol, "protocol");
         this.healthCheckPath = requireNonNull(healthCheckPath, "healthCheckPath");
         this.healthCheckPort = healthCheckPort;
+        longPollingTimeoutSeconds = requireNonNull(longPollingTimeout, "longPollingTimeout").getSeconds();
         this.configurator = requireNonNull(configurator, "configurator");
         init();
     }
@@ -99,16 +122,26 @@ public final class HttpHealthCheckedEndpointGroup extends HealthCheckedEndpointG
     @Override
     protected EndpointHealthChecker createEndpointHealthChecker(Endpoint endpoint) {
         return new HttpEndpointHealthChecker(clientFactory(), endpoint, protocol, healthCheckPath,
-                                             healthCheckPort, configurator);
+                                             healthCheckPort, longPollingTimeoutSeconds, configurator);
     }
 
     private static final class HttpEndpointHealthChecker implements EndpointHealthChecker {
+        private static final Splitter preferenceSplitter = Splitter.on(',').trimResults().omitEmptyStrings();
+
         private final HttpClient httpClient;
         private final String healthCheckPath;
+        private final long longPollingTimeoutSeconds;
+
+        // Updated by the last health check response.
+        @Nullable
+        private volatile String etag;
+        private volatile boolean healthy;
+        private volatile boolean longPolling;
 
         private HttpEndpointHealthChecker(
                 ClientFactory clientFactory, Endpoint endpoint,
                 SessionProtocol protocol, String healthCheckPath, int healthCheckPort,
+                long longPollingTimeoutSeconds,
                 Function<? super ClientOptionsBuilder, ClientOptionsBuilder> configurator) {
 
             final String scheme = protocol.uriText();
@@ -126,17 +159,88 @@ public final class HttpHealthCheckedEndpointGroup extends HealthCheckedEndpointG
                 builder.setHttpHeader(HttpHeaderNames.AUTHORITY, endpoint.authority());
             }
 
+            final ClientOptionsBuilder optionsBuilder = new ClientOptionsBuilder();
+            if (longPollingTimeoutSeconds > 0) {
+                // Wait for the long-polling response longer than the timeout.
+                optionsBuilder.responseTimeoutMillis(TimeUnit.SECONDS.toMillis(longPollingTimeoutSeconds) +
+                                                     Flags.defaultResponseTimeoutMillis());
+            }
             httpClient = builder.factory(clientFactory)
-                                .options(configurator.apply(new ClientOptionsBuilder()).build())
+                                .options(configurator.apply(optionsBuilder).build())
                                 .build();
             this.healthCheckPath = healthCheckPath;
+            this.longPollingTimeoutSeconds = longPollingTimeoutSeconds;
         }
 
         @Override
         public CompletableFuture<Boolean> isHealthy(Endpoint endpoint) {
-            return httpClient.get(healthCheckPath)
+            final long startTimeNanos = System.nanoTime();
+            final RequestHeadersBuilder headers = RequestHeaders.builder(HttpMethod.GET, healthCheckPath);
+            if (longPollingTimeoutSeconds > 0) {
+                headers.set(HttpHeaderNames.PREFER, "wait=" + longPollingTimeoutSeconds);
+                final String etag = this.etag;
+                if (etag != null) {
+                    headers.set(HttpHeaderNames.IF_NONE_MATCH, etag);
+                }
+            }
+
+            return httpClient.execute(headers.build())
                              .aggregate()
-                             .thenApply(message -> HttpStatus.OK.equals(message.status()));
+                             .handle((res, cause) -> {
+                                 if (cause != null) {
+                                     this.etag = null;
+                                     longPolling = false;
+                                     healthy = false;
+                                     return false;
+                                 }
+                                 update(res, System.nanoTime() - startTimeNanos);
+                                 return healthy;
+                             });
+        }
+
+        private void update(AggregatedHttpResponse res, long elapsedNanos) {
+            final String etag = res.headers().get(HttpHeaderNames.ETAG);
+            final long waitSeconds = appliedWaitSeconds(res);
+            // The server supports long-polling if it applied the 'wait' preference. An ETag alone is not
+            // enough, because a server which serves a static file responds with an ETag as well.
+            longPolling = longPollingTimeoutSeconds > 0 && etag != null && waitSeconds > 0;
+            if (res.status().equals(HttpStatus.NOT_MODIFIED)) {
+                // The health did not change during the long-polling timeout.
+                if (elapsedNanos < TimeUnit.SECONDS.toNanos(waitSeconds) / 2) {
+                    // The server did not actually wait, so fall back to the retry interval
+                    // instead of sending the requests in a busy loop.
+                    longPolling = false;
+                }
+                return;
+            }
+            this.etag = etag;
+            healthy = HttpStatus.OK.equals(res.status());
+        }
+
+        /**
+         * Returns the {@code wait} preference applied by the server, or {@code 0} if not applied.
+         */
+        private static long appliedWaitSeconds(AggregatedHttpResponse res) {
+            final String preferenceApplied = res.headers().get(HttpHeaderNames.PREFERENCE_APPLIED);
+            if (preferenceApplied == null) {
+                return 0;
+            }
+
+            for (String preference : preferenceSplitter.split(preferenceApplied)) {
+                if (preference.startsWith("wait=")) {
+                    try {
+                        return Long.parseLong(preference.substring(5));
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean isLongPolling() {
+            return longPolling;
         }
     }
 }
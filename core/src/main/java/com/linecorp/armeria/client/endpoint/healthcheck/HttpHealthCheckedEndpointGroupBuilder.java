@@ -30,6 +30,7 @@ import com.linecorp.armeria.client.Endpoint;
 import com.linecorp.armeria.client.HttpClient;
 import com.linecorp.armeria.client.endpoint.EndpointGroup;
 import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.server.healthcheck.HttpHealthCheckService;
 
 /**
  * A builder for creating new {@link HttpHealthCheckedEndpointGroup}s.
@@ -41,6 +42,7 @@ public class HttpHealthCheckedEndpointGroupBuilder {
 
     private SessionProtocol protocol = SessionProtocol.HTTP;
     private Duration retryInterval = DEFAULT_HEALTHCHECK_RETRY_INTERVAL;
+    private Duration longPollingTimeout = Duration.ZERO;
     private ClientFactory clientFactory = ClientFactory.DEFAULT;
     private Function<? super ClientOptionsBuilder, ClientOptionsBuilder> configurator = Function.identity();
     private int healthCheckPort;
@@ -85,6 +87,23 @@ public class HttpHealthCheckedEndpointGroupBuilder {
         return this;
     }
 
+    /**
+     * Sets the timeout of a long-polling health check request, which waits until the health of
+     * the {@link Endpoint} changes. The server must support long-polling as {@link HttpHealthCheckService}
+     * does, by responding with the {@code "Preference-Applied: wait=<seconds>"} header. If the server does
+     * not support long-polling, or it responds with {@code "304 Not Modified"} well before the requested
+     * wait time, the health check requests are sent every {@linkplain #retryInterval(Duration) retry interval}
+     * as usual. The timeout is truncated to seconds.
+     * Long-polling is disabled if {@code 0}, which is the default.
+     */
+    public HttpHealthCheckedEndpointGroupBuilder longPollingTimeout(Duration longPollingTimeout) {
+        requireNonNull(longPollingTimeout, "longPollingTimeout");
+        checkArgument(longPollingTimeout.isZero() || longPollingTimeout.getSeconds() > 0,
+                      "longPollingTimeout: %s (expected: 0 or >= 1 second)", longPollingTimeout);
+        this.longPollingTimeout = longPollingTimeout;
+        return this;
+    }
+
     /**
      * Sets the {@link ClientFactory} to use when making health check requests. This should generally be the
      * same as the {@link ClientFactory} used when creating a {@link Client} stub using the
@@ -115,6 +134,7 @@ public class HttpHealthCheckedEndpointGroupBuilder {
      */
     public HttpHealthCheckedEndpointGroup build() {
         return new HttpHealthCheckedEndpointGroup(clientFactory, delegate, protocol, healthCheckPath,
-                                                  healthCheckPort, retryInterval, configurator);
+                                                  healthCheckPort, retryInterval, longPollingTimeout,
+                                                  configurator);
     }
 }
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint.healthcheck;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.DynamicEndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointGroupRegistry;
+import com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy;
+import com.linecorp.armeria.client.endpoint.EndpointSelector;
+import com.linecorp.armeria.common.HttpStatusClass;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.logging.RequestLogAvailability;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Ticker;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * An {@link EndpointGroup} decorator that ejects the {@link Endpoint}s which fail too often, as observed
+ * from the {@link RequestLog}s of the requests sent to them. A request fails when it has a
+ * {@linkplain RequestLog#responseCause() response cause}, such as a timeout or a connection failure,
+ * or a {@code 5xx} response. An {@link Endpoint} is ejected when:
+ * <ul>
+ *   <li>its requests fail consecutively more than a threshold, or</li>
+ *   <li>the rate of its failed requests exceeds a threshold during an interval.</li>
+ * </ul>
+ * An ejected {@link Endpoint} is added back after the ejection time, which grows exponentially
+ * when the {@link Endpoint} is ejected repeatedly. An {@link Endpoint} is not ejected when it would make
+ * the percentage of the ejected {@link Endpoint}s exceed the maximum, although one {@link Endpoint} can
+ * always be ejected. However, the last available {@link Endpoint} is never ejected, so that requests are
+ * not failed for lack of an {@link Endpoint} while all {@link Endpoint}s are failing.
+ *
+ * <p>The results of the requests are collected by the {@link EndpointSelector}s created by
+ * {@link #newSelectionStrategy(EndpointSelectionStrategy)}:
+ * <pre>{@code
+ * OutlierDetectingEndpointGroup group = new OutlierDetectingEndpointGroupBuilder(delegate).build();
+ * EndpointGroupRegistry.register("myGroup", group,
+ *                                group.newSelectionStrategy(EndpointSelectionStrategy.WEIGHTED_ROUND_ROBIN));
+ * }</pre>
+ *
+ * @see OutlierDetectingEndpointGroupBuilder
+ */
+public final class OutlierDetectingEndpointGroup extends DynamicEndpointGroup {
+
+    private final EndpointGroup delegate;
+    private final Ticker ticker;
+    private final int consecutiveFailures;
+    private final double failureRateThreshold;
+    private final int minimumRequests;
+    private final long baseEjectionTimeNanos;
+    private final long maxEjectionTimeNanos;
+    private final int maxEjectionPercent;
+
+    private final Map<Endpoint, EndpointState> states = new ConcurrentHashMap<>();
+    private final AtomicLong numEjections = new AtomicLong();
+    private final Consumer<List<Endpoint>> delegateListener = unused -> updateStates();
+    private final ScheduledFuture<?> scheduledFuture;
+
+    OutlierDetectingEndpointGroup(EndpointGroup delegate, ScheduledExecutorService executor, Ticker ticker,
+                                  int consecutiveFailures, double failureRateThreshold, int minimumRequests,
+                                  long intervalNanos, long baseEjectionTimeNanos, long maxEjectionTimeNanos,
+                                  int maxEjectionPercent) {
+        this.delegate = delegate;
+        this.ticker = ticker;
+        this.consecutiveFailures = consecutiveFailures;
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumRequests = minimumRequests;
+        this.baseEjectionTimeNanos = baseEjectionTimeNanos;
+        this.maxEjectionTimeNanos = maxEjectionTimeNanos;
+        this.maxEjectionPercent = maxEjectionPercent;
+
+        updateStates();
+        delegate.addListener(delegateListener);
+        scheduledFuture = executor.scheduleWithFixedDelay(this::checkOutliers, intervalNanos, intervalNanos,
+                                                          TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns an {@link EndpointSelectionStrategy} which selects an {@link Endpoint} using the specified
+     * {@link EndpointSelectionStrategy} and reports the result of the request to this group. Use the
+     * returned {@link EndpointSelectionStrategy} when registering this group to
+     * {@link EndpointGroupRegistry}.
+     */
+    public EndpointSelectionStrategy newSelectionStrategy(EndpointSelectionStrategy delegate) {
+        return new OutlierDetectingSelectionStrategy(requireNonNull(delegate, "delegate"));
+    }
+
+    /**
+     * Returns the number of the {@link Endpoint}s which are currently ejected.
+     */
+    public int numEjectedEndpoints() {
+        return (int) states.values().stream().filter(s -> s.ejected).count();
+    }
+
+    /**
+     * Returns the total number of the ejections since this group was created.
+     */
+    public long numEjections() {
+        return numEjections.get();
+    }
+
+    /**
+     * Returns a newly-created {@link MeterBinder} which binds the stats about this
+     * {@link OutlierDetectingEndpointGroup} with the default meter names.
+     */
+    public MeterBinder newMeterBinder(String groupName) {
+        return newMeterBinder(new MeterIdPrefix("armeria.client.endpointGroup.outlier", "name", groupName));
+    }
+
+    /**
+     * Returns a newly-created {@link MeterBinder} which binds the stats about this
+     * {@link OutlierDetectingEndpointGroup}.
+     */
+    public MeterBinder newMeterBinder(MeterIdPrefix idPrefix) {
+        return new OutlierDetectingEndpointGroupMetrics(this, idPrefix);
+    }
+
+    @VisibleForTesting
+    void record(Endpoint endpoint, RequestLog log) {
+        final EndpointState state = states.get(endpoint);
+        if (state == null) {
+            // Removed from the delegate already.
+            return;
+        }
+
+        final boolean failed = log.responseCause() != null ||
+                               log.status().codeClass() == HttpStatusClass.SERVER_ERROR;
+        if (!failed) {
+            state.consecutiveFailures.set(0);
+            state.successes.incrementAndGet();
+            return;
+        }
+
+        state.failures.incrementAndGet();
+        if (state.consecutiveFailures.incrementAndGet() >= consecutiveFailures) {
+            synchronized (this) {
+                if (!state.ejected && tryEject(state, ticker.read())) {
+                    updateEndpoints();
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the ejected {@link Endpoint}s back when their ejection time has passed, and ejects
+     * the {@link Endpoint}s whose failure rate during the last interval exceeds the threshold.
+     */
+    @VisibleForTesting
+    synchronized void checkOutliers() {
+        final long nowNanos = ticker.read();
+        boolean changed = false;
+        for (EndpointState state : states.values()) {
+            final int successes = state.successes.getAndSet(0);
+            final int failures = state.failures.getAndSet(0);
+            if (state.ejected) {
+                if (nowNanos - state.ejectedUntilNanos >= 0) {
+                    state.ejected = false;
+                    state.consecutiveFailures.set(0);
+                    changed = true;
+                }
+                continue;
+            }
+
+            final int numRequests = successes + failures;
+            if (numRequests >= minimumRequests && numRequests > 0 &&
+                (double) failures / numRequests >= failureRateThreshold) {
+                changed |= tryEject(state, nowNanos);
+            } else if (failures == 0 && state.ejectionCount > 0) {
+                // Shorten the next ejection time of an endpoint which has been healthy for an interval.
+                state.ejectionCount--;
+            }
+        }
+
+        if (changed) {
+            updateEndpoints();
+        }
+    }
+
+    /**
+     * Ejects the specified {@link EndpointState} unless the percentage of the ejected {@link Endpoint}s
+     * exceeds the maximum. One {@link Endpoint} can be ejected regardless of the maximum percentage unless
+     * it is {@code 0}, but the last available {@link Endpoint} is never ejected. Must be invoked while
+     * holding the lock of this group.
+     */
+    private boolean tryEject(EndpointState state, long nowNanos) {
+        final int numEjectedEndpoints = numEjectedEndpoints();
+        if (maxEjectionPercent == 0 ||
+            numEjectedEndpoints + 1 >= states.size() ||
+            numEjectedEndpoints > 0 &&
+            (numEjectedEndpoints + 1) * 100L > (long) maxEjectionPercent * states.size()) {
+            return false;
+        }
+
+        final int shift = Math.min(state.ejectionCount, 30);
+        final long ejectionTimeNanos = baseEjectionTimeNanos > maxEjectionTimeNanos >> shift ?
+                                       maxEjectionTimeNanos : baseEjectionTimeNanos << shift;
+        state.ejectionCount++;
+        state.ejectedUntilNanos = nowNanos + ejectionTimeNanos;
+        state.ejected = true;
+        numEjections.incrementAndGet();
+        return true;
+    }
+
+    private synchronized void updateStates() {
+        final List<Endpoint> endpoints = delegate.endpoints();
+        final Set<Endpoint> endpointSet = new HashSet<>(endpoints);
+        states.keySet().retainAll(endpointSet);
+        endpoints.forEach(e -> states.computeIfAbsent(e, unused -> new EndpointState()));
+        updateEndpoints();
+    }
+
+    /**
+     * Updates the {@link Endpoint}s of this group. Must be invoked while holding the lock of this group.
+     */
+    private void updateEndpoints() {
+        setEndpoints(delegate.endpoints().stream()
+                             .filter(e -> {
+                                 final EndpointState state = states.get(e);
+                                 return state == null || !state.ejected;
+                             })
+                             .collect(toImmutableList()));
+    }
+
+    @Override
+    public void close() {
+        scheduledFuture.cancel(false);
+        delegate.removeListener(delegateListener);
+        super.close();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder();
+        buf.append("OutlierDetectingEndpointGroup(all:[");
+        for (Endpoint endpoint : delegate.endpoints()) {
+            buf.append(endpoint).append(',');
+        }
+        buf.setCharAt(buf.length() - 1, ']');
+        buf.append(", available:[");
+        for (Endpoint endpoint : endpoints()) {
+            buf.append(endpoint).append(',');
+        }
+        buf.setCharAt(buf.length() - 1, ']');
+        buf.append(')');
+        return buf.toString();
+    }
+
+    private static final class EndpointState {
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        final AtomicInteger successes = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+
+        // Guarded by the lock of the group.
+        int ejectionCount;
+        long ejectedUntilNanos;
+        // Written while holding the lock of the group.
+        volatile boolean ejected;
+    }
+
+    private final class OutlierDetectingSelectionStrategy implements EndpointSelectionStrategy {
+        private final EndpointSelectionStrategy delegate;
+
+        OutlierDetectingSelectionStrategy(EndpointSelectionStrategy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public EndpointSelector newSelector(EndpointGroup endpointGroup) {
+            return new OutlierDetectingSelector(this, delegate.newSelector(endpointGroup));
+        }
+    }
+
+    private final class OutlierDetectingSelector implements EndpointSelector {
+        private final EndpointSelectionStrategy strategy;
+        private final EndpointSelector delegate;
+
+        OutlierDetectingSelector(EndpointSelectionStrategy strategy, EndpointSelector delegate) {
+            this.strategy = strategy;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public EndpointGroup group() {
+            return delegate.group();
+        }
+
+        @Override
+        public EndpointSelectionStrategy strategy() {
+            return strategy;
+        }
+
+        @Override
+        public Endpoint select(ClientRequestContext ctx) {
+            final Endpoint endpoint = delegate.select(ctx);
+            ctx.log().addListener(log -> record(endpoint, log), RequestLogAvailability.COMPLETE);
+            return endpoint;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint.healthcheck;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+
+import com.linecorp.armeria.client.ClientFactory;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.common.util.Ticker;
+
+/**
+ * A builder for creating new {@link OutlierDetectingEndpointGroup}s.
+ */
+public final class OutlierDetectingEndpointGroupBuilder {
+
+    private static final int DEFAULT_CONSECUTIVE_FAILURES = 5;
+    private static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+    private static final int DEFAULT_MINIMUM_REQUESTS = 10;
+    private static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_BASE_EJECTION_TIME = Duration.ofSeconds(30);
+    private static final Duration DEFAULT_MAX_EJECTION_TIME = Duration.ofMinutes(5);
+    private static final int DEFAULT_MAX_EJECTION_PERCENT = 10;
+
+    private final EndpointGroup delegate;
+
+    private ClientFactory clientFactory = ClientFactory.DEFAULT;
+    private Ticker ticker = Ticker.systemTicker();
+    private int consecutiveFailures = DEFAULT_CONSECUTIVE_FAILURES;
+    private double failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+    private int minimumRequests = DEFAULT_MINIMUM_REQUESTS;
+    private Duration interval = DEFAULT_INTERVAL;
+    private Duration baseEjectionTime = DEFAULT_BASE_EJECTION_TIME;
+    private Duration maxEjectionTime = DEFAULT_MAX_EJECTION_TIME;
+    private int maxEjectionPercent = DEFAULT_MAX_EJECTION_PERCENT;
+
+    /**
+     * Creates a new {@link OutlierDetectingEndpointGroupBuilder} which ejects the outliers of
+     * the specified {@link EndpointGroup}.
+     */
+    public OutlierDetectingEndpointGroupBuilder(EndpointGroup delegate) {
+        this.delegate = requireNonNull(delegate, "delegate");
+    }
+
+    /**
+     * Sets the number of the consecutive failures which ejects an {@link Endpoint}.
+     * Defaults to {@value #DEFAULT_CONSECUTIVE_FAILURES}.
+     */
+    public OutlierDetectingEndpointGroupBuilder consecutiveFailures(int consecutiveFailures) {
+        checkArgument(consecutiveFailures > 0,
+                      "consecutiveFailures: %s (expected: > 0)", consecutiveFailures);
+        this.consecutiveFailures = consecutiveFailures;
+        return this;
+    }
+
+    /**
+     * Sets the rate of the failed requests during an {@linkplain #interval(Duration) interval} which ejects
+     * an {@link Endpoint}. Defaults to {@value #DEFAULT_FAILURE_RATE_THRESHOLD}.
+     */
+    public OutlierDetectingEndpointGroupBuilder failureRateThreshold(double failureRateThreshold) {
+        checkArgument(failureRateThreshold > 0 && failureRateThreshold <= 1,
+                      "failureRateThreshold: %s (expected: 0 < failureRateThreshold <= 1)",
+                      failureRateThreshold);
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    /**
+     * Sets the minimum number of the requests to an {@link Endpoint} during an
+     * {@linkplain #interval(Duration) interval} to calculate its failure rate.
+     * Defaults to {@value #DEFAULT_MINIMUM_REQUESTS}.
+     */
+    public OutlierDetectingEndpointGroupBuilder minimumRequests(int minimumRequests) {
+        checkArgument(minimumRequests > 0, "minimumRequests: %s (expected: > 0)", minimumRequests);
+        this.minimumRequests = minimumRequests;
+        return this;
+    }
+
+    /**
+     * Sets the interval between the calculations of the failure rates, which is also the interval between
+     * the checks whether the ejected {@link Endpoint}s can be added back. Defaults to {@code 10} seconds.
+     */
+    public OutlierDetectingEndpointGroupBuilder interval(Duration interval) {
+        requireNonNull(interval, "interval");
+        checkArgument(!interval.isNegative() && !interval.isZero(),
+                      "interval: %s (expected: > 0)", interval);
+        this.interval = interval;
+        return this;
+    }
+
+    /**
+     * Sets the time for which an {@link Endpoint} is ejected for the first time. The time is doubled
+     * whenever the {@link Endpoint} is ejected again, up to the {@linkplain #maxEjectionTime(Duration)
+     * maximum ejection time}. Defaults to {@code 30} seconds.
+     */
+    public OutlierDetectingEndpointGroupBuilder baseEjectionTime(Duration baseEjectionTime) {
+        requireNonNull(baseEjectionTime, "baseEjectionTime");
+        checkArgument(!baseEjectionTime.isNegative() && !baseEjectionTime.isZero(),
+                      "baseEjectionTime: %s (expected: > 0)", baseEjectionTime);
+        this.baseEjectionTime = baseEjectionTime;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time for which an {@link Endpoint} is ejected. Defaults to {@code 5} minutes.
+     */
+    public OutlierDetectingEndpointGroupBuilder maxEjectionTime(Duration maxEjectionTime) {
+        requireNonNull(maxEjectionTime, "maxEjectionTime");
+        checkArgument(!maxEjectionTime.isNegative() && !maxEjectionTime.isZero(),
+                      "maxEjectionTime: %s (expected: > 0)", maxEjectionTime);
+        this.maxEjectionTime = maxEjectionTime;
+        return this;
+    }
+
+    /**
+     * Sets the maximum percentage of the ejected {@link Endpoint}s. An {@link Endpoint} is not ejected
+     * if it would make the percentage of the ejected {@link Endpoint}s exceed this value, but one
+     * {@link Endpoint} can be ejected regardless of this value unless it is {@code 0}. The last available
+     * {@link Endpoint} is never ejected regardless of this value.
+     * Defaults to {@value #DEFAULT_MAX_EJECTION_PERCENT}.
+     */
+    public OutlierDetectingEndpointGroupBuilder maxEjectionPercent(int maxEjectionPercent) {
+        checkArgument(maxEjectionPercent >= 0 && maxEjectionPercent <= 100,
+                      "maxEjectionPercent: %s (expected: 0-100)", maxEjectionPercent);
+        this.maxEjectionPercent = maxEjectionPercent;
+        return this;
+    }
+
+    /**
+     * Sets the {@link ClientFactory} whose {@link ClientFactory#eventLoopGroup()} schedules the periodic
+     * checks.
+     */
+    public OutlierDetectingEndpointGroupBuilder clientFactory(ClientFactory clientFactory) {
+        this.clientFactory = requireNonNull(clientFactory, "clientFactory");
+        return this;
+    }
+
+    OutlierDetectingEndpointGroupBuilder ticker(Ticker ticker) {
+        this.ticker = requireNonNull(ticker, "ticker");
+        return this;
+    }
+
+    /**
+     * Returns a newly created {@link OutlierDetectingEndpointGroup} based on the contents of the
+     * {@link OutlierDetectingEndpointGroupBuilder}.
+     */
+    public OutlierDetectingEndpointGroup build() {
+        checkState(baseEjectionTime.compareTo(maxEjectionTime) <= 0,
+                   "baseEjectionTime: %s, maxEjectionTime: %s (expected: baseEjectionTime <= maxEjectionTime)",
+                   baseEjectionTime, maxEjectionTime);
+        return new OutlierDetectingEndpointGroup(delegate, clientFactory.eventLoopGroup(), ticker,
+                                                 consecutiveFailures, failureRateThreshold, minimumRequests,
+                                                 interval.toNanos(), baseEjectionTime.toNanos(),
+                                                 maxEjectionTime.toNanos(), maxEjectionPercent);
+    }
+}
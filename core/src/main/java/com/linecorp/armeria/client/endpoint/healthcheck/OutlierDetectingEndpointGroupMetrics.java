@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint.healthcheck;
+
+import static java.util.Objects.requireNonNull;
+
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * {@link MeterBinder} for an {@link OutlierDetectingEndpointGroup}.
+ */
+final class OutlierDetectingEndpointGroupMetrics implements MeterBinder {
+
+    private final OutlierDetectingEndpointGroup endpointGroup;
+    private final MeterIdPrefix idPrefix;
+
+    OutlierDetectingEndpointGroupMetrics(OutlierDetectingEndpointGroup endpointGroup,
+                                         MeterIdPrefix idPrefix) {
+        this.endpointGroup = requireNonNull(endpointGroup, "endpointGroup");
+        this.idPrefix = requireNonNull(idPrefix, "idPrefix");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registry.gauge(idPrefix.name("ejected"), idPrefix.tags(), endpointGroup,
+                       OutlierDetectingEndpointGroup::numEjectedEndpoints);
+        registry.more().counter(idPrefix.name("ejections"), idPrefix.tags(), endpointGroup,
+                                OutlierDetectingEndpointGroup::numEjections);
+    }
+}
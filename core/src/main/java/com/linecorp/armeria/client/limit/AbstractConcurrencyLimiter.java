@@ -0,0 +1,201 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.limit;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.ResponseTimeoutException;
+import com.linecorp.armeria.client.limit.ConcurrencyLimitingClient.Deferred;
+import com.linecorp.armeria.common.Request;
+import com.linecorp.armeria.common.Response;
+import com.linecorp.armeria.common.util.SafeCloseable;
+
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Defers the {@link Request}s which cannot acquire a permit until a permit is released by another
+ * {@link Request}. How many permits are available is decided by the subclasses.
+ *
+ * @param <I> the {@link Request} type
+ * @param <O> the {@link Response} type
+ */
+abstract class AbstractConcurrencyLimiter<I extends Request, O extends Response> {
+
+    private final int maxPendingRequests;
+    private final long timeoutMillis;
+    private final Queue<PendingTask> pendingTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numPendingRequests = new AtomicInteger();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxPendingRequests the maximum number of the deferred {@link Request}s. A {@link Request} fails
+     *                           with {@link TooManyPendingRequestsException} when it is exceeded.
+     * @param timeoutMillis the amount of time until a deferred {@link Request} fails with
+     *                      {@link ResponseTimeoutException}. {@code 0} disables the timeout.
+     */
+    AbstractConcurrencyLimiter(int maxPendingRequests, long timeoutMillis) {
+        this.maxPendingRequests = maxPendingRequests;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Returns the number of the deferred {@link Request}s.
+     */
+    final int numPendingRequests() {
+        return numPendingRequests.get();
+    }
+
+    /**
+     * Acquires a permit if available.
+     */
+    abstract boolean tryAcquire();
+
+    /**
+     * Releases the permit acquired by {@link #tryAcquire()} without executing a {@link Request}.
+     */
+    abstract void release();
+
+    /**
+     * Executes the specified {@link Request} with the permit acquired by {@link #tryAcquire()}.
+     * The implementation must release the permit and {@link #drain()} when the {@link Response} is complete
+     * or the execution fails.
+     */
+    abstract O executeAcquired(ClientRequestContext ctx, I req) throws Exception;
+
+    /**
+     * Invoked when a {@link Request} is rejected because there are too many deferred {@link Request}s.
+     */
+    void onRejected() {}
+
+    /**
+     * Defers the specified {@link Request} until a permit is acquired. The {@link Request} is executed
+     * immediately if a permit is available.
+     *
+     * @return the {@link Deferred#response()}
+     */
+    final O defer(ClientRequestContext ctx, I req, Deferred<O> deferred) {
+        if (!tryAddPendingRequest()) {
+            onRejected();
+            deferred.close(TooManyPendingRequestsException.get());
+            return deferred.response();
+        }
+
+        final PendingTask currentTask = new PendingTask(ctx, req, deferred);
+        pendingTasks.add(currentTask);
+        drain();
+
+        if (!currentTask.isRun() && timeoutMillis != 0) {
+            // Current request was not delegated. Schedule a timeout.
+            final ScheduledFuture<?> timeoutFuture = ctx.eventLoop().schedule(
+                    currentTask::timeout, timeoutMillis, TimeUnit.MILLISECONDS);
+            currentTask.set(timeoutFuture);
+        }
+
+        return deferred.response();
+    }
+
+    private boolean tryAddPendingRequest() {
+        for (;;) {
+            final int current = numPendingRequests.get();
+            if (current >= maxPendingRequests) {
+                return false;
+            }
+            if (numPendingRequests.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Executes the deferred {@link Request}s while a permit can be acquired.
+     */
+    final void drain() {
+        while (!pendingTasks.isEmpty()) {
+            if (!tryAcquire()) {
+                break;
+            }
+
+            final PendingTask task = pendingTasks.poll();
+            if (task == null) {
+                release();
+                if (!pendingTasks.isEmpty()) {
+                    // Another request might have been added to the queue while the limit was reached.
+                    continue;
+                } else {
+                    break;
+                }
+            }
+
+            numPendingRequests.decrementAndGet();
+            task.run();
+        }
+    }
+
+    private final class PendingTask extends AtomicReference<ScheduledFuture<?>> implements Runnable {
+
+        private static final long serialVersionUID = -7092037489640350376L;
+
+        private final ClientRequestContext ctx;
+        private final I req;
+        private final Deferred<O> deferred;
+        private boolean isRun;
+
+        PendingTask(ClientRequestContext ctx, I req, Deferred<O> deferred) {
+            this.ctx = ctx;
+            this.req = req;
+            this.deferred = deferred;
+        }
+
+        boolean isRun() {
+            return isRun;
+        }
+
+        @Override
+        public void run() {
+            isRun = true;
+
+            final ScheduledFuture<?> timeoutFuture = get();
+            if (timeoutFuture != null) {
+                if (timeoutFuture.isDone() || !timeoutFuture.cancel(false)) {
+                    // Timeout task ran already or is determined to run.
+                    release();
+                    return;
+                }
+            }
+
+            try (SafeCloseable ignored = ctx.push()) {
+                deferred.delegate(executeAcquired(ctx, req));
+            } catch (Throwable t) {
+                deferred.close(t);
+            }
+        }
+
+        void timeout() {
+            if (pendingTasks.remove(this)) {
+                numPendingRequests.decrementAndGet();
+            }
+            deferred.close(ResponseTimeoutException.get());
+            // Hand over the permit this task might have released to the next deferred request.
+            drain();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.limit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheWriter;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.client.Client;
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.ResponseTimeoutException;
+import com.linecorp.armeria.client.SimpleDecoratingClient;
+import com.linecorp.armeria.client.limit.ConcurrencyLimitingClient.Deferred;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.Request;
+import com.linecorp.armeria.common.Response;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.logging.RequestLogAvailability;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Ticker;
+import com.linecorp.armeria.internal.AdaptiveConcurrencyLimit;
+import com.linecorp.armeria.internal.ClientUtil;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * An abstract {@link Client} decorator that limits the concurrent number of active requests for each
+ * {@link Endpoint} with a limit computed from the observed latency and failures. The limit decreases when
+ * the latency of the recent requests grows beyond the long-term latency or a request fails, and it increases
+ * while the latency stays the same.
+ *
+ * <p>When the number of the active requests reaches the limit, the {@link Request}s are deferred until
+ * the currently active {@link Request}s are completed. The number of the deferred {@link Request}s is
+ * bounded as well. A {@link Request} fails with a {@link TooManyPendingRequestsException} if there are too
+ * many deferred {@link Request}s already, or with a {@link ResponseTimeoutException} if it was not
+ * executed within the timeout.
+ *
+ * <p>When the client was created with a group, the limit is applied for each host selected from the group,
+ * and the request is sent to the same host. The limit of a host and its metrics are removed when no
+ * request has been sent to the host for the idle timeout.
+ *
+ * @param <I> the {@link Request} type
+ * @param <O> the {@link Response} type
+ */
+public abstract class AdaptiveConcurrencyLimitingClient<I extends Request, O extends Response>
+        extends SimpleDecoratingClient<I, O> {
+
+    private final Supplier<AdaptiveConcurrencyLimit> limitFactory;
+    private final int maxPendingRequests;
+    private final long timeoutMillis;
+    private final MeterIdPrefix meterIdPrefix;
+    private final Cache<Endpoint, EndpointLimiter> limiters;
+
+    AdaptiveConcurrencyLimitingClient(Client<I, O> delegate, Supplier<AdaptiveConcurrencyLimit> limitFactory,
+                                      int maxPendingRequests, long timeoutMillis, long idleTimeoutMillis,
+                                      Ticker ticker, MeterIdPrefix meterIdPrefix) {
+        super(delegate);
+        this.limitFactory = limitFactory;
+        this.maxPendingRequests = maxPendingRequests;
+        this.timeoutMillis = timeoutMillis;
+        this.meterIdPrefix = meterIdPrefix;
+        limiters = Caffeine.newBuilder()
+                           .expireAfterAccess(idleTimeoutMillis, TimeUnit.MILLISECONDS)
+                           .ticker(ticker::read)
+                           .writer(new CacheWriter<Endpoint, EndpointLimiter>() {
+                               @Override
+                               public void write(Endpoint key, EndpointLimiter value) {}
+
+                               @Override
+                               public void delete(Endpoint key, @Nullable EndpointLimiter value,
+                                                  RemovalCause cause) {
+                                   // Invoked atomically with the removal, so that the meters are removed
+                                   // before a new limiter registers them again for the same endpoint.
+                                   if (value != null) {
+                                       value.removeMeters();
+                                   }
+                               }
+                           })
+                           .build();
+    }
+
+    /**
+     * Returns the current limit of the number of concurrent active requests to the specified
+     * {@link Endpoint}, or {@code -1} if no request has been sent to the {@link Endpoint} recently.
+     */
+    public int limit(Endpoint endpoint) {
+        final EndpointLimiter limiter = limiters.getIfPresent(endpoint);
+        return limiter != null ? limiter.limit.limit() : -1;
+    }
+
+    /**
+     * Returns the number of the {@link Request}s that are being executed for the specified {@link Endpoint}.
+     */
+    public int numActiveRequests(Endpoint endpoint) {
+        final EndpointLimiter limiter = limiters.getIfPresent(endpoint);
+        return limiter != null ? limiter.limit.inFlight() : 0;
+    }
+
+    /**
+     * Returns the number of the {@link Request}s that are deferred for the specified {@link Endpoint}.
+     */
+    public int numPendingRequests(Endpoint endpoint) {
+        final EndpointLimiter limiter = limiters.getIfPresent(endpoint);
+        return limiter != null ? limiter.numPendingRequests() : 0;
+    }
+
+    @Override
+    public O execute(ClientRequestContext ctx, I req) throws Exception {
+        final Endpoint endpoint = ClientUtil.selectEndpoint(ctx);
+        final EndpointLimiter limiter =
+                limiters.get(endpoint, e -> new EndpointLimiter(ctx.meterRegistry(), e));
+
+        // Execute immediately only when there are no deferred requests, so that a new request does not
+        // overtake them.
+        if (limiter.numPendingRequests() == 0 && limiter.tryAcquire()) {
+            return limiter.executeAcquired(ctx, req);
+        }
+
+        return limiter.defer(ctx, req, defer(ctx, req));
+    }
+
+    /**
+     * Defers the specified {@link Request}.
+     *
+     * @return a new {@link Deferred} which provides the interface for updating the result of
+     *         {@link Request} execution later.
+     */
+    abstract Deferred<O> defer(ClientRequestContext ctx, I req) throws Exception;
+
+    private final class EndpointLimiter extends AbstractConcurrencyLimiter<I, O> {
+
+        final AdaptiveConcurrencyLimit limit;
+        final Ticker ticker;
+        final MeterRegistry registry;
+        final List<Meter> meters;
+        final Counter rejectedRequests;
+
+        EndpointLimiter(MeterRegistry registry, Endpoint endpoint) {
+            super(maxPendingRequests, timeoutMillis);
+            limit = limitFactory.get();
+            ticker = limit.ticker();
+            this.registry = registry;
+
+            final MeterIdPrefix idPrefix = meterIdPrefix.withTags("endpoint", endpoint.authority());
+            rejectedRequests = Counter.builder(idPrefix.name("rejectedRequests"))
+                                      .tags(idPrefix.tags())
+                                      .register(registry);
+            meters = ImmutableList.of(
+                    Gauge.builder(idPrefix.name("limit"), limit, AdaptiveConcurrencyLimit::limit)
+                         .tags(idPrefix.tags())
+                         .register(registry),
+                    Gauge.builder(idPrefix.name("activeRequests"), limit, AdaptiveConcurrencyLimit::inFlight)
+                         .tags(idPrefix.tags())
+                         .register(registry),
+                    Gauge.builder(idPrefix.name("pendingRequests"), this, EndpointLimiter::numPendingRequests)
+                         .tags(idPrefix.tags())
+                         .register(registry),
+                    rejectedRequests);
+        }
+
+        void removeMeters() {
+            meters.forEach(registry::remove);
+        }
+
+        @Override
+        boolean tryAcquire() {
+            return limit.tryAcquire();
+        }
+
+        @Override
+        void release() {
+            limit.release();
+        }
+
+        @Override
+        void onRejected() {
+            rejectedRequests.increment();
+        }
+
+        @Override
+        O executeAcquired(ClientRequestContext ctx, I req) throws Exception {
+            final long startTimeNanos = ticker.read();
+            final O res;
+            try {
+                res = delegate().execute(ctx, req);
+            } catch (Throwable t) {
+                limit.release(ticker.read() - startTimeNanos, true);
+                drain();
+                throw t;
+            }
+
+            res.completionFuture().handleAsync((unused, cause) -> {
+                limit.release(ticker.read() - startTimeNanos, cause != null || isOverloaded(ctx.log()));
+                drain();
+                return null;
+            }, ctx.eventLoop());
+            return res;
+        }
+    }
+
+    private static boolean isOverloaded(RequestLog log) {
+        if (!log.isAvailable(RequestLogAvailability.RESPONSE_HEADERS)) {
+            return false;
+        }
+        final HttpStatus status = log.status();
+        return status == HttpStatus.SERVICE_UNAVAILABLE || status == HttpStatus.TOO_MANY_REQUESTS;
+    }
+}
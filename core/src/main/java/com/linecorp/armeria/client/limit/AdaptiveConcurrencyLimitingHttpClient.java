@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.limit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.linecorp.armeria.client.Client;
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.limit.ConcurrencyLimitingClient.Deferred;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Ticker;
+import com.linecorp.armeria.internal.AdaptiveConcurrencyLimit;
+
+/**
+ * A {@link Client} decorator that limits the concurrent number of active HTTP requests for each endpoint
+ * with a limit computed from the observed latency and failures.
+ *
+ * <p>For example:
+ * <pre>{@code
+ * ClientBuilder builder = new ClientBuilder(...);
+ * builder.decorator(AdaptiveConcurrencyLimitingHttpClient.newDecorator());
+ * client = builder.build(...);
+ * }</pre>
+ *
+ * @see AdaptiveConcurrencyLimitingHttpClientBuilder
+ */
+public final class AdaptiveConcurrencyLimitingHttpClient
+        extends AdaptiveConcurrencyLimitingClient<HttpRequest, HttpResponse> {
+
+    /**
+     * Creates a new {@link Client} decorator that limits the concurrent number of active HTTP requests
+     * with the default settings.
+     */
+    public static Function<Client<HttpRequest, HttpResponse>, AdaptiveConcurrencyLimitingHttpClient>
+    newDecorator() {
+        return new AdaptiveConcurrencyLimitingHttpClientBuilder().newDecorator();
+    }
+
+    AdaptiveConcurrencyLimitingHttpClient(Client<HttpRequest, HttpResponse> delegate,
+                                          Supplier<AdaptiveConcurrencyLimit> limitFactory,
+                                          int maxPendingRequests, long timeoutMillis,
+                                          long idleTimeoutMillis, Ticker ticker,
+                                          MeterIdPrefix meterIdPrefix) {
+        super(delegate, limitFactory, maxPendingRequests, timeoutMillis, idleTimeoutMillis, ticker,
+              meterIdPrefix);
+    }
+
+    @Override
+    Deferred<HttpResponse> defer(ClientRequestContext ctx, HttpRequest req) throws Exception {
+        return new Deferred<HttpResponse>() {
+            private final CompletableFuture<HttpResponse> responseFuture = new CompletableFuture<>();
+            private final HttpResponse res = HttpResponse.from(responseFuture);
+
+            @Override
+            public HttpResponse response() {
+                return res;
+            }
+
+            @Override
+            public void delegate(HttpResponse response) {
+                responseFuture.complete(response);
+            }
+
+            @Override
+            public void close(Throwable cause) {
+                responseFuture.completeExceptionally(cause);
+            }
+        };
+    }
+}
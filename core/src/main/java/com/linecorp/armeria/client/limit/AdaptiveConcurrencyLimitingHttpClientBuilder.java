@@ -0,0 +1,270 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.limit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.linecorp.armeria.client.Client;
+import com.linecorp.armeria.client.ResponseTimeoutException;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Ticker;
+import com.linecorp.armeria.internal.AdaptiveConcurrencyLimit;
+
+/**
+ * Builds an {@link AdaptiveConcurrencyLimitingHttpClient}.
+ */
+public final class AdaptiveConcurrencyLimitingHttpClientBuilder {
+
+    private static final class Defaults {
+
+        private static final int INITIAL_LIMIT = 20;
+
+        private static final int MIN_LIMIT = 1;
+
+        private static final int MAX_LIMIT = 200;
+
+        private static final double SMOOTHING = 0.2;
+
+        private static final double LATENCY_TOLERANCE = 2.0;
+
+        private static final long WINDOW_MILLIS = 1000;
+
+        private static final int MIN_WINDOW_SAMPLES = 10;
+
+        private static final int MAX_PENDING_REQUESTS = 1000;
+
+        private static final long TIMEOUT_MILLIS = 10000;
+
+        private static final long IDLE_TIMEOUT_MILLIS = 60000;
+    }
+
+    private int initialLimit = Defaults.INITIAL_LIMIT;
+    private int minLimit = Defaults.MIN_LIMIT;
+    private int maxLimit = Defaults.MAX_LIMIT;
+    private double smoothing = Defaults.SMOOTHING;
+    private double latencyTolerance = Defaults.LATENCY_TOLERANCE;
+    private Duration window = Duration.ofMillis(Defaults.WINDOW_MILLIS);
+    private int minWindowSamples = Defaults.MIN_WINDOW_SAMPLES;
+    private int maxPendingRequests = Defaults.MAX_PENDING_REQUESTS;
+    private Duration timeout = Duration.ofMillis(Defaults.TIMEOUT_MILLIS);
+    private Duration idleTimeout = Duration.ofMillis(Defaults.IDLE_TIMEOUT_MILLIS);
+    private MeterIdPrefix meterIdPrefix = new MeterIdPrefix("armeria.client.concurrency");
+    private Ticker ticker = Ticker.systemTicker();
+
+    /**
+     * Sets the limit used until enough requests are sent to an endpoint to compute it from their latency.
+     * Defaults to {@value Defaults#INITIAL_LIMIT} if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder initialLimit(int initialLimit) {
+        checkArgument(initialLimit > 0, "initialLimit: %s (expected: > 0)", initialLimit);
+        this.initialLimit = initialLimit;
+        return this;
+    }
+
+    /**
+     * Sets the minimum limit. Defaults to {@value Defaults#MIN_LIMIT} if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder minLimit(int minLimit) {
+        checkArgument(minLimit > 0, "minLimit: %s (expected: > 0)", minLimit);
+        this.minLimit = minLimit;
+        return this;
+    }
+
+    /**
+     * Sets the maximum limit. Defaults to {@value Defaults#MAX_LIMIT} if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder maxLimit(int maxLimit) {
+        checkArgument(maxLimit > 0, "maxLimit: %s (expected: > 0)", maxLimit);
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    /**
+     * Sets the weight of a newly computed limit, between 0 (exclusive) and 1 (inclusive). The higher,
+     * the more quickly the limit follows the change of latency. Defaults to {@value Defaults#SMOOTHING}
+     * if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder smoothing(double smoothing) {
+        checkArgument(smoothing > 0 && smoothing <= 1, "smoothing: %s (expected: > 0 and <= 1)", smoothing);
+        this.smoothing = smoothing;
+        return this;
+    }
+
+    /**
+     * Sets the ratio of the recent latency to the long-term latency which is tolerated without decreasing
+     * the limit. Defaults to {@value Defaults#LATENCY_TOLERANCE} if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder latencyTolerance(double latencyTolerance) {
+        checkArgument(latencyTolerance >= 1, "latencyTolerance: %s (expected: >= 1)", latencyTolerance);
+        this.latencyTolerance = latencyTolerance;
+        return this;
+    }
+
+    /**
+     * Sets the minimum duration of a window which the latency samples are aggregated in before
+     * the limit is updated. Defaults to {@value Defaults#WINDOW_MILLIS} milliseconds if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder window(Duration window) {
+        requireNonNull(window, "window");
+        checkArgument(!window.isNegative(), "window: %s (expected: >= 0)", window);
+        this.window = window;
+        return this;
+    }
+
+    /**
+     * Sets the minimum duration of a window which the latency samples are aggregated in before
+     * the limit is updated, in milliseconds. Defaults to {@value Defaults#WINDOW_MILLIS} milliseconds
+     * if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder windowMillis(long windowMillis) {
+        return window(Duration.ofMillis(windowMillis));
+    }
+
+    /**
+     * Sets the minimum number of the latency samples in a window.
+     * Defaults to {@value Defaults#MIN_WINDOW_SAMPLES} if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder minWindowSamples(int minWindowSamples) {
+        checkArgument(minWindowSamples > 0, "minWindowSamples: %s (expected: > 0)", minWindowSamples);
+        this.minWindowSamples = minWindowSamples;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of the requests deferred for each endpoint. A request fails with
+     * {@link TooManyPendingRequestsException} when it is exceeded.
+     * Defaults to {@value Defaults#MAX_PENDING_REQUESTS} if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder maxPendingRequests(int maxPendingRequests) {
+        checkArgument(maxPendingRequests >= 0, "maxPendingRequests: %s (expected: >= 0)",
+                      maxPendingRequests);
+        this.maxPendingRequests = maxPendingRequests;
+        return this;
+    }
+
+    /**
+     * Sets the amount of time until a deferred request fails with {@link ResponseTimeoutException}
+     * if it was not executed before then. {@link Duration#ZERO} disables the timeout.
+     * Defaults to {@value Defaults#TIMEOUT_MILLIS} milliseconds if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder timeout(Duration timeout) {
+        requireNonNull(timeout, "timeout");
+        checkArgument(!timeout.isNegative(), "timeout: %s (expected: >= 0)", timeout);
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Sets the amount of time until a deferred request fails with {@link ResponseTimeoutException}
+     * if it was not executed before then, in milliseconds. {@code 0} disables the timeout.
+     * Defaults to {@value Defaults#TIMEOUT_MILLIS} milliseconds if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder timeoutMillis(long timeoutMillis) {
+        return timeout(Duration.ofMillis(timeoutMillis));
+    }
+
+    /**
+     * Sets the amount of time until the limit of an endpoint and its metrics are removed if no request has
+     * been sent to the endpoint. The limit starts again from the initial limit when a request is sent to
+     * the endpoint after that. Defaults to {@value Defaults#IDLE_TIMEOUT_MILLIS} milliseconds if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder idleTimeout(Duration idleTimeout) {
+        requireNonNull(idleTimeout, "idleTimeout");
+        checkArgument(!idleTimeout.isNegative() && !idleTimeout.isZero(),
+                      "idleTimeout: %s (expected: > 0)", idleTimeout);
+        this.idleTimeout = idleTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the amount of time until the limit of an endpoint and its metrics are removed if no request has
+     * been sent to the endpoint, in milliseconds. The limit starts again from the initial limit when
+     * a request is sent to the endpoint after that. Defaults to {@value Defaults#IDLE_TIMEOUT_MILLIS}
+     * milliseconds if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder idleTimeoutMillis(long idleTimeoutMillis) {
+        return idleTimeout(Duration.ofMillis(idleTimeoutMillis));
+    }
+
+    /**
+     * Sets the {@link MeterIdPrefix} of the metrics exported for each endpoint, which are tagged with
+     * {@code endpoint=<authority>}: {@code <prefix>.limit}, {@code <prefix>.activeRequests},
+     * {@code <prefix>.pendingRequests} and {@code <prefix>.rejectedRequests}. Use a different
+     * {@link MeterIdPrefix} for each client. Defaults to {@code armeria.client.concurrency} if unspecified.
+     */
+    public AdaptiveConcurrencyLimitingHttpClientBuilder meterIdPrefix(MeterIdPrefix meterIdPrefix) {
+        this.meterIdPrefix = requireNonNull(meterIdPrefix, "meterIdPrefix");
+        return this;
+    }
+
+    @VisibleForTesting
+    AdaptiveConcurrencyLimitingHttpClientBuilder ticker(Ticker ticker) {
+        this.ticker = requireNonNull(ticker, "ticker");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link AdaptiveConcurrencyLimitingHttpClient} based on the properties of
+     * this builder.
+     */
+    public AdaptiveConcurrencyLimitingHttpClient build(Client<HttpRequest, HttpResponse> delegate) {
+        requireNonNull(delegate, "delegate");
+        return newDecorator().apply(delegate);
+    }
+
+    /**
+     * Returns a newly-created decorator that decorates a {@link Client} with a new
+     * {@link AdaptiveConcurrencyLimitingHttpClient} based on the properties of this builder.
+     */
+    public Function<Client<HttpRequest, HttpResponse>, AdaptiveConcurrencyLimitingHttpClient> newDecorator() {
+        checkState(minLimit <= maxLimit, "minLimit: %s, maxLimit: %s (expected: minLimit <= maxLimit)",
+                   minLimit, maxLimit);
+        checkState(initialLimit >= minLimit && initialLimit <= maxLimit,
+                   "initialLimit: %s (expected: >= minLimit (%s) and <= maxLimit (%s))",
+                   initialLimit, minLimit, maxLimit);
+
+        final int initialLimit = this.initialLimit;
+        final int minLimit = this.minLimit;
+        final int maxLimit = this.maxLimit;
+        final double smoothing = this.smoothing;
+        final double latencyTolerance = this.latencyTolerance;
+        final long windowNanos = window.toNanos();
+        final int minWindowSamples = this.minWindowSamples;
+        final Ticker ticker = this.ticker;
+        final Supplier<AdaptiveConcurrencyLimit> limitFactory =
+                () -> new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, smoothing,
+                                                   latencyTolerance, windowNanos, minWindowSamples, ticker);
+
+        final int maxPendingRequests = this.maxPendingRequests;
+        final long timeoutMillis = timeout.toMillis();
+        final long idleTimeoutMillis = idleTimeout.toMillis();
+        final MeterIdPrefix meterIdPrefix = this.meterIdPrefix;
+        return delegate -> new AdaptiveConcurrencyLimitingHttpClient(delegate, limitFactory,
+                                                                     maxPendingRequests, timeoutMillis,
+                                                                     idleTimeoutMillis, ticker,
+                                                                     meterIdPrefix);
+    }
+}
@@ -18,21 +18,14 @@ package com.linecorp.armeria.client.limit;
 
 import static java.util.Objects.requireNonNull;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 
 import com.linecorp.armeria.client.Client;
 import com.linecorp.armeria.client.ClientRequestContext;
-import com.linecorp.armeria.client.ResponseTimeoutException;
 import com.linecorp.armeria.client.SimpleDecoratingClient;
 import com.linecorp.armeria.common.Request;
 import com.linecorp.armeria.common.Response;
-import com.linecorp.armeria.common.util.SafeCloseable;
-
-import io.netty.util.concurrent.ScheduledFuture;
 
 /**
  * An abstract {@link Client} decorator that limits the concurrent number of active requests.
@@ -52,9 +45,8 @@ public abstract class ConcurrencyLimitingClient<I extends Request, O extends Res
     private static final long DEFAULT_TIMEOUT_MILLIS = 10000L;
 
     private final int maxConcurrency;
-    private final long timeoutMillis;
     private final AtomicInteger numActiveRequests = new AtomicInteger();
-    private final Queue<PendingTask> pendingRequests = new ConcurrentLinkedQueue<>();
+    private final Limiter limiter;
 
     /**
      * Creates a new instance that decorates the specified {@code delegate} to limit the concurrent number of
@@ -84,7 +76,7 @@ public abstract class ConcurrencyLimitingClient<I extends Request, O extends Res
         validateAll(maxConcurrency, timeout, unit);
 
         this.maxConcurrency = maxConcurrency;
-        timeoutMillis = unit.toMillis(timeout);
+        limiter = new Limiter(unit.toMillis(timeout));
     }
 
     static void validateAll(int maxConcurrency, long timeout, TimeUnit unit) {
@@ -115,21 +107,7 @@ public abstract class ConcurrencyLimitingClient<I extends Request, O extends Res
     }
 
     private O limitedExecute(ClientRequestContext ctx, I req) throws Exception {
-        final Deferred<O> deferred = defer(ctx, req);
-        final PendingTask currentTask = new PendingTask(ctx, req, deferred);
-
-        pendingRequests.add(currentTask);
-        drain();
-
-        if (!currentTask.isRun() && timeoutMillis != 0) {
-            // Current request was not delegated. Schedule a timeout.
-            final ScheduledFuture<?> timeoutFuture = ctx.eventLoop().schedule(
-                    () -> deferred.close(ResponseTimeoutException.get()),
-                    timeoutMillis, TimeUnit.MILLISECONDS);
-            currentTask.set(timeoutFuture);
-        }
-
-        return deferred.response();
+        return limiter.defer(ctx, req, defer(ctx, req));
     }
 
     private O unlimitedExecute(ClientRequestContext ctx, I req) throws Exception {
@@ -150,31 +128,6 @@ public abstract class ConcurrencyLimitingClient<I extends Request, O extends Res
         }
     }
 
-    void drain() {
-        while (!pendingRequests.isEmpty()) {
-            final int currentActiveRequests = numActiveRequests.get();
-            if (currentActiveRequests >= maxConcurrency) {
-                break;
-            }
-
-            if (numActiveRequests.compareAndSet(currentActiveRequests, currentActiveRequests + 1)) {
-                final PendingTask task = pendingRequests.poll();
-                if (task == null) {
-                    numActiveRequests.decrementAndGet();
-                    if (!pendingRequests.isEmpty()) {
-                        // Another request might have been added to the queue while numActiveRequests reached
-                        // at its limit.
-                        continue;
-                    } else {
-                        break;
-                    }
-                }
-
-                task.run();
-            }
-        }
-    }
-
     /**
      * Defers the specified {@link Request}.
      *
@@ -207,52 +160,47 @@ public abstract class ConcurrencyLimitingClient<I extends Request, O extends Res
         void close(Throwable cause);
     }
 
-    private final class PendingTask extends AtomicReference<ScheduledFuture<?>> implements Runnable {
+    private final class Limiter extends AbstractConcurrencyLimiter<I, O> {
 
-        private static final long serialVersionUID = -7092037489640350376L;
-
-        private final ClientRequestContext ctx;
-        private final I req;
-        private final Deferred<O> deferred;
-        private boolean isRun;
-
-        PendingTask(ClientRequestContext ctx, I req, Deferred<O> deferred) {
-            this.ctx = ctx;
-            this.req = req;
-            this.deferred = deferred;
+        Limiter(long timeoutMillis) {
+            super(Integer.MAX_VALUE, timeoutMillis);
         }
 
-        boolean isRun() {
-            return isRun;
+        @Override
+        boolean tryAcquire() {
+            for (;;) {
+                final int currentActiveRequests = numActiveRequests.get();
+                if (currentActiveRequests >= maxConcurrency) {
+                    return false;
+                }
+                if (numActiveRequests.compareAndSet(currentActiveRequests, currentActiveRequests + 1)) {
+                    return true;
+                }
+            }
         }
 
         @Override
-        public void run() {
-            isRun = true;
+        void release() {
+            numActiveRequests.decrementAndGet();
+        }
 
-            final ScheduledFuture<?> timeoutFuture = get();
-            if (timeoutFuture != null) {
-                if (timeoutFuture.isDone() || !timeoutFuture.cancel(false)) {
-                    // Timeout task ran already or is determined to run.
-                    numActiveRequests.decrementAndGet();
-                    return;
-                }
+        @Override
+        O executeAcquired(ClientRequestContext ctx, I req) throws Exception {
+            final O res;
+            try {
+                res = delegate().execute(ctx, req);
+            } catch (Throwable t) {
+                release();
+                drain();
+                throw t;
             }
 
-            try (SafeCloseable ignored = ctx.push()) {
-                try {
-                    final O actualRes = delegate().execute(ctx, req);
-                    actualRes.completionFuture().handleAsync((unused, cause) -> {
-                        numActiveRequests.decrementAndGet();
-                        drain();
-                        return null;
-                    }, ctx.eventLoop());
-                    deferred.delegate(actualRes);
-                } catch (Throwable t) {
-                    numActiveRequests.decrementAndGet();
-                    deferred.close(t);
-                }
-            }
+            res.completionFuture().handleAsync((unused, cause) -> {
+                release();
+                drain();
+                return null;
+            }, ctx.eventLoop());
+            return res;
         }
     }
 }
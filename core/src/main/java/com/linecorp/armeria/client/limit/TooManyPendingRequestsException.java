@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.limit;
+
+/**
+ * A {@link RuntimeException} raised when a request is not executed because too many requests are deferred
+ * by {@link AdaptiveConcurrencyLimitingClient} already.
+ */
+public final class TooManyPendingRequestsException extends RuntimeException {
+
+    private static final long serialVersionUID = -4370599464346652906L;
+
+    private static final TooManyPendingRequestsException INSTANCE = new TooManyPendingRequestsException();
+
+    /**
+     * Returns a singleton {@link TooManyPendingRequestsException}.
+     */
+    public static TooManyPendingRequestsException get() {
+        return INSTANCE;
+    }
+
+    private TooManyPendingRequestsException() {
+        super(null, null, false, false);
+    }
+}
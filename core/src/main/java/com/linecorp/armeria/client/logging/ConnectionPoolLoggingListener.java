@@ -86,4 +86,14 @@ public class ConnectionPoolLoggingListener implements ConnectionPoolListener {
                         TextFormatter.elapsed(elapsedNanos), activeChannels);
         }
     }
+
+    @Override
+    public void connectionWarmedUp(SessionProtocol protocol,
+                                   InetSocketAddress remoteAddr,
+                                   InetSocketAddress localAddr,
+                                   AttributeMap attrs) throws Exception {
+        if (logger.isInfoEnabled()) {
+            logger.info("[L:{} - R:{}][{}] WARMED UP", localAddr, remoteAddr, protocol.uriText());
+        }
+    }
 }
@@ -41,6 +41,8 @@ public class RetryingHttpClientBuilder extends RetryingClientBuilder<
 
     private final boolean needsContentInStrategy;
 
+    private long maxInMemoryRequestLength;
+
     /**
      * Creates a new builder with the specified {@link RetryStrategy}.
      */
@@ -97,6 +99,23 @@ public class RetryingHttpClientBuilder extends RetryingClientBuilder<
         return self();
     }
 
+    /**
+     * Sets the maximum length of the request content kept in memory for retries. The request content
+     * published after this limit is reached is spilled to a temporary file until the request is not needed
+     * anymore, which allows retrying a request with a very large body without keeping the whole body in
+     * memory. The default value of this property is {@code 0}, which disables spilling.
+     *
+     * @return {@link RetryingHttpClientBuilder} to support method chaining
+     *
+     * @throws IllegalArgumentException if the specified {@code maxInMemoryRequestLength} is negative
+     */
+    public RetryingHttpClientBuilder maxInMemoryRequestLength(long maxInMemoryRequestLength) {
+        checkArgument(maxInMemoryRequestLength >= 0,
+                      "maxInMemoryRequestLength: %s (expected: >= 0)", maxInMemoryRequestLength);
+        this.maxInMemoryRequestLength = maxInMemoryRequestLength;
+        return self();
+    }
+
     /**
      * Returns a newly-created {@link RetryingHttpClient} based on the properties of this builder.
      */
@@ -105,11 +124,12 @@ public class RetryingHttpClientBuilder extends RetryingClientBuilder<
         if (needsContentInStrategy) {
             return new RetryingHttpClient(delegate, retryStrategyWithContent(), maxTotalAttempts(),
                                           responseTimeoutMillisForEachAttempt(), useRetryAfter,
-                                          contentPreviewLength);
+                                          contentPreviewLength, maxInMemoryRequestLength);
         }
 
         return new RetryingHttpClient(delegate, retryStrategy(), maxTotalAttempts(),
-                                      responseTimeoutMillisForEachAttempt(), useRetryAfter);
+                                      responseTimeoutMillisForEachAttempt(), useRetryAfter,
+                                      maxInMemoryRequestLength);
     }
 
     /**
@@ -123,7 +143,9 @@ public class RetryingHttpClientBuilder extends RetryingClientBuilder<
 
     @Override
     public String toString() {
-        final ToStringHelper stringHelper = toStringHelper().add("useRetryAfter", this.useRetryAfter);
+        final ToStringHelper stringHelper = toStringHelper().add("useRetryAfter", this.useRetryAfter)
+                                                            .add("maxInMemoryRequestLength",
+                                                                 maxInMemoryRequestLength);
         if (needsContentInStrategy) {
             stringHelper.add("contentPreviewLength", contentPreviewLength);
         }
@@ -22,13 +22,20 @@ final class DefaultResponseHeaders extends DefaultHttpHeaders implements Respons
 
     @Nullable
     private HttpStatus status;
+    private final boolean frozen;
 
     DefaultResponseHeaders(HttpHeadersBase headers) {
+        this(headers, false);
+    }
+
+    DefaultResponseHeaders(HttpHeadersBase headers, boolean frozen) {
         super(headers);
+        this.frozen = frozen;
     }
 
     DefaultResponseHeaders(HttpHeaderGetters headers) {
         super(headers);
+        frozen = false;
     }
 
     @Override
@@ -41,6 +48,11 @@ final class DefaultResponseHeaders extends DefaultHttpHeaders implements Respons
         return this.status = super.status();
     }
 
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
     @Override
     public ResponseHeadersBuilder toBuilder() {
         return new DefaultResponseHeadersBuilder(this);
@@ -23,6 +23,8 @@ final class DefaultResponseHeadersBuilder
 
     private static final String STATUS_HEADER_MISSING = ":status header does not exist.";
 
+    private boolean frozen;
+
     DefaultResponseHeadersBuilder() {}
 
     DefaultResponseHeadersBuilder(DefaultResponseHeaders headers) {
@@ -34,7 +36,7 @@ final class DefaultResponseHeadersBuilder
         final HttpHeadersBase delegate = delegate();
         if (delegate != null) {
             checkState(delegate.contains(HttpHeaderNames.STATUS), STATUS_HEADER_MISSING);
-            return new DefaultResponseHeaders(promoteDelegate());
+            return new DefaultResponseHeaders(promoteDelegate(), frozen);
         }
 
         final HttpHeadersBase parent = parent();
@@ -64,4 +66,10 @@ final class DefaultResponseHeadersBuilder
         setters().status(status);
         return this;
     }
+
+    @Override
+    public ResponseHeadersBuilder frozen(boolean frozen) {
+        this.frozen = frozen;
+        return this;
+    }
 }
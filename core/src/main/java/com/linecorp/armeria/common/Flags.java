@@ -51,6 +51,7 @@ import com.linecorp.armeria.server.ServerBuilder;
 import com.linecorp.armeria.server.ServiceConfig;
 import com.linecorp.armeria.server.annotation.ExceptionHandler;
 import com.linecorp.armeria.server.annotation.ExceptionVerbosity;
+import com.linecorp.armeria.server.file.HttpFile;
 
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.epoll.Epoll;
@@ -207,6 +208,7 @@ public final class Flags {
 
     private static final boolean DEFAULT_USE_HTTP2_PREFACE = getBoolean("defaultUseHttp2Preface", true);
     private static final boolean DEFAULT_USE_HTTP1_PIPELINING = getBoolean("defaultUseHttp1Pipelining", false);
+    private static final boolean USE_ARMERIA_HTTP1_DECODER = getBoolean("useArmeriaHttp1Decoder", false);
 
     private static final String DEFAULT_DEFAULT_BACKOFF_SPEC =
             "exponential=200:10000,jitter=0.2";
@@ -227,6 +229,11 @@ public final class Flags {
                    DEFAULT_DEFAULT_MAX_TOTAL_ATTEMPTS,
                    value -> value > 0);
 
+    private static final boolean USE_EVENT_LOOP_LOCAL_CACHES = getBoolean("useEventLoopLocalCaches", false);
+
+    private static final long ZERO_COPY_FILE_THRESHOLD =
+            getLong("zeroCopyFileThreshold", 0, value -> value >= 0);
+
     private static final String DEFAULT_ROUTE_CACHE_SPEC = "maximumSize=4096";
     private static final Optional<String> ROUTE_CACHE_SPEC =
             caffeineSpec("routeCache", DEFAULT_ROUTE_CACHE_SPEC);
@@ -573,6 +580,20 @@ public final class Flags {
         return DEFAULT_USE_HTTP1_PIPELINING;
     }
 
+    /**
+     * Returns whether a server decodes an HTTP/1 request with Armeria's own decoder, which parses
+     * the request line and headers directly into {@link RequestHeaders}, instead of converting
+     * the Netty {@link io.netty.handler.codec.http.HttpRequest} decoded by Netty's HTTP/1 codec.
+     * Note that a cleartext HTTP/1 connection is still handed over to Netty's HTTP/1 codec
+     * when its first request is an {@code upgrade} request.
+     *
+     * <p>This flag is disabled by default. Specify the
+     * {@code -Dcom.linecorp.armeria.useArmeriaHttp1Decoder=true} JVM option to enable it.
+     */
+    public static boolean useArmeriaHttp1Decoder() {
+        return USE_ARMERIA_HTTP1_DECODER;
+    }
+
     /**
      * Returns the default value of the {@link ServerBuilder#http2InitialConnectionWindowSize(int)} and
      * {@link ClientFactoryBuilder#http2InitialConnectionWindowSize(int)} option.
@@ -661,6 +682,35 @@ public final class Flags {
         return DEFAULT_MAX_TOTAL_ATTEMPTS;
     }
 
+    /**
+     * Returns whether the {@code routeCache} and the {@code parsedPathCache} are kept separately for each
+     * event loop. When enabled, each event loop owns its own fixed-size, non-synchronized hash table which
+     * evicts an entry using the CLOCK algorithm, so that it does not contend with other event loops.
+     * Only the {@code maximumSize} property of {@link #routeCacheSpec()} and {@link #parsedPathCacheSpec()}
+     * is used to determine the size of the table of each event loop. When disabled, a single Caffeine
+     * {@link Cache} is shared by all event loops.
+     *
+     * <p>This flag is disabled by default. Specify the
+     * {@code -Dcom.linecorp.armeria.useEventLoopLocalCaches=true} JVM option to enable it.
+     */
+    public static boolean useEventLoopLocalCaches() {
+        return USE_EVENT_LOOP_LOCAL_CACHES;
+    }
+
+    /**
+     * Returns the minimum length of a file, in bytes, which is served without copying its content into
+     * a buffer when it is read from the file system by {@link HttpFile}. Such a file is transferred to
+     * the socket by the kernel, e.g. with {@code sendfile()}, on a cleartext HTTP/1 connection, and served
+     * from the memory-mapped regions of the file otherwise. {@code 0} disables this feature.
+     *
+     * <p>This flag is disabled by default. Specify the
+     * {@code -Dcom.linecorp.armeria.zeroCopyFileThreshold=<long>} JVM option to enable it, e.g.
+     * {@code 1048576} to serve the files larger than or equal to 1 MiB without copying.
+     */
+    public static long zeroCopyFileThreshold() {
+        return ZERO_COPY_FILE_THRESHOLD;
+    }
+
     /**
      * Returns the value of the {@code routeCache} parameter. It would be used to create a Caffeine
      * {@link Cache} instance using {@link Caffeine#from(String)} for routing a request. The {@link Cache}
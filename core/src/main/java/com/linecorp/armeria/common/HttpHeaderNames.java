@@ -224,6 +224,10 @@ public final class HttpHeaderNames {
      * The HTTP {@code "Prefer"} header field name.
      */
     public static final AsciiString PREFER = create("Prefer");
+    /**
+     * The HTTP {@code "Preference-Applied"} header field name.
+     */
+    public static final AsciiString PREFERENCE_APPLIED = create("Preference-Applied");
     /**
      * The HTTP {@code "Proxy-Authorization"} header field name.
      */
@@ -81,12 +81,27 @@ public class HttpRequestDuplicator extends AbstractStreamMessageDuplicator<HttpO
      * @param executor the executor to use for upstream signals.
      */
     public HttpRequestDuplicator(HttpRequest req, long maxSignalLength, @Nullable EventExecutor executor) {
+        this(req, maxSignalLength, executor, 0);
+    }
+
+    /**
+     * Creates a new instance wrapping a {@link HttpRequest} and publishing to multiple subscribers.
+     * The {@link HttpData} which exceed {@code maxInMemorySignalLength} are spilled to a temporary file
+     * instead of being kept in memory until all subscribers consume them.
+     * @param req the request that will publish data to subscribers
+     * @param maxSignalLength the maximum length of signals. {@code 0} disables the length limit
+     * @param executor the executor to use for upstream signals.
+     * @param maxInMemorySignalLength the maximum length of the {@link HttpData} kept in memory.
+     *                                {@code 0} disables spilling.
+     */
+    public HttpRequestDuplicator(HttpRequest req, long maxSignalLength, @Nullable EventExecutor executor,
+                                 long maxInMemorySignalLength) {
         super(requireNonNull(req, "req"), obj -> {
             if (obj instanceof HttpData) {
                 return ((HttpData) obj).length();
             }
             return 0;
-        }, executor, maxSignalLength);
+        }, executor, maxSignalLength, maxInMemorySignalLength);
         headers = req.headers();
     }
 
@@ -82,12 +82,27 @@ public class HttpResponseDuplicator
      * @param executor the executor to use for upstream signals.
      */
     public HttpResponseDuplicator(HttpResponse res, long maxSignalLength, @Nullable EventExecutor executor) {
+        this(res, maxSignalLength, executor, 0);
+    }
+
+    /**
+     * Creates a new instance wrapping a {@link HttpResponse} and publishing to multiple subscribers.
+     * The {@link HttpData} which exceed {@code maxInMemorySignalLength} are spilled to a temporary file
+     * instead of being kept in memory until all subscribers consume them.
+     * @param res the response that will publish data to subscribers
+     * @param maxSignalLength the maximum length of signals. {@code 0} disables the length limit
+     * @param executor the executor to use for upstream signals.
+     * @param maxInMemorySignalLength the maximum length of the {@link HttpData} kept in memory.
+     *                                {@code 0} disables spilling.
+     */
+    public HttpResponseDuplicator(HttpResponse res, long maxSignalLength, @Nullable EventExecutor executor,
+                                  long maxInMemorySignalLength) {
         super(requireNonNull(res, "res"), obj -> {
             if (obj instanceof HttpData) {
                 return ((HttpData) obj).length();
             }
             return 0;
-        }, executor, maxSignalLength);
+        }, executor, maxSignalLength, maxInMemorySignalLength);
     }
 
     @Override
@@ -192,6 +192,18 @@ public interface ResponseHeaders extends HttpHeaders, ResponseHeaderGetters {
         return new DefaultResponseHeaders(headers);
     }
 
+    /**
+     * Returns whether this headers is frozen, i.e. meant to be sent for many responses as it is.
+     * A server caches the encoded form of the frozen headers, so that it does not have to encode
+     * them again for every response.
+     *
+     * @return {@code false} by default
+     * @see ResponseHeadersBuilder#frozen(boolean)
+     */
+    default boolean isFrozen() {
+        return false;
+    }
+
     @Override
     ResponseHeadersBuilder toBuilder();
 
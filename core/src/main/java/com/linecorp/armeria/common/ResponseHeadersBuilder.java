@@ -42,6 +42,25 @@ public interface ResponseHeadersBuilder extends HttpHeadersBuilder, ResponseHead
      */
     ResponseHeadersBuilder status(HttpStatus status);
 
+    /**
+     * Sets whether the {@link ResponseHeaders} built by this builder is frozen. Freeze the headers which
+     * are built once and sent for many responses, such as a {@code static final} {@link ResponseHeaders}.
+     * A server computes the encoded form of the frozen headers only once and reuses it for the following
+     * responses. Note that a builder created by {@link ResponseHeaders#toBuilder()} is not frozen even
+     * if the original headers is frozen, and this property has no effect when the builder returns
+     * the original headers as it is because no modification has been made. The default implementation
+     * ignores this property.
+     *
+     * <p>On an HTTP/1 connection, the encoded form is reused only when
+     * {@link Flags#useArmeriaHttp1Decoder()} is enabled, because the HTTP/1 codec of Netty used otherwise
+     * may modify the headers it writes. On an HTTP/2 connection, it is always reused.
+     *
+     * @see ResponseHeaders#isFrozen()
+     */
+    default ResponseHeadersBuilder frozen(boolean frozen) {
+        return this;
+    }
+
     // Override the return type of the chaining methods in the superclass.
 
     @Override
@@ -57,14 +57,7 @@ abstract class AbstractStreamMessageAndWriter<T> extends AbstractStreamMessage<T
 
     @Override
     public boolean tryWrite(T obj) {
-        requireNonNull(obj, "obj");
-        if (obj instanceof ReferenceCounted) {
-            ((ReferenceCounted) obj).touch();
-            if (!(obj instanceof ByteBufHolder) && !(obj instanceof ByteBuf)) {
-                throw new IllegalArgumentException(
-                        "can't publish a ReferenceCounted that's not a ByteBuf or a ByteBufHolder: " + obj);
-            }
-        }
+        validateObject(obj);
 
         if (!isOpen()) {
             ReferenceCountUtil.safeRelease(obj);
@@ -75,6 +68,33 @@ abstract class AbstractStreamMessageAndWriter<T> extends AbstractStreamMessage<T
         return true;
     }
 
+    @Override
+    public boolean tryWriteAll(Iterable<? extends T> objs) {
+        requireNonNull(objs, "objs");
+        for (T obj : objs) {
+            validateObject(obj);
+        }
+
+        if (!isOpen()) {
+            objs.forEach(ReferenceCountUtil::safeRelease);
+            return false;
+        }
+
+        addObjects(objs);
+        return true;
+    }
+
+    private static void validateObject(Object obj) {
+        requireNonNull(obj, "obj");
+        if (obj instanceof ReferenceCounted) {
+            ((ReferenceCounted) obj).touch();
+            if (!(obj instanceof ByteBufHolder) && !(obj instanceof ByteBuf)) {
+                throw new IllegalArgumentException(
+                        "can't publish a ReferenceCounted that's not a ByteBuf or a ByteBufHolder: " + obj);
+            }
+        }
+    }
+
     @Override
     public CompletableFuture<Void> onDemand(Runnable task) {
         requireNonNull(task, "task");
@@ -94,6 +114,15 @@ abstract class AbstractStreamMessageAndWriter<T> extends AbstractStreamMessage<T
      */
     abstract void addObject(T obj);
 
+    /**
+     * Adds the objects to publish to the stream, so that they are published together if possible.
+     */
+    void addObjects(Iterable<? extends T> objs) {
+        for (T obj : objs) {
+            addObject(obj);
+        }
+    }
+
     /**
      * Adds an object to publish (of type {@code T} or an event (e.g., {@link CloseEvent},
      * {@link AwaitDemandFuture}) to the stream.
@@ -22,12 +22,20 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.linecorp.armeria.common.stream.StreamMessageUtil.abortedOrLate;
 import static java.util.Objects.requireNonNull;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
@@ -36,17 +44,23 @@ import javax.annotation.Nullable;
 
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects.ToStringHelper;
 import com.spotify.futures.CompletableFutures;
 
 import com.linecorp.armeria.common.CommonPools;
+import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.RequestContext;
+import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.armeria.common.util.SafeCloseable;
+import com.linecorp.armeria.unsafe.ByteBufHttpData;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufHolder;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.EventExecutor;
@@ -69,6 +83,12 @@ import io.netty.util.concurrent.ImmediateEventExecutor;
  * </p><p>
  * This factory has to be closed by {@link AbstractStreamMessageDuplicator#close()} when
  * you do not need the contents anymore, otherwise memory leak might happen.
+ * </p><p>
+ * If {@code maxInMemorySignalLength} is specified, the {@link HttpData} published after the total length
+ * of the {@link HttpData} kept in memory exceeds {@code maxInMemorySignalLength} are written into
+ * a temporary file and released. They are read back from the file into a new buffer when a subscriber
+ * consumes them, so that a large stream can be duplicated with bounded heap and direct memory. The file I/O
+ * is performed by {@link CommonPools#blockingTaskExecutor()} rather than the event loop.
  * </p>
  * @param <T> the type of elements
  * @param <U> the type of the publisher and duplicated stream messages
@@ -76,6 +96,8 @@ import io.netty.util.concurrent.ImmediateEventExecutor;
 public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage<T>>
         implements SafeCloseable {
 
+    private static final Logger logger = LoggerFactory.getLogger(AbstractStreamMessageDuplicator.class);
+
     @SuppressWarnings("rawtypes")
     private static final CompletableFuture[] EMPTY_FUTURES = new CompletableFuture[0];
 
@@ -93,10 +115,28 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
     protected AbstractStreamMessageDuplicator(
             U publisher, SignalLengthGetter<? super T> signalLengthGetter,
             @Nullable EventExecutor executor, long maxSignalLength) {
+        this(publisher, signalLengthGetter, executor, maxSignalLength, 0);
+    }
+
+    /**
+     * Creates a new instance wrapping a {@code publisher} and publishing to multiple subscribers.
+     * @param publisher the publisher who will publish data to subscribers
+     * @param signalLengthGetter the signal length getter that produces the length of signals
+     * @param executor the executor to use for upstream signals
+     * @param maxSignalLength the maximum length of signals. {@code 0} disables the length limit
+     * @param maxInMemorySignalLength the maximum length of the {@link HttpData} signals kept in memory.
+     *                                The {@link HttpData} signals which exceed this limit are spilled to
+     *                                a temporary file. {@code 0} disables spilling.
+     */
+    protected AbstractStreamMessageDuplicator(
+            U publisher, SignalLengthGetter<? super T> signalLengthGetter,
+            @Nullable EventExecutor executor, long maxSignalLength, long maxInMemorySignalLength) {
         requireNonNull(publisher, "publisher");
         requireNonNull(signalLengthGetter, "signalLengthGetter");
         checkArgument(maxSignalLength >= 0,
                       "maxSignalLength: %s (expected: >= 0)", maxSignalLength);
+        checkArgument(maxInMemorySignalLength >= 0,
+                      "maxInMemorySignalLength: %s (expected: >= 0)", maxInMemorySignalLength);
         if (executor != null) {
             duplicatorExecutor = executor;
         } else {
@@ -105,7 +145,8 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
         }
 
         processor = new StreamMessageProcessor<>(publisher, signalLengthGetter,
-                                                 duplicatorExecutor, maxSignalLength);
+                                                 duplicatorExecutor, maxSignalLength,
+                                                 maxInMemorySignalLength);
     }
 
     /**
@@ -177,8 +218,25 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
         private final SignalLengthGetter<Object> signalLengthGetter;
         private final EventExecutor processorExecutor;
         private final int maxSignalLength;
+        private final int maxInMemorySignalLength;
         private int signalLength;
 
+        private final Executor blockingTaskExecutor = CommonPools.blockingTaskExecutor();
+
+        /**
+         * The future of the last write into the temporary file where the {@link HttpData} signals are
+         * spilled to. The file is created lazily by the first write, and the writes are chained so that
+         * they are performed one at a time by the {@link #blockingTaskExecutor}.
+         */
+        private CompletableFuture<FileChannel> lastSpillFuture = CompletableFuture.completedFuture(null);
+        /**
+         * The temporary file which is opened by the first write. Accessed only by the tasks chained to
+         * {@link #lastSpillFuture}, so that it can be closed even if a write has failed.
+         */
+        @Nullable
+        private FileChannel spillFile;
+        private long spillFileLength;
+
         private final Set<DownstreamSubscription<T>> downstreamSubscriptions =
                 Collections.newSetFromMap(new ConcurrentHashMap<>());
 
@@ -194,19 +252,23 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
 
         @SuppressWarnings("unchecked")
         StreamMessageProcessor(StreamMessage<T> upstream, SignalLengthGetter<?> signalLengthGetter,
-                               EventExecutor executor, long maxSignalLength) {
+                               EventExecutor executor, long maxSignalLength, long maxInMemorySignalLength) {
             this.upstream = upstream;
             this.signalLengthGetter = (SignalLengthGetter<Object>) signalLengthGetter;
             processorExecutor = executor;
-            if (maxSignalLength == 0 || maxSignalLength > Integer.MAX_VALUE) {
-                this.maxSignalLength = Integer.MAX_VALUE;
-            } else {
-                this.maxSignalLength = (int) maxSignalLength;
-            }
+            this.maxSignalLength = toIntLimit(maxSignalLength);
+            this.maxInMemorySignalLength = toIntLimit(maxInMemorySignalLength);
             signals = new SignalQueue(this.signalLengthGetter);
             upstream.subscribe(this, processorExecutor, true);
         }
 
+        private static int toIntLimit(long limit) {
+            if (limit == 0 || limit > Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            }
+            return (int) limit;
+        }
+
         StreamMessage<T> upstream() {
             return upstream;
         }
@@ -267,6 +329,11 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
                                 "signal length greater than the maxSignalLength: " + maxSignalLength);
                     }
                     signalLength += dataLength;
+
+                    if (obj instanceof HttpData &&
+                        dataLength > maxInMemorySignalLength - signals.inMemoryLength()) {
+                        obj = spill((HttpData) obj, dataLength);
+                    }
                 }
             }
 
@@ -285,6 +352,71 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
             }
         }
 
+        /**
+         * Schedules the write of the specified {@link HttpData} into the spill file, which releases it
+         * when done.
+         */
+        private SpilledSignal spill(HttpData data, int length) {
+            final long position = spillFileLength;
+            final boolean endOfStream = data.isEndOfStream();
+            spillFileLength += length;
+            final CompletableFuture<FileChannel> writeFuture = lastSpillFuture.handleAsync((unused, cause) -> {
+                try {
+                    if (cause != null) {
+                        return Exceptions.throwUnsafely(cause);
+                    }
+                    return writeSpill(data, position, length);
+                } catch (Throwable t) {
+                    upstream.abort();
+                    // Nothing can be read from the file anymore once the upstream is aborted.
+                    closeSpillFile();
+                    return Exceptions.throwUnsafely(t);
+                } finally {
+                    ReferenceCountUtil.safeRelease(data);
+                }
+            }, blockingTaskExecutor);
+            lastSpillFuture = writeFuture;
+            return new SpilledSignal(writeFuture, position, length, endOfStream);
+        }
+
+        private FileChannel writeSpill(HttpData data, long position, int length) throws IOException {
+            FileChannel spillFile = this.spillFile;
+            if (spillFile == null) {
+                final Path path = Files.createTempFile("armeria-duplicator.", ".tmp");
+                spillFile = this.spillFile =
+                        FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                         StandardOpenOption.DELETE_ON_CLOSE);
+            }
+
+            if (data instanceof ByteBufHolder) {
+                final ByteBuf content = ((ByteBufHolder) data).content();
+                int written = 0;
+                while (written < length) {
+                    written += content.getBytes(content.readerIndex() + written, spillFile,
+                                                position + written, length - written);
+                }
+            } else {
+                final ByteBuffer buf = ByteBuffer.wrap(data.array(), 0, length);
+                while (buf.hasRemaining()) {
+                    spillFile.write(buf, position + buf.position());
+                }
+            }
+            return spillFile;
+        }
+
+        private void closeSpillFile() {
+            final FileChannel spillFile = this.spillFile;
+            if (spillFile == null) {
+                return;
+            }
+            this.spillFile = null;
+            try {
+                spillFile.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close a spill file: {}", spillFile, e);
+            }
+        }
+
         void subscribe(DownstreamSubscription<T> subscription) {
             if (processorExecutor.inEventLoop()) {
                 doSubscribe(subscription);
@@ -354,7 +486,7 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
                 if (state == State.LAST_DOWNSTREAM_ADDED) {
                     state = State.CLOSED;
                     upstream.abort();
-                    signals.clear();
+                    clearSignals();
                 }
             }
         }
@@ -409,10 +541,19 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
             final CompletableFuture<Void> allDoneFuture = CompletableFuture.allOf(
                     completionFutures.toArray(EMPTY_FUTURES));
             allDoneFuture.handle((unused1, unused2) -> {
-                signals.clear();
+                clearSignals();
                 return null;
             });
         }
+
+        private void clearSignals() {
+            signals.clear();
+            if (spillFileLength == 0) {
+                return;
+            }
+            // Close the file after the pending writes. The file is deleted on close.
+            lastSpillFuture.whenCompleteAsync((unused1, unused2) -> closeSpillFile(), blockingTaskExecutor);
+        }
     }
 
     private static class ChildStreamMessage<T> implements StreamMessage<T> {
@@ -596,6 +737,7 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
         private volatile int offset;
         private long cumulativeDemand;
         private boolean inOnNext;
+        private boolean loadingSpilledSignal;
 
         DownstreamSubscription(ChildStreamMessage<T> streamMessage,
                                Subscriber<? super T> subscriber, StreamMessageProcessor<T> processor,
@@ -704,6 +846,12 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
                 return false;
             }
 
+            if (loadingSpilledSignal) {
+                // A spilled signal is being read from the spill file. doSignal() will be invoked again
+                // once the signal is delivered to the subscriber.
+                return false;
+            }
+
             if (cancelledOrAborted != null) {
                 // Stream ended due to cancellation or abortion.
                 processor.unsubscribe(this, cancelledOrAborted);
@@ -738,6 +886,12 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
                 }
 
                 offset++;
+                if (signal instanceof SpilledSignal) {
+                    requestRemovalIfNeeded(signals);
+                    loadSpilledSignal((SpilledSignal) signal);
+                    return false;
+                }
+
                 @SuppressWarnings("unchecked")
                 T obj = (T) signal;
                 ReferenceCountUtil.touch(obj);
@@ -763,17 +917,7 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
                     return false;
                 }
 
-                if (processor.isLastDownstreamAdded()) {
-                    if (++processor.downstreamSignaledCounter >= REQUEST_REMOVAL_THRESHOLD) {
-                        // don't need to use AtomicBoolean cause it's used for rough counting
-                        processor.downstreamSignaledCounter = 0;
-                        int minOffset = Integer.MAX_VALUE;
-                        for (DownstreamSubscription<?> s : processor.downstreamSubscriptions) {
-                            minOffset = Math.min(minOffset, s.offset);
-                        }
-                        signals.requestRemovalAheadOf(minOffset);
-                    }
-                }
+                requestRemovalIfNeeded(signals);
 
                 inOnNext = true;
                 try {
@@ -785,6 +929,51 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
             }
         }
 
+        private void requestRemovalIfNeeded(SignalQueue signals) {
+            if (processor.isLastDownstreamAdded()) {
+                if (++processor.downstreamSignaledCounter >= REQUEST_REMOVAL_THRESHOLD) {
+                    // don't need to use AtomicBoolean cause it's used for rough counting
+                    processor.downstreamSignaledCounter = 0;
+                    int minOffset = Integer.MAX_VALUE;
+                    for (DownstreamSubscription<?> s : processor.downstreamSubscriptions) {
+                        minOffset = Math.min(minOffset, s.offset);
+                    }
+                    signals.requestRemovalAheadOf(minOffset);
+                }
+            }
+        }
+
+        /**
+         * Reads the specified {@link SpilledSignal} using the blocking task executor, and then delivers it
+         * to the subscriber using the {@link #executor}. No other signal is delivered in the meantime.
+         */
+        private void loadSpilledSignal(SpilledSignal signal) {
+            loadingSpilledSignal = true;
+            signal.load(processor.blockingTaskExecutor, withPooledObjects).handleAsync((data, cause) -> {
+                loadingSpilledSignal = false;
+                if (cause != null) {
+                    processor.unsubscribe(this, Exceptions.peel(cause));
+                    return null;
+                }
+                if (cancelledOrAborted != null) {
+                    data.release();
+                    processor.unsubscribe(this, cancelledOrAborted);
+                    return null;
+                }
+
+                @SuppressWarnings("unchecked")
+                final T obj = (T) data;
+                inOnNext = true;
+                try {
+                    subscriber.onNext(obj);
+                } finally {
+                    inOnNext = false;
+                }
+                doSignal();
+                return null;
+            }, executor);
+        }
+
         @Override
         public void cancel() {
             if (cancelledOrAbortedUpdater.compareAndSet(this, null, CancelledSubscriptionException.get())) {
@@ -840,6 +1029,59 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
         }
     }
 
+    /**
+     * An {@link HttpData} signal which has been written into the spill file of a
+     * {@link StreamMessageProcessor}.
+     */
+    private static final class SpilledSignal {
+
+        private final CompletableFuture<FileChannel> writeFuture;
+        private final long position;
+        private final int length;
+        private final boolean endOfStream;
+
+        SpilledSignal(CompletableFuture<FileChannel> writeFuture, long position, int length,
+                      boolean endOfStream) {
+            this.writeFuture = writeFuture;
+            this.position = position;
+            this.length = length;
+            this.endOfStream = endOfStream;
+        }
+
+        /**
+         * Reads the signal from the spill file into a new pooled buffer, or a new heap buffer if
+         * {@code withPooledObjects} is {@code false}, once the signal has been written into the file.
+         */
+        CompletableFuture<ByteBufHttpData> load(Executor blockingTaskExecutor, boolean withPooledObjects) {
+            return writeFuture.thenApplyAsync(file -> {
+                final ByteBuf content = withPooledObjects ? PooledByteBufAllocator.DEFAULT.buffer(length)
+                                                          : Unpooled.buffer(length);
+                boolean success = false;
+                try {
+                    while (content.isWritable()) {
+                        if (content.writeBytes(file, position + content.writerIndex(),
+                                               content.writableBytes()) < 0) {
+                            throw new EOFException("unexpected end of a spill file: " + file);
+                        }
+                    }
+                    success = true;
+                    return new ByteBufHttpData(content, endOfStream);
+                } catch (IOException e) {
+                    return Exceptions.throwUnsafely(e);
+                } finally {
+                    if (!success) {
+                        content.release();
+                    }
+                }
+            }, blockingTaskExecutor);
+        }
+
+        @Override
+        public String toString() {
+            return "SpilledSignal(" + position + ", " + length + ')';
+        }
+    }
+
     /**
      * A circular queue that stores signals in order and retrieves by {@link #get(int)}.
      * Addition and removal of elements are done by only one thread, or at least once at a time. Reading
@@ -861,6 +1103,7 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
         private volatile int size;
 
         private int headOffset; // head offset from the first including removed elements
+        private int inMemoryLength; // the total length of the signals which were not spilled
         @SuppressWarnings("unused")
         private volatile int lastRemovalRequestedOffset;
 
@@ -884,6 +1127,9 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
 
             elements[t] = o;
             size++;
+            if (!(o instanceof CloseEvent || o instanceof SpilledSignal)) {
+                inMemoryLength += signalLengthGetter.length(o);
+            }
             if ((tail = t + 1 & elements.length - 1) == head) {
                 doubleCapacity();
             }
@@ -905,8 +1151,12 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
             for (int numRemovals = 0; numRemovals < numElementsToBeRemoved; numRemovals++) {
                 final int index = oldHead + numRemovals & bitMask;
                 final Object o = elements[index];
-                if (!(o instanceof CloseEvent)) {
-                    removedLength += signalLengthGetter.length(o);
+                if (o instanceof SpilledSignal) {
+                    removedLength += ((SpilledSignal) o).length;
+                } else if (!(o instanceof CloseEvent)) {
+                    final int length = signalLengthGetter.length(o);
+                    removedLength += length;
+                    inMemoryLength -= length;
                 }
                 ReferenceCountUtil.safeRelease(o);
                 elements[index] = null;
@@ -991,6 +1241,13 @@ public abstract class AbstractStreamMessageDuplicator<T, U extends StreamMessage
             return size;
         }
 
+        /**
+         * Invoked by the executor in {@link StreamMessageProcessor}.
+         */
+        int inMemoryLength() {
+            return inMemoryLength;
+        }
+
         // Removes references to all objects.
         void clear() {
             final Object[] oldElements = elements;
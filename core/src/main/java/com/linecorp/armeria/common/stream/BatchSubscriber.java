@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.common.stream;
+
+import java.util.List;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * A {@link Subscriber} which can receive all the elements queued in a {@link StreamMessage} in a single
+ * callback. A {@link StreamMessage} which supports batched delivery, such as {@link DefaultStreamMessage},
+ * invokes {@link #onNextBatch(List)} instead of {@link #onNext(Object)} with the elements which have been
+ * written but not consumed yet. Note that a delivered batch consumes only one demand, i.e.
+ * {@link Subscription#request(long) Subscription.request(1)} requests one batch rather than one element.
+ *
+ * <p>A {@link StreamMessage} which does not support batched delivery invokes {@link #onNext(Object)} as
+ * usual, so an implementation must be prepared to receive the elements via either method.
+ *
+ * @param <T> the type of element signaled
+ */
+public interface BatchSubscriber<T> extends Subscriber<T> {
+
+    /**
+     * Invoked with the elements which have been queued in the {@link StreamMessage}, in the order they were
+     * written. The specified {@link List} is never empty and is reused by the {@link StreamMessage}, so it
+     * must not be retained after this method returns.
+     */
+    void onNextBatch(List<T> elements);
+}
@@ -18,6 +18,8 @@ package com.linecorp.armeria.common.stream;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -60,6 +62,9 @@ import io.netty.util.concurrent.ImmediateEventExecutor;
  * stream(myPub, 0, Integer.MAX_VALUE);
  * }</pre>
  *
+ * <p>If the {@link Subscriber} is a {@link BatchSubscriber}, the elements in the {@link Queue} are published
+ * in a batch via {@link BatchSubscriber#onNextBatch(List)}, consuming one demand for each batch.
+ *
  * @param <T> the type of element signaled
  */
 public class DefaultStreamMessage<T> extends AbstractStreamMessageAndWriter<T> {
@@ -73,6 +78,11 @@ public class DefaultStreamMessage<T> extends AbstractStreamMessageAndWriter<T> {
     private static final AtomicReferenceFieldUpdater<DefaultStreamMessage, State> stateUpdater =
             AtomicReferenceFieldUpdater.newUpdater(DefaultStreamMessage.class, State.class, "state");
 
+    /**
+     * The maximum number of the elements published in a batch to a {@link BatchSubscriber}.
+     */
+    private static final int MAX_BATCH_SIZE = 64;
+
     private final Queue<Object> queue;
 
     @Nullable
@@ -89,6 +99,9 @@ public class DefaultStreamMessage<T> extends AbstractStreamMessageAndWriter<T> {
     private boolean inOnNext;
     private boolean invokedOnSubscribe;
 
+    @Nullable
+    private List<Object> batch; // accessed only in the subscriber thread
+
     /**
      * Creates a new instance.
      */
@@ -151,6 +164,22 @@ public class DefaultStreamMessage<T> extends AbstractStreamMessageAndWriter<T> {
         addObjectOrEvent(obj);
     }
 
+    @Override
+    void addObjects(Iterable<? extends T> objs) {
+        boolean added = false;
+        for (T obj : objs) {
+            if (!added) {
+                wroteAny = true;
+                added = true;
+            }
+            queue.add(obj);
+        }
+
+        if (added) {
+            notifySubscriber();
+        }
+    }
+
     @Override
     long demand() {
         return demand;
@@ -334,6 +363,11 @@ public class DefaultStreamMessage<T> extends AbstractStreamMessageAndWriter<T> {
             demand--;
         }
 
+        if (subscriber instanceof BatchSubscriber) {
+            notifyBatchSubscriber(subscription, (BatchSubscriber<Object>) subscriber);
+            return true;
+        }
+
         @SuppressWarnings("unchecked")
         T o = (T) queue.remove();
         inOnNext = true;
@@ -346,6 +380,33 @@ public class DefaultStreamMessage<T> extends AbstractStreamMessageAndWriter<T> {
         return true;
     }
 
+    private void notifyBatchSubscriber(SubscriptionImpl subscription, BatchSubscriber<Object> subscriber) {
+        List<Object> batch = this.batch;
+        if (batch == null) {
+            this.batch = batch = new ArrayList<>();
+        }
+
+        try {
+            // Take the consecutive elements until an event such as CloseEvent, which has to be handled
+            // separately, is found.
+            do {
+                @SuppressWarnings("unchecked")
+                final T o = (T) queue.remove();
+                batch.add(prepareObjectForNotification(subscription, o));
+            } while (batch.size() < MAX_BATCH_SIZE && isElement(queue.peek()));
+
+            inOnNext = true;
+            subscriber.onNextBatch(batch);
+        } finally {
+            inOnNext = false;
+            batch.clear();
+        }
+    }
+
+    private static boolean isElement(@Nullable Object o) {
+        return o != null && !(o instanceof CloseEvent) && !(o instanceof AwaitDemandFuture);
+    }
+
     private boolean notifyAwaitDemandFuture() {
         if (demand == 0) {
             return false;
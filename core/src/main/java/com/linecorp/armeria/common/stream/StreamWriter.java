@@ -16,6 +16,8 @@
 
 package com.linecorp.armeria.common.stream;
 
+import static java.util.Objects.requireNonNull;
+
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
@@ -26,6 +28,7 @@ import org.reactivestreams.Subscriber;
 import com.linecorp.armeria.unsafe.ByteBufHttpData;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.ReferenceCounted;
 
 /**
@@ -39,6 +42,7 @@ import io.netty.util.ReferenceCounted;
  * <ul>
  *   <li>{@link #tryWrite(Object)}</li>
  *   <li>{@link #tryWrite(Supplier)}</li>
+ *   <li>{@link #tryWriteAll(Iterable)}</li>
  *   <li>{@link #write(Object)}</li>
  *   <li>{@link #write(Supplier)}</li>
  * </ul>
@@ -111,6 +115,32 @@ public interface StreamWriter<T> {
         return tryWrite(o.get());
     }
 
+    /**
+     * Writes the specified objects to the {@link StreamMessage} in order. A {@link StreamMessage} may
+     * publish the objects written by a single invocation of this method in a batch, which is cheaper than
+     * writing them one by one. See {@link BatchSubscriber}.
+     *
+     * @return {@code true} if all the specified objects have been scheduled for publication. {@code false} if
+     *         the stream has been closed already, in which case the objects which were not scheduled for
+     *         publication are released.
+     *
+     * @throws IllegalArgumentException if the publication of any of the specified objects has been rejected
+     * @see <a href="#reference-counted">Life cycle of reference-counted objects</a>
+     */
+    @CheckReturnValue
+    default boolean tryWriteAll(Iterable<? extends T> objs) {
+        requireNonNull(objs, "objs");
+        boolean open = true;
+        for (T o : objs) {
+            if (open) {
+                open = tryWrite(o);
+            } else {
+                ReferenceCountUtil.safeRelease(o);
+            }
+        }
+        return open;
+    }
+
     /**
      * Performs the specified {@code task} when there are enough demands from the {@link Subscriber}.
      *
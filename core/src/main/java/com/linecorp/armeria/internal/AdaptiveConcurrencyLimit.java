@@ -0,0 +1,232 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.util.Ticker;
+
+/**
+ * A limit of the number of concurrent requests which adapts itself to the observed latency, similarly to
+ * the congestion control of TCP Vegas. The latency samples are aggregated into windows. At the end of each
+ * window, the limit is multiplied by the gradient between the long-term latency and the latency of the
+ * window, plus a small headroom that lets the limit grow while the latency does not increase:
+ * <pre>{@code
+ * gradient = max(0.5, min(1.0, tolerance * longTermLatency / windowLatency))
+ * newLimit = limit * gradient + sqrt(limit)
+ * limit    = limit * (1 - smoothing) + newLimit * smoothing
+ * }</pre>
+ * When a request in the window has been dropped, e.g. timed out, the limit is decreased multiplicatively
+ * instead. The limit is not changed while less than a half of it is used, so that it does not grow
+ * indefinitely when the load is low.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    /**
+     * The ratio which the limit is multiplied by when a request in a window has been dropped.
+     */
+    private static final double BACKOFF_RATIO = 0.9;
+
+    /**
+     * The smoothing factor of the exponential moving average of the long-term latency.
+     */
+    private static final double LONG_TERM_SMOOTHING = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double latencyTolerance;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final Ticker ticker;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by 'this'.
+    private double estimatedLimit;
+    private double longTermLatencyNanos;
+    private long windowStartNanos;
+    private long windowLatencySumNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param initialLimit the limit used until enough latency samples are collected
+     * @param minLimit the minimum limit
+     * @param maxLimit the maximum limit
+     * @param smoothing the weight of a new limit between 0 (exclusive) and 1 (inclusive). The higher,
+     *                  the more quickly the limit follows the change of latency.
+     * @param latencyTolerance the ratio of the window latency to the long-term latency which is
+     *                         tolerated without decreasing the limit. Must be equal to or greater than 1.
+     * @param windowNanos the minimum duration of a window, in nanoseconds
+     * @param minWindowSamples the minimum number of the latency samples in a window
+     * @param ticker the {@link Ticker} which provides the current time
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    double smoothing, double latencyTolerance,
+                                    long windowNanos, int minWindowSamples, Ticker ticker) {
+        checkArgument(minLimit > 0, "minLimit: %s (expected: > 0)", minLimit);
+        checkArgument(maxLimit >= minLimit, "maxLimit: %s (expected: >= minLimit (%s))", maxLimit, minLimit);
+        checkArgument(initialLimit >= minLimit && initialLimit <= maxLimit,
+                      "initialLimit: %s (expected: >= minLimit (%s) and <= maxLimit (%s))",
+                      initialLimit, minLimit, maxLimit);
+        checkArgument(smoothing > 0 && smoothing <= 1, "smoothing: %s (expected: > 0 and <= 1)", smoothing);
+        checkArgument(latencyTolerance >= 1, "latencyTolerance: %s (expected: >= 1)", latencyTolerance);
+        checkArgument(windowNanos >= 0, "windowNanos: %s (expected: >= 0)", windowNanos);
+        checkArgument(minWindowSamples > 0, "minWindowSamples: %s (expected: > 0)", minWindowSamples);
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.latencyTolerance = latencyTolerance;
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = minWindowSamples;
+        this.ticker = requireNonNull(ticker, "ticker");
+        limit = initialLimit;
+        estimatedLimit = initialLimit;
+    }
+
+    /**
+     * Returns the current limit.
+     */
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of the requests acquired but not released yet.
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns the {@link Ticker} which measures the latency samples given to {@link #release(long, boolean)}.
+     */
+    public Ticker ticker() {
+        return ticker;
+    }
+
+    /**
+     * Acquires a permit for a new request if the number of the in-flight requests is less than the limit.
+     *
+     * @return {@code true} if acquired. {@link #release(long, boolean)} or {@link #release()} must be called
+     *         when the request is done. {@code false} if the limit has been reached.
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            final int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the permit acquired by {@link #tryAcquire()} without recording a latency sample,
+     * e.g. when a request was cancelled before it is sent.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Releases the permit acquired by {@link #tryAcquire()} and records the latency of the request.
+     *
+     * @param latencyNanos the latency of the request measured with {@link #ticker()}, in nanoseconds
+     * @param dropped whether the request has been dropped due to overload, e.g. timed out
+     */
+    public void release(long latencyNanos, boolean dropped) {
+        final int inFlight = this.inFlight.getAndDecrement();
+        final long currentTimeNanos = ticker.read();
+        synchronized (this) {
+            if (windowSamples == 0) {
+                windowStartNanos = currentTimeNanos;
+            }
+            windowSamples++;
+            windowLatencySumNanos += Math.max(latencyNanos, 0);
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+            windowDropped |= dropped;
+
+            if (windowSamples >= minWindowSamples && currentTimeNanos - windowStartNanos >= windowNanos) {
+                updateLimit();
+                windowSamples = 0;
+                windowLatencySumNanos = 0;
+                windowMaxInFlight = 0;
+                windowDropped = false;
+            }
+        }
+    }
+
+    private void updateLimit() {
+        double newLimit;
+        if (windowDropped) {
+            newLimit = estimatedLimit * BACKOFF_RATIO;
+        } else {
+            // Add 1 to avoid division by zero with a coarse ticker.
+            final double windowLatencyNanos = (double) windowLatencySumNanos / windowSamples + 1;
+            if (longTermLatencyNanos == 0) {
+                longTermLatencyNanos = windowLatencyNanos;
+            } else {
+                longTermLatencyNanos = longTermLatencyNanos * (1 - LONG_TERM_SMOOTHING) +
+                                       windowLatencyNanos * LONG_TERM_SMOOTHING;
+                if (longTermLatencyNanos > windowLatencyNanos * 2) {
+                    // The latency went back to normal after an overload. Forget the high latency quickly
+                    // so that the limit recovers soon.
+                    longTermLatencyNanos *= 0.95;
+                }
+            }
+
+            if (windowMaxInFlight < estimatedLimit / 2) {
+                // Not enough requests to tell whether the limit is too high or too low.
+                return;
+            }
+
+            final double gradient =
+                    Math.max(MIN_GRADIENT,
+                             Math.min(1.0, latencyTolerance * longTermLatencyNanos / windowLatencyNanos));
+            newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        }
+
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("limit", limit)
+                          .add("inFlight", inFlight)
+                          .add("minLimit", minLimit)
+                          .add("maxLimit", maxLimit)
+                          .toString();
+    }
+}
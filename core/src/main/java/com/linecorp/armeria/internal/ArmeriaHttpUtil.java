@@ -47,6 +47,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
@@ -62,6 +63,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Ascii;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 
 import com.linecorp.armeria.common.Flags;
 import com.linecorp.armeria.common.HttpData;
@@ -213,6 +215,9 @@ public final class ArmeriaHttpUtil {
         HTTP_TRAILER_BLACKLIST.add(HttpHeaderNames.TRAILER, EMPTY_STRING);
     }
 
+    private static final List<AsciiString> HTTP_TO_HTTP2_HEADER_BLACKLIST_NAMES =
+            ImmutableList.copyOf(HTTP_TO_HTTP2_HEADER_BLACKLIST.names());
+
     /**
      * Translations from HTTP/2 header name to the HTTP/1.x equivalent.
      */
@@ -231,6 +236,26 @@ public final class ArmeriaHttpUtil {
      */
     private static final String EMPTY_REQUEST_PATH = "/";
 
+    /**
+     * The characters which may appear in a request target without any escaping or special meaning to
+     * {@link URI}, i.e. unreserved characters, sub-delims, {@code ':'}, {@code '@'}, {@code '/'} and
+     * {@code '?'}.
+     */
+    private static final BitSet SIMPLE_ORIGIN_FORM_CHARS = new BitSet();
+
+    static {
+        for (char ch = 'a'; ch <= 'z'; ch++) {
+            SIMPLE_ORIGIN_FORM_CHARS.set(ch);
+        }
+        for (char ch = 'A'; ch <= 'Z'; ch++) {
+            SIMPLE_ORIGIN_FORM_CHARS.set(ch);
+        }
+        for (char ch = '0'; ch <= '9'; ch++) {
+            SIMPLE_ORIGIN_FORM_CHARS.set(ch);
+        }
+        "-._~!$&'()*+,;=:@/?".chars().forEach(SIMPLE_ORIGIN_FORM_CHARS::set);
+    }
+
     private static final Splitter COOKIE_SPLITTER = Splitter.on(';').trimResults().omitEmptyStrings();
     private static final String COOKIE_SEPARATOR = "; ";
 
@@ -579,27 +604,13 @@ public final class ArmeriaHttpUtil {
      */
     public static RequestHeaders toArmeria(ChannelHandlerContext ctx, HttpRequest in,
                                            ServerConfig cfg) throws URISyntaxException {
-        final URI requestTargetUri = toUri(in);
-
         final io.netty.handler.codec.http.HttpHeaders inHeaders = in.headers();
         final RequestHeadersBuilder out = RequestHeaders.builder();
         out.sizeHint(inHeaders.size());
-        out.add(HttpHeaderNames.METHOD, in.method().name());
-        out.add(HttpHeaderNames.PATH, toHttp2Path(requestTargetUri));
-
-        addHttp2Scheme(inHeaders, requestTargetUri, out);
 
-        if (!isOriginForm(requestTargetUri) && !isAsteriskForm(requestTargetUri)) {
-            // Attempt to take from HOST header before taking from the request-line
-            final String host = inHeaders.getAsString(HttpHeaderNames.HOST);
-            addHttp2Authority(host == null || host.isEmpty() ? requestTargetUri.getAuthority() : host, out);
-        }
-
-        if (out.authority() == null) {
-            final String defaultHostname = cfg.defaultVirtualHost().defaultHostname();
-            final int port = ((InetSocketAddress) ctx.channel().localAddress()).getPort();
-            out.add(HttpHeaderNames.AUTHORITY, defaultHostname + ':' + port);
-        }
+        final CharSequence scheme = inHeaders.get(ExtensionHeaderNames.SCHEME.text());
+        addHttp2PseudoHeaders(ctx, in.method().name(), in.uri(),
+                              inHeaders.getAsString(HttpHeaderNames.HOST), scheme, cfg, out);
 
         // Add the HTTP headers which have not been consumed above
         toArmeria(inHeaders, out);
@@ -652,7 +663,7 @@ public final class ArmeriaHttpUtil {
 
             // https://tools.ietf.org/html/rfc7540#section-8.1.2.2 makes a special exception for TE
             if (aName.equals(HttpHeaderNames.TE)) {
-                toHttp2HeadersFilterTE(entry, out);
+                toHttp2HeadersFilterTE(entry.getValue(), out);
                 continue;
             }
 
@@ -674,6 +685,110 @@ public final class ArmeriaHttpUtil {
         }
     }
 
+    /**
+     * Adds the HTTP/2 pseudo headers converted from the specified HTTP/1 request line and {@code "host"}
+     * header. The specified {@code scheme} is used only if the request target does not have a scheme.
+     */
+    public static void addHttp2PseudoHeaders(ChannelHandlerContext ctx, String method, String uri,
+                                             @Nullable String host, @Nullable CharSequence scheme,
+                                             ServerConfig cfg, RequestHeadersBuilder out)
+            throws URISyntaxException {
+
+        out.add(HttpHeaderNames.METHOD, method);
+
+        if (isSimpleOriginForm(uri)) {
+            // Fast path: the request target is exactly what java.net.URI would generate.
+            out.add(HttpHeaderNames.PATH, uri);
+            out.add(HttpHeaderNames.SCHEME, scheme != null ? scheme.toString() : "unknown");
+            addHttp2Authority(host == null || host.isEmpty() ? null : host, out);
+        } else {
+            final URI requestTargetUri = toUri(uri);
+            out.add(HttpHeaderNames.PATH, toHttp2Path(requestTargetUri));
+
+            addHttp2Scheme(scheme, requestTargetUri, out);
+
+            if (!isOriginForm(requestTargetUri) && !isAsteriskForm(requestTargetUri)) {
+                // Attempt to take from HOST header before taking from the request-line
+                addHttp2Authority(host == null || host.isEmpty() ? requestTargetUri.getAuthority() : host,
+                                  out);
+            }
+        }
+
+        if (out.authority() == null) {
+            final String defaultHostname = cfg.defaultVirtualHost().defaultHostname();
+            final int port = ((InetSocketAddress) ctx.channel().localAddress()).getPort();
+            out.add(HttpHeaderNames.AUTHORITY, defaultHostname + ':' + port);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the specified request target starts with a single {@code '/'} and consists
+     * only of the characters which never need to be escaped, so that {@link #toHttp2Path(URI)} would
+     * return the request target as it is.
+     */
+    @VisibleForTesting
+    static boolean isSimpleOriginForm(String uri) {
+        final int length = uri.length();
+        if (length == 0 || uri.charAt(0) != '/' ||
+            length > 1 && uri.charAt(1) == '/' ||
+            uri.charAt(length - 1) == '?') {
+            return false;
+        }
+
+        for (int i = 1; i < length; i++) {
+            final char ch = uri.charAt(i);
+            if (ch >= 128 || !SIMPLE_ORIGIN_FORM_CHARS.get(ch)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes or converts the HTTP/1 headers in the specified {@link HttpHeadersBuilder} which must not
+     * appear in HTTP/2 headers, in the same way with
+     * {@link #toArmeria(io.netty.handler.codec.http.HttpHeaders, HttpHeadersBuilder)}. This method is
+     * useful when the HTTP/1 headers have been added to the {@link HttpHeadersBuilder} as they are.
+     */
+    public static void toHttp2Headers(HttpHeadersBuilder headers) {
+        if (headers.contains(HttpHeaderNames.CONNECTION)) {
+            final CharSequenceMap connectionBlacklist =
+                    toLowercaseMap(headers.getAll(HttpHeaderNames.CONNECTION).iterator(), 8);
+            for (AsciiString name : connectionBlacklist.names()) {
+                headers.remove(name);
+            }
+        }
+        for (AsciiString name : HTTP_TO_HTTP2_HEADER_BLACKLIST_NAMES) {
+            headers.remove(name);
+        }
+
+        // https://tools.ietf.org/html/rfc7540#section-8.1.2.2 makes a special exception for TE
+        if (headers.contains(HttpHeaderNames.TE)) {
+            final List<String> teValues = headers.getAll(HttpHeaderNames.TE);
+            headers.remove(HttpHeaderNames.TE);
+            for (String teValue : teValues) {
+                toHttp2HeadersFilterTE(teValue, headers);
+                if (headers.contains(HttpHeaderNames.TE)) {
+                    break;
+                }
+            }
+        }
+
+        // Cookies must be concatenated into a single octet string.
+        // https://tools.ietf.org/html/rfc7540#section-8.1.2.5
+        if (headers.contains(HttpHeaderNames.COOKIE)) {
+            final List<String> cookies = headers.getAll(HttpHeaderNames.COOKIE);
+            headers.remove(HttpHeaderNames.COOKIE);
+            final StringJoiner cookieJoiner = new StringJoiner(COOKIE_SEPARATOR);
+            for (String cookie : cookies) {
+                COOKIE_SPLITTER.split(cookie).forEach(cookieJoiner::add);
+            }
+            if (cookieJoiner.length() != 0) {
+                headers.add(HttpHeaderNames.COOKIE, cookieJoiner.toString());
+            }
+        }
+    }
+
     private static CharSequenceMap toLowercaseMap(Iterator<? extends CharSequence> valuesIter,
                                                   int arraySizeHint) {
         final CharSequenceMap result = new CharSequenceMap(arraySizeHint);
@@ -706,18 +821,17 @@ public final class ArmeriaHttpUtil {
     /**
      * Filter the {@link HttpHeaderNames#TE} header according to the
      * <a href="https://tools.ietf.org/html/rfc7540#section-8.1.2.2">special rules in the HTTP/2 RFC</a>.
-     * @param entry An entry whose name is {@link HttpHeaderNames#TE}.
+     * @param value the value of the {@link HttpHeaderNames#TE} header.
      * @param out the resulting HTTP/2 headers.
      */
-    private static void toHttp2HeadersFilterTE(Entry<CharSequence, CharSequence> entry,
-                                               HttpHeadersBuilder out) {
-        if (AsciiString.indexOf(entry.getValue(), ',', 0) == -1) {
-            if (AsciiString.contentEqualsIgnoreCase(AsciiString.trim(entry.getValue()),
+    private static void toHttp2HeadersFilterTE(CharSequence value, HttpHeadersBuilder out) {
+        if (AsciiString.indexOf(value, ',', 0) == -1) {
+            if (AsciiString.contentEqualsIgnoreCase(AsciiString.trim(value),
                                                     HttpHeaderValues.TRAILERS)) {
                 out.add(HttpHeaderNames.TE, HttpHeaderValues.TRAILERS.toString());
             }
         } else {
-            final List<CharSequence> teValues = StringUtil.unescapeCsvFields(entry.getValue());
+            final List<CharSequence> teValues = StringUtil.unescapeCsvFields(value);
             for (CharSequence teValue : teValues) {
                 if (AsciiString.contentEqualsIgnoreCase(AsciiString.trim(teValue),
                                                         HttpHeaderValues.TRAILERS)) {
@@ -728,8 +842,7 @@ public final class ArmeriaHttpUtil {
         }
     }
 
-    private static URI toUri(HttpRequest in) throws URISyntaxException {
-        final String uri = in.uri();
+    private static URI toUri(String uri) throws URISyntaxException {
         if (uri.startsWith("//")) {
             // Normalize the path that starts with more than one slash into the one with a single slash,
             // so that java.net.URI does not raise a URISyntaxException.
@@ -788,8 +901,7 @@ public final class ArmeriaHttpUtil {
         }
     }
 
-    private static void addHttp2Scheme(io.netty.handler.codec.http.HttpHeaders in, URI uri,
-                                       RequestHeadersBuilder out) {
+    private static void addHttp2Scheme(@Nullable CharSequence scheme, URI uri, RequestHeadersBuilder out) {
         final String value = uri.getScheme();
         if (value != null) {
             out.add(HttpHeaderNames.SCHEME, value);
@@ -797,9 +909,8 @@ public final class ArmeriaHttpUtil {
         }
 
         // Consume the Scheme extension header if present
-        final CharSequence cValue = in.get(ExtensionHeaderNames.SCHEME.text());
-        if (cValue != null) {
-            out.add(HttpHeaderNames.SCHEME, cValue.toString());
+        if (scheme != null) {
+            out.add(HttpHeaderNames.SCHEME, scheme.toString());
         } else {
             out.add(HttpHeaderNames.SCHEME, "unknown");
         }
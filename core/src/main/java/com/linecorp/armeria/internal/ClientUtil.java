@@ -22,14 +22,46 @@ import java.util.function.BiFunction;
 
 import com.linecorp.armeria.client.Client;
 import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
 import com.linecorp.armeria.common.Request;
 import com.linecorp.armeria.common.Response;
 import com.linecorp.armeria.common.logging.RequestLogAvailability;
 import com.linecorp.armeria.common.logging.RequestLogBuilder;
 import com.linecorp.armeria.common.util.SafeCloseable;
 
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+
 public final class ClientUtil {
 
+    private static final AttributeKey<SelectedEndpoint> SELECTED_ENDPOINT =
+            AttributeKey.valueOf(ClientUtil.class, "SELECTED_ENDPOINT");
+
+    /**
+     * Returns the {@link Endpoint} of the host to send the request of the specified
+     * {@link ClientRequestContext} to. If {@link ClientRequestContext#endpoint()} is a group, an
+     * {@link Endpoint} is selected from the group only once for the {@link ClientRequestContext}, so that
+     * a decorator and the {@link Client} which actually sends the request agree on the host.
+     */
+    public static Endpoint selectEndpoint(ClientRequestContext ctx) {
+        final Endpoint endpoint = ctx.endpoint();
+        if (!endpoint.isGroup()) {
+            return endpoint;
+        }
+
+        final Attribute<SelectedEndpoint> attr = ctx.attr(SELECTED_ENDPOINT);
+        final SelectedEndpoint selected = attr.get();
+        // A derived context, e.g. the one for a retry attempt, inherits the attribute but should select
+        // a host again.
+        if (selected != null && selected.ctx == ctx) {
+            return selected.endpoint;
+        }
+
+        final Endpoint resolved = endpoint.resolve(ctx);
+        attr.set(new SelectedEndpoint(ctx, resolved));
+        return resolved;
+    }
+
     public static <I extends Request, O extends Response, U extends Client<I, O>> O executeWithFallback(
             U delegate, ClientRequestContext ctx, I req,
             BiFunction<ClientRequestContext, Throwable, O> fallback) {
@@ -52,5 +84,15 @@ public final class ClientUtil {
         }
     }
 
+    private static final class SelectedEndpoint {
+        final ClientRequestContext ctx;
+        final Endpoint endpoint;
+
+        SelectedEndpoint(ClientRequestContext ctx, Endpoint endpoint) {
+            this.ctx = ctx;
+            this.endpoint = endpoint;
+        }
+    }
+
     private ClientUtil() {}
 }
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import javax.annotation.Nullable;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.math.IntMath;
+
+import com.linecorp.armeria.common.Flags;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.internal.metric.MicrometerUtil;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.FastThreadLocalThread;
+
+/**
+ * A cache whose entries are stored in a separate fixed-size table for each event loop thread, so that
+ * a lookup never touches a data structure shared with other threads. Each table is an open-addressing
+ * hash table which evicts an entry using the <a href="https://en.wikipedia.org/wiki/Page_replacement_algorithm#Clock">CLOCK</a>
+ * algorithm when there's no room for a new entry.
+ *
+ * <p>This cache is always empty for the threads other than {@link FastThreadLocalThread}s, such as
+ * user threads, because they may come and go unlike event loop threads. The table of
+ * a {@link FastThreadLocalThread} is dropped when the thread terminates.
+ *
+ * @see Flags#useEventLoopLocalCaches()
+ */
+public final class EventLoopLocalCache<K, V> {
+
+    private static final Splitter SPEC_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+    private static final String MAXIMUM_SIZE = "maximumSize=";
+    private static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+    /**
+     * The maximum number of slots to visit from the home slot of a key.
+     */
+    private static final int PROBE_LIMIT = 8;
+
+    /**
+     * Returns the value of the {@code maximumSize} property in the specified Caffeine cache specification,
+     * or {@value #DEFAULT_MAXIMUM_SIZE} if not specified.
+     */
+    public static int maximumSize(String caffeineSpec) {
+        requireNonNull(caffeineSpec, "caffeineSpec");
+        for (String property : SPEC_SPLITTER.split(caffeineSpec)) {
+            if (property.startsWith(MAXIMUM_SIZE)) {
+                try {
+                    return Math.max(1, Integer.parseInt(property.substring(MAXIMUM_SIZE.length()).trim()));
+                } catch (NumberFormatException ignored) {
+                    // Caffeine will reject it anyway.
+                    break;
+                }
+            }
+        }
+        return DEFAULT_MAXIMUM_SIZE;
+    }
+
+    private final int tableSize;
+    private final List<Table<K, V>> tables = new CopyOnWriteArrayList<>();
+    private final FastThreadLocal<Table<K, V>> threadLocalTable = new FastThreadLocal<Table<K, V>>() {
+        @Override
+        protected Table<K, V> initialValue() {
+            final Table<K, V> table = new Table<>(tableSize);
+            tables.add(table);
+            return table;
+        }
+
+        @Override
+        protected void onRemoval(Table<K, V> table) {
+            // Keep the counts of the dropped table so that the counters never decrease.
+            retiredHitCount.add(table.hitCount);
+            retiredMissCount.add(table.missCount);
+            retiredEvictionCount.add(table.evictionCount);
+            tables.remove(table);
+        }
+    };
+
+    // The counts of the tables dropped when their threads terminated.
+    private final LongAdder retiredHitCount = new LongAdder();
+    private final LongAdder retiredMissCount = new LongAdder();
+    private final LongAdder retiredEvictionCount = new LongAdder();
+
+    /**
+     * Creates a new instance whose table of each event loop holds up to approximately
+     * {@code maximumSize} entries.
+     */
+    public EventLoopLocalCache(int maximumSize) {
+        checkArgument(maximumSize > 0, "maximumSize: %s (expected: > 0)", maximumSize);
+        tableSize = IntMath.ceilingPowerOfTwo(Math.max(PROBE_LIMIT, maximumSize));
+    }
+
+    /**
+     * Returns the value associated with the specified {@code key} in the table of the current thread.
+     *
+     * @return the value, or {@code null} if there's no cached value for the {@code key}
+     */
+    @Nullable
+    public V getIfPresent(K key) {
+        final Table<K, V> table = table();
+        return table != null ? table.get(key) : null;
+    }
+
+    /**
+     * Associates the specified {@code value} with the specified {@code key} in the table of the current
+     * thread, evicting another entry if necessary.
+     */
+    public void put(K key, V value) {
+        final Table<K, V> table = table();
+        if (table != null) {
+            table.put(key, value);
+        }
+    }
+
+    @Nullable
+    private Table<K, V> table() {
+        if (!(Thread.currentThread() instanceof FastThreadLocalThread)) {
+            return null;
+        }
+        return threadLocalTable.get();
+    }
+
+    /**
+     * Registers the stats of this cache, aggregated from the tables of all threads, to the specified
+     * {@link MeterRegistry}. The meters are named after the same convention with the Caffeine cache
+     * meters. Note that the stats are approximate because the tables are updated without synchronization.
+     */
+    public void registerMetrics(MeterRegistry registry, MeterIdPrefix idPrefix) {
+        final CacheMetrics metrics = MicrometerUtil.register(registry, idPrefix, CacheMetrics.class,
+                                                             CacheMetrics::new);
+        metrics.add(this);
+    }
+
+    private long hitCount() {
+        return retiredHitCount.sum() + sum(table -> table.hitCount);
+    }
+
+    private long missCount() {
+        return retiredMissCount.sum() + sum(table -> table.missCount);
+    }
+
+    private long evictionCount() {
+        return retiredEvictionCount.sum() + sum(table -> table.evictionCount);
+    }
+
+    private long size() {
+        return sum(table -> table.size);
+    }
+
+    private long sum(ToLongFunction<Table<?, ?>> function) {
+        long sum = 0;
+        for (Table<K, V> table : tables) {
+            sum += function.applyAsLong(table);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the number of the tables, which is the number of the threads which have accessed this cache
+     * and not terminated yet. Only for use in tests.
+     */
+    @VisibleForTesting
+    public int numTables() {
+        return tables.size();
+    }
+
+    /**
+     * Removes all entries from the tables of all threads. Only for use in tests.
+     */
+    @VisibleForTesting
+    public void clear() {
+        tables.forEach(Table::clear);
+    }
+
+    /**
+     * Returns the keys in the tables of all threads. Only for use in tests.
+     */
+    @VisibleForTesting
+    public Set<K> keys() {
+        final ImmutableSet.Builder<K> builder = ImmutableSet.builder();
+        tables.forEach(table -> table.addKeys(builder));
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("tableSize", tableSize)
+                          .add("numTables", tables.size())
+                          .toString();
+    }
+
+    /**
+     * The meters which aggregate the stats of the {@link EventLoopLocalCache}s registered with the same
+     * {@link MeterIdPrefix}.
+     */
+    private static final class CacheMetrics {
+
+        private final CopyOnWriteArrayList<EventLoopLocalCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+
+        CacheMetrics(MeterRegistry parent, MeterIdPrefix idPrefix) {
+            final String requests = idPrefix.name("requests");
+            parent.more().counter(requests, idPrefix.tags("result", "hit"), this,
+                                  func(EventLoopLocalCache::hitCount));
+            parent.more().counter(requests, idPrefix.tags("result", "miss"), this,
+                                  func(EventLoopLocalCache::missCount));
+            parent.more().counter(idPrefix.name("evictions"), idPrefix.tags(), this,
+                                  func(EventLoopLocalCache::evictionCount));
+            parent.gauge(idPrefix.name("estimatedSize"), idPrefix.tags(), this,
+                         func(EventLoopLocalCache::size));
+        }
+
+        void add(EventLoopLocalCache<?, ?> cache) {
+            // Do not aggregate more than once for the same instance.
+            caches.addIfAbsent(cache);
+        }
+
+        private static ToDoubleFunction<CacheMetrics> func(ToLongFunction<EventLoopLocalCache<?, ?>> function) {
+            return metrics -> {
+                long sum = 0;
+                for (EventLoopLocalCache<?, ?> cache : metrics.caches) {
+                    sum += function.applyAsLong(cache);
+                }
+                return sum;
+            };
+        }
+    }
+
+    /**
+     * A hash table which is accessed only by a single thread.
+     */
+    private static final class Table<K, V> {
+
+        private final Object[] keys;
+        private final Object[] values;
+        private final boolean[] referenced;
+        private final int mask;
+        private int clockHand;
+
+        // Read by other threads only for metrics.
+        long hitCount;
+        long missCount;
+        long evictionCount;
+        int size;
+
+        Table(int tableSize) {
+            keys = new Object[tableSize];
+            values = new Object[tableSize];
+            referenced = new boolean[tableSize];
+            mask = tableSize - 1;
+        }
+
+        @Nullable
+        @SuppressWarnings("unchecked")
+        V get(K key) {
+            int idx = home(key);
+            for (int i = 0; i < PROBE_LIMIT; i++) {
+                final Object k = keys[idx];
+                if (k == null) {
+                    // An entry is never removed but only replaced, so there's no entry after an empty slot.
+                    break;
+                }
+                if (k.equals(key)) {
+                    referenced[idx] = true;
+                    hitCount++;
+                    return (V) values[idx];
+                }
+                idx = (idx + 1) & mask;
+            }
+            missCount++;
+            return null;
+        }
+
+        void put(K key, V value) {
+            final int home = home(key);
+            int idx = home;
+            for (int i = 0; i < PROBE_LIMIT; i++) {
+                final Object k = keys[idx];
+                if (k == null) {
+                    keys[idx] = key;
+                    values[idx] = value;
+                    size++;
+                    return;
+                }
+                if (k.equals(key)) {
+                    values[idx] = value;
+                    return;
+                }
+                idx = (idx + 1) & mask;
+            }
+
+            // No room for the new entry; find the victim using the CLOCK algorithm. The first sweep clears
+            // the reference bits, so the victim is found within two sweeps.
+            for (;;) {
+                idx = (home + (clockHand++ & (PROBE_LIMIT - 1))) & mask;
+                if (referenced[idx]) {
+                    referenced[idx] = false;
+                    continue;
+                }
+                keys[idx] = key;
+                values[idx] = value;
+                evictionCount++;
+                return;
+            }
+        }
+
+        private int home(Object key) {
+            final int h = key.hashCode();
+            // Spread the higher bits to the lower bits, as HashMap does.
+            return (h ^ h >>> 16) & mask;
+        }
+
+        void clear() {
+            for (int i = 0; i <= mask; i++) {
+                keys[i] = null;
+                values[i] = null;
+                referenced[i] = false;
+            }
+            size = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        void addKeys(ImmutableSet.Builder<K> builder) {
+            for (Object key : keys) {
+                if (key != null) {
+                    builder.add((K) key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.AbstractHttpData;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.unsafe.ByteBufHttpData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.ReferenceCounted;
+
+/**
+ * An {@link HttpData} which refers to a region of a file without reading it into memory.
+ *
+ * <p>An HTTP/1 encoder on a cleartext connection may convert it into a {@link FileRegion} using
+ * {@link #toFileRegion()}, so that the region is transferred to the socket by the kernel, e.g. with
+ * {@code sendfile()}. Otherwise, the region is memory-mapped when its {@link #content()} is requested for
+ * the first time, and then this {@link HttpData} behaves like a {@link ByteBufHttpData} backed by the
+ * read-only {@link java.nio.MappedByteBuffer}. Note that a mapped region is unmapped only when the
+ * {@link java.nio.MappedByteBuffer} is garbage-collected.
+ *
+ * <p>This {@link HttpData} holds a reference of the {@link SharedFileChannel}. It is released when this
+ * {@link HttpData} is released or mapped, or when the {@link FileRegion} returned by {@link #toFileRegion()}
+ * is released.
+ */
+public final class FileRegionHttpData extends AbstractHttpData implements ByteBufHolder {
+
+    private final SharedFileChannel channel;
+    private final long position;
+    private final int length;
+    private final boolean endOfStream;
+    private final ChannelRef channelRef = new ChannelRef();
+
+    @Nullable
+    private volatile ByteBuf mapped;
+    private boolean transferred;
+
+    /**
+     * Creates a new instance. A reference of {@code channel} is taken by this {@link FileRegionHttpData}.
+     */
+    public FileRegionHttpData(SharedFileChannel channel, long position, int length, boolean endOfStream) {
+        this.channel = requireNonNull(channel, "channel");
+        checkArgument(position >= 0, "position: %s (expected: >= 0)", position);
+        checkArgument(length > 0, "length: %s (expected: > 0)", length);
+        this.position = position;
+        this.length = length;
+        this.endOfStream = endOfStream;
+    }
+
+    /**
+     * Returns the position of the region in the file.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Converts this {@link HttpData} into a {@link FileRegion} which takes the reference of the
+     * {@link SharedFileChannel}, and releases this {@link HttpData}.
+     *
+     * @return the {@link FileRegion}, or {@code null} if the region has been mapped already because its
+     *         {@link #content()} was requested. This {@link HttpData} is not released in that case.
+     * @throws IllegalStateException if the region has been converted or released already
+     */
+    @Nullable
+    public synchronized FileRegion toFileRegion() {
+        if (mapped != null) {
+            return null;
+        }
+        checkState(!transferred, "converted already: %s", this);
+        checkState(channelRef.refCnt() > 0, "released already: %s", this);
+        final FileRegion region = new SharedFileRegion(channel, position, length);
+        transferred = true;
+        channelRef.release();
+        return region;
+    }
+
+    @Override
+    public ByteBuf content() {
+        final ByteBuf mapped = this.mapped;
+        if (mapped != null) {
+            return mapped.touch();
+        }
+        return map();
+    }
+
+    private synchronized ByteBuf map() {
+        ByteBuf mapped = this.mapped;
+        if (mapped != null) {
+            return mapped;
+        }
+
+        checkState(!transferred, "converted already: %s", this);
+        final int refCnt = channelRef.refCnt();
+        checkState(refCnt > 0, "released already: %s", this);
+        try {
+            mapped = Unpooled.wrappedBuffer(channel.channel().map(MapMode.READ_ONLY, position, length));
+        } catch (IOException e) {
+            return Exceptions.throwUnsafely(e);
+        }
+
+        // Transfer the reference count to the mapped buffer and release the channel, which is not required
+        // to access the mapped buffer.
+        if (refCnt > 1) {
+            mapped.retain(refCnt - 1);
+        }
+        this.mapped = mapped;
+        channelRef.release(refCnt);
+        return mapped;
+    }
+
+    private ReferenceCounted counted() {
+        final ByteBuf mapped = this.mapped;
+        return mapped != null ? mapped : channelRef;
+    }
+
+    @Override
+    public boolean isEndOfStream() {
+        return endOfStream;
+    }
+
+    @Override
+    public byte[] array() {
+        return ByteBufUtil.getBytes(content());
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    protected byte getByte(int index) {
+        return content().getByte(index);
+    }
+
+    @Override
+    public int refCnt() {
+        return counted().refCnt();
+    }
+
+    @Override
+    public FileRegionHttpData retain() {
+        counted().retain();
+        return this;
+    }
+
+    @Override
+    public FileRegionHttpData retain(int increment) {
+        counted().retain(increment);
+        return this;
+    }
+
+    @Override
+    public FileRegionHttpData touch() {
+        counted().touch();
+        return this;
+    }
+
+    @Override
+    public FileRegionHttpData touch(Object hint) {
+        counted().touch(hint);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return counted().release();
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return counted().release(decrement);
+    }
+
+    @Override
+    public ByteBufHttpData copy() {
+        return new ByteBufHttpData(content().copy(), endOfStream);
+    }
+
+    @Override
+    public ByteBufHttpData duplicate() {
+        return new ByteBufHttpData(content().duplicate(), endOfStream);
+    }
+
+    @Override
+    public ByteBufHttpData retainedDuplicate() {
+        return new ByteBufHttpData(content().retainedDuplicate(), endOfStream);
+    }
+
+    @Override
+    public ByteBufHttpData replace(ByteBuf content) {
+        requireNonNull(content, "content");
+        content.touch();
+        return new ByteBufHttpData(content, endOfStream);
+    }
+
+    @Override
+    public String toString(Charset charset) {
+        return content().toString(charset);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("position", position)
+                          .add("length", length)
+                          .add("endOfStream", endOfStream)
+                          .add("mapped", mapped != null)
+                          .toString();
+    }
+
+    /**
+     * The reference count of a {@link FileRegionHttpData} which has not been mapped yet.
+     */
+    private final class ChannelRef extends AbstractReferenceCounted {
+        @Override
+        protected void deallocate() {
+            if (transferred) {
+                // The FileRegion holds the reference of the channel.
+                return;
+            }
+            channel.release();
+        }
+
+        @Override
+        public ReferenceCounted touch(Object hint) {
+            return this;
+        }
+    }
+
+    /**
+     * A {@link DefaultFileRegion} which releases the reference of the {@link SharedFileChannel} instead of
+     * closing the {@link FileChannel} when deallocated.
+     */
+    private static final class SharedFileRegion extends DefaultFileRegion {
+
+        private final SharedFileChannel channel;
+
+        SharedFileRegion(SharedFileChannel channel, long position, long count) {
+            super(channel.channel(), position, count);
+            this.channel = channel;
+        }
+
+        @Override
+        protected void deallocate() {
+            channel.release();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal;
+
+import java.util.Map.Entry;
+
+import javax.annotation.Nullable;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import com.linecorp.armeria.common.ResponseHeaders;
+
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.util.AsciiString;
+
+/**
+ * Caches the encoded forms of the frozen {@link ResponseHeaders}.
+ *
+ * @see ResponseHeaders#isFrozen()
+ */
+final class FrozenHeadersCache {
+
+    /**
+     * The maximum number of the cached headers, which prevents the cache from growing indefinitely
+     * when a user freezes the headers of every response by mistake.
+     */
+    private static final int MAX_CACHED_HEADERS = 1024;
+
+    // Use weak keys so that the cache compares the headers by identity and forgets the headers
+    // which are not used anymore.
+    private static final Cache<ResponseHeaders, FrozenHeadersCache> cache =
+            Caffeine.newBuilder().weakKeys().maximumSize(MAX_CACHED_HEADERS).build();
+
+    /**
+     * Returns the {@link FrozenHeadersCache} of the specified frozen {@link ResponseHeaders}.
+     */
+    static FrozenHeadersCache get(ResponseHeaders headers) {
+        assert headers.isFrozen() : headers;
+        return cache.get(headers, unused -> new FrozenHeadersCache());
+    }
+
+    // Note that this class must not have a reference to the headers, which is the weak key of the cache.
+
+    // The encoded forms are computed lazily. Computing them more than once in a race is harmless.
+    @Nullable
+    private volatile Http2Headers http2Headers;
+    @Nullable
+    private volatile FrozenHttp1Headers http1Headers;
+    @Nullable
+    private volatile FrozenHttp1Headers http1HeadersWithEndOfStream;
+
+    private FrozenHeadersCache() {}
+
+    /**
+     * Returns the HTTP/2 headers converted from the specified frozen {@link ResponseHeaders}, which must be
+     * the key of this cache. The values are converted into {@link AsciiString}s so that an HPACK encoder
+     * can reuse their bytes and hash codes.
+     */
+    Http2Headers http2Headers(ResponseHeaders headers) {
+        final Http2Headers http2Headers = this.http2Headers;
+        if (http2Headers != null) {
+            return http2Headers;
+        }
+
+        final Http2Headers converted = ArmeriaHttpUtil.toNettyHttp2(headers, true);
+        final Http2Headers out = new DefaultHttp2Headers(false, converted.size());
+        for (Entry<CharSequence, CharSequence> e : converted) {
+            out.add(AsciiString.of(e.getKey()), AsciiString.of(e.getValue()));
+        }
+        return this.http2Headers = out;
+    }
+
+    @Nullable
+    FrozenHttp1Headers http1Headers(boolean endOfStream) {
+        return endOfStream ? http1HeadersWithEndOfStream : http1Headers;
+    }
+
+    void setHttp1Headers(boolean endOfStream, FrozenHttp1Headers http1Headers) {
+        if (endOfStream) {
+            http1HeadersWithEndOfStream = http1Headers;
+        } else {
+            this.http1Headers = http1Headers;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+
+import com.linecorp.armeria.common.ResponseHeaders;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.CharsetUtil;
+
+/**
+ * The HTTP/1 headers converted from a frozen {@link ResponseHeaders}, which are shared by many responses
+ * and thus cannot be modified once {@link #freeze()} is called. Any attempt to modify them after that raises
+ * an {@link UnsupportedOperationException}. It also holds its wire format, so that an encoder can write it
+ * without encoding each header again.
+ *
+ * @see ResponseHeaders#isFrozen()
+ */
+public final class FrozenHttp1Headers extends DefaultHttpHeaders {
+
+    private static final int COLON_AND_SPACE_SHORT = (':' << 8) | ' ';
+    private static final int CRLF_SHORT = ('\r' << 8) | '\n';
+
+    @Nullable
+    private ByteBuf encoded;
+
+    FrozenHttp1Headers() {
+        super(false);
+    }
+
+    /**
+     * Computes the wire format of this headers. This headers must not be modified after this method is called.
+     */
+    void freeze() {
+        checkState(encoded == null, "frozen already");
+        final ByteBuf buf = Unpooled.buffer();
+        final Iterator<Entry<CharSequence, CharSequence>> i = iteratorCharSequence();
+        while (i.hasNext()) {
+            final Entry<CharSequence, CharSequence> e = i.next();
+            buf.writeCharSequence(e.getKey(), CharsetUtil.US_ASCII);
+            buf.writeShort(COLON_AND_SPACE_SHORT);
+            buf.writeCharSequence(e.getValue(), CharsetUtil.US_ASCII);
+            buf.writeShort(CRLF_SHORT);
+        }
+        encoded = Unpooled.unreleasableBuffer(buf.asReadOnly());
+    }
+
+    /**
+     * Returns whether {@link #freeze()} has been called.
+     */
+    boolean isFrozen() {
+        return encoded != null;
+    }
+
+    /**
+     * Writes the wire format of this headers into the specified {@link ByteBuf}, as
+     * {@link io.netty.handler.codec.http.HttpObjectEncoder} does for each header.
+     */
+    public void encode(ByteBuf buf) {
+        final ByteBuf encoded = this.encoded;
+        checkState(encoded != null, "not frozen yet");
+        buf.writeBytes(encoded, encoded.readerIndex(), encoded.readableBytes());
+    }
+
+    // Reject any modification once frozen.
+
+    @Override
+    public HttpHeaders add(HttpHeaders headers) {
+        ensureNotFrozen();
+        return super.add(headers);
+    }
+
+    @Override
+    public HttpHeaders add(String name, Object value) {
+        ensureNotFrozen();
+        return super.add(name, value);
+    }
+
+    @Override
+    public HttpHeaders add(CharSequence name, Object value) {
+        ensureNotFrozen();
+        return super.add(name, value);
+    }
+
+    @Override
+    public HttpHeaders add(String name, Iterable<?> values) {
+        ensureNotFrozen();
+        return super.add(name, values);
+    }
+
+    @Override
+    public HttpHeaders add(CharSequence name, Iterable<?> values) {
+        ensureNotFrozen();
+        return super.add(name, values);
+    }
+
+    @Override
+    public HttpHeaders addInt(CharSequence name, int value) {
+        ensureNotFrozen();
+        return super.addInt(name, value);
+    }
+
+    @Override
+    public HttpHeaders addShort(CharSequence name, short value) {
+        ensureNotFrozen();
+        return super.addShort(name, value);
+    }
+
+    @Override
+    public HttpHeaders set(HttpHeaders headers) {
+        ensureNotFrozen();
+        return super.set(headers);
+    }
+
+    @Override
+    public HttpHeaders set(String name, Object value) {
+        ensureNotFrozen();
+        return super.set(name, value);
+    }
+
+    @Override
+    public HttpHeaders set(CharSequence name, Object value) {
+        ensureNotFrozen();
+        return super.set(name, value);
+    }
+
+    @Override
+    public HttpHeaders set(String name, Iterable<?> values) {
+        ensureNotFrozen();
+        return super.set(name, values);
+    }
+
+    @Override
+    public HttpHeaders set(CharSequence name, Iterable<?> values) {
+        ensureNotFrozen();
+        return super.set(name, values);
+    }
+
+    @Override
+    public HttpHeaders setAll(HttpHeaders headers) {
+        ensureNotFrozen();
+        return super.setAll(headers);
+    }
+
+    @Override
+    public HttpHeaders setInt(CharSequence name, int value) {
+        ensureNotFrozen();
+        return super.setInt(name, value);
+    }
+
+    @Override
+    public HttpHeaders setShort(CharSequence name, short value) {
+        ensureNotFrozen();
+        return super.setShort(name, value);
+    }
+
+    @Override
+    public HttpHeaders remove(String name) {
+        ensureNotFrozen();
+        return super.remove(name);
+    }
+
+    @Override
+    public HttpHeaders remove(CharSequence name) {
+        ensureNotFrozen();
+        return super.remove(name);
+    }
+
+    @Override
+    public HttpHeaders clear() {
+        ensureNotFrozen();
+        return super.clear();
+    }
+
+    // The entries and the iterators of the underlying headers allow modification as well.
+
+    @Override
+    public List<Entry<String, String>> entries() {
+        final List<Entry<String, String>> entries = super.entries();
+        if (!isFrozen()) {
+            return entries;
+        }
+        return entries.stream()
+                      .map(e -> Maps.immutableEntry(e.getKey(), e.getValue()))
+                      .collect(toImmutableList());
+    }
+
+    @Override
+    public Iterator<Entry<String, String>> iterator() {
+        final Iterator<Entry<String, String>> i = super.iterator();
+        if (!isFrozen()) {
+            return i;
+        }
+        return Iterators.transform(i, e -> Maps.immutableEntry(e.getKey(), e.getValue()));
+    }
+
+    @Override
+    public Iterator<Entry<CharSequence, CharSequence>> iteratorCharSequence() {
+        final Iterator<Entry<CharSequence, CharSequence>> i = super.iteratorCharSequence();
+        if (!isFrozen()) {
+            return i;
+        }
+        return Iterators.transform(i, e -> Maps.immutableEntry(e.getKey(), e.getValue()));
+    }
+
+    @Override
+    public Iterator<String> valueStringIterator(CharSequence name) {
+        final Iterator<String> i = super.valueStringIterator(name);
+        return isFrozen() ? Iterators.unmodifiableIterator(i) : i;
+    }
+
+    @Override
+    public Iterator<CharSequence> valueCharSequenceIterator(CharSequence name) {
+        final Iterator<CharSequence> i = super.valueCharSequenceIterator(name);
+        return isFrozen() ? Iterators.unmodifiableIterator(i) : i;
+    }
+
+    private void ensureNotFrozen() {
+        if (isFrozen()) {
+            throw new UnsupportedOperationException("frozen headers cannot be modified");
+        }
+    }
+}
@@ -23,11 +23,15 @@ import java.util.ArrayDeque;
 import java.util.Map.Entry;
 import java.util.Queue;
 
+import javax.annotation.Nullable;
+
 import com.linecorp.armeria.common.ClosedSessionException;
+import com.linecorp.armeria.common.Flags;
 import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpHeaders;
 import com.linecorp.armeria.common.HttpStatusClass;
+import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.stream.ClosedPublisherException;
 
 import io.netty.buffer.ByteBuf;
@@ -37,11 +41,13 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.FileRegion;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.DefaultHttpContent;
 import io.netty.handler.codec.http.DefaultHttpRequest;
 import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.EmptyHttpHeaders;
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMessage;
@@ -50,6 +56,7 @@ import io.netty.handler.codec.http.HttpObject;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.LastHttpContent;
@@ -103,10 +110,27 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
      */
     private final IntObjectMap<PendingWrites> pendingWritesMap = new IntObjectHashMap<>();
 
+    /**
+     * Whether the {@link FrozenHttp1Headers} cached for the frozen {@link ResponseHeaders} can be written
+     * as they are. Only the encoder used with {@link Flags#useArmeriaHttp1Decoder()} writes them without
+     * modification. {@link HttpServerCodec} removes some headers from a successful response to
+     * a {@code CONNECT} request, so it is given the headers converted for each response.
+     */
+    private boolean shareFrozenHeaders;
+
     public Http1ObjectEncoder(Channel ch, boolean server, boolean isTls) {
         this.ch = requireNonNull(ch, "ch");
         this.server = server;
         this.isTls = isTls;
+        shareFrozenHeaders = server && Flags.useArmeriaHttp1Decoder();
+    }
+
+    /**
+     * Stops writing the cached {@link FrozenHttp1Headers}, because the connection has been handed over to
+     * {@link HttpServerCodec}. Must be invoked before the first response is written.
+     */
+    public void useNettyServerCodec() {
+        shareFrozenHeaders = false;
     }
 
     @Override
@@ -131,6 +155,15 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
     private ChannelFuture writeServerHeaders(
             int id, int streamId, HttpHeaders headers, boolean endStream) throws Http2Exception {
 
+        if (shareFrozenHeaders && headers instanceof ResponseHeaders &&
+            ((ResponseHeaders) headers).isFrozen()) {
+            final HttpObject converted =
+                    convertFrozenServerHeaders(streamId, (ResponseHeaders) headers, endStream);
+            if (converted != null) {
+                return writeNonInformationalHeaders(id, converted, endStream);
+            }
+        }
+
         final HttpObject converted = convertServerHeaders(streamId, headers, endStream);
         final String status = headers.get(HttpHeaderNames.STATUS);
         if (status == null) {
@@ -222,6 +255,49 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
         return res;
     }
 
+    /**
+     * Converts the frozen {@link ResponseHeaders} using the {@link FrozenHttp1Headers} cached in
+     * {@link FrozenHeadersCache}.
+     *
+     * @return the converted {@link HttpResponse}, or {@code null} if the headers cannot be shared because
+     *         an encoder may modify them, i.e. when the content of the response is always empty.
+     */
+    @Nullable
+    private HttpResponse convertFrozenServerHeaders(
+            int streamId, ResponseHeaders headers, boolean endStream) throws Http2Exception {
+
+        final int statusCode = headers.status().code();
+        if (ArmeriaHttpUtil.isContentAlwaysEmpty(statusCode)) {
+            return null;
+        }
+
+        final FrozenHeadersCache cache = FrozenHeadersCache.get(headers);
+        FrozenHttp1Headers outHeaders = cache.http1Headers(endStream);
+        if (outHeaders == null) {
+            outHeaders = new FrozenHttp1Headers();
+            convert(streamId, headers, outHeaders, false, false);
+            if (endStream) {
+                if (!headers.contains(HttpHeaderNames.CONTENT_LENGTH)) {
+                    // See convertServerHeaders() for the reason why we set it only when not set.
+                    outHeaders.setInt(HttpHeaderNames.CONTENT_LENGTH, 0);
+                }
+            } else {
+                setTransferEncoding(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                                                            outHeaders));
+            }
+            outHeaders.freeze();
+            cache.setHttp1Headers(endStream, outHeaders);
+        }
+
+        final HttpResponseStatus nettyStatus = HttpResponseStatus.valueOf(statusCode);
+        if (endStream) {
+            return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, nettyStatus, Unpooled.EMPTY_BUFFER,
+                                               outHeaders, EmptyHttpHeaders.INSTANCE);
+        } else {
+            return new DefaultHttpResponse(HttpVersion.HTTP_1_1, nettyStatus, outHeaders);
+        }
+    }
+
     private HttpObject convertClientHeaders(int streamId, HttpHeaders headers, boolean endStream)
             throws Http2Exception {
 
@@ -327,6 +403,11 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
         }
 
         try {
+            if (!isTls && data instanceof FileRegionHttpData) {
+                // Cleartext connection; let the kernel transfer the file region to the socket.
+                return doWriteFileRegion(id, (FileRegionHttpData) data, endStream);
+            }
+
             if (!isTls || length <= MAX_TLS_DATA_LENGTH) {
                 // Cleartext connection or data.length() <= MAX_TLS_DATA_LENGTH
                 return doWriteUnsplitData(id, data, endStream);
@@ -340,7 +421,14 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
     }
 
     private ChannelFuture doWriteUnsplitData(int id, HttpData data, boolean endStream) {
-        final ByteBuf buf = toByteBuf(data);
+        final ByteBuf buf;
+        try {
+            buf = toByteBuf(data);
+        } catch (Throwable t) {
+            // e.g. failed to map a FileRegionHttpData.
+            ReferenceCountUtil.safeRelease(data);
+            throw t;
+        }
         boolean handled = false;
         try {
             final HttpContent content;
@@ -361,6 +449,30 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
         }
     }
 
+    private ChannelFuture doWriteFileRegion(int id, FileRegionHttpData data, boolean endStream) {
+        final FileRegion region;
+        try {
+            region = data.toFileRegion();
+        } catch (Throwable t) {
+            if (data.refCnt() > 0) {
+                ReferenceCountUtil.safeRelease(data);
+            }
+            throw t;
+        }
+
+        if (region == null) {
+            // The region has been mapped already, e.g. a decorator accessed its content.
+            return doWriteUnsplitData(id, data, endStream);
+        }
+
+        ChannelFuture future = write(id, region, false);
+        if (endStream) {
+            future = write(id, LastHttpContent.EMPTY_LAST_CONTENT, true);
+        }
+        ch.flush();
+        return future;
+    }
+
     private ChannelFuture doWriteSplitData(int id, HttpData data, boolean endStream) {
         try {
             int offset = 0;
@@ -369,18 +481,20 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
             for (;;) {
                 // Ensure an HttpContent does not exceed the maximum length of a cleartext TLS record.
                 final int chunkSize = Math.min(MAX_TLS_DATA_LENGTH, remaining);
-                lastFuture = write(id, new DefaultHttpContent(dataChunk(data, offset, chunkSize)), false);
                 remaining -= chunkSize;
                 if (remaining == 0) {
+                    // Send the last chunk with the end of the stream rather than an empty LastHttpContent,
+                    // because the chunk may be read-only, e.g. FileRegionHttpData, and SslHandler may try to
+                    // copy an empty buffer into it.
+                    final ByteBuf chunk = dataChunk(data, offset, chunkSize);
+                    lastFuture = write(id, endStream ? new DefaultLastHttpContent(chunk)
+                                                     : new DefaultHttpContent(chunk), endStream);
                     break;
                 }
+                lastFuture = write(id, new DefaultHttpContent(dataChunk(data, offset, chunkSize)), false);
                 offset += chunkSize;
             }
 
-            if (endStream) {
-                lastFuture = write(id, LastHttpContent.EMPTY_LAST_CONTENT, true);
-            }
-
             ch.flush();
             return lastFuture;
         } finally {
@@ -397,7 +511,7 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
         }
     }
 
-    private ChannelFuture write(int id, HttpObject obj, boolean endStream) {
+    private ChannelFuture write(int id, Object obj, boolean endStream) {
         if (id < currentId) {
             // Attempted to write something on a finished request/response; discard.
             // e.g. the request already timed out.
@@ -436,7 +550,7 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
             return future;
         } else {
             final ChannelPromise promise = ch.newPromise();
-            final Entry<HttpObject, ChannelPromise> entry = new SimpleImmutableEntry<>(obj, promise);
+            final Entry<Object, ChannelPromise> entry = new SimpleImmutableEntry<>(obj, promise);
             final PendingWrites pendingWrites;
             if (currentPendingWrites == null) {
                 pendingWrites = new PendingWrites();
@@ -458,7 +572,7 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
 
     private void flushPendingWrites(PendingWrites pendingWrites) {
         for (;;) {
-            final Entry<HttpObject, ChannelPromise> e = pendingWrites.poll();
+            final Entry<Object, ChannelPromise> e = pendingWrites.poll();
             if (e == null) {
                 break;
             }
@@ -476,7 +590,7 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
         for (int i = minClosedId; i <= maxIdWithPendingWrites; i++) {
             final PendingWrites pendingWrites = pendingWritesMap.remove(i);
             for (;;) {
-                final Entry<HttpObject, ChannelPromise> e = pendingWrites.poll();
+                final Entry<Object, ChannelPromise> e = pendingWrites.poll();
                 if (e == null) {
                     break;
                 }
@@ -499,13 +613,14 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
         }
 
         final ClosedSessionException cause = ClosedSessionException.get();
-        for (Queue<Entry<HttpObject, ChannelPromise>> queue : pendingWritesMap.values()) {
+        for (Queue<Entry<Object, ChannelPromise>> queue : pendingWritesMap.values()) {
             for (;;) {
-                final Entry<HttpObject, ChannelPromise> e = queue.poll();
+                final Entry<Object, ChannelPromise> e = queue.poll();
                 if (e == null) {
                     break;
                 }
 
+                ReferenceCountUtil.safeRelease(e.getKey());
                 e.getValue().tryFailure(cause);
             }
         }
@@ -513,7 +628,7 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
         pendingWritesMap.clear();
     }
 
-    private static final class PendingWrites extends ArrayDeque<Entry<HttpObject, ChannelPromise>> {
+    private static final class PendingWrites extends ArrayDeque<Entry<Object, ChannelPromise>> {
 
         private static final long serialVersionUID = 4241891747461017445L;
 
@@ -524,7 +639,7 @@ public final class Http1ObjectEncoder extends HttpObjectEncoder {
         }
 
         @Override
-        public boolean add(Entry<HttpObject, ChannelPromise> httpObjectChannelPromiseEntry) {
+        public boolean add(Entry<Object, ChannelPromise> httpObjectChannelPromiseEntry) {
             return isEndOfStream() ? false : super.add(httpObjectChannelPromiseEntry);
         }
 
@@ -20,6 +20,7 @@ import static java.util.Objects.requireNonNull;
 
 import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.HttpHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.stream.ClosedPublisherException;
 
 import io.netty.buffer.Unpooled;
@@ -29,6 +30,7 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http2.Http2Connection;
 import io.netty.handler.codec.http2.Http2ConnectionEncoder;
 import io.netty.handler.codec.http2.Http2Error;
+import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.Http2Stream;
 import io.netty.util.ReferenceCountUtil;
 
@@ -53,7 +55,7 @@ public final class Http2ObjectEncoder extends HttpObjectEncoder {
         final boolean server = conn.isServer();
         if (isStreamPresentAndWritable(streamId)) {
             // Writing to an existing stream.
-            return encoder.writeHeaders(ctx, streamId, ArmeriaHttpUtil.toNettyHttp2(headers, server),
+            return encoder.writeHeaders(ctx, streamId, toNettyHttp2(headers, server),
                                         0, endStream, ctx.newPromise());
         }
 
@@ -71,7 +73,15 @@ public final class Http2ObjectEncoder extends HttpObjectEncoder {
 
         // Client starts a new stream.
         return encoder.writeHeaders(
-                ctx, streamId, ArmeriaHttpUtil.toNettyHttp2(headers, server), 0, endStream, ctx.newPromise());
+                ctx, streamId, toNettyHttp2(headers, server), 0, endStream, ctx.newPromise());
+    }
+
+    private static Http2Headers toNettyHttp2(HttpHeaders headers, boolean server) {
+        if (server && headers instanceof ResponseHeaders && ((ResponseHeaders) headers).isFrozen()) {
+            final ResponseHeaders frozenHeaders = (ResponseHeaders) headers;
+            return FrozenHeadersCache.get(frozenHeaders).http2Headers(frozenHeaders);
+        }
+        return ArmeriaHttpUtil.toNettyHttp2(headers, server);
     }
 
     @Override
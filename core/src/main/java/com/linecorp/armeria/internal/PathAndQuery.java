@@ -78,16 +78,31 @@ public final class PathAndQuery {
 
     @Nullable
     private static final Cache<String, PathAndQuery> CACHE =
-            Flags.parsedPathCacheSpec().map(PathAndQuery::buildCache).orElse(null);
+            Flags.useEventLoopLocalCaches() ? null
+                                            : Flags.parsedPathCacheSpec().map(PathAndQuery::buildCache)
+                                                   .orElse(null);
+
+    @Nullable
+    private static final EventLoopLocalCache<String, PathAndQuery> EVENT_LOOP_LOCAL_CACHE =
+            Flags.useEventLoopLocalCaches() ? Flags.parsedPathCacheSpec().map(PathAndQuery::buildLocalCache)
+                                                   .orElse(null)
+                                            : null;
 
     private static Cache<String, PathAndQuery> buildCache(String spec) {
         return Caffeine.from(spec).build();
     }
 
+    private static EventLoopLocalCache<String, PathAndQuery> buildLocalCache(String spec) {
+        return new EventLoopLocalCache<>(EventLoopLocalCache.maximumSize(spec));
+    }
+
     public static void registerMetrics(MeterRegistry registry, MeterIdPrefix idPrefix) {
         if (CACHE != null) {
             CaffeineMetricSupport.setup(registry, idPrefix, CACHE);
         }
+        if (EVENT_LOOP_LOCAL_CACHE != null) {
+            EVENT_LOOP_LOCAL_CACHE.registerMetrics(registry, idPrefix);
+        }
     }
 
     /**
@@ -95,6 +110,10 @@ public final class PathAndQuery {
      */
     @VisibleForTesting
     public static void clearCachedPaths() {
+        if (EVENT_LOOP_LOCAL_CACHE != null) {
+            EVENT_LOOP_LOCAL_CACHE.clear();
+            return;
+        }
         requireNonNull(CACHE, "CACHE");
         CACHE.asMap().clear();
     }
@@ -104,6 +123,9 @@ public final class PathAndQuery {
      */
     @VisibleForTesting
     public static Set<String> cachedPaths() {
+        if (EVENT_LOOP_LOCAL_CACHE != null) {
+            return EVENT_LOOP_LOCAL_CACHE.keys();
+        }
         requireNonNull(CACHE, "CACHE");
         return CACHE.asMap().keySet();
     }
@@ -119,8 +141,15 @@ public final class PathAndQuery {
      */
     @Nullable
     public static PathAndQuery parse(@Nullable String rawPath) {
-        if (CACHE != null && rawPath != null) {
-            final PathAndQuery parsed = CACHE.getIfPresent(rawPath);
+        if (rawPath != null) {
+            final PathAndQuery parsed;
+            if (EVENT_LOOP_LOCAL_CACHE != null) {
+                parsed = EVENT_LOOP_LOCAL_CACHE.getIfPresent(rawPath);
+            } else if (CACHE != null) {
+                parsed = CACHE.getIfPresent(rawPath);
+            } else {
+                parsed = null;
+            }
             if (parsed != null) {
                 return parsed;
             }
@@ -133,7 +162,12 @@ public final class PathAndQuery {
      * the parsed result was valid (e.g., when a server is able to successfully handle the parsed path).
      */
     public void storeInCache(@Nullable String rawPath) {
-        if (CACHE != null && rawPath != null) {
+        if (rawPath == null) {
+            return;
+        }
+        if (EVENT_LOOP_LOCAL_CACHE != null) {
+            EVENT_LOOP_LOCAL_CACHE.put(rawPath, this);
+        } else if (CACHE != null) {
             CACHE.put(rawPath, this);
         }
     }
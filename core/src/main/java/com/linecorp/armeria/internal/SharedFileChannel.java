@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+
+import io.netty.util.AbstractReferenceCounted;
+
+/**
+ * A reference-counted {@link FileChannel} which is shared by a file stream and the
+ * {@link FileRegionHttpData}s read from it, so that the file is opened only once. The stream holds
+ * the initial reference, which is released by {@link #close()}, and each {@link FileRegionHttpData} holds
+ * another. The {@link FileChannel} is closed when all of them are released.
+ */
+public final class SharedFileChannel extends AbstractReferenceCounted implements ByteChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedFileChannel.class);
+
+    private final FileChannel channel;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Creates a new instance. Ownership of {@code channel} is taken by this {@link SharedFileChannel}.
+     */
+    public SharedFileChannel(FileChannel channel) {
+        this.channel = requireNonNull(channel, "channel");
+    }
+
+    /**
+     * Returns the shared {@link FileChannel}. Only the operations which do not change the position of
+     * the {@link FileChannel} may be used by the holders other than the stream.
+     */
+    public FileChannel channel() {
+        return channel;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        return channel.read(dst);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        return channel.write(src);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed.get() && channel.isOpen();
+    }
+
+    /**
+     * Releases the reference of the stream. The {@link FileChannel} is closed when all
+     * {@link FileRegionHttpData}s read from this stream are released as well.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    @Override
+    public SharedFileChannel retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public SharedFileChannel touch(Object hint) {
+        return this;
+    }
+
+    @Override
+    protected void deallocate() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close a file channel: {}", this, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("channel", channel)
+                          .add("refCnt", refCnt())
+                          .toString();
+    }
+}
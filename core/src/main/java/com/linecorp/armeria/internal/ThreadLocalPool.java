@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.FastThreadLocalThread;
+
+/**
+ * A pool of reusable objects, such as {@link java.util.zip.Deflater}s, which keeps a separate pool for
+ * each {@link FastThreadLocalThread}. The threads other than {@link FastThreadLocalThread}s do not have
+ * a pool, so an object released by them is always destroyed. The objects pooled by
+ * a {@link FastThreadLocalThread} are destroyed when the thread terminates, so that their native resources
+ * are freed without waiting for finalization.
+ *
+ * @param <T> the type of the pooled objects
+ */
+public final class ThreadLocalPool<T> {
+
+    private final int maxPooledObjects;
+    private final Supplier<? extends T> factory;
+    private final Consumer<? super T> resetter;
+    private final Consumer<? super T> destroyer;
+
+    private final FastThreadLocal<ArrayDeque<T>> pools = new FastThreadLocal<ArrayDeque<T>>() {
+        @Override
+        protected ArrayDeque<T> initialValue() {
+            return new ArrayDeque<>();
+        }
+
+        @Override
+        protected void onRemoval(ArrayDeque<T> pool) {
+            for (;;) {
+                final T obj = pool.pollFirst();
+                if (obj == null) {
+                    break;
+                }
+                destroyer.accept(obj);
+            }
+        }
+    };
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxPooledObjects the maximum number of the objects pooled by a thread
+     * @param factory the {@link Supplier} which creates a new object when a pool is empty
+     * @param resetter the {@link Consumer} which resets an object before it is returned to a pool
+     * @param destroyer the {@link Consumer} which destroys an object which is not pooled
+     */
+    public ThreadLocalPool(int maxPooledObjects, Supplier<? extends T> factory,
+                           Consumer<? super T> resetter, Consumer<? super T> destroyer) {
+        checkArgument(maxPooledObjects > 0, "maxPooledObjects: %s (expected: > 0)", maxPooledObjects);
+        this.maxPooledObjects = maxPooledObjects;
+        this.factory = requireNonNull(factory, "factory");
+        this.resetter = requireNonNull(resetter, "resetter");
+        this.destroyer = requireNonNull(destroyer, "destroyer");
+    }
+
+    /**
+     * Takes an object from the pool of the current thread, or creates a new one if the pool is empty.
+     */
+    public T acquire() {
+        if (Thread.currentThread() instanceof FastThreadLocalThread) {
+            final T obj = pools.get().pollLast();
+            if (obj != null) {
+                return obj;
+            }
+        }
+        return factory.get();
+    }
+
+    /**
+     * Resets the specified object and returns it to the pool of the current thread. The object is
+     * destroyed instead if the current thread does not have a pool or the pool is full.
+     */
+    public void release(T obj) {
+        requireNonNull(obj, "obj");
+        if (Thread.currentThread() instanceof FastThreadLocalThread) {
+            final ArrayDeque<T> pool = pools.get();
+            if (pool.size() < maxPooledObjects) {
+                resetter.accept(obj);
+                pool.addLast(obj);
+                return;
+            }
+        }
+        destroyer.accept(obj);
+    }
+
+    /**
+     * Returns the number of the objects pooled by the current thread.
+     */
+    @VisibleForTesting
+    public int size() {
+        if (!(Thread.currentThread() instanceof FastThreadLocalThread) || !pools.isSet()) {
+            return 0;
+        }
+        return pools.get().size();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("maxPooledObjects", maxPooledObjects)
+                          .add("size", size())
+                          .toString();
+    }
+}
@@ -129,6 +129,15 @@ public enum TransportType {
         return findOrNull(eventLoopGroup) != null;
     }
 
+    /**
+     * Returns the {@link TransportType} of the specified {@link EventLoopGroup}.
+     *
+     * @throws IllegalStateException if the {@link EventLoopGroup} does not support any {@link TransportType}
+     */
+    public static TransportType of(EventLoopGroup eventLoopGroup) {
+        return find(eventLoopGroup);
+    }
+
     private static TransportType find(EventLoopGroup eventLoopGroup) {
         final TransportType found = findOrNull(eventLoopGroup);
         if (found == null) {
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import com.google.common.math.IntMath;
+
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.server.RoutingTrie.Node;
+
+/**
+ * A {@link Router} which flattens a {@link RoutingTrie} into arrays, so that it finds a value without
+ * following object references or creating intermediate objects. The values mapped to an exact path,
+ * i.e. a path without any path variables or a catch-all, are found with a single hash table lookup.
+ *
+ * @see RouterType#COMPILED
+ */
+final class CompiledRouter<V> implements Router<V> {
+
+    private static final byte EXACT = 0;
+    private static final byte PARAMETER = 1;
+    private static final byte CATCH_ALL = 2;
+
+    private static final int NONE = -1;
+
+    // The properties of the nodes, indexed by a node ID. The root node has the ID of 0.
+    private final byte[] types;
+    private final String[] paths;
+    private final char[] firstChars;
+    private final int[] parameterChildren;
+    private final int[] catchAllChildren;
+
+    // The IDs of the exact children of the node 'n' are [childStarts[n], childEnds[n]).
+    // They are sorted by the first character of their paths.
+    private final int[] childStarts;
+    private final int[] childEnds;
+
+    // The values of the node 'n' are stored in [valueStarts[n], valueStarts[n + 1]),
+    // sorted in the same order with the RoutingTrie.
+    private final int[] valueStarts;
+    private final Object[] values;
+    private final Route[] routes;
+    private final int[] methodMasks;
+
+    // An open-addressing hash table from an exact path to a node ID.
+    private final String[] exactPaths;
+    private final int[] exactNodes;
+
+    CompiledRouter(RoutingTrie<V> trie, Function<V, Route> routeResolver) {
+        requireNonNull(trie, "trie");
+        requireNonNull(routeResolver, "routeResolver");
+
+        // Assign the node IDs in a breadth-first order, so that the children of a node have
+        // consecutive IDs.
+        final List<Node<V>> nodes = new ArrayList<>();
+        final List<int[]> children = new ArrayList<>();
+        nodes.add(trie.root());
+        for (int i = 0; i < nodes.size(); i++) {
+            final Node<V> node = nodes.get(i);
+            final int childStart = nodes.size();
+            node.children().stream()
+                .filter(child -> child.type() == RoutingTrie.Type.EXACT)
+                .sorted(Comparator.comparing(child -> child.path().charAt(0)))
+                .forEach(nodes::add);
+            final int childEnd = nodes.size();
+
+            int parameterChild = NONE;
+            if (node.parameterChild() != null) {
+                parameterChild = nodes.size();
+                nodes.add(node.parameterChild());
+            }
+            int catchAllChild = NONE;
+            if (node.catchAllChild() != null) {
+                catchAllChild = nodes.size();
+                nodes.add(node.catchAllChild());
+            }
+            children.add(new int[] { childStart, childEnd, parameterChild, catchAllChild });
+        }
+
+        final int numNodes = nodes.size();
+        types = new byte[numNodes];
+        paths = new String[numNodes];
+        firstChars = new char[numNodes];
+        childStarts = new int[numNodes];
+        childEnds = new int[numNodes];
+        parameterChildren = new int[numNodes];
+        catchAllChildren = new int[numNodes];
+        valueStarts = new int[numNodes + 1];
+
+        int numValues = 0;
+        for (int i = 0; i < numNodes; i++) {
+            final Node<V> node = nodes.get(i);
+            final int[] nodeChildren = children.get(i);
+            types[i] = toType(node.type());
+            paths[i] = node.path();
+            firstChars[i] = node.path().charAt(0);
+            childStarts[i] = nodeChildren[0];
+            childEnds[i] = nodeChildren[1];
+            parameterChildren[i] = nodeChildren[2];
+            catchAllChildren[i] = nodeChildren[3];
+            valueStarts[i] = numValues;
+            numValues += node.values().size();
+        }
+        valueStarts[numNodes] = numValues;
+
+        values = new Object[numValues];
+        routes = new Route[numValues];
+        methodMasks = new int[numValues];
+        int valueIdx = 0;
+        for (Node<V> node : nodes) {
+            for (V value : node.values()) {
+                final Route route = routeResolver.apply(value);
+                values[valueIdx] = value;
+                routes[valueIdx] = route;
+                methodMasks[valueIdx] = methodMask(route);
+                valueIdx++;
+            }
+        }
+
+        // Build the hash table of the nodes which can be reached only via the exact nodes.
+        final List<String> exactPathList = new ArrayList<>();
+        final List<Integer> exactNodeList = new ArrayList<>();
+        collectExactPaths(0, "", exactPathList, exactNodeList);
+
+        final int tableSize = IntMath.ceilingPowerOfTwo(Math.max(2, exactPathList.size() * 2));
+        exactPaths = new String[tableSize];
+        exactNodes = new int[tableSize];
+        for (int i = 0; i < exactPathList.size(); i++) {
+            final String path = exactPathList.get(i);
+            int slot = path.hashCode() & (tableSize - 1);
+            while (exactPaths[slot] != null) {
+                slot = (slot + 1) & (tableSize - 1);
+            }
+            exactPaths[slot] = path;
+            exactNodes[slot] = exactNodeList.get(i);
+        }
+    }
+
+    private static byte toType(RoutingTrie.Type type) {
+        switch (type) {
+            case EXACT:
+                return EXACT;
+            case PARAMETER:
+                return PARAMETER;
+            case CATCH_ALL:
+                return CATCH_ALL;
+            default:
+                throw new Error("Should not reach here");
+        }
+    }
+
+    private static int methodMask(Route route) {
+        int mask = 0;
+        for (HttpMethod method : route.methods()) {
+            mask |= 1 << method.ordinal();
+        }
+        return mask;
+    }
+
+    private void collectExactPaths(int node, String parentPath,
+                                   List<String> exactPathList, List<Integer> exactNodeList) {
+        if (types[node] != EXACT) {
+            return;
+        }
+
+        final String path = parentPath + paths[node];
+        if (hasValues(node)) {
+            exactPathList.add(path);
+            exactNodeList.add(node);
+        }
+        for (int child = childStarts[node]; child < childEnds[node]; child++) {
+            collectExactPaths(child, path, exactPathList, exactNodeList);
+        }
+    }
+
+    @Override
+    public Routed<V> find(RoutingContext routingCtx) {
+        final String path = routingCtx.path();
+        int node = findExactNode(path);
+        if (node == NONE) {
+            node = findNode(0, path, 0);
+            if (node == NONE) {
+                return Routed.empty();
+            }
+        }
+        return findBest(routingCtx, node);
+    }
+
+    private int findExactNode(String path) {
+        final int mask = exactPaths.length - 1;
+        int slot = path.hashCode() & mask;
+        for (;;) {
+            final String exactPath = exactPaths[slot];
+            if (exactPath == null) {
+                return NONE;
+            }
+            if (exactPath.equals(path)) {
+                return exactNodes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Finds the ID of the node which is mapped to the given {@code path}, in the same way with
+     * {@link RoutingTrie#findNode(String)}.
+     */
+    private int findNode(int node, String path, int begin) {
+        final int next;
+        switch (types[node]) {
+            case EXACT:
+                final String nodePath = paths[node];
+                final int len = nodePath.length();
+                if (!path.regionMatches(begin, nodePath, 0, len)) {
+                    return NONE;
+                }
+                if (len == path.length() - begin) {
+                    return hasValues(node) || catchAllChildren[node] == NONE ? node
+                                                                             : catchAllChildren[node];
+                }
+                next = begin + len;
+                break;
+            case PARAMETER:
+                final int delim = path.indexOf('/', begin);
+                if (delim < 0) {
+                    return node;
+                }
+                if (path.length() == delim + 1) {
+                    final int trailingSlashNode = child(node, '/');
+                    return trailingSlashNode != NONE ? trailingSlashNode : node;
+                }
+                next = delim;
+                break;
+            default:
+                throw new Error("Should not reach here");
+        }
+
+        int child = child(node, path.charAt(next));
+        if (child != NONE) {
+            final int found = findNode(child, path, next);
+            if (found != NONE) {
+                return found;
+            }
+        }
+        child = parameterChildren[node];
+        if (child != NONE) {
+            final int found = findNode(child, path, next);
+            if (found != NONE) {
+                return found;
+            }
+        }
+        return catchAllChildren[node];
+    }
+
+    private int child(int node, char key) {
+        final int idx = Arrays.binarySearch(firstChars, childStarts[node], childEnds[node], key);
+        return idx >= 0 ? idx : NONE;
+    }
+
+    private boolean hasValues(int node) {
+        return valueStarts[node] != valueStarts[node + 1];
+    }
+
+    /**
+     * Finds the most suitable value of the specified node. See {@code Routers.findBest()} for
+     * the ordering of the values.
+     */
+    private Routed<V> findBest(RoutingContext routingCtx, int node) {
+        final int methodBit = 1 << routingCtx.method().ordinal();
+        final boolean isCorsPreflight = routingCtx.isCorsPreflight();
+
+        Routed<V> result = Routed.empty();
+        final int end = valueStarts[node + 1];
+        for (int i = valueStarts[node]; i < end; i++) {
+            final Route route = routes[i];
+            final int methodMask = methodMasks[i];
+            if (methodMask != 0 && (methodMask & methodBit) == 0 && !isCorsPreflight) {
+                // The route never matches. Let the route delay '405 Method Not Allowed' only if its path
+                // matches and no other route has delayed a more specific status.
+                if (!routingCtx.delayedThrowable().isPresent()) {
+                    route.apply(routingCtx);
+                }
+                continue;
+            }
+
+            final RoutingResult routingResult = route.apply(routingCtx);
+            if (!routingResult.isPresent()) {
+                continue;
+            }
+
+            if (routingResult.hasHighestScore()) {
+                return Routed.of(route, routingResult, value(i));
+            }
+
+            if (routingResult.hasLowestScore()) {
+                return result.isPresent() ? result : Routed.of(route, routingResult, value(i));
+            }
+
+            if (!result.isPresent() || routingResult.score() > result.routingResult().score()) {
+                result = Routed.of(route, routingResult, value(i));
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int index) {
+        return (V) values[index];
+    }
+
+    @Override
+    public void dump(OutputStream output) {
+        // Do not close this writer in order to keep output stream open.
+        final PrintWriter p = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        p.printf("Dump of %s:%n", this);
+        for (int i = 0; i < types.length; i++) {
+            p.printf("<%d> type: %d, path: %s, children: %s, parameterChild: %d, catchAllChild: %d, " +
+                     "values: %s%n", i, types[i], paths[i],
+                     childStarts[i] == childEnds[i] ? "[]" : "[" + childStarts[i] + ", " + childEnds[i] + ')',
+                     parameterChildren[i], catchAllChildren[i],
+                     Arrays.toString(Arrays.copyOfRange(values, valueStarts[i], valueStarts[i + 1])));
+        }
+        p.flush();
+    }
+}
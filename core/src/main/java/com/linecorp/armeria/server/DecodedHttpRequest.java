@@ -16,6 +16,8 @@
 
 package com.linecorp.armeria.server;
 
+import static java.util.Objects.requireNonNull;
+
 import javax.annotation.Nullable;
 
 import com.linecorp.armeria.common.DefaultHttpRequest;
@@ -28,6 +30,7 @@ import com.linecorp.armeria.internal.InboundTrafficController;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.EventLoop;
+import io.netty.util.ReferenceCountUtil;
 
 final class DecodedHttpRequest extends DefaultHttpRequest {
 
@@ -120,6 +123,21 @@ final class DecodedHttpRequest extends DefaultHttpRequest {
         return published;
     }
 
+    @Override
+    public boolean tryWriteAll(Iterable<? extends HttpObject> objs) {
+        // Write one by one so that every object goes through tryWrite(HttpObject).
+        requireNonNull(objs, "objs");
+        boolean published = true;
+        for (HttpObject obj : objs) {
+            if (published) {
+                published = tryWrite(obj);
+            } else {
+                ReferenceCountUtil.safeRelease(obj);
+            }
+        }
+        return published;
+    }
+
     @Override
     protected void onRemoval(HttpObject obj) {
         if (obj instanceof HttpData) {
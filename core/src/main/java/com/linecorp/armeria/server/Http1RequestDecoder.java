@@ -32,6 +32,7 @@ import com.linecorp.armeria.common.HttpMethod;
 import com.linecorp.armeria.common.HttpStatus;
 import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.common.ProtocolViolationException;
+import com.linecorp.armeria.common.RequestHeadersBuilder;
 import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.internal.ArmeriaHttpUtil;
 import com.linecorp.armeria.internal.Http1ObjectEncoder;
@@ -140,31 +141,21 @@ final class Http1RequestDecoder extends ChannelDuplexHandler {
                     }
 
                     // Validate the 'content-length' header.
-                    final String contentLengthStr = nettyHeaders.get(HttpHeaderNames.CONTENT_LENGTH);
-                    final boolean contentEmpty;
-                    if (contentLengthStr != null) {
-                        final long contentLength;
-                        try {
-                            contentLength = Long.parseLong(contentLengthStr);
-                        } catch (NumberFormatException ignored) {
-                            fail(id, HttpResponseStatus.BAD_REQUEST, DATA_INVALID_CONTENT_LENGTH);
-                            return;
-                        }
-                        if (contentLength < 0) {
-                            fail(id, HttpResponseStatus.BAD_REQUEST, DATA_INVALID_CONTENT_LENGTH);
-                            return;
-                        }
-
-                        contentEmpty = contentLength == 0;
-                    } else {
-                        contentEmpty = true;
+                    final long contentLength = contentLength(nettyHeaders.get(HttpHeaderNames.CONTENT_LENGTH));
+                    if (contentLength < 0) {
+                        fail(id, HttpResponseStatus.BAD_REQUEST, DATA_INVALID_CONTENT_LENGTH);
+                        return;
                     }
+                    final boolean contentEmpty = contentLength == 0;
 
-                    if (!handle100Continue(id, nettyReq, nettyHeaders)) {
+                    if (!handle100Continue(id, nettyReq.protocolVersion(),
+                                           nettyHeaders.get(HttpHeaderNames.EXPECT))) {
                         ctx.pipeline().fireUserEventTriggered(HttpExpectationFailedEvent.INSTANCE);
                         fail(id, HttpResponseStatus.EXPECTATION_FAILED, null);
                         return;
                     }
+                    // Remove the 'expect' header so that it's handled in a way invisible to a Service.
+                    nettyHeaders.remove(HttpHeaderNames.EXPECT);
 
                     nettyHeaders.set(ExtensionHeaderNames.SCHEME.text(), scheme);
 
@@ -182,6 +173,47 @@ final class Http1RequestDecoder extends ChannelDuplexHandler {
                         req.close();
                     }
 
+                    ctx.fireChannelRead(req);
+                } else if (msg instanceof Http1RequestHead) {
+                    final Http1RequestHead head = (Http1RequestHead) msg;
+                    if (!head.decoderResult().isSuccess()) {
+                        fail(id, HttpResponseStatus.BAD_REQUEST, DATA_DECODER_FAILURE);
+                        return;
+                    }
+
+                    // Validate the method.
+                    if (!HttpMethod.isSupported(head.method())) {
+                        fail(id, HttpResponseStatus.METHOD_NOT_ALLOWED, DATA_UNSUPPORTED_METHOD);
+                        return;
+                    }
+
+                    // Validate the 'content-length' header.
+                    final RequestHeadersBuilder headers = head.headers();
+                    if (contentLength(headers.get(HttpHeaderNames.CONTENT_LENGTH)) < 0) {
+                        fail(id, HttpResponseStatus.BAD_REQUEST, DATA_INVALID_CONTENT_LENGTH);
+                        return;
+                    }
+
+                    if (!handle100Continue(id, head.protocolVersion(), headers.get(HttpHeaderNames.EXPECT))) {
+                        ctx.pipeline().fireUserEventTriggered(HttpExpectationFailedEvent.INSTANCE);
+                        fail(id, HttpResponseStatus.EXPECTATION_FAILED, null);
+                        return;
+                    }
+                    // Remove the 'expect' header so that it's handled in a way invisible to a Service.
+                    headers.remove(HttpHeaderNames.EXPECT);
+
+                    ArmeriaHttpUtil.addHttp2PseudoHeaders(ctx, head.method(), head.uri(), head.host(),
+                                                          scheme, cfg, headers);
+
+                    // Http1ServerDecoder always produces a LastHttpContent, which closes the request.
+                    this.req = req = new DecodedHttpRequest(
+                            ctx.channel().eventLoop(),
+                            id, 1,
+                            headers.build(),
+                            head.isKeepAlive(),
+                            inboundTrafficController,
+                            cfg.maxRequestLength());
+
                     ctx.fireChannelRead(req);
                 } else {
                     fail(id, HttpResponseStatus.BAD_REQUEST, DATA_INVALID_DECODER_STATE);
@@ -241,13 +273,28 @@ final class Http1RequestDecoder extends ChannelDuplexHandler {
         }
     }
 
-    private boolean handle100Continue(int id, HttpRequest nettyReq, HttpHeaders nettyHeaders) {
-        if (nettyReq.protocolVersion().compareTo(HttpVersion.HTTP_1_1) < 0) {
+    /**
+     * Returns the value of the specified {@code "content-length"} header, {@code 0} if the header is absent,
+     * or {@code -1} if the value is invalid.
+     */
+    private static long contentLength(@Nullable String contentLengthStr) {
+        if (contentLengthStr == null) {
+            return 0;
+        }
+        try {
+            final long contentLength = Long.parseLong(contentLengthStr);
+            return contentLength >= 0 ? contentLength : -1;
+        } catch (NumberFormatException ignored) {
+            return -1;
+        }
+    }
+
+    private boolean handle100Continue(int id, HttpVersion protocolVersion, @Nullable String expectValue) {
+        if (protocolVersion.compareTo(HttpVersion.HTTP_1_1) < 0) {
             // Ignore HTTP/1.0 requests.
             return true;
         }
 
-        final String expectValue = nettyHeaders.get(HttpHeaderNames.EXPECT);
         if (expectValue == null) {
             // No 'expect' header.
             return true;
@@ -260,9 +307,6 @@ final class Http1RequestDecoder extends ChannelDuplexHandler {
 
         // Send a '100 Continue' response.
         writer.writeHeaders(id, 1, CONTINUE_RESPONSE, false);
-
-        // Remove the 'expect' header so that it's handled in a way invisible to a Service.
-        nettyHeaders.remove(HttpHeaderNames.EXPECT);
         return true;
     }
 
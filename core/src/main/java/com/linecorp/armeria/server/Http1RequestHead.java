@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.RequestHeadersBuilder;
+
+import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.http.DefaultHttpObject;
+import io.netty.handler.codec.http.HttpVersion;
+
+/**
+ * The request line and headers of an HTTP/1 request decoded by {@link Http1ServerDecoder}.
+ * Unlike Netty's {@link io.netty.handler.codec.http.HttpRequest}, the headers have been decoded into
+ * a {@link RequestHeadersBuilder} already, so that {@link Http1RequestDecoder} only needs to add
+ * the pseudo headers.
+ */
+final class Http1RequestHead extends DefaultHttpObject {
+
+    static Http1RequestHead failed(Throwable cause) {
+        final Http1RequestHead head = new Http1RequestHead("", "", HttpVersion.HTTP_1_1,
+                                                           RequestHeaders.builder(), null, false);
+        head.setDecoderResult(DecoderResult.failure(cause));
+        return head;
+    }
+
+    private final String method;
+    private final String uri;
+    private final HttpVersion protocolVersion;
+    private final RequestHeadersBuilder headers;
+    @Nullable
+    private final String host;
+    private final boolean keepAlive;
+
+    Http1RequestHead(String method, String uri, HttpVersion protocolVersion,
+                     RequestHeadersBuilder headers, @Nullable String host, boolean keepAlive) {
+        this.method = method;
+        this.uri = uri;
+        this.protocolVersion = protocolVersion;
+        this.headers = headers;
+        this.host = host;
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Returns the method in the request line.
+     */
+    String method() {
+        return method;
+    }
+
+    /**
+     * Returns the request target in the request line.
+     */
+    String uri() {
+        return uri;
+    }
+
+    HttpVersion protocolVersion() {
+        return protocolVersion;
+    }
+
+    /**
+     * Returns the headers of the request, without the pseudo headers and the connection-specific headers.
+     */
+    RequestHeadersBuilder headers() {
+        return headers;
+    }
+
+    /**
+     * Returns the value of the {@code "host"} header, which has been removed from {@link #headers()}.
+     */
+    @Nullable
+    String host() {
+        return host;
+    }
+
+    boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("method", method)
+                          .add("uri", uri)
+                          .add("protocolVersion", protocolVersion)
+                          .add("headers", headers)
+                          .add("decoderResult", decoderResult())
+                          .toString();
+    }
+}
@@ -0,0 +1,645 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Ascii;
+
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.RequestHeadersBuilder;
+import com.linecorp.armeria.internal.ArmeriaHttpUtil;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.AsciiString;
+
+/**
+ * Decodes the HTTP/1 requests in a {@link ByteBuf} into {@link Http1RequestHead}s and
+ * {@link io.netty.handler.codec.http.HttpContent}s. Unlike the decoder of {@link HttpServerCodec},
+ * it parses the request line and headers directly into a {@link RequestHeadersBuilder} without creating
+ * a Netty {@link io.netty.handler.codec.http.HttpRequest}. A header name is looked up from the
+ * well-known {@link HttpHeaderNames} with a slice of the received bytes, so it is copied only when it
+ * is not a well-known one. The content is not copied but sliced from the received {@link ByteBuf}.
+ *
+ * <p>A request always produces an {@link Http1RequestHead} followed by zero or more
+ * {@link io.netty.handler.codec.http.HttpContent}s and a {@link LastHttpContent}, unless the request
+ * could not be decoded, in which case an {@link Http1RequestHead} or a {@link LastHttpContent} whose
+ * {@link DecoderResult} is a failure is produced and the following bytes are discarded.
+ */
+final class Http1ServerDecoder extends ByteToMessageDecoder {
+
+    private static final byte SP = ' ';
+    private static final byte HT = '\t';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private static final HttpMethod[] KNOWN_METHODS = HttpMethod.knownMethods().toArray(new HttpMethod[0]);
+    private static final byte[] HTTP_1_1 = HttpVersion.HTTP_1_1.text().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HTTP_1_0 = HttpVersion.HTTP_1_0.text().getBytes(StandardCharsets.US_ASCII);
+
+    private enum State {
+        SKIP_CONTROL_CHARS,
+        READ_HEAD,
+        READ_FIXED_LENGTH_CONTENT,
+        READ_CHUNK_SIZE,
+        READ_CHUNKED_CONTENT,
+        READ_CHUNK_DELIMITER,
+        READ_CHUNK_FOOTER,
+        BAD_MESSAGE
+    }
+
+    private final int maxInitialLineLength;
+    private final int maxHeaderSize;
+    private final int maxChunkSize;
+    private final Http1ServerEncoder encoder;
+    @Nullable
+    private final Consumer<ChannelHandlerContext> upgradeHandler;
+
+    private State state = State.SKIP_CONTROL_CHARS;
+    private boolean receivedRequest;
+
+    /**
+     * The buffer which the head of a request is copied into when the received {@link ByteBuf} does not
+     * have a backing array.
+     */
+    private byte[] headBuffer = new byte[256];
+
+    // The progress of finding the end of the head, relative to the reader index.
+    private int headScanOffset;
+    private int headerSize;
+
+    /**
+     * The number of the remaining bytes of the current fixed-length content or chunk.
+     */
+    private long remaining;
+
+    // The trailers which are being decoded.
+    @Nullable
+    private LastHttpContent trailers;
+    @Nullable
+    private String lastTrailerName;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param upgradeHandler the {@link Consumer} which replaces this decoder with the handlers that support
+     *                       an HTTP/1 {@code upgrade} request, or {@code null} to ignore the {@code upgrade}
+     *                       header. It is invoked only when the first request of a connection has
+     *                       the {@code upgrade} header. This decoder will not consume the request, so that
+     *                       the replacement decoder can decode it again.
+     */
+    Http1ServerDecoder(int maxInitialLineLength, int maxHeaderSize, int maxChunkSize,
+                       Http1ServerEncoder encoder, @Nullable Consumer<ChannelHandlerContext> upgradeHandler) {
+        checkArgument(maxInitialLineLength > 0,
+                      "maxInitialLineLength: %s (expected: > 0)", maxInitialLineLength);
+        checkArgument(maxHeaderSize > 0, "maxHeaderSize: %s (expected: > 0)", maxHeaderSize);
+        checkArgument(maxChunkSize > 0, "maxChunkSize: %s (expected: > 0)", maxChunkSize);
+        this.maxInitialLineLength = maxInitialLineLength;
+        this.maxHeaderSize = maxHeaderSize;
+        this.maxChunkSize = maxChunkSize;
+        this.encoder = requireNonNull(encoder, "encoder");
+        this.upgradeHandler = upgradeHandler;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        switch (state) {
+            case SKIP_CONTROL_CHARS:
+                if (!skipControlChars(in)) {
+                    return;
+                }
+                state = State.READ_HEAD;
+                // fall through
+            case READ_HEAD:
+                readHead(ctx, in, out);
+                return;
+            case READ_FIXED_LENGTH_CONTENT: {
+                final int length = (int) Math.min(Math.min(remaining, maxChunkSize), in.readableBytes());
+                final ByteBuf content = in.readRetainedSlice(length);
+                remaining -= length;
+                if (remaining == 0) {
+                    out.add(new DefaultLastHttpContent(content, false));
+                    state = State.SKIP_CONTROL_CHARS;
+                } else {
+                    out.add(new DefaultHttpContent(content));
+                }
+                return;
+            }
+            case READ_CHUNK_SIZE:
+                readChunkSize(in, out);
+                return;
+            case READ_CHUNKED_CONTENT: {
+                final int length = (int) Math.min(Math.min(remaining, maxChunkSize), in.readableBytes());
+                out.add(new DefaultHttpContent(in.readRetainedSlice(length)));
+                remaining -= length;
+                if (remaining == 0) {
+                    state = State.READ_CHUNK_DELIMITER;
+                }
+                return;
+            }
+            case READ_CHUNK_DELIMITER: {
+                final int lf = in.indexOf(in.readerIndex(), in.writerIndex(), LF);
+                if (lf < 0) {
+                    in.skipBytes(in.readableBytes());
+                } else {
+                    in.readerIndex(lf + 1);
+                    state = State.READ_CHUNK_SIZE;
+                }
+                return;
+            }
+            case READ_CHUNK_FOOTER:
+                readChunkFooter(in, out);
+                return;
+            case BAD_MESSAGE:
+                in.skipBytes(in.readableBytes());
+                return;
+            default:
+                throw new Error("Should not reach here");
+        }
+    }
+
+    /**
+     * Skips the control characters and whitespaces before a request line.
+     *
+     * @return {@code true} if the first character of a request line has been found.
+     */
+    private static boolean skipControlChars(ByteBuf in) {
+        final int readerIndex = in.readerIndex();
+        final int writerIndex = in.writerIndex();
+        for (int i = readerIndex; i < writerIndex; i++) {
+            final char ch = (char) (in.getByte(i) & 0xFF);
+            if (!Character.isISOControl(ch) && !Character.isWhitespace(ch)) {
+                in.readerIndex(i);
+                return true;
+            }
+        }
+        in.readerIndex(writerIndex);
+        return false;
+    }
+
+    private void readHead(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        // Find the end of the head first, so that the head is parsed only once.
+        final int start = in.readerIndex();
+        final int writerIndex = in.writerIndex();
+        int lineStart = start + headScanOffset;
+        int headEnd = -1;
+        for (;;) {
+            final int lf = in.indexOf(lineStart, writerIndex, LF);
+            final int lineLength = (lf < 0 ? writerIndex : lf) - lineStart;
+            if (lineStart == start) {
+                if (lineLength > maxInitialLineLength) {
+                    fail(in, out, new TooLongFrameException(
+                            "An HTTP line is larger than " + maxInitialLineLength + " bytes."));
+                    return;
+                }
+            } else if (headerSize + lineLength > maxHeaderSize) {
+                fail(in, out, new TooLongFrameException(
+                        "HTTP header is larger than " + maxHeaderSize + " bytes."));
+                return;
+            }
+
+            if (lf < 0) {
+                headScanOffset = lineStart - start;
+                return;
+            }
+
+            if (lineStart != start) {
+                if (lineLength == 0 || lineLength == 1 && in.getByte(lineStart) == CR) {
+                    headEnd = lf + 1;
+                    break;
+                }
+                headerSize += lineLength;
+            }
+            lineStart = lf + 1;
+        }
+
+        headScanOffset = 0;
+        headerSize = 0;
+
+        final int headLength = headEnd - start;
+        final byte[] bytes;
+        final int offset;
+        if (in.hasArray()) {
+            bytes = in.array();
+            offset = in.arrayOffset() + start;
+        } else {
+            if (headBuffer.length < headLength) {
+                headBuffer = new byte[Math.max(headLength, headBuffer.length << 1)];
+            }
+            bytes = headBuffer;
+            offset = 0;
+            in.getBytes(start, bytes, 0, headLength);
+        }
+
+        final Http1RequestHead head;
+        try {
+            head = parseHead(bytes, offset, offset + headLength);
+        } catch (IllegalArgumentException e) {
+            fail(in, out, e);
+            return;
+        }
+
+        final RequestHeadersBuilder headers = head.headers();
+        if (upgradeHandler != null && !receivedRequest && headers.contains(HttpHeaderNames.UPGRADE)) {
+            // Let the upgrade handler decode the request again.
+            state = State.BAD_MESSAGE;
+            upgradeHandler.accept(ctx);
+            return;
+        }
+
+        receivedRequest = true;
+        in.readerIndex(headEnd);
+
+        final boolean chunked = containsToken(headers.getAll(HttpHeaderNames.TRANSFER_ENCODING),
+                                              HttpHeaderValues.CHUNKED);
+        final String contentLength = chunked ? null : headers.get(HttpHeaderNames.CONTENT_LENGTH);
+        ArmeriaHttpUtil.toHttp2Headers(headers);
+
+        encoder.addRequestMethod(HttpMethod.isSupported(head.method()) ? HttpMethod.valueOf(head.method())
+                                                                        : HttpMethod.UNKNOWN);
+        out.add(head);
+
+        if (chunked) {
+            state = State.READ_CHUNK_SIZE;
+        } else if (contentLength != null) {
+            try {
+                remaining = Long.parseLong(contentLength);
+            } catch (NumberFormatException ignored) {
+                remaining = -1;
+            }
+            if (remaining > 0) {
+                state = State.READ_FIXED_LENGTH_CONTENT;
+            } else if (remaining == 0) {
+                out.add(LastHttpContent.EMPTY_LAST_CONTENT);
+                state = State.SKIP_CONTROL_CHARS;
+            } else {
+                // Http1RequestDecoder will reject the request with the invalid content-length.
+                state = State.BAD_MESSAGE;
+            }
+        } else {
+            out.add(LastHttpContent.EMPTY_LAST_CONTENT);
+            state = State.SKIP_CONTROL_CHARS;
+        }
+    }
+
+    private static Http1RequestHead parseHead(byte[] bytes, int start, int end) {
+        // Parse the request line.
+        int lineEnd = indexOf(bytes, start, end, LF);
+        int lineContentEnd = trimEnd(bytes, start, lineEnd);
+
+        final int methodEnd = indexOf(bytes, start, lineContentEnd, SP);
+        final int uriStart = skipWhitespaces(bytes, methodEnd, lineContentEnd);
+        final int uriEnd = indexOf(bytes, uriStart, lineContentEnd, SP);
+        final int versionStart = skipWhitespaces(bytes, uriEnd, lineContentEnd);
+        if (methodEnd == start || uriStart == uriEnd || versionStart == lineContentEnd) {
+            throw new IllegalArgumentException("invalid request line");
+        }
+
+        final String method = method(bytes, start, methodEnd);
+        final String uri = new String(bytes, uriStart, uriEnd - uriStart, StandardCharsets.ISO_8859_1);
+        final HttpVersion version;
+        if (regionEquals(bytes, versionStart, lineContentEnd, HTTP_1_1)) {
+            version = HttpVersion.HTTP_1_1;
+        } else if (regionEquals(bytes, versionStart, lineContentEnd, HTTP_1_0)) {
+            version = HttpVersion.HTTP_1_0;
+        } else {
+            throw new IllegalArgumentException("unsupported protocol version");
+        }
+
+        // Parse the headers.
+        final RequestHeadersBuilder headers = RequestHeaders.builder();
+        AsciiString name = null;
+        int valueStart = -1;
+        int valueEnd = -1;
+        String value = null;
+        for (;;) {
+            final int lineStart = lineEnd + 1;
+            lineEnd = indexOf(bytes, lineStart, end, LF);
+            lineContentEnd = trimEnd(bytes, lineStart, lineEnd);
+
+            if (lineContentEnd > lineStart && (bytes[lineStart] == SP || bytes[lineStart] == HT)) {
+                // A folded header value.
+                if (name != null) {
+                    if (value == null) {
+                        value = headerValue(bytes, valueStart, valueEnd);
+                    }
+                    final int continuationStart = skipWhitespaces(bytes, lineStart, lineContentEnd);
+                    value = value + ' ' + headerValue(bytes, continuationStart, lineContentEnd);
+                }
+                continue;
+            }
+
+            if (name != null) {
+                headers.add(name, value != null ? value : headerValue(bytes, valueStart, valueEnd));
+                name = null;
+                value = null;
+            }
+
+            if (lineContentEnd == lineStart) {
+                // The end of the headers.
+                break;
+            }
+
+            // Note that a whitespace is allowed between the name and the colon for a compatibility with
+            // the decoder of HttpServerCodec.
+            final int colon = indexOf(bytes, lineStart, lineContentEnd, (byte) ':');
+            final int nameEnd = trimEnd(bytes, lineStart, colon);
+            if (colon == lineContentEnd || nameEnd == lineStart) {
+                throw new IllegalArgumentException("invalid header line");
+            }
+            name = headerName(bytes, lineStart, nameEnd);
+            valueStart = skipWhitespaces(bytes, colon + 1, lineContentEnd);
+            valueEnd = lineContentEnd;
+        }
+
+        final String host = headers.get(HttpHeaderNames.HOST);
+        final List<String> connection = headers.getAll(HttpHeaderNames.CONNECTION);
+        final boolean keepAlive =
+                !containsToken(connection, HttpHeaderValues.CLOSE) &&
+                (version == HttpVersion.HTTP_1_1 || containsToken(connection, HttpHeaderValues.KEEP_ALIVE));
+
+        return new Http1RequestHead(method, uri, version, headers, host, keepAlive);
+    }
+
+    private static String method(byte[] bytes, int start, int end) {
+        for (HttpMethod method : KNOWN_METHODS) {
+            final String name = method.name();
+            if (name.length() == end - start) {
+                boolean matches = true;
+                for (int i = 0; i < name.length(); i++) {
+                    if (bytes[start + i] != name.charAt(i)) {
+                        matches = false;
+                        break;
+                    }
+                }
+                if (matches) {
+                    return name;
+                }
+            }
+        }
+        return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    private static AsciiString headerName(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            final byte b = bytes[i];
+            // Reject the characters prohibited by the decoder of HttpServerCodec.
+            if (b < 0 || b <= SP || b == ',' || b == ';' || b == '=' || b == ':') {
+                throw new IllegalArgumentException("invalid header name");
+            }
+        }
+
+        // Look up the well-known names using a slice, and copy the bytes only when not found.
+        final AsciiString slice = new AsciiString(bytes, start, end - start, false);
+        final AsciiString name = HttpHeaderNames.of(slice);
+        return name != slice ? name : new AsciiString(bytes, start, end - start, true);
+    }
+
+    private static String headerValue(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            final byte b = bytes[i];
+            if (b == CR || b == 0x0b || b == '\f') {
+                throw new IllegalArgumentException("invalid header value");
+            }
+        }
+        return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int indexOf(byte[] bytes, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int skipWhitespaces(byte[] bytes, int start, int end) {
+        int i = start;
+        while (i < end && (bytes[i] == SP || bytes[i] == HT)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the end index of the specified range without the trailing whitespaces and {@code CR}.
+     */
+    private static int trimEnd(byte[] bytes, int start, int end) {
+        int i = end;
+        while (i > start && (bytes[i - 1] == SP || bytes[i - 1] == HT || bytes[i - 1] == CR)) {
+            i--;
+        }
+        return i;
+    }
+
+    private static boolean regionEquals(byte[] bytes, int start, int end, byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (bytes[start + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether any of the specified comma-separated header values contains the specified token.
+     */
+    private static boolean containsToken(List<String> values, AsciiString token) {
+        for (String value : values) {
+            int start = 0;
+            for (;;) {
+                int end = value.indexOf(',', start);
+                if (end < 0) {
+                    end = value.length();
+                }
+                if (AsciiString.contentEqualsIgnoreCase(AsciiString.trim(value.subSequence(start, end)),
+                                                        token)) {
+                    return true;
+                }
+                if (end == value.length()) {
+                    break;
+                }
+                start = end + 1;
+            }
+        }
+        return false;
+    }
+
+    private void readChunkSize(ByteBuf in, List<Object> out) {
+        final int readerIndex = in.readerIndex();
+        final int lf = in.indexOf(readerIndex, in.writerIndex(), LF);
+        if (lf < 0) {
+            if (in.readableBytes() > maxInitialLineLength) {
+                fail(in, out, new TooLongFrameException(
+                        "An HTTP line is larger than " + maxInitialLineLength + " bytes."));
+            }
+            return;
+        }
+
+        // Parse the hexadecimal chunk size, ignoring the chunk extensions.
+        int i = readerIndex;
+        while (i < lf && isWhitespace(in.getByte(i))) {
+            i++;
+        }
+        final int digitsStart = i;
+        long chunkSize = 0;
+        for (; i < lf; i++) {
+            final int digit = Character.digit(in.getByte(i), 16);
+            if (digit < 0) {
+                break;
+            }
+            chunkSize = (chunkSize << 4) + digit;
+            if (chunkSize > Integer.MAX_VALUE) {
+                break;
+            }
+        }
+        if (i == digitsStart || chunkSize > Integer.MAX_VALUE) {
+            fail(in, out, new CorruptedFrameException("invalid chunk size"));
+            return;
+        }
+
+        in.readerIndex(lf + 1);
+        if (chunkSize == 0) {
+            state = State.READ_CHUNK_FOOTER;
+        } else {
+            remaining = chunkSize;
+            state = State.READ_CHUNKED_CONTENT;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == SP || b == HT;
+    }
+
+    private void readChunkFooter(ByteBuf in, List<Object> out) {
+        final int readerIndex = in.readerIndex();
+        final int lf = in.indexOf(readerIndex, in.writerIndex(), LF);
+        final int lineLength = (lf < 0 ? in.writerIndex() : lf) - readerIndex;
+        if (headerSize + lineLength > maxHeaderSize) {
+            fail(in, out, new TooLongFrameException("HTTP header is larger than " + maxHeaderSize + " bytes."));
+            return;
+        }
+        if (lf < 0) {
+            return;
+        }
+
+        headerSize += lineLength;
+        final String line = in.toString(readerIndex, lineLength, StandardCharsets.ISO_8859_1).trim();
+        in.readerIndex(lf + 1);
+
+        if (!line.isEmpty()) {
+            final char firstChar = (char) in.getByte(readerIndex);
+            if (firstChar == SP || firstChar == HT) {
+                // A folded trailer value.
+                if (trailers != null && lastTrailerName != null) {
+                    final List<String> values =
+                            new ArrayList<>(trailers.trailingHeaders().getAll(lastTrailerName));
+                    if (!values.isEmpty()) {
+                        final int lastIndex = values.size() - 1;
+                        values.set(lastIndex, values.get(lastIndex) + ' ' + line);
+                        trailers.trailingHeaders().set(lastTrailerName, values);
+                    }
+                }
+                return;
+            }
+
+            final int colon = line.indexOf(':');
+            if (colon <= 0) {
+                fail(in, out, new CorruptedFrameException("invalid trailer line"));
+                return;
+            }
+            final String name = line.substring(0, colon).trim();
+            if (isProhibitedTrailer(name)) {
+                lastTrailerName = null;
+                return;
+            }
+            if (trailers == null) {
+                trailers = new DefaultLastHttpContent(Unpooled.EMPTY_BUFFER, false);
+            }
+            trailers.trailingHeaders().add(name, line.substring(colon + 1).trim());
+            lastTrailerName = name;
+            return;
+        }
+
+        // The end of the trailers.
+        out.add(trailers != null ? trailers : LastHttpContent.EMPTY_LAST_CONTENT);
+        trailers = null;
+        lastTrailerName = null;
+        headerSize = 0;
+        state = State.SKIP_CONTROL_CHARS;
+    }
+
+    private static boolean isProhibitedTrailer(String name) {
+        return Ascii.equalsIgnoreCase(name, HttpHeaderNames.CONTENT_LENGTH) ||
+               Ascii.equalsIgnoreCase(name, HttpHeaderNames.TRANSFER_ENCODING) ||
+               Ascii.equalsIgnoreCase(name, HttpHeaderNames.TRAILER);
+    }
+
+    private void fail(ByteBuf in, List<Object> out, Exception cause) {
+        final boolean decodingHead = state == State.READ_HEAD;
+        state = State.BAD_MESSAGE;
+        headScanOffset = 0;
+        headerSize = 0;
+        if (trailers != null) {
+            trailers.release();
+            trailers = null;
+        }
+        in.skipBytes(in.readableBytes());
+
+        if (decodingHead) {
+            encoder.addRequestMethod(HttpMethod.UNKNOWN);
+            out.add(Http1RequestHead.failed(cause));
+        } else {
+            final LastHttpContent content = new DefaultLastHttpContent(Unpooled.EMPTY_BUFFER, false);
+            content.setDecoderResult(DecoderResult.failure(cause));
+            out.add(content);
+        }
+    }
+
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+        if (trailers != null) {
+            trailers.release();
+            trailers = null;
+        }
+    }
+}
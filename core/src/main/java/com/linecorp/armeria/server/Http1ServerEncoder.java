@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import javax.annotation.Nullable;
+
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.internal.FrozenHttp1Headers;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpStatusClass;
+
+/**
+ * An {@link HttpResponseEncoder} which works with {@link Http1ServerDecoder}. Similar to the encoder of
+ * {@link HttpServerCodec}, it remembers the methods of the decoded requests, so that it does not write
+ * the content of a response to a {@code HEAD} request. It also writes the wire format cached in
+ * {@link FrozenHttp1Headers} as it is.
+ */
+final class Http1ServerEncoder extends HttpResponseEncoder {
+
+    private final Queue<HttpMethod> methods = new ArrayDeque<>();
+    @Nullable
+    private HttpMethod method;
+    private boolean stripTransferEncoding;
+
+    /**
+     * Invoked by {@link Http1ServerDecoder} when it has decoded a request.
+     */
+    void addRequestMethod(HttpMethod method) {
+        methods.add(method);
+    }
+
+    @Override
+    protected void sanitizeHeadersBeforeEncode(HttpResponse msg, boolean isAlwaysEmpty) {
+        if (!isAlwaysEmpty && method == HttpMethod.CONNECT &&
+            msg.status().codeClass() == HttpStatusClass.SUCCESS) {
+            // Stripping Transfer-Encoding:
+            // See https://tools.ietf.org/html/rfc7230#section-3.3.1
+            if (msg.headers() instanceof FrozenHttp1Headers) {
+                // Do not modify the headers shared by other responses.
+                stripTransferEncoding = true;
+            } else {
+                msg.headers().remove(HttpHeaderNames.TRANSFER_ENCODING);
+            }
+            return;
+        }
+
+        super.sanitizeHeadersBeforeEncode(msg, isAlwaysEmpty);
+    }
+
+    @Override
+    protected void encodeHeaders(HttpHeaders headers, ByteBuf buf) {
+        if (headers instanceof FrozenHttp1Headers) {
+            if (!stripTransferEncoding) {
+                ((FrozenHttp1Headers) headers).encode(buf);
+                return;
+            }
+
+            stripTransferEncoding = false;
+            headers = headers.copy().remove(HttpHeaderNames.TRANSFER_ENCODING);
+        }
+
+        super.encodeHeaders(headers, buf);
+    }
+
+    @Override
+    protected boolean isContentAlwaysEmpty(HttpResponse msg) {
+        final HttpResponseStatus status = msg.status();
+        if (status.codeClass() != HttpStatusClass.INFORMATIONAL ||
+            status.code() == HttpResponseStatus.SWITCHING_PROTOCOLS.code()) {
+            // Do not consume the method for an interim response such as '100 Continue'.
+            method = methods.poll();
+        }
+        return method == HttpMethod.HEAD || super.isContentAlwaysEmpty(msg);
+    }
+}
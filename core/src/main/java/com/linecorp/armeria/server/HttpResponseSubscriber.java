@@ -17,12 +17,12 @@
 package com.linecorp.armeria.server;
 
 import java.nio.channels.ClosedChannelException;
+import java.util.List;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
-import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +40,7 @@ import com.linecorp.armeria.common.ResponseHeadersBuilder;
 import com.linecorp.armeria.common.logging.RequestLogAvailability;
 import com.linecorp.armeria.common.logging.RequestLogBuilder;
 import com.linecorp.armeria.common.stream.AbortedStreamException;
+import com.linecorp.armeria.common.stream.BatchSubscriber;
 import com.linecorp.armeria.internal.ArmeriaHttpUtil;
 import com.linecorp.armeria.internal.Http1ObjectEncoder;
 import com.linecorp.armeria.internal.HttpObjectEncoder;
@@ -50,7 +51,7 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http2.Http2Error;
 import io.netty.util.ReferenceCountUtil;
 
-final class HttpResponseSubscriber implements Subscriber<HttpObject>, RequestTimeoutChangeListener {
+final class HttpResponseSubscriber implements BatchSubscriber<HttpObject>, RequestTimeoutChangeListener {
 
     private static final Logger logger = LoggerFactory.getLogger(HttpResponseSubscriber.class);
 
@@ -147,6 +148,11 @@ final class HttpResponseSubscriber implements Subscriber<HttpObject>, RequestTim
 
     @Override
     public void onNext(HttpObject o) {
+        onNext(o, true);
+        ctx.flush();
+    }
+
+    private void onNext(HttpObject o, boolean requestNext) {
         if (!(o instanceof HttpData) && !(o instanceof HttpHeaders)) {
             throw newIllegalStateException(
                     "published an HttpObject that's neither HttpHeaders nor HttpData: " + o +
@@ -219,7 +225,7 @@ final class HttpResponseSubscriber implements Subscriber<HttpObject>, RequestTim
                 } else if (endOfStream) { // Last DATA frame
                     final HttpHeaders additionalTrailers = reqCtx.additionalResponseTrailers();
                     if (!additionalTrailers.isEmpty()) {
-                        write(o, false);
+                        write(o, false, requestNext);
 
                         o = additionalTrailers;
                     }
@@ -234,7 +240,25 @@ final class HttpResponseSubscriber implements Subscriber<HttpObject>, RequestTim
                 return;
         }
 
-        write(o, endOfStream);
+        write(o, endOfStream, requestNext);
+    }
+
+    @Override
+    public void onNextBatch(List<HttpObject> objs) {
+        // Write all the objects in the batch and flush only once, requesting the next batch only when
+        // the last object has been written.
+        final int lastIndex = objs.size() - 1;
+        int i = 0;
+        try {
+            for (; i <= lastIndex; i++) {
+                onNext(objs.get(i), i == lastIndex);
+            }
+        } finally {
+            for (i++; i <= lastIndex; i++) {
+                ReferenceCountUtil.safeRelease(objs.get(i));
+            }
+            ctx.flush();
+        }
     }
 
     @Override
@@ -287,14 +311,20 @@ final class HttpResponseSubscriber implements Subscriber<HttpObject>, RequestTim
         if (state != State.DONE) {
             final HttpHeaders additionalTrailers = reqCtx.additionalResponseTrailers();
             if (!additionalTrailers.isEmpty()) {
-                write(additionalTrailers, true);
+                write(additionalTrailers, true, true);
             } else {
-                write(HttpData.EMPTY_DATA, true);
+                write(HttpData.EMPTY_DATA, true, true);
             }
+            ctx.flush();
         }
     }
 
-    private void write(HttpObject o, boolean endOfStream) {
+    /**
+     * Writes the specified {@link HttpObject} without flushing.
+     *
+     * @param requestNext whether to request the next object once the write is successful
+     */
+    private void write(HttpObject o, boolean endOfStream, boolean requestNext) {
         if (endOfStream) {
             setDone();
         }
@@ -340,7 +370,9 @@ final class HttpResponseSubscriber implements Subscriber<HttpObject>, RequestTim
                     reqCtx.log().addListener(accessLogWriter::log, RequestLogAvailability.COMPLETE);
                 }
 
-                subscription.request(1);
+                if (requestNext) {
+                    subscription.request(1);
+                }
                 return;
             }
 
@@ -352,8 +384,6 @@ final class HttpResponseSubscriber implements Subscriber<HttpObject>, RequestTim
             }
             HttpServerHandler.CLOSE_ON_FAILURE.operationComplete(f);
         });
-
-        ctx.flush();
     }
 
     private State setDone() {
@@ -27,6 +27,7 @@ import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 import javax.net.ssl.SSLException;
@@ -34,13 +35,18 @@ import javax.net.ssl.SSLException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.common.Flags;
 import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.metric.MoreMeters;
 import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.armeria.internal.ChannelUtil;
 import com.linecorp.armeria.internal.Http1ObjectEncoder;
 import com.linecorp.armeria.internal.ReadSuppressingHandler;
 import com.linecorp.armeria.internal.TrafficLoggingHandler;
 
+import io.micrometer.core.instrument.DistributionSummary;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
@@ -107,6 +113,8 @@ final class HttpServerPipelineConfigurator extends ChannelInitializer<Channel> {
     @Nullable
     private final DomainNameMapping<SslContext> sslContexts;
     private final GracefulShutdownSupport gracefulShutdownSupport;
+    @Nullable
+    private final DistributionSummary writesPerFlush;
 
     /**
      * Creates a new instance.
@@ -120,6 +128,12 @@ final class HttpServerPipelineConfigurator extends ChannelInitializer<Channel> {
         this.port = requireNonNull(port, "port");
         this.sslContexts = sslContexts;
         this.gracefulShutdownSupport = requireNonNull(gracefulShutdownSupport, "gracefulShutdownSupport");
+        if (config.useWriteCoalescing()) {
+            writesPerFlush = MoreMeters.newDistributionSummary(
+                    config.meterRegistry(), "armeria.server.writesPerFlush", ImmutableList.of());
+        } else {
+            writesPerFlush = null;
+        }
     }
 
     @Override
@@ -127,7 +141,11 @@ final class HttpServerPipelineConfigurator extends ChannelInitializer<Channel> {
         ChannelUtil.disableWriterBufferWatermark(ch);
 
         final ChannelPipeline p = ch.pipeline();
-        p.addLast(new FlushConsolidationHandler());
+        if (writesPerFlush != null) {
+            p.addLast(new WriteCoalescingHandler(writesPerFlush));
+        } else {
+            p.addLast(new FlushConsolidationHandler());
+        }
         p.addLast(ReadSuppressingHandler.INSTANCE);
         configurePipeline(p, port.protocols(), null);
     }
@@ -175,6 +193,20 @@ final class HttpServerPipelineConfigurator extends ChannelInitializer<Channel> {
         p.addLast(new Http2OrHttpHandler(proxiedAddresses));
     }
 
+    private HttpServerCodec newHttp1Codec() {
+        return new HttpServerCodec(config.http1MaxInitialLineLength(),
+                                   config.http1MaxHeaderSize(),
+                                   config.http1MaxChunkSize());
+    }
+
+    private Http1ServerDecoder newHttp1ServerDecoder(
+            Http1ServerEncoder encoder, @Nullable Consumer<ChannelHandlerContext> upgradeHandler) {
+        return new Http1ServerDecoder(config.http1MaxInitialLineLength(),
+                                      config.http1MaxHeaderSize(),
+                                      config.http1MaxChunkSize(),
+                                      encoder, upgradeHandler);
+    }
+
     private Http2ConnectionHandler newHttp2ConnectionHandler(ChannelPipeline pipeline, AsciiString scheme) {
 
         final Http2Connection conn = new DefaultHttp2Connection(true);
@@ -385,10 +417,13 @@ final class HttpServerPipelineConfigurator extends ChannelInitializer<Channel> {
             final Channel ch = ctx.channel();
             final ChannelPipeline p = ctx.pipeline();
             final Http1ObjectEncoder writer = new Http1ObjectEncoder(ch, true, true);
-            p.addLast(new HttpServerCodec(
-                    config.http1MaxInitialLineLength(),
-                    config.http1MaxHeaderSize(),
-                    config.http1MaxChunkSize()));
+            if (Flags.useArmeriaHttp1Decoder()) {
+                final Http1ServerEncoder encoder = new Http1ServerEncoder();
+                p.addLast(newHttp1ServerDecoder(encoder, null));
+                p.addLast(encoder);
+            } else {
+                p.addLast(newHttp1Codec());
+            }
             p.addLast(new Http1RequestDecoder(config, ch, SCHEME_HTTPS, writer));
             configureIdleTimeoutHandler(p);
             p.addLast(new HttpServerHandler(config, gracefulShutdownSupport, writer,
@@ -460,15 +495,36 @@ final class HttpServerPipelineConfigurator extends ChannelInitializer<Channel> {
 
         private void configureHttp1WithUpgrade(ChannelHandlerContext ctx) {
             final ChannelPipeline p = ctx.pipeline();
-            final HttpServerCodec http1codec = new HttpServerCodec(
-                    config.http1MaxInitialLineLength(),
-                    config.http1MaxHeaderSize(),
-                    config.http1MaxChunkSize());
-
             String baseName = name;
             assert baseName != null;
+
+            if (Flags.useArmeriaHttp1Decoder()) {
+                // Hand over to Netty's HTTP/1 codec only when the first request is an upgrade request.
+                final Http1ServerEncoder encoder = new Http1ServerEncoder();
+                baseName = addAfter(p, baseName, newHttp1ServerDecoder(encoder, decoderCtx -> {
+                    responseEncoder.useNettyServerCodec();
+                    p.remove(encoder);
+                    addNettyHttp1Codec(p, decoderCtx.name());
+                    p.remove(decoderCtx.handler());
+                }));
+                baseName = addAfter(p, baseName, encoder);
+            } else {
+                baseName = addNettyHttp1Codec(p, baseName);
+            }
+
+            addAfter(p, baseName, new Http1RequestDecoder(config, ctx.channel(), SCHEME_HTTP, responseEncoder));
+        }
+
+        /**
+         * Adds Netty's HTTP/1 codec and {@link HttpServerUpgradeHandler} after the handler with
+         * the specified name.
+         *
+         * @return the name of the last added handler
+         */
+        private String addNettyHttp1Codec(ChannelPipeline p, String baseName) {
+            final HttpServerCodec http1codec = newHttp1Codec();
             baseName = addAfter(p, baseName, http1codec);
-            baseName = addAfter(p, baseName, new HttpServerUpgradeHandler(
+            return addAfter(p, baseName, new HttpServerUpgradeHandler(
                     http1codec,
                     protocol -> {
                         if (!AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)) {
@@ -479,8 +535,6 @@ final class HttpServerPipelineConfigurator extends ChannelInitializer<Channel> {
                                 newHttp2ConnectionHandler(p, SCHEME_HTTP));
                     },
                     UPGRADE_REQUEST_MAX_LENGTH));
-
-            addAfter(p, baseName, new Http1RequestDecoder(config, ctx.channel(), SCHEME_HTTP, responseEncoder));
         }
 
         private void configureHttp2(ChannelHandlerContext ctx) {
@@ -31,28 +31,44 @@ import com.linecorp.armeria.common.Flags;
 import com.linecorp.armeria.common.Request;
 import com.linecorp.armeria.common.Response;
 import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.internal.EventLoopLocalCache;
 import com.linecorp.armeria.internal.metric.CaffeineMetricSupport;
 import com.linecorp.armeria.server.composition.CompositeServiceEntry;
 
 import io.micrometer.core.instrument.MeterRegistry;
 
 /**
- * See {@link Flags#routeCacheSpec()} to configure this {@link RouteCache}.
+ * See {@link Flags#routeCacheSpec()} and {@link Flags#useEventLoopLocalCaches()} to configure
+ * this {@link RouteCache}.
  */
 final class RouteCache {
 
     @Nullable
     private static final Cache<RoutingContext, ServiceConfig> CACHE =
-            Flags.routeCacheSpec().map(RouteCache::<ServiceConfig>buildCache)
-                 .orElse(null);
+            Flags.useEventLoopLocalCaches() ? null
+                                            : Flags.routeCacheSpec()
+                                                   .map(RouteCache::<ServiceConfig>buildCache)
+                                                   .orElse(null);
+
+    @Nullable
+    private static final EventLoopLocalCache<RoutingContext, ServiceConfig> EVENT_LOOP_LOCAL_CACHE =
+            Flags.useEventLoopLocalCaches() ? Flags.routeCacheSpec()
+                                                   .map(RouteCache::<ServiceConfig>buildLocalCache)
+                                                   .orElse(null)
+                                            : null;
 
     /**
      * Returns a {@link Router} which is wrapped with a {@link Cache} layer in order to improve the
      * performance of the {@link ServiceConfig} search.
      */
     static Router<ServiceConfig> wrapVirtualHostRouter(Router<ServiceConfig> delegate) {
+        if (EVENT_LOOP_LOCAL_CACHE != null) {
+            return new CachingRouter<>(delegate, new EventLoopLocalRouterCache<>(EVENT_LOOP_LOCAL_CACHE),
+                                       ServiceConfig::route);
+        }
         return CACHE == null ? delegate
-                             : new CachingRouter<>(delegate, CACHE, ServiceConfig::route);
+                             : new CachingRouter<>(delegate, new CaffeineRouterCache<>(CACHE),
+                                                   ServiceConfig::route);
     }
 
     /**
@@ -70,26 +86,29 @@ final class RouteCache {
             return delegate;
         }
 
-        return new CachingRouter<>(delegate, cache, CompositeServiceEntry::route);
+        return new CachingRouter<>(delegate, new CaffeineRouterCache<>(cache), CompositeServiceEntry::route);
     }
 
     private static <T> Cache<RoutingContext, T> buildCache(String spec) {
         return Caffeine.from(spec).recordStats().build();
     }
 
+    private static <T> EventLoopLocalCache<RoutingContext, T> buildLocalCache(String spec) {
+        return new EventLoopLocalCache<>(EventLoopLocalCache.maximumSize(spec));
+    }
+
     private RouteCache() {}
 
     /**
-     * A {@link Router} which is wrapped with a {@link Cache} layer.
+     * A {@link Router} which is wrapped with a {@link RouterCache} layer.
      */
     private static final class CachingRouter<V> implements Router<V> {
 
         private final Router<V> delegate;
-        private final Cache<RoutingContext, V> cache;
+        private final RouterCache<V> cache;
         private final Function<V, Route> routeResolver;
 
-        CachingRouter(Router<V> delegate, Cache<RoutingContext, V> cache,
-                      Function<V, Route> routeResolver) {
+        CachingRouter(Router<V> delegate, RouterCache<V> cache, Function<V, Route> routeResolver) {
             this.delegate = requireNonNull(delegate, "delegate");
             this.cache = requireNonNull(cache, "cache");
             this.routeResolver = requireNonNull(routeResolver, "routeResolver");
@@ -115,7 +134,7 @@ final class RouteCache {
 
         @Override
         public boolean registerMetrics(MeterRegistry registry, MeterIdPrefix idPrefix) {
-            CaffeineMetricSupport.setup(registry, idPrefix, cache);
+            cache.registerMetrics(registry, idPrefix);
             return true;
         }
 
@@ -132,4 +151,83 @@ final class RouteCache {
                               .toString();
         }
     }
+
+    /**
+     * The cache used by a {@link CachingRouter}.
+     */
+    private interface RouterCache<V> {
+
+        @Nullable
+        V getIfPresent(RoutingContext routingCtx);
+
+        void put(RoutingContext routingCtx, V value);
+
+        void registerMetrics(MeterRegistry registry, MeterIdPrefix idPrefix);
+    }
+
+    /**
+     * A {@link RouterCache} backed by a Caffeine {@link Cache}.
+     */
+    private static final class CaffeineRouterCache<V> implements RouterCache<V> {
+
+        private final Cache<RoutingContext, V> cache;
+
+        CaffeineRouterCache(Cache<RoutingContext, V> cache) {
+            this.cache = cache;
+        }
+
+        @Nullable
+        @Override
+        public V getIfPresent(RoutingContext routingCtx) {
+            return cache.getIfPresent(routingCtx);
+        }
+
+        @Override
+        public void put(RoutingContext routingCtx, V value) {
+            cache.put(routingCtx, value);
+        }
+
+        @Override
+        public void registerMetrics(MeterRegistry registry, MeterIdPrefix idPrefix) {
+            CaffeineMetricSupport.setup(registry, idPrefix, cache);
+        }
+
+        @Override
+        public String toString() {
+            return cache.toString();
+        }
+    }
+
+    /**
+     * A {@link RouterCache} backed by an {@link EventLoopLocalCache}.
+     */
+    private static final class EventLoopLocalRouterCache<V> implements RouterCache<V> {
+
+        private final EventLoopLocalCache<RoutingContext, V> cache;
+
+        EventLoopLocalRouterCache(EventLoopLocalCache<RoutingContext, V> cache) {
+            this.cache = cache;
+        }
+
+        @Nullable
+        @Override
+        public V getIfPresent(RoutingContext routingCtx) {
+            return cache.getIfPresent(routingCtx);
+        }
+
+        @Override
+        public void put(RoutingContext routingCtx, V value) {
+            cache.put(routingCtx, value);
+        }
+
+        @Override
+        public void registerMetrics(MeterRegistry registry, MeterIdPrefix idPrefix) {
+            cache.registerMetrics(registry, idPrefix);
+        }
+
+        @Override
+        public String toString() {
+            return cache.toString();
+        }
+    }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import com.linecorp.armeria.common.Flags;
+
+/**
+ * The type of the {@link Router} which finds a {@link ServiceConfig} of a {@link VirtualHost}.
+ *
+ * @see ServerBuilder#routerType(RouterType)
+ */
+public enum RouterType {
+    /**
+     * A router which finds a {@link ServiceConfig} by traversing a trie of the route paths.
+     * The lookup result is cached according to {@link Flags#routeCacheSpec()}.
+     */
+    TRIE,
+    /**
+     * A router which compiles the trie of the route paths into flat arrays when a {@link Server} starts.
+     * The requests for the exact paths are resolved with a single hash table lookup and the others are
+     * resolved by walking the arrays without allocating intermediate objects, so the lookup result is
+     * not cached.
+     */
+    COMPILED
+}
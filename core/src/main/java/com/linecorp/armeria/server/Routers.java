@@ -59,9 +59,21 @@ public final class Routers {
      */
     public static Router<ServiceConfig> ofVirtualHost(VirtualHost virtualHost, Iterable<ServiceConfig> configs,
                                                       RejectedRouteHandler rejectionHandler) {
+        return ofVirtualHost(virtualHost, configs, rejectionHandler, RouterType.TRIE);
+    }
+
+    /**
+     * Returns the {@link Router} of the specified {@link RouterType} to find a {@link ServiceConfig}.
+     * It consists of several router implementations which use one of Trie and List. The lookup result is
+     * cached only if the {@link RouterType} is {@link RouterType#TRIE}.
+     */
+    public static Router<ServiceConfig> ofVirtualHost(VirtualHost virtualHost, Iterable<ServiceConfig> configs,
+                                                      RejectedRouteHandler rejectionHandler,
+                                                      RouterType routerType) {
         requireNonNull(virtualHost, "virtualHost");
         requireNonNull(configs, "configs");
         requireNonNull(rejectionHandler, "rejectionHandler");
+        requireNonNull(routerType, "routerType");
 
         final BiConsumer<Route, Route> rejectionConsumer = (route, existingRoute) -> {
             try {
@@ -72,7 +84,9 @@ public final class Routers {
             }
         };
 
-        return wrapVirtualHostRouter(defaultRouter(configs, ServiceConfig::route, rejectionConsumer));
+        final Router<ServiceConfig> router =
+                defaultRouter(configs, ServiceConfig::route, rejectionConsumer, routerType);
+        return routerType == RouterType.TRIE ? wrapVirtualHostRouter(router) : router;
     }
 
     /**
@@ -95,7 +109,7 @@ public final class Routers {
                     throw new IllegalStateException(
                             "Your composite service has path mappings with a conflict: " +
                             a + " vs. " + b);
-                }));
+                }, RouterType.TRIE));
 
         return new CompositeRouter<>(delegate, result ->
                 result.isPresent() ? Routed.of(result.route(), result.routingResult(),
@@ -111,8 +125,9 @@ public final class Routers {
      */
     private static <V> Router<V> defaultRouter(Iterable<V> values,
                                                Function<V, Route> routeResolver,
-                                               BiConsumer<Route, Route> rejectionHandler) {
-        return new CompositeRouter<>(routers(values, routeResolver, rejectionHandler),
+                                               BiConsumer<Route, Route> rejectionHandler,
+                                               RouterType routerType) {
+        return new CompositeRouter<>(routers(values, routeResolver, rejectionHandler, routerType),
                                      Function.identity());
     }
 
@@ -122,6 +137,16 @@ public final class Routers {
     @VisibleForTesting
     static <V> List<Router<V>> routers(Iterable<V> values, Function<V, Route> routeResolver,
                                        BiConsumer<Route, Route> rejectionHandler) {
+        return routers(values, routeResolver, rejectionHandler, RouterType.TRIE);
+    }
+
+    /**
+     * Returns a list of {@link Router}s whose trie-based {@link Router}s are of the specified
+     * {@link RouterType}.
+     */
+    @VisibleForTesting
+    static <V> List<Router<V>> routers(Iterable<V> values, Function<V, Route> routeResolver,
+                                       BiConsumer<Route, Route> rejectionHandler, RouterType routerType) {
         rejectDuplicateMapping(values, routeResolver, rejectionHandler);
 
         final ImmutableList.Builder<Router<V>> builder = ImmutableList.builder();
@@ -140,13 +165,13 @@ public final class Routers {
 
             // Changed the router type.
             if (!group.isEmpty()) {
-                builder.add(router(addingTrie, group, routeResolver));
+                builder.add(router(addingTrie, group, routeResolver, routerType));
             }
             addingTrie = !addingTrie;
             group.add(value);
         }
         if (!group.isEmpty()) {
-            builder.add(router(addingTrie, group, routeResolver));
+            builder.add(router(addingTrie, group, routeResolver, routerType));
         }
         return builder.build();
     }
@@ -207,9 +232,11 @@ public final class Routers {
 
     /**
      * Returns a {@link Router} implementation which is using one of {@link RoutingTrie} and {@link List}.
+     * A {@link RoutingTrie} is compiled into a {@link CompiledRouter} if the {@link RouterType} is
+     * {@link RouterType#COMPILED}.
      */
     private static <V> Router<V> router(boolean isTrie, List<V> values,
-                                        Function<V, Route> routeResolver) {
+                                        Function<V, Route> routeResolver, RouterType routerType) {
         final Comparator<V> valueComparator =
                 Comparator.comparingInt(e -> -1 * routeResolver.apply(e).complexity());
 
@@ -220,7 +247,8 @@ public final class Routers {
             // order.
             builder.comparator(valueComparator);
             values.forEach(v -> builder.add(routeResolver.apply(v).triePath().get(), v));
-            router = new TrieRouter<>(builder.build(), routeResolver);
+            router = routerType == RouterType.COMPILED ? new CompiledRouter<>(builder.build(), routeResolver)
+                                                       : new TrieRouter<>(builder.build(), routeResolver);
         } else {
             values.sort(valueComparator);
             router = new SequentialRouter<>(values, routeResolver);
@@ -72,6 +72,13 @@ final class RoutingTrie<V> {
         this.root = root;
     }
 
+    /**
+     * Returns the root {@link Node} of this trie.
+     */
+    Node<V> root() {
+        return root;
+    }
+
     /**
      * Returns the list of values which is mapped to the given {@code path}.
      */
@@ -52,7 +52,6 @@ import com.google.common.collect.Iterables;
 
 import com.linecorp.armeria.common.SessionProtocol;
 import com.linecorp.armeria.common.metric.MeterIdPrefix;
-import com.linecorp.armeria.common.util.EventLoopGroups;
 import com.linecorp.armeria.common.util.StartStopSupport;
 import com.linecorp.armeria.internal.ChannelUtil;
 import com.linecorp.armeria.internal.ConnectionLimitingHandler;
@@ -333,12 +332,18 @@ public final class Server implements AutoCloseable {
                 b.childOption(castOption, v);
             });
 
-            b.group(EventLoopGroups.newEventLoopGroup(1, r -> {
+            // Use the transport of the worker group for the boss group as well, so that the accepted
+            // channels can be registered to the worker group.
+            final EventLoopGroup workerGroup = config.workerGroup();
+            final TransportType transportType =
+                    TransportType.isSupported(workerGroup) ? TransportType.of(workerGroup)
+                                                           : TransportType.detectTransportType();
+            b.group(transportType.newEventLoopGroup(1, unused -> r -> {
                 final FastThreadLocalThread thread = new FastThreadLocalThread(r, bossThreadName(port));
                 thread.setDaemon(false);
                 return thread;
-            }), config.workerGroup());
-            b.channel(TransportType.detectTransportType().serverChannelType());
+            }), workerGroup);
+            b.channel(transportType.serverChannelType());
             b.handler(connectionLimitingHandler);
             b.childHandler(new HttpServerPipelineConfigurator(config, port, sslContexts,
                                                               gracefulShutdownSupport));
@@ -167,6 +167,7 @@ public final class ServerBuilder {
     private int http1MaxInitialLineLength = Flags.defaultHttp1MaxInitialLineLength();
     private int http1MaxHeaderSize = Flags.defaultHttp1MaxHeaderSize();
     private int http1MaxChunkSize = Flags.defaultHttp1MaxChunkSize();
+    private boolean useWriteCoalescing;
     private int proxyProtocolMaxTlvSize = PROXY_PROTOCOL_DEFAULT_MAX_TLV_SIZE;
     private Duration gracefulShutdownQuietPeriod = DEFAULT_GRACEFUL_SHUTDOWN_QUIET_PERIOD;
     private Duration gracefulShutdownTimeout = DEFAULT_GRACEFUL_SHUTDOWN_TIMEOUT;
@@ -180,6 +181,7 @@ public final class ServerBuilder {
     private Predicate<InetAddress> clientAddressTrustedProxyFilter = address -> false;
     private Predicate<InetAddress> clientAddressFilter = address -> true;
     private RejectedRouteHandler rejectedRouteHandler = RejectedRouteHandler.WARN;
+    private RouterType routerType = RouterType.TRIE;
 
     // These properties can also be set in the service level.
 
@@ -554,6 +556,18 @@ public final class ServerBuilder {
         return this;
     }
 
+    /**
+     * Sets whether the small writes and the flushes requested within the same event loop iteration are
+     * coalesced into fewer writes and a single flush. Enabling this option reduces the number of the system
+     * calls for a chatty streaming response, such as Server-Sent Events and JSON Text Sequences, at the cost
+     * of copying the small chunks. The number of the writes per flush is recorded as
+     * {@code armeria.server.writesPerFlush}. This option is disabled by default.
+     */
+    public ServerBuilder useWriteCoalescing(boolean useWriteCoalescing) {
+        this.useWriteCoalescing = useWriteCoalescing;
+        return this;
+    }
+
     /**
      * Sets the amount of time to wait after calling {@link Server#stop()} for
      * requests to go away before actually shutting down.
@@ -1216,6 +1230,20 @@ public final class ServerBuilder {
         return rejectedRouteHandler;
     }
 
+    /**
+     * Sets the {@link RouterType} of the {@link Router}s which find a {@link Service} of
+     * the {@link VirtualHost}s. {@link RouterType#COMPILED} is recommended for a {@link Server} with
+     * a large number of {@link Route}s. If not set, {@link RouterType#TRIE} is used.
+     */
+    public ServerBuilder routerType(RouterType routerType) {
+        this.routerType = requireNonNull(routerType, "routerType");
+        return this;
+    }
+
+    RouterType routerType() {
+        return routerType;
+    }
+
     /**
      * Sets the timeout of a request.
      *
@@ -1472,7 +1500,7 @@ public final class ServerBuilder {
                 idleTimeoutMillis, requestTimeoutMillis, maxRequestLength, verboseResponses,
                 http2InitialConnectionWindowSize, http2InitialStreamWindowSize, http2MaxStreamsPerConnection,
                 http2MaxFrameSize, http2MaxHeaderListSize,
-                http1MaxInitialLineLength, http1MaxHeaderSize, http1MaxChunkSize,
+                http1MaxInitialLineLength, http1MaxHeaderSize, http1MaxChunkSize, useWriteCoalescing,
                 gracefulShutdownQuietPeriod, gracefulShutdownTimeout,
                 blockingTaskExecutor, shutdownBlockingTaskExecutorOnStop,
                 meterRegistry, serviceLoggerPrefix, accessLogWriter, shutdownAccessLogWriterOnStop,
@@ -1564,7 +1592,7 @@ public final class ServerBuilder {
                 maxNumConnections, idleTimeoutMillis, requestTimeoutMillis, maxRequestLength,
                 verboseResponses, http2InitialConnectionWindowSize, http2InitialStreamWindowSize,
                 http2MaxStreamsPerConnection, http2MaxFrameSize, http2MaxHeaderListSize,
-                http1MaxInitialLineLength, http1MaxHeaderSize, http1MaxChunkSize,
+                http1MaxInitialLineLength, http1MaxHeaderSize, http1MaxChunkSize, useWriteCoalescing,
                 proxyProtocolMaxTlvSize, gracefulShutdownQuietPeriod, gracefulShutdownTimeout,
                 blockingTaskExecutor, shutdownBlockingTaskExecutorOnStop,
                 meterRegistry, serviceLoggerPrefix,
@@ -80,6 +80,7 @@ public final class ServerConfig {
     private final int http1MaxInitialLineLength;
     private final int http1MaxHeaderSize;
     private final int http1MaxChunkSize;
+    private final boolean useWriteCoalescing;
 
     private final Duration gracefulShutdownQuietPeriod;
     private final Duration gracefulShutdownTimeout;
@@ -115,7 +116,7 @@ public final class ServerConfig {
             int http2InitialConnectionWindowSize, int http2InitialStreamWindowSize,
             long http2MaxStreamsPerConnection, int http2MaxFrameSize, long http2MaxHeaderListSize,
             int http1MaxInitialLineLength, int http1MaxHeaderSize, int http1MaxChunkSize,
-            Duration gracefulShutdownQuietPeriod, Duration gracefulShutdownTimeout,
+            boolean useWriteCoalescing, Duration gracefulShutdownQuietPeriod, Duration gracefulShutdownTimeout,
             Executor blockingTaskExecutor, boolean shutdownBlockingTaskExecutorOnStop,
             MeterRegistry meterRegistry, String serviceLoggerPrefix,
             AccessLogWriter accessLogWriter, boolean shutdownAccessLogWriterOnStop, int proxyProtocolMaxTlvSize,
@@ -149,6 +150,7 @@ public final class ServerConfig {
                 http1MaxHeaderSize, "http1MaxHeaderSize");
         this.http1MaxChunkSize = validateNonNegative(
                 http1MaxChunkSize, "http1MaxChunkSize");
+        this.useWriteCoalescing = useWriteCoalescing;
         this.gracefulShutdownQuietPeriod = validateNonNegative(requireNonNull(
                 gracefulShutdownQuietPeriod), "gracefulShutdownQuietPeriod");
         this.gracefulShutdownTimeout = validateNonNegative(requireNonNull(
@@ -503,6 +505,16 @@ public final class ServerConfig {
         return http1MaxChunkSize;
     }
 
+    /**
+     * Returns whether the small writes and the flushes requested within the same event loop iteration
+     * are coalesced into fewer writes and a single flush.
+     *
+     * @see ServerBuilder#useWriteCoalescing(boolean)
+     */
+    public boolean useWriteCoalescing() {
+        return useWriteCoalescing;
+    }
+
     /**
      * Returns the initial connection-level HTTP/2 flow control window size.
      */
@@ -641,6 +653,7 @@ public final class ServerConfig {
                     http2InitialConnectionWindowSize(), http2InitialStreamWindowSize(),
                     http2MaxStreamsPerConnection(), http2MaxFrameSize(), http2MaxHeaderListSize(),
                     http1MaxInitialLineLength(), http1MaxHeaderSize(), http1MaxChunkSize(),
+                    useWriteCoalescing(),
                     proxyProtocolMaxTlvSize(), gracefulShutdownQuietPeriod(), gracefulShutdownTimeout(),
                     blockingTaskExecutor(), shutdownBlockingTaskExecutorOnStop(),
                     meterRegistry(), serviceLoggerPrefix(),
@@ -661,7 +674,7 @@ public final class ServerConfig {
             long maxRequestLength, boolean verboseResponses, int http2InitialConnectionWindowSize,
             int http2InitialStreamWindowSize, long http2MaxStreamsPerConnection, int http2MaxFrameSize,
             long http2MaxHeaderListSize, long http1MaxInitialLineLength, long http1MaxHeaderSize,
-            long http1MaxChunkSize, int proxyProtocolMaxTlvSize,
+            long http1MaxChunkSize, boolean useWriteCoalescing, int proxyProtocolMaxTlvSize,
             Duration gracefulShutdownQuietPeriod, Duration gracefulShutdownTimeout,
             Executor blockingTaskExecutor, boolean shutdownBlockingTaskExecutorOnStop,
             @Nullable MeterRegistry meterRegistry, String serviceLoggerPrefix,
@@ -738,7 +751,9 @@ public final class ServerConfig {
         buf.append(http1MaxHeaderSize);
         buf.append("B, http1MaxChunkSize: ");
         buf.append(http1MaxChunkSize);
-        buf.append("B, proxyProtocolMaxTlvSize: ");
+        buf.append("B, useWriteCoalescing: ");
+        buf.append(useWriteCoalescing);
+        buf.append(", proxyProtocolMaxTlvSize: ");
         buf.append(proxyProtocolMaxTlvSize);
         buf.append("B, gracefulShutdownQuietPeriod: ");
         buf.append(gracefulShutdownQuietPeriod);
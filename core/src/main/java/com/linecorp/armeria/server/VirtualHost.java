@@ -72,6 +72,7 @@ public final class VirtualHost {
     @Nullable
     private final SslContext sslContext;
     private final List<ServiceConfig> services;
+    private final RouterType routerType;
     private final Router<ServiceConfig> router;
 
     private final Logger accessLogger;
@@ -84,7 +85,7 @@ public final class VirtualHost {
 
     VirtualHost(String defaultHostname, String hostnamePattern,
                 @Nullable SslContext sslContext, Iterable<ServiceConfig> serviceConfigs,
-                RejectedRouteHandler rejectionHandler,
+                RejectedRouteHandler rejectionHandler, RouterType routerType,
                 Function<VirtualHost, Logger> accessLoggerMapper,
                 long requestTimeoutMillis,
                 long maxRequestLength, boolean verboseResponses,
@@ -108,7 +109,8 @@ public final class VirtualHost {
                           .map(sc -> sc.withVirtualHost(this))
                           .collect(toImmutableList());
 
-        router = Routers.ofVirtualHost(this, services, rejectionHandler);
+        this.routerType = requireNonNull(routerType, "routerType");
+        router = Routers.ofVirtualHost(this, services, rejectionHandler, routerType);
         accessLogger = accessLoggerMapper.apply(this);
         checkState(accessLogger != null,
                    "accessLoggerMapper.apply() has returned null for virtual host: %s.", hostnamePattern);
@@ -117,7 +119,7 @@ public final class VirtualHost {
     VirtualHost withNewSslContext(SslContext sslContext) {
         return new VirtualHost(defaultHostname(), hostnamePattern(), sslContext,
                                serviceConfigs(), RejectedRouteHandler.DISABLED,
-                               host -> accessLogger, requestTimeoutMillis(),
+                               routerType, host -> accessLogger, requestTimeoutMillis(),
                                maxRequestLength(), verboseResponses(),
                                requestContentPreviewerFactory(), responseContentPreviewerFactory());
     }
@@ -360,7 +362,7 @@ public final class VirtualHost {
 
         return new VirtualHost(defaultHostname(), hostnamePattern(), sslContext(),
                                services, RejectedRouteHandler.DISABLED,
-                               host -> accessLogger, requestTimeoutMillis(),
+                               routerType, host -> accessLogger, requestTimeoutMillis(),
                                maxRequestLength(), verboseResponses(),
                                requestContentPreviewerFactory(), responseContentPreviewerFactory());
     }
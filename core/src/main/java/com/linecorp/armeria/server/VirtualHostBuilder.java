@@ -792,7 +792,7 @@ public final class VirtualHostBuilder {
 
         final VirtualHost virtualHost =
                 new VirtualHost(defaultHostname, hostnamePattern, sslContext, serviceConfigs,
-                                rejectedRouteHandler,
+                                rejectedRouteHandler, serverBuilder.routerType(),
                                 accessLoggerMapper, requestTimeout, maxRequest,
                                 verboseResponses, requestContentPreviewerFactory,
                                 responseContentPreviewerFactory);
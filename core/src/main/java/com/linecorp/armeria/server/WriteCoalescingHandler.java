@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.flush.FlushConsolidationHandler;
+
+/**
+ * A {@link ChannelDuplexHandler} which coalesces the small writes and the flushes requested within the same
+ * event loop iteration. It is used instead of {@link FlushConsolidationHandler} when
+ * {@link ServerBuilder#useWriteCoalescing(boolean)} is enabled.
+ *
+ * <p>A {@link ByteBuf} smaller than {@value #MAX_COALESCED_WRITE_LENGTH} bytes is copied into a pending
+ * buffer instead of being written immediately, so that the small chunks of a streaming response are sent
+ * as one buffer. Any other message writes out the pending buffer first to preserve the order of the writes.
+ * A flush is deferred until the current event loop task finishes, so that all the writes made by
+ * the task are sent by a single flush. The number of the writes per flush is recorded in
+ * the specified {@link DistributionSummary}.
+ */
+final class WriteCoalescingHandler extends ChannelDuplexHandler {
+
+    /**
+     * A write smaller than this is copied into the pending buffer.
+     */
+    static final int MAX_COALESCED_WRITE_LENGTH = 1024;
+
+    private static final int PENDING_BUFFER_CAPACITY = 16384;
+
+    /**
+     * The maximum number of the flushes which can be deferred, so that a long event loop task does not
+     * accumulate too many writes in the outbound buffer.
+     */
+    private static final int MAX_DEFERRED_FLUSHES = 256;
+
+    private final DistributionSummary writesPerFlush;
+
+    @Nullable
+    private ChannelHandlerContext ctx;
+    @Nullable
+    private ByteBuf pendingBuf;
+    private final List<ChannelPromise> pendingPromises = new ArrayList<>();
+
+    private int numWrites;
+    private int numDeferredFlushes;
+    private boolean flushScheduled;
+
+    private final Runnable flushTask = () -> {
+        flushScheduled = false;
+        final ChannelHandlerContext ctx = this.ctx;
+        if (ctx != null && numDeferredFlushes > 0) {
+            flushNow(ctx);
+        }
+    };
+
+    WriteCoalescingHandler(DistributionSummary writesPerFlush) {
+        this.writesPerFlush = requireNonNull(writesPerFlush, "writesPerFlush");
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        numWrites++;
+        if (msg instanceof ByteBuf && !promise.isVoid()) {
+            final ByteBuf buf = (ByteBuf) msg;
+            final int length = buf.readableBytes();
+            if (length < MAX_COALESCED_WRITE_LENGTH) {
+                ByteBuf pendingBuf = this.pendingBuf;
+                if (pendingBuf != null && pendingBuf.writableBytes() < length) {
+                    writePendingBuf(ctx);
+                    pendingBuf = null;
+                }
+                if (pendingBuf == null) {
+                    pendingBuf = this.pendingBuf = ctx.alloc().directBuffer(PENDING_BUFFER_CAPACITY);
+                }
+                try {
+                    pendingBuf.writeBytes(buf);
+                } finally {
+                    buf.release();
+                }
+                pendingPromises.add(promise);
+                return;
+            }
+        }
+
+        writePendingBuf(ctx);
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (++numDeferredFlushes >= MAX_DEFERRED_FLUSHES) {
+            flushNow(ctx);
+            return;
+        }
+        if (!flushScheduled) {
+            flushScheduled = true;
+            ctx.channel().eventLoop().execute(flushTask);
+        }
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfNeeded(ctx);
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfNeeded(ctx);
+        ctx.close(promise);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        flushIfNeeded(ctx);
+        ctx.fireExceptionCaught(cause);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        flushIfNeeded(ctx);
+        this.ctx = null;
+    }
+
+    private void flushIfNeeded(ChannelHandlerContext ctx) {
+        if (numDeferredFlushes > 0 || pendingBuf != null) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        writePendingBuf(ctx);
+        if (numWrites > 0) {
+            writesPerFlush.record(numWrites);
+            numWrites = 0;
+        }
+        numDeferredFlushes = 0;
+        ctx.flush();
+    }
+
+    private void writePendingBuf(ChannelHandlerContext ctx) {
+        final ByteBuf pendingBuf = this.pendingBuf;
+        if (pendingBuf == null) {
+            return;
+        }
+        this.pendingBuf = null;
+
+        final ChannelPromise[] promises = pendingPromises.toArray(new ChannelPromise[0]);
+        pendingPromises.clear();
+        ctx.write(pendingBuf).addListener((ChannelFuture future) -> {
+            final Throwable cause = future.cause();
+            for (ChannelPromise p : promises) {
+                if (cause == null) {
+                    p.trySuccess();
+                } else {
+                    p.tryFailure(cause);
+                }
+            }
+        });
+    }
+}
@@ -18,10 +18,7 @@ package com.linecorp.armeria.server.encoding;
 
 import static java.util.Objects.requireNonNull;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.function.Predicate;
-import java.util.zip.DeflaterOutputStream;
 
 import javax.annotation.Nullable;
 
@@ -38,21 +35,28 @@ import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.ResponseHeadersBuilder;
 import com.linecorp.armeria.common.stream.FilteredStreamMessage;
 import com.linecorp.armeria.internal.ArmeriaHttpUtil;
+import com.linecorp.armeria.unsafe.ByteBufHttpData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
 
 /**
  * A {@link FilteredStreamMessage} that applies HTTP encoding to {@link HttpObject}s as they are published.
+ * The encoded content is written into the {@link ByteBuf}s allocated by the given {@link ByteBufAllocator}.
  */
 class HttpEncodedResponse extends FilteredHttpResponse {
 
     private final HttpEncodingType encodingType;
     private final Predicate<MediaType> encodableContentTypePredicate;
     private final long minBytesToForceChunkedAndEncoding;
+    private final ByteBufAllocator alloc;
 
     @Nullable
-    private ByteArrayOutputStream encodedStream;
-
-    @Nullable
-    private DeflaterOutputStream encodingStream;
+    private ZlibEncoder encoder;
 
     private boolean headersSent;
 
@@ -60,13 +64,15 @@ class HttpEncodedResponse extends FilteredHttpResponse {
             HttpResponse delegate,
             HttpEncodingType encodingType,
             Predicate<MediaType> encodableContentTypePredicate,
-            long minBytesToForceChunkedAndEncoding) {
-        super(delegate);
+            long minBytesToForceChunkedAndEncoding,
+            ByteBufAllocator alloc) {
+        super(delegate, true);
         this.encodingType = requireNonNull(encodingType, "encodingType");
         this.encodableContentTypePredicate = requireNonNull(encodableContentTypePredicate,
                                                             "encodableContentTypePredicate");
         this.minBytesToForceChunkedAndEncoding = HttpEncodingService.validateMinBytesToForceChunkedAndEncoding(
                 minBytesToForceChunkedAndEncoding);
+        this.alloc = requireNonNull(alloc, "alloc");
     }
 
     @Override
@@ -95,8 +101,7 @@ class HttpEncodedResponse extends FilteredHttpResponse {
                 return obj;
             }
 
-            encodedStream = new ByteArrayOutputStream();
-            encodingStream = HttpEncoders.getEncodingOutputStream(encodingType, encodedStream);
+            encoder = new ZlibEncoder(encodingType);
 
             final ResponseHeadersBuilder mutable = headers.toBuilder();
             // Always use chunked encoding when compressing.
@@ -118,51 +123,44 @@ class HttpEncodedResponse extends FilteredHttpResponse {
             return obj;
         }
 
-        if (encodingStream == null) {
+        if (encoder == null) {
             // Encoding was disabled for this response.
             return obj;
         }
 
         final HttpData data = (HttpData) obj;
-        assert encodedStream != null;
         try {
-            encodingStream.write(data.array());
-            encodingStream.flush();
-            return HttpData.wrap(encodedStream.toByteArray());
-        } catch (IOException e) {
-            throw new IllegalStateException(
-                    "Error encoding HttpData, this should not happen with byte arrays.",
-                    e);
+            final ByteBuf in = data instanceof ByteBufHolder ? ((ByteBufHolder) data).content()
+                                                             : Unpooled.wrappedBuffer(data.array());
+            return new ByteBufHttpData(encoder.encode(in, alloc), false);
         } finally {
-            encodedStream.reset();
+            ReferenceCountUtil.safeRelease(data);
         }
     }
 
     @Override
     protected void beforeComplete(Subscriber<? super HttpObject> subscriber) {
-        closeEncoder();
-        if (encodedStream != null && encodedStream.size() > 0) {
-            subscriber.onNext(HttpData.wrap(encodedStream.toByteArray()));
+        if (encoder == null) {
+            return;
+        }
+        final ByteBuf out = encoder.finish(alloc);
+        try {
+            if (out.isReadable()) {
+                // Not filtered by the subscriber, so it must be unpooled. Note that the remaining output
+                // is usually very small, e.g. the trailer of a gzip stream.
+                subscriber.onNext(HttpData.wrap(ByteBufUtil.getBytes(out)));
+            }
+        } finally {
+            out.release();
         }
     }
 
     @Override
     protected Throwable beforeError(Subscriber<? super HttpObject> subscriber, Throwable cause) {
-        closeEncoder();
-        return cause;
-    }
-
-    private void closeEncoder() {
-        if (encodingStream == null) {
-            return;
-        }
-        try {
-            encodingStream.close();
-        } catch (IOException e) {
-            throw new IllegalStateException(
-                    "Error closing encodingStream, this should not happen with byte arrays.",
-                    e);
+        if (encoder != null) {
+            encoder.close();
         }
+        return cause;
     }
 
     private boolean shouldEncodeResponse(HttpHeaders headers) {
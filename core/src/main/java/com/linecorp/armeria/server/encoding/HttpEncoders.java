@@ -16,11 +16,6 @@
 
 package com.linecorp.armeria.server.encoding;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.GZIPOutputStream;
-
 import javax.annotation.Nullable;
 
 import com.linecorp.armeria.common.HttpHeaderNames;
@@ -40,22 +35,6 @@ final class HttpEncoders {
         return determineEncoding(acceptEncoding);
     }
 
-    static DeflaterOutputStream getEncodingOutputStream(HttpEncodingType encodingType, OutputStream out) {
-        switch (encodingType) {
-            case GZIP:
-                try {
-                    return new GZIPOutputStream(out, true);
-                } catch (IOException e) {
-                    throw new IllegalStateException(
-                            "Error writing gzip header. This should not happen with byte arrays.", e);
-                }
-            case DEFLATE:
-                return new DeflaterOutputStream(out, true);
-            default:
-                throw new IllegalArgumentException("Unexpected zlib type, this is a programming bug.");
-        }
-    }
-
     // Copied from netty's HttpContentCompressor.
     @Nullable
     @SuppressWarnings("FloatingPointEquality")
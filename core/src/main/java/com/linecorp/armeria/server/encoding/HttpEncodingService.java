@@ -115,7 +115,8 @@ public class HttpEncodingService
                 delegateResponse,
                 encodingType,
                 encodableContentTypePredicate,
-                minBytesToForceChunkedAndEncoding);
+                minBytesToForceChunkedAndEncoding,
+                ctx.alloc());
     }
 
     static long validateMinBytesToForceChunkedAndEncoding(long minBytesToForceChunkedAndEncoding) {
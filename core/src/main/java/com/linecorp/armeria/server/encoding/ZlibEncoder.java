@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.server.encoding;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.annotation.Nullable;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.linecorp.armeria.internal.ThreadLocalPool;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.concurrent.FastThreadLocalThread;
+
+/**
+ * Compresses a stream of {@link ByteBuf}s into the {@link ByteBuf}s allocated by a {@link ByteBufAllocator},
+ * without copying the compressed output into intermediate byte arrays.
+ *
+ * <p>The {@link Deflater}s are taken from the pool of the current thread and returned to the pool of
+ * the current thread when {@link #finish(ByteBufAllocator)} or {@link #close()} is called, so that their
+ * native zlib state is reused across responses. Only {@link FastThreadLocalThread}s, such as event loop
+ * threads, have a pool. Other threads always create new {@link Deflater}s and end them when done.
+ * The pooled {@link Deflater}s are ended when their thread terminates.
+ *
+ * <p>An instance of this class is not thread-safe.
+ */
+final class ZlibEncoder {
+
+    /**
+     * The maximum number of {@link Deflater}s of each type pooled by a thread.
+     */
+    private static final int MAX_POOLED_DEFLATERS = 16;
+
+    // See RFC 1952, section 2.3.
+    private static final byte[] GZIP_HEADER = {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private static final int GZIP_TRAILER_LENGTH = 8;
+
+    // GZIP writes its own header and trailer, and thus needs a raw deflate stream.
+    private static final ThreadLocalPool<Deflater> gzipDeflaters = new ThreadLocalPool<>(
+            MAX_POOLED_DEFLATERS, () -> new Deflater(Deflater.DEFAULT_COMPRESSION, true),
+            Deflater::reset, Deflater::end);
+    private static final ThreadLocalPool<Deflater> deflateDeflaters = new ThreadLocalPool<>(
+            MAX_POOLED_DEFLATERS, () -> new Deflater(Deflater.DEFAULT_COMPRESSION, false),
+            Deflater::reset, Deflater::end);
+
+    private final HttpEncodingType encodingType;
+    @Nullable
+    private final CRC32 crc;
+
+    @Nullable
+    private Deflater deflater;
+    private boolean headerWritten;
+
+    ZlibEncoder(HttpEncodingType encodingType) {
+        this.encodingType = requireNonNull(encodingType, "encodingType");
+        crc = encodingType == HttpEncodingType.GZIP ? new CRC32() : null;
+        deflater = pool(encodingType).acquire();
+    }
+
+    /**
+     * Compresses the readable bytes of the specified {@link ByteBuf} and flushes the compressed output
+     * so that it can be decompressed up to the last byte of the input. The specified {@link ByteBuf} is
+     * not released by this method.
+     */
+    ByteBuf encode(ByteBuf in, ByteBufAllocator alloc) {
+        final Deflater deflater = deflater();
+        final int length = in.readableBytes();
+        final ByteBuf out = alloc.heapBuffer(estimateEncodedLength(length));
+        try {
+            writeHeaderIfNeeded(out);
+            if (length == 0) {
+                return out;
+            }
+
+            if (in.hasArray()) {
+                setInput(deflater, in.array(), in.arrayOffset() + in.readerIndex(), length);
+                deflate(deflater, out, Deflater.SYNC_FLUSH);
+            } else {
+                // Deflater accepts only a byte array in Java 8.
+                final ByteBuf heapIn = alloc.heapBuffer(length);
+                try {
+                    heapIn.writeBytes(in, in.readerIndex(), length);
+                    setInput(deflater, heapIn.array(), heapIn.arrayOffset(), length);
+                    deflate(deflater, out, Deflater.SYNC_FLUSH);
+                } finally {
+                    heapIn.release();
+                }
+            }
+            return out;
+        } catch (Throwable t) {
+            out.release();
+            throw t;
+        }
+    }
+
+    /**
+     * Finishes the compression, returns the remaining compressed output and returns the {@link Deflater}
+     * to the pool. This encoder must not be used anymore once this method is called.
+     */
+    ByteBuf finish(ByteBufAllocator alloc) {
+        final Deflater deflater = deflater();
+        final ByteBuf out = alloc.heapBuffer(GZIP_HEADER.length + GZIP_TRAILER_LENGTH + 16);
+        try {
+            writeHeaderIfNeeded(out);
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate(deflater, out, Deflater.NO_FLUSH);
+            }
+            if (crc != null) {
+                // Both CRC-32 and ISIZE are written in the little endian byte order.
+                out.writeIntLE((int) crc.getValue());
+                out.writeIntLE(deflater.getTotalIn());
+            }
+            return out;
+        } catch (Throwable t) {
+            out.release();
+            throw t;
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Returns the {@link Deflater} to the pool without finishing the compression. This method does nothing
+     * if the {@link Deflater} has been returned already.
+     */
+    void close() {
+        final Deflater deflater = this.deflater;
+        if (deflater != null) {
+            this.deflater = null;
+            pool(encodingType).release(deflater);
+        }
+    }
+
+    private Deflater deflater() {
+        final Deflater deflater = this.deflater;
+        if (deflater == null) {
+            throw new IllegalStateException("encoder closed already");
+        }
+        return deflater;
+    }
+
+    private void writeHeaderIfNeeded(ByteBuf out) {
+        if (crc != null && !headerWritten) {
+            out.writeBytes(GZIP_HEADER);
+            headerWritten = true;
+        }
+    }
+
+    private void setInput(Deflater deflater, byte[] array, int offset, int length) {
+        if (crc != null) {
+            crc.update(array, offset, length);
+        }
+        deflater.setInput(array, offset, length);
+    }
+
+    private static void deflate(Deflater deflater, ByteBuf out, int flush) {
+        for (;;) {
+            out.ensureWritable(64);
+            final int writerIndex = out.writerIndex();
+            final int writableBytes = out.capacity() - writerIndex;
+            final int numBytes = deflater.deflate(out.array(), out.arrayOffset() + writerIndex,
+                                                  writableBytes, flush);
+            out.writerIndex(writerIndex + numBytes);
+            if (numBytes < writableBytes) {
+                // The output buffer was not filled, which means all pending output has been flushed.
+                break;
+            }
+        }
+    }
+
+    private static int estimateEncodedLength(int length) {
+        // Textual content usually shrinks a lot, so reserve a little more than a half of the input.
+        // The buffer grows when the estimate turns out to be too small.
+        return GZIP_HEADER.length + (length >>> 1) + 16;
+    }
+
+    private static ThreadLocalPool<Deflater> pool(HttpEncodingType encodingType) {
+        return encodingType == HttpEncodingType.GZIP ? gzipDeflaters : deflateDeflaters;
+    }
+
+    /**
+     * Returns the number of the {@link Deflater}s of the specified type pooled by the current thread.
+     */
+    @VisibleForTesting
+    static int numPooledDeflaters(HttpEncodingType encodingType) {
+        return pool(encodingType).size();
+    }
+}
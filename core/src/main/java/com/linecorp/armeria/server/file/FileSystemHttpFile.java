@@ -15,9 +15,12 @@
  */
 package com.linecorp.armeria.server.file;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.channels.ByteChannel;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ScatteringByteChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
@@ -30,13 +33,24 @@ import javax.annotation.Nullable;
 
 import com.google.common.base.MoreObjects;
 
+import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.HttpHeaders;
+import com.linecorp.armeria.internal.FileRegionHttpData;
+import com.linecorp.armeria.internal.SharedFileChannel;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 
 final class FileSystemHttpFile extends StreamingHttpFile<ByteChannel> {
 
+    /**
+     * The maximum length of a {@link FileRegionHttpData}, which is large enough to keep the number of chunks
+     * small while keeping a flow-controlled stream responsive.
+     */
+    private static final int MAX_ZERO_COPY_CHUNK_SIZE = 4 * 1024 * 1024;
+
     private final Path path;
+    private final long zeroCopyThreshold;
 
     FileSystemHttpFile(Path path,
                        boolean contentTypeAutoDetectionEnabled,
@@ -44,10 +58,12 @@ final class FileSystemHttpFile extends StreamingHttpFile<ByteChannel> {
                        boolean dateEnabled,
                        boolean lastModifiedEnabled,
                        @Nullable BiFunction<String, HttpFileAttributes, String> entityTagFunction,
-                       HttpHeaders headers) {
+                       HttpHeaders headers,
+                       long zeroCopyThreshold) {
         super(contentTypeAutoDetectionEnabled ? MimeTypeUtil.guessFromPath(path.toString()) : null,
               clock, dateEnabled, lastModifiedEnabled, entityTagFunction, headers);
         this.path = path;
+        this.zeroCopyThreshold = zeroCopyThreshold;
     }
 
     @Override
@@ -75,11 +91,18 @@ final class FileSystemHttpFile extends StreamingHttpFile<ByteChannel> {
 
     @Override
     protected ByteChannel newStream() throws IOException {
+        final SeekableByteChannel in;
         try {
-            return Files.newByteChannel(path, StandardOpenOption.READ);
+            in = Files.newByteChannel(path, StandardOpenOption.READ);
         } catch (NoSuchFileException e) {
             return null;
         }
+
+        if (zeroCopyThreshold != 0 && in instanceof FileChannel) {
+            // Share the channel with the chunks read from it, so that the file is opened only once.
+            return new SharedFileChannel((FileChannel) in);
+        }
+        return in;
     }
 
     @Override
@@ -95,6 +118,23 @@ final class FileSystemHttpFile extends StreamingHttpFile<ByteChannel> {
         return readBytes;
     }
 
+    @Override
+    HttpData readChunk(ByteChannel in, long offset, long end, ByteBufAllocator alloc) throws IOException {
+        if (end < zeroCopyThreshold || !(in instanceof SharedFileChannel)) {
+            return super.readChunk(in, offset, end, alloc);
+        }
+
+        // Each chunk holds a reference of the channel until it is written, so the channel is closed when
+        // both the stream and all chunks are done.
+        final SharedFileChannel channel = (SharedFileChannel) in;
+        final int chunkSize = (int) Math.min(MAX_ZERO_COPY_CHUNK_SIZE, end - offset);
+        if (channel.channel().size() < offset + chunkSize) {
+            // The file has been truncated.
+            throw new EOFException();
+        }
+        return new FileRegionHttpData(channel.retain(), offset, chunkSize, offset + chunkSize == end);
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this).omitNullValues()
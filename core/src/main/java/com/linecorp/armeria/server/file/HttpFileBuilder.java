@@ -22,6 +22,7 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
 
+import com.linecorp.armeria.common.Flags;
 import com.linecorp.armeria.common.HttpData;
 
 /**
@@ -159,7 +160,8 @@ public abstract class HttpFileBuilder extends AbstractHttpFileBuilder<HttpFileBu
         @Override
         public HttpFile build() {
             return new FileSystemHttpFile(path, isContentTypeAutoDetectionEnabled(), clock(), isDateEnabled(),
-                                          isLastModifiedEnabled(), entityTagFunction(), buildHeaders());
+                                          isLastModifiedEnabled(), entityTagFunction(), buildHeaders(),
+                                          Flags.zeroCopyFileThreshold());
         }
     }
 
@@ -18,21 +18,36 @@ package com.linecorp.armeria.server.file;
 
 import static java.util.Objects.requireNonNull;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.RemovalListener;
 import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import com.linecorp.armeria.common.HttpData;
@@ -56,6 +71,7 @@ import com.linecorp.armeria.server.encoding.HttpEncodingService;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.netty.buffer.ByteBufHolder;
+import io.netty.util.AsciiString;
 
 /**
  * An {@link HttpService} that serves static files from a file system.
@@ -67,6 +83,28 @@ public final class HttpFileService extends AbstractHttpService {
     private static final Logger logger = LoggerFactory.getLogger(HttpFileService.class);
 
     private static final Splitter COMMA_SPLITTER = Splitter.on(',');
+    private static final Splitter SEMICOLON_SPLITTER = Splitter.on(';').trimResults();
+
+    /**
+     * The minimum length of a file whose compressed variant is generated, which is the same as the default
+     * of {@link HttpEncodingService}.
+     */
+    private static final int MIN_COMPRESSIBLE_LENGTH = 1024;
+
+    private static final Predicate<MediaType> COMPRESSIBLE_CONTENT_TYPE_PREDICATE =
+            contentType -> Stream.of(MediaType.ANY_TEXT_TYPE,
+                                     MediaType.APPLICATION_XML_UTF_8,
+                                     MediaType.JAVASCRIPT_UTF_8,
+                                     MediaType.JSON_UTF_8)
+                                 .anyMatch(contentType::is);
+
+    /**
+     * The headers of an original file which are not copied into its compressed variant, because they are
+     * generated for the variant.
+     */
+    private static final Set<AsciiString> NON_VARIANT_HEADERS =
+            ImmutableSet.of(HttpHeaderNames.CONTENT_LENGTH, HttpHeaderNames.DATE,
+                            HttpHeaderNames.LAST_MODIFIED, HttpHeaderNames.ETAG);
 
     /**
      * Creates a new {@link HttpFileService} for the specified {@code rootDir} in an O/S file system.
@@ -108,6 +146,9 @@ public final class HttpFileService extends AbstractHttpService {
     @Nullable
     private final Cache<PathAndEncoding, AggregatedHttpFile> cache;
 
+    @Nullable
+    private final AsyncCache<CompressedVariantKey, AggregatedHttpFile> compressedCache;
+
     HttpFileService(HttpFileServiceConfig config) {
         this.config = requireNonNull(config, "config");
         if (config.maxCacheEntries() != 0) {
@@ -115,6 +156,11 @@ public final class HttpFileService extends AbstractHttpService {
         } else {
             cache = null;
         }
+        if (config.maxCompressedCacheSizeBytes() != 0) {
+            compressedCache = newCompressedCache(config);
+        } else {
+            compressedCache = null;
+        }
     }
 
     private static Cache<PathAndEncoding, AggregatedHttpFile> newCache(HttpFileServiceConfig config) {
@@ -132,6 +178,16 @@ public final class HttpFileService extends AbstractHttpService {
         return b.build();
     }
 
+    private static AsyncCache<CompressedVariantKey, AggregatedHttpFile> newCompressedCache(
+            HttpFileServiceConfig config) {
+        return Caffeine.newBuilder()
+                       .maximumWeight(config.maxCompressedCacheSizeBytes())
+                       .weigher((CompressedVariantKey key, AggregatedHttpFile value) ->
+                                        value.content().length())
+                       .recordStats()
+                       .buildAsync();
+    }
+
     @Override
     public void serviceAdded(ServiceConfig cfg) throws Exception {
         final MeterRegistry registry = cfg.server().meterRegistry();
@@ -144,6 +200,15 @@ public final class HttpFileService extends AbstractHttpService {
                                       "vfs", config.vfs().meterTag()),
                     cache);
         }
+        if (compressedCache != null) {
+            CaffeineMetricSupport.setup(
+                    registry,
+                    new MeterIdPrefix("armeria.server.file.compressedCache",
+                                      "hostnamePattern", cfg.virtualHost().hostnamePattern(),
+                                      "route", cfg.route().meterTag(),
+                                      "vfs", config.vfs().meterTag()),
+                    compressedCache.synchronous());
+        }
     }
 
     @Override
@@ -165,6 +230,10 @@ public final class HttpFileService extends AbstractHttpService {
         if (file == null) {
             return HttpResponse.of(HttpStatus.NOT_FOUND);
         }
+        if (config.serveCompressedFiles() || compressedCache != null) {
+            // The plain and compressed files are served from the same URL.
+            ctx.addAdditionalResponseHeader(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING.toString());
+        }
         return file.asService().serve(ctx, req);
     }
 
@@ -174,23 +243,33 @@ public final class HttpFileService extends AbstractHttpService {
 
         final EnumSet<FileServiceContentEncoding> supportedEncodings =
                 EnumSet.noneOf(FileServiceContentEncoding.class);
-
-        if (config.serveCompressedFiles()) {
-            // We do a simple parse of the accept-encoding header, without worrying about star values
-            // or priorities.
-            final String acceptEncoding = req.headers().get(HttpHeaderNames.ACCEPT_ENCODING);
-            if (acceptEncoding != null) {
-                for (String encoding : COMMA_SPLITTER.split(acceptEncoding)) {
-                    for (FileServiceContentEncoding possibleEncoding : FileServiceContentEncoding.values()) {
-                        if (encoding.contains(possibleEncoding.headerValue)) {
-                            supportedEncodings.add(possibleEncoding);
-                        }
+        // The encoding of the compressed variant generated when there is no pre-compressed file.
+        String variantEncoding = null;
+
+        final String acceptEncoding = req.headers().get(HttpHeaderNames.ACCEPT_ENCODING);
+        if (acceptEncoding != null && (config.serveCompressedFiles() || compressedCache != null)) {
+            final Map<String, Float> qvalues = parseAcceptEncoding(acceptEncoding);
+            if (config.serveCompressedFiles()) {
+                // The pre-compressed files are looked up in the order of the encoding priority.
+                for (FileServiceContentEncoding encoding : FileServiceContentEncoding.values()) {
+                    if (qvalue(qvalues, encoding.headerValue) > 0) {
+                        supportedEncodings.add(encoding);
                     }
                 }
             }
+
+            if (compressedCache != null) {
+                final float gzipQ = qvalue(qvalues, "gzip");
+                final float deflateQ = qvalue(qvalues, "deflate");
+                if (gzipQ > 0 && gzipQ >= deflateQ) {
+                    variantEncoding = "gzip";
+                } else if (deflateQ > 0) {
+                    variantEncoding = "deflate";
+                }
+            }
         }
 
-        final HttpFile file = findFile(ctx, decodedMappedPath, supportedEncodings);
+        final HttpFile file = findFile(ctx, decodedMappedPath, supportedEncodings, variantEncoding);
         if (file != null) {
             return file;
         }
@@ -198,7 +277,8 @@ public final class HttpFileService extends AbstractHttpService {
         final boolean endsWithSlash = decodedMappedPath.charAt(decodedMappedPath.length() - 1) == '/';
         if (endsWithSlash) {
             // Try index.html if it was a directory access.
-            final HttpFile indexFile = findFile(ctx, decodedMappedPath + "index.html", supportedEncodings);
+            final HttpFile indexFile = findFile(ctx, decodedMappedPath + "index.html", supportedEncodings,
+                                                variantEncoding);
             if (indexFile != null) {
                 return indexFile;
             }
@@ -215,7 +295,7 @@ public final class HttpFileService extends AbstractHttpService {
             }
         } else {
             // Redirect to the slash appended path if 1) /index.html exists or 2) it has a directory listing.
-            if (findFile(ctx, decodedMappedPath + "/index.html", supportedEncodings) != null ||
+            if (findFile(ctx, decodedMappedPath + "/index.html", supportedEncodings, null) != null ||
                 config.autoIndex() && config.vfs().canList(decodedMappedPath)) {
                 throw HttpResponseException.of(HttpResponse.of(
                         ResponseHeaders.of(HttpStatus.TEMPORARY_REDIRECT,
@@ -228,7 +308,8 @@ public final class HttpFileService extends AbstractHttpService {
 
     @Nullable
     private HttpFile findFile(ServiceRequestContext ctx, String path,
-                              EnumSet<FileServiceContentEncoding> supportedEncodings) throws IOException {
+                              EnumSet<FileServiceContentEncoding> supportedEncodings,
+                              @Nullable String variantEncoding) throws IOException {
         for (FileServiceContentEncoding encoding : supportedEncodings) {
             final String contentEncoding = encoding.headerValue;
             final HttpFile file = findFile(ctx, path + encoding.extension, contentEncoding);
@@ -237,7 +318,11 @@ public final class HttpFileService extends AbstractHttpService {
             }
         }
 
-        return findFile(ctx, path, (String) null);
+        final HttpFile file = findFile(ctx, path, (String) null);
+        if (file == null || variantEncoding == null) {
+            return file;
+        }
+        return findCompressedVariant(ctx, path, file, variantEncoding);
     }
 
     @Nullable
@@ -280,6 +365,48 @@ public final class HttpFileService extends AbstractHttpService {
         return cache(ctx, pathAndEncoding, uncachedFile);
     }
 
+    /**
+     * Parses the specified {@code "Accept-Encoding"} header value into the map of the lower-cased content
+     * codings and their qvalues. A coding with a malformed qvalue is not acceptable.
+     */
+    private static Map<String, Float> parseAcceptEncoding(String acceptEncoding) {
+        final Map<String, Float> qvalues = new HashMap<>();
+        for (String element : COMMA_SPLITTER.split(acceptEncoding)) {
+            final Iterator<String> i = SEMICOLON_SPLITTER.split(element).iterator();
+            final String coding = i.next().toLowerCase(Locale.ROOT);
+            if (coding.isEmpty()) {
+                continue;
+            }
+
+            float qvalue = 1.0f;
+            while (i.hasNext()) {
+                final String param = i.next();
+                if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') &&
+                    param.charAt(1) == '=') {
+                    try {
+                        qvalue = Float.parseFloat(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        qvalue = 0;
+                    }
+                    break;
+                }
+            }
+            qvalues.merge(coding, qvalue, Math::max);
+        }
+        return qvalues;
+    }
+
+    /**
+     * Returns the qvalue of the specified content coding, falling back to the qvalue of {@code "*"}.
+     */
+    private static float qvalue(Map<String, Float> qvalues, String coding) {
+        final Float qvalue = qvalues.get(coding);
+        if (qvalue != null) {
+            return qvalue;
+        }
+        return qvalues.getOrDefault("*", 0.0f);
+    }
+
     private HttpFile cache(ServiceRequestContext ctx, PathAndEncoding pathAndEncoding, HttpFile file) {
         assert cache != null;
 
@@ -297,6 +424,89 @@ public final class HttpFileService extends AbstractHttpService {
         return cachedFile != null ? cachedFile : file;
     }
 
+    /**
+     * Returns the compressed variant of the specified {@link HttpFile} if it has been generated already.
+     * Otherwise, starts to generate the variant and returns the specified {@link HttpFile}.
+     */
+    private HttpFile findCompressedVariant(ServiceRequestContext ctx, String path, HttpFile file,
+                                           String contentEncoding) throws IOException {
+        assert compressedCache != null;
+
+        final HttpFileAttributes attrs = file.readAttributes();
+        final ResponseHeaders headers = file.readHeaders();
+        if (attrs == null || headers == null ||
+            attrs.length() < MIN_COMPRESSIBLE_LENGTH ||
+            attrs.length() > config.maxCompressedCacheSizeBytes()) {
+            return file;
+        }
+
+        final MediaType contentType = headers.contentType();
+        if (contentType == null || !COMPRESSIBLE_CONTENT_TYPE_PREDICATE.test(contentType)) {
+            return file;
+        }
+
+        final CompressedVariantKey key =
+                new CompressedVariantKey(path, contentEncoding, attrs, headers.get(HttpHeaderNames.ETAG));
+        final CompletableFuture<AggregatedHttpFile> future = compressedCache.get(
+                key, (unused1, unused2) -> newCompressedVariant(ctx, file, attrs, headers, contentEncoding));
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            return future.join();
+        }
+        return file;
+    }
+
+    private CompletableFuture<AggregatedHttpFile> newCompressedVariant(
+            ServiceRequestContext ctx, HttpFile file, HttpFileAttributes attrs, ResponseHeaders headers,
+            String contentEncoding) {
+        final Executor executor = ctx.blockingTaskExecutor();
+        final CompletableFuture<AggregatedHttpFile> future = file.aggregate(executor).thenApplyAsync(
+                aggregated -> {
+                    final HttpData content = compress(aggregated.content(), contentEncoding);
+                    final HttpFileBuilder builder =
+                            HttpFileBuilder.of(content, attrs.lastModifiedMillis())
+                                           .clock(config.clock())
+                                           .date(headers.contains(HttpHeaderNames.DATE))
+                                           .lastModified(headers.contains(HttpHeaderNames.LAST_MODIFIED));
+
+                    // A compressed variant must have an entity tag different from the original's.
+                    final String etag = headers.get(HttpHeaderNames.ETAG);
+                    if (etag != null && etag.length() > 2 && etag.charAt(0) == '"' &&
+                        etag.charAt(etag.length() - 1) == '"') {
+                        final String variantEtag = etag.substring(1, etag.length() - 1) + '-' + contentEncoding;
+                        builder.entityTag((unused1, unused2) -> variantEtag);
+                    } else {
+                        builder.entityTag(false);
+                    }
+
+                    headers.forEach((name, value) -> {
+                        if (!name.isEmpty() && name.byteAt(0) != ':' && !NON_VARIANT_HEADERS.contains(name)) {
+                            builder.addHeader(name, value);
+                        }
+                    });
+                    builder.setHeader(HttpHeaderNames.CONTENT_ENCODING, contentEncoding);
+                    return (AggregatedHttpFile) builder.build();
+                }, executor);
+
+        future.whenComplete((unused, cause) -> {
+            if (cause != null) {
+                logger.warn("{} Failed to compress a file: {}", ctx, file, Exceptions.peel(cause));
+            }
+        });
+        return future;
+    }
+
+    private static HttpData compress(HttpData data, String contentEncoding) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length() / 2);
+        try (DeflaterOutputStream compressor = "gzip".equals(contentEncoding) ? new GZIPOutputStream(out)
+                                                                              : new DeflaterOutputStream(out)) {
+            compressor.write(data.array(), 0, data.length());
+        } catch (IOException e) {
+            // Never reaches here because we write into a byte array.
+            throw new UncheckedIOException(e);
+        }
+        return HttpData.wrap(out.toByteArray());
+    }
+
     /**
      * Creates a new {@link HttpService} that tries this {@link HttpFileService} first and then the specified
      * {@link HttpService} when this {@link HttpFileService} does not have a requested resource.
@@ -362,6 +572,42 @@ public final class HttpFileService extends AbstractHttpService {
         }
     }
 
+    private static final class CompressedVariantKey {
+        private final String path;
+        private final String contentEncoding;
+        private final HttpFileAttributes attrs;
+        @Nullable
+        private final String entityTag;
+
+        CompressedVariantKey(String path, String contentEncoding, HttpFileAttributes attrs,
+                             @Nullable String entityTag) {
+            this.path = path;
+            this.contentEncoding = contentEncoding;
+            this.attrs = attrs;
+            this.entityTag = entityTag;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CompressedVariantKey)) {
+                return false;
+            }
+            final CompressedVariantKey that = (CompressedVariantKey) obj;
+            return path.equals(that.path) &&
+                   contentEncoding.equals(that.contentEncoding) &&
+                   attrs.equals(that.attrs) &&
+                   Objects.equals(entityTag, that.entityTag);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, contentEncoding, attrs, entityTag);
+        }
+    }
+
     private static final class PathAndEncoding {
         private final String path;
         @Nullable
@@ -81,6 +81,7 @@ public final class HttpFileServiceBuilder {
     private int maxCacheEntries = DEFAULT_MAX_CACHE_ENTRIES;
     private int maxCacheEntrySizeBytes = DEFAULT_MAX_CACHE_ENTRY_SIZE_BYTES;
     private boolean serveCompressedFiles;
+    private long maxCompressedCacheSizeBytes;
     private boolean autoIndex;
     @Nullable
     private HttpHeadersBuilder headers;
@@ -121,6 +122,20 @@ public final class HttpFileServiceBuilder {
         return this;
     }
 
+    /**
+     * Sets the maximum total size of the compressed variants of the files, which are generated and cached
+     * when there is no pre-compressed file for a request that accepts gzip or deflate encoding. A variant is
+     * generated once for each version of a file, identified by its attributes and entity tag, in the
+     * blocking task executor. The requests received until the variant is ready are served with the original
+     * file. Only the textual files, such as HTML, CSS, JavaScript and JSON, which are larger than 1024 bytes
+     * are compressed. If not set, {@code 0} is used by default, which disables this feature.
+     */
+    public HttpFileServiceBuilder maxCompressedCacheSizeBytes(long maxCompressedCacheSizeBytes) {
+        this.maxCompressedCacheSizeBytes =
+                HttpFileServiceConfig.validateMaxCompressedCacheSizeBytes(maxCompressedCacheSizeBytes);
+        return this;
+    }
+
     /**
      * Sets the maximum allowed size of a cached file entry. The file bigger than this value will not be
      * cached. If not set, {@value #DEFAULT_MAX_CACHE_ENTRY_SIZE_BYTES} is used by default.
@@ -222,12 +237,13 @@ public final class HttpFileServiceBuilder {
     public HttpFileService build() {
         return new HttpFileService(new HttpFileServiceConfig(
                 vfs, clock, maxCacheEntries, maxCacheEntrySizeBytes,
-                serveCompressedFiles, autoIndex, buildHeaders()));
+                serveCompressedFiles, maxCompressedCacheSizeBytes, autoIndex, buildHeaders()));
     }
 
     @Override
     public String toString() {
         return HttpFileServiceConfig.toString(this, vfs, clock, maxCacheEntries, maxCacheEntrySizeBytes,
-                                              serveCompressedFiles, autoIndex, headers);
+                                              serveCompressedFiles, maxCompressedCacheSizeBytes, autoIndex,
+                                              headers);
     }
 }
@@ -39,16 +39,19 @@ public final class HttpFileServiceConfig {
     private final int maxCacheEntries;
     private final int maxCacheEntrySizeBytes;
     private final boolean serveCompressedFiles;
+    private final long maxCompressedCacheSizeBytes;
     private final boolean autoIndex;
     private final HttpHeaders headers;
 
     HttpFileServiceConfig(HttpVfs vfs, Clock clock, int maxCacheEntries, int maxCacheEntrySizeBytes,
-                          boolean serveCompressedFiles, boolean autoIndex, HttpHeaders headers) {
+                          boolean serveCompressedFiles, long maxCompressedCacheSizeBytes,
+                          boolean autoIndex, HttpHeaders headers) {
         this.vfs = requireNonNull(vfs, "vfs");
         this.clock = requireNonNull(clock, "clock");
         this.maxCacheEntries = validateMaxCacheEntries(maxCacheEntries);
         this.maxCacheEntrySizeBytes = validateMaxCacheEntrySizeBytes(maxCacheEntrySizeBytes);
         this.serveCompressedFiles = serveCompressedFiles;
+        this.maxCompressedCacheSizeBytes = validateMaxCompressedCacheSizeBytes(maxCompressedCacheSizeBytes);
         this.autoIndex = autoIndex;
         this.headers = requireNonNull(headers, "headers");
     }
@@ -61,6 +64,14 @@ public final class HttpFileServiceConfig {
         return validateNonNegativeParameter(maxCacheEntrySizeBytes, "maxCacheEntrySizeBytes");
     }
 
+    static long validateMaxCompressedCacheSizeBytes(long maxCompressedCacheSizeBytes) {
+        if (maxCompressedCacheSizeBytes < 0) {
+            throw new IllegalArgumentException(
+                    "maxCompressedCacheSizeBytes: " + maxCompressedCacheSizeBytes + " (expected: >= 0)");
+        }
+        return maxCompressedCacheSizeBytes;
+    }
+
     private static int validateNonNegativeParameter(int value, String name) {
         if (value < 0) {
             throw new IllegalArgumentException(name + ": " + value + " (expected: >= 0)");
@@ -104,6 +115,14 @@ public final class HttpFileServiceConfig {
         return serveCompressedFiles;
     }
 
+    /**
+     * Returns the maximum total size of the compressed variants of the files which are generated and cached
+     * when there is no pre-compressed file. {@code 0} means the variants are not generated.
+     */
+    public long maxCompressedCacheSizeBytes() {
+        return maxCompressedCacheSizeBytes;
+    }
+
     /**
      * Returns whether a directory listing for a directory without an {@code index.html} file will be
      * auto-generated.
@@ -122,12 +141,13 @@ public final class HttpFileServiceConfig {
     @Override
     public String toString() {
         return toString(this, vfs(), clock(), maxCacheEntries(), maxCacheEntrySizeBytes(),
-                        serveCompressedFiles(), autoIndex(), headers());
+                        serveCompressedFiles(), maxCompressedCacheSizeBytes(), autoIndex(), headers());
     }
 
     static String toString(Object holder, HttpVfs vfs, Clock clock,
                            int maxCacheEntries, int maxCacheEntrySizeBytes,
-                           boolean serveCompressedFiles, boolean autoIndex,
+                           boolean serveCompressedFiles, long maxCompressedCacheSizeBytes,
+                           boolean autoIndex,
                            @Nullable Iterable<Entry<AsciiString, String>> headers) {
 
         return MoreObjects.toStringHelper(holder).omitNullValues()
@@ -136,6 +156,7 @@ public final class HttpFileServiceConfig {
                           .add("maxCacheEntries", maxCacheEntries)
                           .add("maxCacheEntrySizeBytes", maxCacheEntrySizeBytes)
                           .add("serveCompressedFiles", serveCompressedFiles)
+                          .add("maxCompressedCacheSizeBytes", maxCompressedCacheSizeBytes)
                           .add("autoIndex", autoIndex)
                           .add("headers", headers)
                           .toString();
@@ -44,6 +44,7 @@ import com.linecorp.armeria.unsafe.ByteBufHttpData;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
 
 /**
  * A skeletal {@link HttpFile} that simplifies the streaming of potentially large content.
@@ -100,36 +101,23 @@ public abstract class StreamingHttpFile<T extends Closeable> extends AbstractHtt
 
     private void doRead(HttpResponseWriter res, T in, long offset, long end,
                         Executor fileReadExecutor, ByteBufAllocator alloc) {
-        final int chunkSize = (int) Math.min(MAX_CHUNK_SIZE, end - offset);
-        final ByteBuf buf = alloc.buffer(chunkSize);
-        final int readBytes;
-        boolean success = false;
+        final HttpData data;
         try {
-            readBytes = read(in, buf);
-            if (readBytes < 0) {
-                // Should not reach here because we only read up to the end of the stream.
-                // If reached, it may mean the stream has been truncated.
-                throw new EOFException();
-            }
-            success = true;
+            data = readChunk(in, offset, end, alloc);
         } catch (Exception e) {
             close(res, in, e);
             return;
-        } finally {
-            if (!success) {
-                buf.release();
-            }
         }
 
-        final long nextOffset = offset + readBytes;
+        final long nextOffset = offset + data.length();
         final boolean endOfStream = nextOffset == end;
-        if (readBytes > 0) {
-            if (!res.tryWrite(new ByteBufHttpData(buf, endOfStream))) {
+        if (!data.isEmpty()) {
+            if (!res.tryWrite(data)) {
                 close(in);
                 return;
             }
         } else {
-            buf.release();
+            ReferenceCountUtil.safeRelease(data);
         }
 
         if (endOfStream) {
@@ -146,6 +134,32 @@ public abstract class StreamingHttpFile<T extends Closeable> extends AbstractHtt
         });
     }
 
+    /**
+     * Reads the next chunk of the file which starts at {@code offset}.
+     *
+     * @return the chunk which ends at {@code end} if {@link HttpData#isEndOfStream()} is {@code true},
+     *         or an empty {@link HttpData} if nothing was read
+     */
+    HttpData readChunk(T in, long offset, long end, ByteBufAllocator alloc) throws IOException {
+        final int chunkSize = (int) Math.min(MAX_CHUNK_SIZE, end - offset);
+        final ByteBuf buf = alloc.buffer(chunkSize);
+        boolean success = false;
+        try {
+            final int readBytes = read(in, buf);
+            if (readBytes < 0) {
+                // Should not reach here because we only read up to the end of the stream.
+                // If reached, it may mean the stream has been truncated.
+                throw new EOFException();
+            }
+            success = true;
+            return new ByteBufHttpData(buf, offset + readBytes == end);
+        } finally {
+            if (!success) {
+                buf.release();
+            }
+        }
+    }
+
     @Override
     public final CompletableFuture<AggregatedHttpFile> aggregate(Executor fileReadExecutor) {
         requireNonNull(fileReadExecutor, "fileReadExecutor");
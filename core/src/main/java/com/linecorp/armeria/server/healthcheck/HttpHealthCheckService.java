@@ -19,17 +19,27 @@ package com.linecorp.armeria.server.healthcheck;
 import static java.util.Objects.requireNonNull;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 
 import com.linecorp.armeria.common.AggregatedHttpResponse;
 import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpRequest;
 import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.HttpStatus;
 import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.logging.RequestLogAvailability;
 import com.linecorp.armeria.server.AbstractHttpService;
 import com.linecorp.armeria.server.HttpService;
 import com.linecorp.armeria.server.Server;
@@ -68,6 +78,20 @@ import com.linecorp.armeria.server.TransientService;
  *         .service("/health", new HttpHealthCheckService(healthChecker))
  *         .build();
  * }</pre>
+ *
+ * <h2>Long-polling</h2>
+ *
+ * <p>A client can send a {@code GET} request with the {@code "Prefer: wait=<seconds>"} header to receive
+ * the {@code "ETag"} header which represents the current health state. If the {@code "If-None-Match"}
+ * header of the request is set to the {@code "ETag"} of the current health state, the response is deferred
+ * until the health state changes. If the health state does not change during the specified seconds, up to
+ * {@value #MAX_LONG_POLLING_TIMEOUT_SECONDS} seconds, the response is {@code "304 Not Modified"}.
+ * The responses to such requests have the {@code "Preference-Applied: wait=<seconds>"} header
+ * (<a href="https://tools.ietf.org/html/rfc7240">RFC 7240</a>), which tells the client that the request
+ * was handled with long-polling, unlike an {@code "ETag"} sent by a server which serves a static file.
+ * The state changes of the {@link Server} and the {@link ListenableHealthChecker}s are sent immediately,
+ * but the state changes of the other {@link HealthChecker}s are sent only when the long-polling request
+ * times out.</p>
  */
 public class HttpHealthCheckService extends AbstractHttpService
         implements TransientService<HttpRequest, HttpResponse> {
@@ -75,8 +99,15 @@ public class HttpHealthCheckService extends AbstractHttpService
     private static final HttpData RES_OK = HttpData.ofUtf8("ok");
     private static final HttpData RES_NOT_OK = HttpData.ofUtf8("not ok");
 
+    private static final String HEALTHY_ETAG = "\"healthy\"";
+    private static final String UNHEALTHY_ETAG = "\"unhealthy\"";
+
+    private static final long MAX_LONG_POLLING_TIMEOUT_SECONDS = 60;
+    private static final Splitter preferSplitter = Splitter.on(',').trimResults().omitEmptyStrings();
+
     private final List<HealthChecker> healthCheckers;
     private final ServerListener serverHealthUpdater;
+    private final Set<PendingResponse> pendingResponses = ConcurrentHashMap.newKeySet();
 
     final SettableHealthChecker serverHealth;
 
@@ -101,6 +132,13 @@ public class HttpHealthCheckService extends AbstractHttpService
         this.healthCheckers = ImmutableList.copyOf(requireNonNull(healthCheckers, "healthCheckers"));
         serverHealth = new SettableHealthChecker(false);
         serverHealthUpdater = new ServerHealthUpdater();
+
+        serverHealth.addListener(unused -> completePendingResponses());
+        for (HealthChecker healthChecker : this.healthCheckers) {
+            if (healthChecker instanceof ListenableHealthChecker) {
+                ((ListenableHealthChecker) healthChecker).addListener(unused -> completePendingResponses());
+            }
+        }
     }
 
     /**
@@ -143,7 +181,87 @@ public class HttpHealthCheckService extends AbstractHttpService
 
     @Override
     protected HttpResponse doGet(ServiceRequestContext ctx, HttpRequest req) {
-        return HttpResponse.of(newResponse(ctx));
+        final RequestHeaders headers = req.headers();
+        final long timeoutSeconds = longPollingTimeoutSeconds(headers);
+        if (timeoutSeconds <= 0) {
+            return HttpResponse.of(newResponse(ctx));
+        }
+
+        final String etag = headers.get(HttpHeaderNames.IF_NONE_MATCH);
+        if (etag != null && etag.equals(etag(isHealthy()))) {
+            return waitForHealthChange(ctx, etag, timeoutSeconds);
+        }
+        return HttpResponse.of(newResponseWithEtag(ctx, timeoutSeconds));
+    }
+
+    private HttpResponse waitForHealthChange(ServiceRequestContext ctx, String etag, long timeoutSeconds) {
+        final long timeoutMillis = TimeUnit.SECONDS.toMillis(timeoutSeconds);
+        if (ctx.requestTimeoutMillis() > 0) {
+            ctx.setRequestTimeoutMillis(ctx.requestTimeoutMillis() + timeoutMillis);
+        }
+
+        final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        final ScheduledFuture<?> timeoutFuture = ctx.eventLoop().schedule(() -> {
+            // The health state has not changed.
+            future.complete(HttpResponse.of(ResponseHeaders.of(HttpStatus.NOT_MODIFIED,
+                                                               HttpHeaderNames.ETAG, etag,
+                                                               HttpHeaderNames.PREFERENCE_APPLIED,
+                                                               preferenceApplied(timeoutSeconds))));
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+        final PendingResponse pendingResponse =
+                new PendingResponse(ctx, etag, timeoutSeconds, future, timeoutFuture);
+        pendingResponses.add(pendingResponse);
+        future.whenComplete((unused1, unused2) -> pendingResponses.remove(pendingResponse));
+        ctx.log().addListener(unused -> {
+            // Cancelled by the client.
+            pendingResponses.remove(pendingResponse);
+            timeoutFuture.cancel(false);
+        }, RequestLogAvailability.COMPLETE);
+
+        // Check again because the health state may have changed before the pending response was added.
+        if (!etag.equals(etag(isHealthy()))) {
+            completePendingResponses();
+        }
+        return HttpResponse.from(future);
+    }
+
+    /**
+     * Sends the current health state to the long-polling requests which are waiting for the health state
+     * to change.
+     */
+    private void completePendingResponses() {
+        if (pendingResponses.isEmpty()) {
+            return;
+        }
+
+        final String etag = etag(isHealthy());
+        for (PendingResponse pendingResponse : pendingResponses) {
+            if (!pendingResponse.etag.equals(etag)) {
+                pendingResponse.timeoutFuture.cancel(false);
+                pendingResponse.future.complete(HttpResponse.of(
+                        newResponseWithEtag(pendingResponse.ctx, pendingResponse.timeoutSeconds)));
+            }
+        }
+    }
+
+    private static long longPollingTimeoutSeconds(RequestHeaders headers) {
+        final String prefer = headers.get(HttpHeaderNames.PREFER);
+        if (prefer == null) {
+            return 0;
+        }
+
+        for (String preference : preferSplitter.split(prefer)) {
+            if (preference.startsWith("wait=")) {
+                try {
+                    return Math.min(Long.parseLong(preference.substring(5)),
+                                    MAX_LONG_POLLING_TIMEOUT_SECONDS);
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
     }
 
     private AggregatedHttpResponse newResponse(ServiceRequestContext ctx) {
@@ -151,6 +269,27 @@ public class HttpHealthCheckService extends AbstractHttpService
                            : newUnhealthyResponse(ctx);
     }
 
+    private AggregatedHttpResponse newResponseWithEtag(ServiceRequestContext ctx, long timeoutSeconds) {
+        final boolean healthy = isHealthy();
+        final AggregatedHttpResponse res = healthy ? newHealthyResponse(ctx)
+                                                   : newUnhealthyResponse(ctx);
+        return AggregatedHttpResponse.of(res.informationals(),
+                                         res.headers().toBuilder()
+                                            .set(HttpHeaderNames.ETAG, etag(healthy))
+                                            .set(HttpHeaderNames.PREFERENCE_APPLIED,
+                                                 preferenceApplied(timeoutSeconds))
+                                            .build(),
+                                         res.content(), res.trailers());
+    }
+
+    private static String preferenceApplied(long timeoutSeconds) {
+        return "wait=" + timeoutSeconds;
+    }
+
+    private static String etag(boolean healthy) {
+        return healthy ? HEALTHY_ETAG : UNHEALTHY_ETAG;
+    }
+
     private boolean isHealthy() {
         for (HealthChecker healthChecker : healthCheckers) {
             if (!healthChecker.isHealthy()) {
@@ -160,6 +299,23 @@ public class HttpHealthCheckService extends AbstractHttpService
         return serverHealth.isHealthy();
     }
 
+    private static final class PendingResponse {
+        final ServiceRequestContext ctx;
+        final String etag;
+        final long timeoutSeconds;
+        final CompletableFuture<HttpResponse> future;
+        final ScheduledFuture<?> timeoutFuture;
+
+        PendingResponse(ServiceRequestContext ctx, String etag, long timeoutSeconds,
+                        CompletableFuture<HttpResponse> future, ScheduledFuture<?> timeoutFuture) {
+            this.ctx = ctx;
+            this.etag = etag;
+            this.timeoutSeconds = timeoutSeconds;
+            this.future = future;
+            this.timeoutFuture = timeoutFuture;
+        }
+    }
+
     final class ServerHealthUpdater extends ServerListenerAdapter {
         @Override
         public void serverStarted(Server server) {
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.healthcheck;
+
+import java.util.function.Consumer;
+
+import com.linecorp.armeria.common.util.Listenable;
+
+/**
+ * A {@link HealthChecker} which notifies its listeners of the new health state when it changes, so that
+ * {@link HttpHealthCheckService} can respond to the long-polling health check requests immediately.
+ * The listeners added via {@link #addListener(Consumer)} receive {@code true} if healthy.
+ */
+public interface ListenableHealthChecker extends HealthChecker, Listenable<Boolean> {}
@@ -16,6 +16,7 @@
 
 package com.linecorp.armeria.server.healthcheck;
 
+import com.linecorp.armeria.common.util.AbstractListenable;
 import com.linecorp.armeria.server.Server;
 
 /**
@@ -23,7 +24,8 @@ import com.linecorp.armeria.server.Server;
  * should have additional conditions besides the state of the {@link Server}. e.g. it should depend on the
  * health of a backend.
  */
-public final class SettableHealthChecker implements HealthChecker {
+public final class SettableHealthChecker extends AbstractListenable<Boolean>
+        implements ListenableHealthChecker {
 
     private volatile boolean isHealthy;
 
@@ -52,7 +54,11 @@ public final class SettableHealthChecker implements HealthChecker {
      * Sets if the {@link Server} is healthy or not.
      */
     public SettableHealthChecker setHealthy(boolean isHealthy) {
+        final boolean wasHealthy = this.isHealthy;
         this.isHealthy = isHealthy;
+        if (wasHealthy != isHealthy) {
+            notifyListeners(isHealthy);
+        }
         return this;
     }
 
@@ -114,8 +114,14 @@ final class AccessLogger {
     }
 
     static String format(List<AccessLogComponent> format, RequestLog log) {
-        final StringBuilder message = new StringBuilder();
+        return format(new StringBuilder(), format, log).toString();
+    }
 
+    /**
+     * Appends the access log message of the specified {@link RequestLog} to the specified
+     * {@link StringBuilder}.
+     */
+    static StringBuilder format(StringBuilder message, List<AccessLogComponent> format, RequestLog log) {
         for (final AccessLogComponent component : format) {
             final boolean addQuote = component.addQuote();
             try {
@@ -134,7 +140,7 @@ final class AccessLogger {
                 appendEmptyField(message, addQuote);
             }
         }
-        return message.toString();
+        return message;
     }
 
     private static void appendEmptyField(StringBuilder message, boolean addQuote) {
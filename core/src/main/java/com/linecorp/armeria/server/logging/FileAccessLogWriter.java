@@ -0,0 +1,353 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.util.EventLoopThreadFactory;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * An {@link AccessLogWriter} which writes the access logs into a file without going through a logging
+ * framework such as SLF4J.
+ *
+ * <p>A message is formatted into a {@link StringBuilder} reused by the current thread and encoded into
+ * a slot of a bounded ring buffer. A dedicated writer thread takes the messages from the ring buffer and
+ * writes them into the file in batches. The writer thread parks while the ring buffer is empty and is woken
+ * up by the next message. When the ring buffer is full, the message is dropped instead of
+ * blocking the caller, which is usually an event loop. The number of the dropped messages is available via
+ * {@link #droppedLines()}.
+ *
+ * <p>Use {@link FileAccessLogWriterBuilder} to create a new instance. Note that the file is not rotated
+ * by this writer. Use an external tool such as {@code logrotate} with the {@code copytruncate} option.
+ */
+public final class FileAccessLogWriter implements AccessLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileAccessLogWriter.class);
+
+    private static final int INITIAL_SLOT_SIZE = 256;
+    private static final int MAX_POOLED_MESSAGE_CAPACITY = 8192;
+    private static final int WRITE_BUFFER_SIZE = 65536;
+
+    private static final ThreadFactory writerThreadFactory =
+            new EventLoopThreadFactory("armeria-access-log-writer", true);
+
+    private static final FastThreadLocal<StringBuilder> messages = new FastThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(INITIAL_SLOT_SIZE);
+        }
+    };
+
+    private final Path path;
+    private final List<AccessLogComponent> format;
+    private final int maxLineLength;
+    private final FileChannel channel;
+
+    // The ring buffer of the encoded messages.
+    private final int mask;
+    private final byte[][] slots;
+    private final int[] slotLengths;
+    private final AtomicLongArray publishedSequences;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private volatile long consumedSequence;
+
+    private final LongAdder droppedLines = new LongAdder();
+    private volatile long writtenLines;
+
+    private final Thread writerThread;
+    private volatile boolean writerParked;
+    private final CompletableFuture<Void> shutdownFuture = new CompletableFuture<>();
+    private volatile boolean shuttingDown;
+
+    FileAccessLogWriter(Path path, FileChannel channel, List<AccessLogComponent> format,
+                        int queueCapacity, int maxLineLength) {
+        assert Integer.bitCount(queueCapacity) == 1 : queueCapacity;
+        this.path = path;
+        this.channel = channel;
+        this.format = format;
+        this.maxLineLength = maxLineLength;
+
+        mask = queueCapacity - 1;
+        slots = new byte[queueCapacity][];
+        slotLengths = new int[queueCapacity];
+        publishedSequences = new AtomicLongArray(queueCapacity);
+        for (int i = 0; i < queueCapacity; i++) {
+            publishedSequences.set(i, -1);
+        }
+
+        writerThread = writerThreadFactory.newThread(this::writeLoop);
+        writerThread.start();
+    }
+
+    /**
+     * Returns the number of the access log messages dropped because the queue was full, the message was
+     * written after shutdown or the file could not be written.
+     */
+    public long droppedLines() {
+        return droppedLines.sum();
+    }
+
+    /**
+     * Returns the number of the access log messages written into the file.
+     */
+    public long writtenLines() {
+        return writtenLines;
+    }
+
+    @Override
+    public void log(RequestLog log) {
+        if (shuttingDown) {
+            droppedLines.increment();
+            return;
+        }
+
+        final StringBuilder message = messages.get();
+        message.setLength(0);
+        AccessLogger.format(message, format, log);
+
+        final long sequence = claim();
+        if (sequence >= 0) {
+            final int index = (int) sequence & mask;
+            slotLengths[index] = encode(message, index);
+            // Use a volatile write rather than lazySet() so that either this thread sees writerParked or
+            // the writer thread sees the published slot before it parks.
+            publishedSequences.set(index, sequence);
+            if (writerParked) {
+                LockSupport.unpark(writerThread);
+            }
+        } else {
+            droppedLines.increment();
+        }
+
+        if (message.capacity() > MAX_POOLED_MESSAGE_CAPACITY) {
+            // Do not retain a huge buffer forever.
+            messages.set(new StringBuilder(INITIAL_SLOT_SIZE));
+        }
+    }
+
+    /**
+     * Claims the next slot of the ring buffer.
+     *
+     * @return the sequence of the claimed slot, or {@code -1} if the ring buffer is full.
+     */
+    private long claim() {
+        for (;;) {
+            final long sequence = nextSequence.get();
+            if (sequence - consumedSequence >= slots.length) {
+                return -1;
+            }
+            if (nextSequence.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    /**
+     * Encodes the specified message and a line separator into the slot at the specified index in UTF-8.
+     * The message is truncated if it is longer than {@code maxLineLength}. A slot is allocated when it is
+     * used for the first time.
+     */
+    private int encode(CharSequence message, int index) {
+        final int length = Math.min(utf8Length(message) + 1, maxLineLength);
+        byte[] slot = slots[index];
+        if (slot == null || slot.length < length) {
+            final int newLength = slot != null ? Math.max(length, slot.length << 1)
+                                               : Math.max(length, INITIAL_SLOT_SIZE);
+            slot = slots[index] = new byte[Math.min(newLength, maxLineLength)];
+        }
+        final int numBytes = encodeUtf8(message, slot, length - 1);
+        slot[numBytes] = '\n';
+        return numBytes + 1;
+    }
+
+    private void writeLoop() {
+        final ByteBuffer buf = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        long sequence = consumedSequence;
+        int numBufferedLines = 0;
+        try {
+            for (;;) {
+                // Read the flag before draining, so that the messages published before shutdown are written.
+                final boolean shuttingDown = this.shuttingDown;
+                int index = (int) sequence & mask;
+                if (publishedSequences.get(index) != sequence) {
+                    if (numBufferedLines > 0) {
+                        numBufferedLines = flush(buf, numBufferedLines);
+                        continue;
+                    }
+                    if (shuttingDown && nextSequence.get() == sequence) {
+                        break;
+                    }
+                    park(index, sequence);
+                    continue;
+                }
+
+                do {
+                    final int length = slotLengths[index];
+                    if (buf.remaining() < length) {
+                        numBufferedLines = flush(buf, numBufferedLines);
+                    }
+                    buf.put(slots[index], 0, length);
+                    numBufferedLines++;
+                    // The slot can be reused once the message is copied.
+                    consumedSequence = ++sequence;
+                    index = (int) sequence & mask;
+                } while (publishedSequences.get(index) == sequence);
+            }
+        } catch (Throwable cause) {
+            logger.warn("Unexpected exception while writing access logs to: {}", path, cause);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close an access log file: {}", path, e);
+            }
+            shutdownFuture.complete(null);
+        }
+    }
+
+    /**
+     * Parks the writer thread until the slot at the specified index is published or {@link #shutdown()}
+     * is called.
+     */
+    private void park(int index, long sequence) {
+        writerParked = true;
+        // Check again after setting the flag, because a producer might have published the slot
+        // without seeing the flag.
+        if (publishedSequences.get(index) != sequence && !shuttingDown) {
+            LockSupport.park(this);
+        }
+        writerParked = false;
+    }
+
+    /**
+     * Writes the content of the specified {@link ByteBuffer} into the file.
+     *
+     * @return {@code 0}, which is the number of the buffered lines after the flush
+     */
+    private int flush(ByteBuffer buf, int numBufferedLines) {
+        buf.flip();
+        try {
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            writtenLines += numBufferedLines;
+        } catch (IOException e) {
+            droppedLines.add(numBufferedLines);
+            logger.warn("Failed to write {} access log(s) to: {}", numBufferedLines, path, e);
+        } finally {
+            buf.clear();
+        }
+        return 0;
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        shuttingDown = true;
+        LockSupport.unpark(writerThread);
+        return shutdownFuture;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("path", path)
+                          .add("writtenLines", writtenLines)
+                          .add("droppedLines", droppedLines())
+                          .toString();
+    }
+
+    private static int utf8Length(CharSequence seq) {
+        final int length = seq.length();
+        int numBytes = length;
+        for (int i = 0; i < length; i++) {
+            final char c = seq.charAt(i);
+            if (c >= 0x800) {
+                // A surrogate pair takes 4 bytes, i.e. 2 bytes for each surrogate.
+                numBytes += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                numBytes++;
+            }
+        }
+        return numBytes;
+    }
+
+    /**
+     * Encodes the specified {@link CharSequence} in UTF-8 up to {@code limit} bytes, without splitting
+     * a character. An unpaired surrogate is encoded as {@code '?'}.
+     *
+     * @return the number of the bytes written
+     */
+    private static int encodeUtf8(CharSequence seq, byte[] dst, int limit) {
+        final int length = seq.length();
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = seq.charAt(i);
+            if (c < 0x80) {
+                if (pos + 1 > limit) {
+                    break;
+                }
+                dst[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                if (pos + 2 > limit) {
+                    break;
+                }
+                dst[pos++] = (byte) (0xC0 | c >> 6);
+                dst[pos++] = (byte) (0x80 | c & 0x3F);
+            } else if (!Character.isSurrogate(c)) {
+                if (pos + 3 > limit) {
+                    break;
+                }
+                dst[pos++] = (byte) (0xE0 | c >> 12);
+                dst[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+                dst[pos++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length &&
+                       Character.isLowSurrogate(seq.charAt(i + 1))) {
+                if (pos + 4 > limit) {
+                    break;
+                }
+                final int codePoint = Character.toCodePoint(c, seq.charAt(++i));
+                dst[pos++] = (byte) (0xF0 | codePoint >> 18);
+                dst[pos++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                dst[pos++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                dst[pos++] = (byte) (0x80 | codePoint & 0x3F);
+            } else {
+                if (pos + 1 > limit) {
+                    break;
+                }
+                dst[pos++] = '?';
+            }
+        }
+        return pos;
+    }
+}
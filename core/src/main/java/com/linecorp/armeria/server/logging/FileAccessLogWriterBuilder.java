@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.logging;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.linecorp.armeria.server.logging.AccessLogFormats.parseCustom;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.google.common.base.MoreObjects;
+
+import io.netty.util.internal.MathUtil;
+
+/**
+ * Builds a new {@link FileAccessLogWriter}.
+ *
+ * <pre>{@code
+ * FileAccessLogWriter writer = new FileAccessLogWriterBuilder(Paths.get("access.log"))
+ *         .format("%h %l %u %t \"%r\" %s %b")
+ *         .build();
+ * ServerBuilder sb = new ServerBuilder();
+ * sb.accessLogWriter(writer, true);
+ * }</pre>
+ */
+public final class FileAccessLogWriterBuilder {
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    private static final int MAX_QUEUE_CAPACITY = 65536;
+    private static final int DEFAULT_MAX_LINE_LENGTH = 8192;
+    private static final int MAX_MAX_LINE_LENGTH = 65536;
+
+    private final Path path;
+    private List<AccessLogComponent> format = AccessLogFormats.COMMON;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private int maxLineLength = DEFAULT_MAX_LINE_LENGTH;
+
+    /**
+     * Creates a new builder which builds a {@link FileAccessLogWriter} that appends the access logs
+     * to the file at the specified {@link Path}. The file is created if it does not exist.
+     */
+    public FileAccessLogWriterBuilder(Path path) {
+        this.path = requireNonNull(path, "path");
+    }
+
+    /**
+     * Sets the format of the access logs. The common log format is used by default.
+     *
+     * @see AccessLogWriter#custom(String)
+     */
+    public FileAccessLogWriterBuilder format(String formatStr) {
+        requireNonNull(formatStr, "formatStr");
+        final List<AccessLogComponent> format = parseCustom(formatStr);
+        checkArgument(!format.isEmpty(), "Invalid access log format string: %s", formatStr);
+        this.format = format;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of the access logs which are queued to be written. An access log is dropped
+     * if the queue is full. The specified value is rounded up to the next power of two and must not be greater
+     * than {@value #MAX_QUEUE_CAPACITY}. {@value #DEFAULT_QUEUE_CAPACITY} is used by default.
+     */
+    public FileAccessLogWriterBuilder queueCapacity(int queueCapacity) {
+        checkArgument(queueCapacity > 0 && queueCapacity <= MAX_QUEUE_CAPACITY,
+                      "queueCapacity: %s (expected: 0 < queueCapacity <= %s)",
+                      queueCapacity, MAX_QUEUE_CAPACITY);
+        this.queueCapacity = MathUtil.findNextPositivePowerOfTwo(queueCapacity);
+        return this;
+    }
+
+    /**
+     * Sets the maximum length of an access log in bytes, including the line separator. A longer access log
+     * is truncated. {@value #DEFAULT_MAX_LINE_LENGTH} is used by default.
+     */
+    public FileAccessLogWriterBuilder maxLineLength(int maxLineLength) {
+        checkArgument(maxLineLength > 1 && maxLineLength <= MAX_MAX_LINE_LENGTH,
+                      "maxLineLength: %s (expected: 1 < maxLineLength <= %s)",
+                      maxLineLength, MAX_MAX_LINE_LENGTH);
+        this.maxLineLength = maxLineLength;
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link FileAccessLogWriter} based on the properties of this builder.
+     * The writer starts a new thread which writes the access logs until
+     * {@link FileAccessLogWriter#shutdown()} is called.
+     *
+     * @throws UncheckedIOException if failed to open the file
+     */
+    public FileAccessLogWriter build() {
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                       StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to open an access log file: " + path, e);
+        }
+        return new FileAccessLogWriter(path, channel, format, queueCapacity, maxLineLength);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("path", path)
+                          .add("format", format)
+                          .add("queueCapacity", queueCapacity)
+                          .add("maxLineLength", maxLineLength)
+                          .toString();
+    }
+}
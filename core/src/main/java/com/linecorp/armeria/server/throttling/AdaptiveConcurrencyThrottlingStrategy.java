@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.throttling;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.util.concurrent.CompletionStage;
+
+import javax.annotation.Nullable;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.linecorp.armeria.common.Request;
+import com.linecorp.armeria.common.logging.RequestLogAvailability;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Ticker;
+import com.linecorp.armeria.internal.AdaptiveConcurrencyLimit;
+import com.linecorp.armeria.internal.metric.MicrometerUtil;
+import com.linecorp.armeria.server.RequestTimeoutException;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * A {@link ThrottlingStrategy} that limits the number of concurrent requests with a limit computed from
+ * the observed latency. The limit decreases when the latency of the recent requests grows beyond the
+ * long-term latency or a request times out, and it increases while the latency stays the same. A request
+ * is rejected if the number of the requests being handled reached the limit.
+ *
+ * <p>The following metrics are exported to the {@link MeterRegistry} of the {@link ServiceRequestContext}:
+ * <ul>
+ *   <li>{@code <prefix>.limit} - the current limit</li>
+ *   <li>{@code <prefix>.inFlightRequests} - the number of the requests being handled</li>
+ *   <li>{@code <prefix>.rejectedRequests} - the number of the rejected requests</li>
+ * </ul>
+ * where {@code <prefix>} is the {@link MeterIdPrefix} specified with
+ * {@link AdaptiveConcurrencyThrottlingStrategyBuilder#meterIdPrefix(MeterIdPrefix)}.
+ *
+ * @see AdaptiveConcurrencyThrottlingStrategyBuilder
+ */
+public final class AdaptiveConcurrencyThrottlingStrategy<T extends Request> extends ThrottlingStrategy<T> {
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final Ticker ticker;
+    private final MeterIdPrefix meterIdPrefix;
+    @Nullable
+    private volatile Metrics metrics;
+
+    AdaptiveConcurrencyThrottlingStrategy(@Nullable String name, AdaptiveConcurrencyLimit limit,
+                                          @Nullable MeterIdPrefix meterIdPrefix) {
+        super(name);
+        this.limit = limit;
+        ticker = limit.ticker();
+        this.meterIdPrefix = meterIdPrefix != null ? meterIdPrefix
+                                                   : new MeterIdPrefix("armeria.server.throttling",
+                                                                       "strategy", name());
+    }
+
+    @Override
+    public CompletionStage<Boolean> accept(ServiceRequestContext ctx, T request) {
+        final Metrics metrics = metrics(ctx.meterRegistry());
+        if (!limit.tryAcquire()) {
+            metrics.rejectedRequests.increment();
+            return completedFuture(false);
+        }
+
+        final long startTimeNanos = ticker.read();
+        ctx.log().addListener(log -> limit.release(ticker.read() - startTimeNanos,
+                                                   log.responseCause() instanceof RequestTimeoutException),
+                              RequestLogAvailability.COMPLETE);
+        return completedFuture(true);
+    }
+
+    /**
+     * Returns the current limit of the number of concurrent requests.
+     */
+    public int limit() {
+        return limit.limit();
+    }
+
+    /**
+     * Returns the number of the accepted requests which are not complete yet.
+     */
+    public int inFlightRequests() {
+        return limit.inFlight();
+    }
+
+    @VisibleForTesting
+    MeterIdPrefix meterIdPrefix() {
+        return meterIdPrefix;
+    }
+
+    private Metrics metrics(MeterRegistry registry) {
+        final Metrics metrics = this.metrics;
+        if (metrics != null) {
+            return metrics;
+        }
+
+        // The metrics are registered to the registry of the first request only, which is the registry of
+        // the server in most cases.
+        return this.metrics = MicrometerUtil.register(registry, meterIdPrefix, Metrics.class,
+                                                      (reg, prefix) -> new Metrics(reg, prefix, limit));
+    }
+
+    private static final class Metrics {
+        final Counter rejectedRequests;
+
+        Metrics(MeterRegistry registry, MeterIdPrefix idPrefix, AdaptiveConcurrencyLimit limit) {
+            registry.gauge(idPrefix.name("limit"), idPrefix.tags(), limit, AdaptiveConcurrencyLimit::limit);
+            registry.gauge(idPrefix.name("inFlightRequests"), idPrefix.tags(),
+                           limit, AdaptiveConcurrencyLimit::inFlight);
+            rejectedRequests = registry.counter(idPrefix.name("rejectedRequests"), idPrefix.tags());
+        }
+    }
+}
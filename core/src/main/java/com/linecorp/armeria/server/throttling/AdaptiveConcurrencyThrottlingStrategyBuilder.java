@@ -0,0 +1,186 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.throttling;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+
+import javax.annotation.Nullable;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.linecorp.armeria.common.Request;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Ticker;
+import com.linecorp.armeria.internal.AdaptiveConcurrencyLimit;
+
+/**
+ * Builds an {@link AdaptiveConcurrencyThrottlingStrategy}.
+ */
+public final class AdaptiveConcurrencyThrottlingStrategyBuilder {
+
+    private static final class Defaults {
+
+        private static final int INITIAL_LIMIT = 20;
+
+        private static final int MIN_LIMIT = 1;
+
+        private static final int MAX_LIMIT = 1000;
+
+        private static final double SMOOTHING = 0.2;
+
+        private static final double LATENCY_TOLERANCE = 1.5;
+
+        private static final long WINDOW_MILLIS = 1000;
+
+        private static final int MIN_WINDOW_SAMPLES = 10;
+    }
+
+    @Nullable
+    private String name;
+    private int initialLimit = Defaults.INITIAL_LIMIT;
+    private int minLimit = Defaults.MIN_LIMIT;
+    private int maxLimit = Defaults.MAX_LIMIT;
+    private double smoothing = Defaults.SMOOTHING;
+    private double latencyTolerance = Defaults.LATENCY_TOLERANCE;
+    private Duration window = Duration.ofMillis(Defaults.WINDOW_MILLIS);
+    private int minWindowSamples = Defaults.MIN_WINDOW_SAMPLES;
+    @Nullable
+    private MeterIdPrefix meterIdPrefix;
+    private Ticker ticker = Ticker.systemTicker();
+
+    /**
+     * Sets the name of the {@link AdaptiveConcurrencyThrottlingStrategy}.
+     */
+    public AdaptiveConcurrencyThrottlingStrategyBuilder name(String name) {
+        this.name = requireNonNull(name, "name");
+        return this;
+    }
+
+    /**
+     * Sets the limit used until enough requests are handled to compute it from their latency.
+     * Defaults to {@value Defaults#INITIAL_LIMIT} if unspecified.
+     */
+    public AdaptiveConcurrencyThrottlingStrategyBuilder initialLimit(int initialLimit) {
+        checkArgument(initialLimit > 0, "initialLimit: %s (expected: > 0)", initialLimit);
+        this.initialLimit = initialLimit;
+        return this;
+    }
+
+    /**
+     * Sets the minimum limit. Defaults to {@value Defaults#MIN_LIMIT} if unspecified.
+     */
+    public AdaptiveConcurrencyThrottlingStrategyBuilder minLimit(int minLimit) {
+        checkArgument(minLimit > 0, "minLimit: %s (expected: > 0)", minLimit);
+        this.minLimit = minLimit;
+        return this;
+    }
+
+    /**
+     * Sets the maximum limit. Defaults to {@value Defaults#MAX_LIMIT} if unspecified.
+     */
+    public AdaptiveConcurrencyThrottlingStrategyBuilder maxLimit(int maxLimit) {
+        checkArgument(maxLimit > 0, "maxLimit: %s (expected: > 0)", maxLimit);
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    /**
+     * Sets the weight of a newly computed limit, between 0 (exclusive) and 1 (inclusive). The higher,
+     * the more quickly the limit follows the change of latency. Defaults to {@value Defaults#SMOOTHING}
+     * if unspecified.
+     */
+    public AdaptiveConcurrencyThrottlingStrategyBuilder smoothing(double smoothing) {
+        checkArgument(smoothing > 0 && smoothing <= 1, "smoothing: %s (expected: > 0 and <= 1)", smoothing);
+        this.smoothing = smoothing;
+        return this;
+    }
+
+    /**
+     * Sets the ratio of the recent latency to the long-term latency which is tolerated without decreasing
+     * the limit. Defaults to {@value Defaults#LATENCY_TOLERANCE} if unspecified.
+     */
+    public AdaptiveConcurrencyThrottlingStrategyBuilder latencyTolerance(double latencyTolerance) {
+        checkArgument(latencyTolerance >= 1, "latencyTolerance: %s (expected: >= 1)", latencyTolerance);
+        this.latencyTolerance = latencyTolerance;
+        return this;
+    }
+
+    /**
+     * Sets the minimum duration of a window which the latency samples are aggregated in before
+     * the limit is updated. Defaults to {@value Defaults#WINDOW_MILLIS} milliseconds if unspecified.
+     */
+    public AdaptiveConcurrencyThrottlingStrategyBuilder window(Duration window) {
+        requireNonNull(window, "window");
+        checkArgument(!window.isNegative(), "window: %s (expected: >= 0)", window);
+        this.window = window;
+        return this;
+    }
+
+    /**
+     * Sets the minimum duration of a window which the latency samples are aggregated in before
+     * the limit is updated, in milliseconds. Defaults to {@value Defaults#WINDOW_MILLIS} milliseconds
+     * if unspecified.
+     */
+    public AdaptiveConcurrencyThrottlingStrategyBuilder windowMillis(long windowMillis) {
+        return window(Duration.ofMillis(windowMillis));
+    }
+
+    /**
+     * Sets the minimum number of the latency samples in a window.
+     * Defaults to {@value Defaults#MIN_WINDOW_SAMPLES} if unspecified.
+     */
+    public AdaptiveConcurrencyThrottlingStrategyBuilder minWindowSamples(int minWindowSamples) {
+        checkArgument(minWindowSamples > 0, "minWindowSamples: %s (expected: > 0)", minWindowSamples);
+        this.minWindowSamples = minWindowSamples;
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterIdPrefix} of the metrics exported by the
+     * {@link AdaptiveConcurrencyThrottlingStrategy}. Defaults to
+     * {@code armeria.server.throttling{strategy=<name>}} if unspecified.
+     */
+    public AdaptiveConcurrencyThrottlingStrategyBuilder meterIdPrefix(MeterIdPrefix meterIdPrefix) {
+        this.meterIdPrefix = requireNonNull(meterIdPrefix, "meterIdPrefix");
+        return this;
+    }
+
+    @VisibleForTesting
+    AdaptiveConcurrencyThrottlingStrategyBuilder ticker(Ticker ticker) {
+        this.ticker = requireNonNull(ticker, "ticker");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link AdaptiveConcurrencyThrottlingStrategy} based on the properties of
+     * this builder.
+     */
+    public <T extends Request> AdaptiveConcurrencyThrottlingStrategy<T> build() {
+        checkState(minLimit <= maxLimit, "minLimit: %s, maxLimit: %s (expected: minLimit <= maxLimit)",
+                   minLimit, maxLimit);
+        checkState(initialLimit >= minLimit && initialLimit <= maxLimit,
+                   "initialLimit: %s (expected: >= minLimit (%s) and <= maxLimit (%s))",
+                   initialLimit, minLimit, maxLimit);
+        final AdaptiveConcurrencyLimit limit =
+                new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, smoothing, latencyTolerance,
+                                             window.toNanos(), minWindowSamples, ticker);
+        return new AdaptiveConcurrencyThrottlingStrategy<>(name, limit, meterIdPrefix);
+    }
+}
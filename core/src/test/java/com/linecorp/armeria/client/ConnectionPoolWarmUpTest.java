@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.net.InetSocketAddress;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.client.endpoint.DynamicEndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointGroupRegistry;
+import com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit.server.ServerExtension;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeMap;
+
+class ConnectionPoolWarmUpTest {
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.service("/", (ctx, req) -> HttpResponse.of(HttpStatus.OK));
+        }
+    };
+
+    private final AtomicInteger opens = new AtomicInteger();
+    private final Queue<Channel> warmedUpChannels = new ConcurrentLinkedQueue<>();
+
+    private final ConnectionPoolListener listener = new ConnectionPoolListener() {
+        @Override
+        public void connectionOpen(SessionProtocol protocol, InetSocketAddress remoteAddr,
+                                   InetSocketAddress localAddr, AttributeMap attrs) throws Exception {
+            opens.incrementAndGet();
+        }
+
+        @Override
+        public void connectionClosed(SessionProtocol protocol, InetSocketAddress remoteAddr,
+                                     InetSocketAddress localAddr, AttributeMap attrs) throws Exception {}
+
+        @Override
+        public void connectionWarmedUp(SessionProtocol protocol, InetSocketAddress remoteAddr,
+                                       InetSocketAddress localAddr, AttributeMap attrs) throws Exception {
+            warmedUpChannels.add((Channel) attrs);
+        }
+    };
+
+    @Test
+    void shouldOpenConnectionsBeforeFirstRequest() {
+        try (ClientFactory factory = new ClientFactoryBuilder()
+                .connectionPoolListener(listener)
+                .warmUpConnections(SessionProtocol.H1C, Endpoint.of("127.0.0.1", server.httpPort()), 2)
+                .build()) {
+
+            await().untilAsserted(() -> assertThat(warmedUpChannels).hasSize(2));
+            assertThat(opens).hasValue(2);
+
+            final HttpClient client = HttpClient.of(factory, server.uri(SessionProtocol.H1C, "/"));
+            assertThat(client.get("/").aggregate().join().status()).isEqualTo(HttpStatus.OK);
+            assertThat(opens).hasValue(2);
+        }
+    }
+
+    @Test
+    void shouldReplaceClosedConnections() {
+        try (ClientFactory factory = new ClientFactoryBuilder()
+                .connectionPoolListener(listener)
+                .warmUpConnections(SessionProtocol.H2C, Endpoint.of("127.0.0.1", server.httpPort()), 1)
+                .build()) {
+
+            await().untilAsserted(() -> assertThat(warmedUpChannels).hasSize(1));
+            warmedUpChannels.poll().close();
+            await().untilAsserted(() -> assertThat(warmedUpChannels).hasSize(1));
+            assertThat(warmedUpChannels.peek().isActive()).isTrue();
+            assertThat(opens).hasValue(2);
+        }
+    }
+
+    @Test
+    void shouldReplaceConnectionsBeforeIdleTimeout() {
+        try (ClientFactory factory = new ClientFactoryBuilder()
+                .connectionPoolListener(listener)
+                .idleTimeoutMillis(1000)
+                .warmUpConnections(SessionProtocol.H2C, Endpoint.of("127.0.0.1", server.httpPort()), 1)
+                .build()) {
+
+            await().untilAsserted(() -> assertThat(warmedUpChannels).hasSize(1));
+            final Channel first = warmedUpChannels.poll();
+
+            // A new connection has to be opened because the first one is going to be closed
+            // due to idle timeout.
+            await().untilAsserted(() -> assertThat(warmedUpChannels).hasSize(1));
+            assertThat(warmedUpChannels.peek()).isNotSameAs(first);
+            await().until(() -> !first.isActive());
+            assertThat(warmedUpChannels.peek().isActive()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldWarmUpAddedEndpoints() {
+        final TestEndpointGroup group = new TestEndpointGroup();
+        group.add(Endpoint.of("foo", server.httpPort()).withIpAddr("127.0.0.1"));
+        EndpointGroupRegistry.register("warm-up", group, EndpointSelectionStrategy.ROUND_ROBIN);
+        try (ClientFactory factory = new ClientFactoryBuilder()
+                .connectionPoolListener(listener)
+                .warmUpConnections(SessionProtocol.H2C, Endpoint.ofGroup("warm-up"), 1)
+                .build()) {
+
+            await().untilAsserted(() -> assertThat(warmedUpChannels).hasSize(1));
+
+            group.add(Endpoint.of("bar", server.httpPort()).withIpAddr("127.0.0.1"));
+            await().untilAsserted(() -> assertThat(warmedUpChannels).hasSize(2));
+            assertThat(opens).hasValue(2);
+        } finally {
+            EndpointGroupRegistry.unregister("warm-up");
+        }
+    }
+
+    @Test
+    void shouldRejectUnknownEndpointGroup() {
+        assertThatThrownBy(() -> new ClientFactoryBuilder()
+                .warmUpConnections(SessionProtocol.H2C, Endpoint.ofGroup("unknown-warm-up"), 1)
+                .build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unknown-warm-up");
+    }
+
+    private static final class TestEndpointGroup extends DynamicEndpointGroup {
+        void add(Endpoint endpoint) {
+            addEndpoint(endpoint);
+        }
+    }
+}
@@ -29,6 +29,8 @@ import org.junit.Test;
 
 import com.linecorp.armeria.client.EventLoopScheduler.Entry;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.netty.channel.DefaultEventLoopGroup;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
@@ -218,6 +220,76 @@ public class EventLoopSchedulerTest {
         entriesB.forEach(e -> assertThat(e.activeRequests()).isEqualTo(1));
     }
 
+    @Test
+    public void loadAwareShouldReuseEventLoopWhenIdle() {
+        final EventLoopScheduler s = new EventLoopScheduler(group, true, null);
+        final Entry e0 = s.acquire(endpoint);
+        final EventLoop loop = e0.get();
+        e0.release();
+
+        // All event loops are equally idle, so the event loop used by the endpoint should be reused.
+        for (int i = 0; i < 10; i++) {
+            final Entry e = s.acquire(endpoint);
+            assertThat(e.get()).isSameAs(loop);
+            e.release();
+        }
+        assertThat(s.load(loop).activeRequests()).isZero();
+    }
+
+    @Test
+    public void loadAwareShouldSpreadLoad() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final EventLoopScheduler s = new EventLoopScheduler(group, true, registry);
+
+        // The requests should be assigned to all event loops, although the first event loop can handle them.
+        final List<Entry> acquiredEntries = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            acquiredEntries.add(s.acquire(endpoint));
+        }
+        final List<EventLoop> eventLoops = eventLoops();
+        for (EventLoop loop : eventLoops) {
+            final int activeRequests = s.load(loop).activeRequests();
+            assertThat(activeRequests).isPositive();
+            assertThat(registry.get("armeria.client.eventLoop.activeRequests")
+                               .tag("eventLoop", String.valueOf(eventLoops.indexOf(loop)))
+                               .gauge().value()).isEqualTo(activeRequests);
+        }
+
+        acquiredEntries.forEach(Entry::release);
+        eventLoops.forEach(loop -> assertThat(s.load(loop).activeRequests()).isZero());
+    }
+
+    @Test
+    public void loadAwareGaugesShouldBeRemovedOnClose() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final EventLoopScheduler s1 = new EventLoopScheduler(group, true, registry);
+        final EventLoopScheduler s2 = new EventLoopScheduler(group, true, registry);
+
+        // Each scheduler should have its own gauges.
+        assertThat(registry.find("armeria.client.eventLoop.activeRequests").gauges()).hasSize(GROUP_SIZE * 2);
+        assertThat(registry.find("armeria.client.eventLoop.pendingTasks").gauges()).hasSize(GROUP_SIZE * 2);
+
+        s1.close();
+        assertThat(registry.find("armeria.client.eventLoop.activeRequests").gauges()).hasSize(GROUP_SIZE);
+        assertThat(registry.find("armeria.client.eventLoop.pendingTasks").gauges()).hasSize(GROUP_SIZE);
+
+        final Entry e = s2.acquire(endpoint);
+        final EventLoop loop = e.get();
+        assertThat(registry.get("armeria.client.eventLoop.activeRequests")
+                           .tag("eventLoop", String.valueOf(eventLoops().indexOf(loop)))
+                           .gauge().value()).isOne();
+        e.release();
+
+        s2.close();
+        assertThat(registry.getMeters()).isEmpty();
+    }
+
+    private static List<EventLoop> eventLoops() {
+        final List<EventLoop> eventLoops = new ArrayList<>();
+        group.forEach(e -> eventLoops.add((EventLoop) e));
+        return eventLoops;
+    }
+
     @Test
     public void stressTest() {
         final EventLoopGroup group = new DefaultEventLoopGroup(1024);
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.util.EventLoopGroups;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit.server.ServerExtension;
+
+import io.netty.util.AttributeMap;
+
+class HttpClientHttp2ConnectionsTest {
+
+    private static final BlockingQueue<PendingResponse> responses = new LinkedBlockingQueue<>();
+    private static final List<PendingResponse> takenResponses = new ArrayList<>();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.requestTimeoutMillis(0);
+            sb.service("/", (ctx, req) -> {
+                final CompletableFuture<HttpResponse> f = new CompletableFuture<>();
+                responses.add(new PendingResponse(ctx.remoteAddress(), f));
+                return HttpResponse.from(f);
+            });
+        }
+    };
+
+    private final AtomicInteger opens = new AtomicInteger();
+
+    private final ConnectionPoolListener listener = new ConnectionPoolListener() {
+        @Override
+        public void connectionOpen(SessionProtocol protocol, InetSocketAddress remoteAddr,
+                                   InetSocketAddress localAddr, AttributeMap attrs) throws Exception {
+            opens.incrementAndGet();
+        }
+
+        @Override
+        public void connectionClosed(SessionProtocol protocol, InetSocketAddress remoteAddr,
+                                     InetSocketAddress localAddr, AttributeMap attrs) throws Exception {}
+    };
+
+    @AfterEach
+    void completeResponses() {
+        responses.drainTo(takenResponses);
+        takenResponses.forEach(res -> res.future.complete(HttpResponse.of(HttpStatus.OK)));
+        takenResponses.clear();
+    }
+
+    @Test
+    void shouldOpenConnectionsUpToMinConnections() {
+        try (ClientFactory factory = newClientFactoryBuilder().http2MinConnectionsPerEndpoint(2).build()) {
+            final HttpClient client = HttpClient.of(factory, server.uri(SessionProtocol.H2C, "/"));
+            final CompletableFuture<AggregatedHttpResponse> res = client.get("/").aggregate();
+            await().untilAsserted(() -> assertThat(opens).hasValue(2));
+            completeResponses();
+            assertThat(res.join().status()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    @Test
+    void shouldOpenConnectionsWhenTargetStreamsExceeded() throws Exception {
+        try (ClientFactory factory = newClientFactoryBuilder().http2TargetStreamsPerConnection(1)
+                                                               .http2MaxConnectionsPerEndpoint(2)
+                                                               .build()) {
+            final HttpClient client = HttpClient.of(factory, server.uri(SessionProtocol.H2C, "/"));
+            final List<CompletableFuture<AggregatedHttpResponse>> receivedResponses = new ArrayList<>();
+
+            receivedResponses.add(client.get("/").aggregate());
+            final PendingResponse first = takeResponse();
+            assertThat(opens).hasValue(1);
+
+            // The first connection has as many streams as the target, so a new connection is opened
+            // while the second request is sent over the first connection.
+            receivedResponses.add(client.get("/").aggregate());
+            assertThat(takeResponse().remoteAddress).isEqualTo(first.remoteAddress);
+            await().untilAsserted(() -> assertThat(opens).hasValue(2));
+
+            // The third request has to be sent over the new connection which has no active streams.
+            receivedResponses.add(client.get("/").aggregate());
+            assertThat(takeResponse().remoteAddress).isNotEqualTo(first.remoteAddress);
+
+            // Should not open more connections than the maximum.
+            for (int i = 0; i < 4; i++) {
+                receivedResponses.add(client.get("/").aggregate());
+                takeResponse();
+            }
+            assertThat(opens).hasValue(2);
+
+            completeResponses();
+            receivedResponses.forEach(f -> assertThat(f.join().status()).isEqualTo(HttpStatus.OK));
+        }
+    }
+
+    @Test
+    void shouldRejectMinConnectionsGreaterThanMaxConnections() {
+        assertThatThrownBy(() -> new ClientFactoryBuilder().http2MinConnectionsPerEndpoint(3)
+                                                           .http2MaxConnectionsPerEndpoint(2)
+                                                           .build())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static PendingResponse takeResponse() throws InterruptedException {
+        final PendingResponse res = responses.take();
+        takenResponses.add(res);
+        return res;
+    }
+
+    private ClientFactoryBuilder newClientFactoryBuilder() {
+        // Use a single event loop so that all connections are in the same pool.
+        return new ClientFactoryBuilder().workerGroup(EventLoopGroups.newEventLoopGroup(1), true)
+                                         .connectionPoolListener(listener);
+    }
+
+    private static final class PendingResponse {
+        final InetSocketAddress remoteAddress;
+        final CompletableFuture<HttpResponse> future;
+
+        PendingResponse(InetSocketAddress remoteAddress, CompletableFuture<HttpResponse> future) {
+            this.remoteAddress = remoteAddress;
+            this.future = future;
+        }
+    }
+}
@@ -181,4 +181,17 @@ public class CircuitBreakerBuilderTest {
         throwsException(() -> builder().counterUpdateIntervalMillis(-1));
         throwsException(() -> builder().counterUpdateIntervalMillis(0));
     }
+
+    @Test
+    public void testCounterType() {
+        assertThat(confOf(builder().build()).counterType()).isEqualTo(CircuitBreakerCounterType.SLIDING_WINDOW);
+        final CircuitBreakerConfig config = confOf(
+                builder().counterType(CircuitBreakerCounterType.STRIPED_SLIDING_WINDOW).build());
+        assertThat(config.counterType()).isEqualTo(CircuitBreakerCounterType.STRIPED_SLIDING_WINDOW);
+    }
+
+    @Test
+    public void testCounterTypeWithInvalidArgument() {
+        throwsException(() -> builder().counterType(null));
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.circuitbreaker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.testing.FakeTicker;
+
+class StripedSlidingWindowCounterTest {
+
+    private final FakeTicker ticker = new FakeTicker();
+
+    @Test
+    void testInitialState() {
+        assertThat(newCounter().count()).isEqualTo(new EventCount(0, 0));
+    }
+
+    @Test
+    void testOnSuccessAndFailure() {
+        final StripedSlidingWindowCounter counter = newCounter();
+        assertThat(counter.onSuccess()).isEmpty();
+        assertThat(counter.onFailure()).isEmpty();
+        assertThat(counter.onFailure()).isEmpty();
+
+        ticker.advance(1, TimeUnit.SECONDS);
+        // The event in the current interval is not counted yet.
+        assertThat(counter.onSuccess()).contains(new EventCount(1, 2));
+        assertThat(counter.onSuccess()).isEmpty();
+        assertThat(counter.count()).isEqualTo(new EventCount(1, 2));
+
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertThat(counter.onFailure()).contains(new EventCount(3, 2));
+    }
+
+    @Test
+    void testTrim() {
+        final StripedSlidingWindowCounter counter = newCounter();
+        assertThat(counter.onSuccess()).isEmpty();
+        assertThat(counter.onFailure()).isEmpty();
+
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertThat(counter.onFailure()).contains(new EventCount(1, 1));
+
+        ticker.advance(11, TimeUnit.SECONDS);
+        assertThat(counter.onFailure()).contains(new EventCount(0, 0));
+        assertThat(counter.count()).isEqualTo(new EventCount(0, 0));
+    }
+
+    @Test
+    void testWrapAround() {
+        final StripedSlidingWindowCounter counter = newCounter();
+        // Report one success in each interval for longer than the ring buffer.
+        for (int i = 0; i < 30; i++) {
+            counter.onSuccess();
+            ticker.advance(1, TimeUnit.SECONDS);
+        }
+        assertThat(counter.onFailure()).contains(new EventCount(10, 0));
+    }
+
+    @Test
+    void testLateEvent() {
+        final StripedSlidingWindowCounter counter = newCounter();
+        ticker.advance(-1, TimeUnit.SECONDS);
+        assertThat(counter.onSuccess()).isEmpty();
+        assertThat(counter.count()).isEqualTo(new EventCount(0, 0));
+    }
+
+    @Test
+    void testConcurrentAccess() throws InterruptedException {
+        final StripedSlidingWindowCounter counter = new StripedSlidingWindowCounter(
+                Ticker.systemTicker(), Duration.ofMinutes(1), Duration.ofMillis(10));
+
+        final int worker = 6;
+        final int batch = 100000;
+
+        final AtomicLong success = new AtomicLong();
+        final AtomicLong failure = new AtomicLong();
+        final CyclicBarrier barrier = new CyclicBarrier(worker);
+        final List<Thread> threads = new ArrayList<>(worker);
+
+        for (int i = 0; i < worker; i++) {
+            final Thread t = new Thread(() -> {
+                try {
+                    barrier.await();
+
+                    long s = 0;
+                    long f = 0;
+                    for (int j = 0; j < batch; j++) {
+                        final double r = ThreadLocalRandom.current().nextDouble();
+                        if (r > 0.6) {
+                            counter.onSuccess();
+                            s++;
+                        } else if (r > 0.2) {
+                            counter.onFailure();
+                            f++;
+                        }
+                    }
+                    success.addAndGet(s);
+                    failure.addAndGet(f);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+
+            threads.add(t);
+            t.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Wait until the current interval ends, and then make sure no event has been lost.
+        Thread.sleep(20);
+        final long numFailures = failure.get();
+        await().untilAsserted(() -> assertThat(counter.onSuccess()).isPresent());
+        assertThat(counter.count()).isEqualTo(new EventCount(success.get(), numFailures));
+    }
+
+    private StripedSlidingWindowCounter newCounter() {
+        return new StripedSlidingWindowCounter(ticker, Duration.ofSeconds(10), Duration.ofSeconds(1));
+    }
+}
@@ -15,12 +15,133 @@
  */
 package com.linecorp.armeria.client.encoding;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.junit.Test;
+
+import com.google.common.base.Strings;
+
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.unsafe.ByteBufHttpData;
+
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.handler.codec.compression.DecompressionException;
 import io.netty.handler.codec.compression.ZlibWrapper;
 
 public class ZlibStreamDecoderTest extends AbstractStreamDecoderTest {
+
+    private static final byte[] CONTENT =
+            Strings.repeat("Hello, Armeria! ", 4096).getBytes(StandardCharsets.UTF_8);
+
     @Override
     StreamDecoder newDecoder() {
         return new ZlibStreamDecoder(ZlibWrapper.NONE, ByteBufAllocator.DEFAULT);
     }
+
+    @Test
+    public void zlib() throws Exception {
+        final byte[] compressed = deflate(CONTENT, false);
+        final StreamDecoder decoder = new ZlibStreamDecoder(ZlibWrapper.ZLIB, ByteBufAllocator.DEFAULT);
+
+        // Split the input into a heap buffer and a direct buffer.
+        final int half = compressed.length / 2;
+        final ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        drain(decoder.decode(HttpData.wrap(compressed, 0, half)), decoded);
+        drain(decoder.decode(new ByteBufHttpData(
+                ByteBufAllocator.DEFAULT.directBuffer().writeBytes(compressed, half, compressed.length - half),
+                true)), decoded);
+        drain(decoder.finish(), decoded);
+        assertThat(decoded.toByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void gzipWithOptionalHeaderFields() throws Exception {
+        final byte[] compressed = gzip(CONTENT, (int) crc32(CONTENT));
+        final StreamDecoder decoder = new ZlibStreamDecoder(ZlibWrapper.GZIP, ByteBufAllocator.DEFAULT);
+
+        // Feed the header and the trailer byte by byte, and the compressed blocks in larger chunks.
+        final ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        for (int i = 0; i < compressed.length;) {
+            final int length = i < 32 || i >= compressed.length - 16 ? 1 : 512;
+            final int end = Math.min(i + length, compressed.length);
+            drain(decoder.decode(HttpData.wrap(compressed, i, end - i)), decoded);
+            i = end;
+        }
+        drain(decoder.finish(), decoded);
+        assertThat(decoded.toByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void gzipWithWrongCrc() throws Exception {
+        final byte[] compressed = gzip(CONTENT, (int) crc32(CONTENT) + 1);
+        final StreamDecoder decoder = new ZlibStreamDecoder(ZlibWrapper.GZIP, ByteBufAllocator.DEFAULT);
+        assertThatThrownBy(() -> decoder.decode(HttpData.wrap(compressed)))
+                .isInstanceOf(DecompressionException.class)
+                .hasMessageContaining("CRC value mismatch");
+        decoder.finish();
+    }
+
+    @Test
+    public void notGzip() {
+        final StreamDecoder decoder = new ZlibStreamDecoder(ZlibWrapper.GZIP, ByteBufAllocator.DEFAULT);
+        assertThatThrownBy(() -> decoder.decode(HttpData.ofUtf8("Hello, Armeria!")))
+                .isInstanceOf(DecompressionException.class);
+        decoder.finish();
+    }
+
+    private static void drain(HttpData data, ByteArrayOutputStream out) {
+        out.write(data.array(), 0, data.length());
+        if (data instanceof ByteBufHolder) {
+            ((ByteBufHolder) data).release();
+        }
+    }
+
+    private static byte[] deflate(byte[] content, boolean nowrap) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bos, new Deflater(-1, nowrap))) {
+            out.write(content);
+        }
+        return bos.toByteArray();
+    }
+
+    private static long crc32(byte[] content) {
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    /**
+     * Returns a gzip member whose header contains all optional fields.
+     */
+    private static byte[] gzip(byte[] content, int crc) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // ID1, ID2, CM, FLG (FHCRC | FEXTRA | FNAME | FCOMMENT), MTIME, XFL and OS.
+        out.write(new byte[] { 0x1f, (byte) 0x8b, 8, 0x1e, 0, 0, 0, 0, 0, 3 });
+        // XLEN and the extra field.
+        out.write(new byte[] { 3, 0, 'a', 'b', 'c' });
+        out.write("file.txt\0".getBytes(StandardCharsets.US_ASCII));
+        out.write("comment\0".getBytes(StandardCharsets.US_ASCII));
+        // CRC16, which is not verified.
+        out.write(new byte[] { 0x12, 0x34 });
+        out.write(deflate(content, true));
+        writeIntLE(out, crc);
+        writeIntLE(out, content.length);
+        return out.toByteArray();
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
 }
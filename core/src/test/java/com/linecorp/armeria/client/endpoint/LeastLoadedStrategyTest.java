@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.LeastLoadedStrategy.EndpointStats;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+
+public class LeastLoadedStrategyTest {
+
+    private static final Endpoint FOO = Endpoint.parse("foo:1234");
+    private static final Endpoint BAR = Endpoint.parse("bar:1234");
+
+    @Test
+    public void shouldAvoidEndpointWithRequestsInProgress() {
+        final EndpointSelector selector = newSelector(new StaticEndpointGroup(FOO, BAR));
+
+        // Neither endpoint has latency samples yet, so the one without requests in progress is chosen.
+        final Endpoint first = selector.select(newContext());
+        final Endpoint second = selector.select(newContext());
+        assertThat(second).isNotEqualTo(first);
+    }
+
+    @Test
+    public void shouldPreferFasterEndpoint() {
+        final EndpointSelector selector = newSelector(new StaticEndpointGroup(FOO, BAR));
+        final List<EndpointStats> stats = stats(selector);
+        stats.get(0).start();
+        stats.get(0).finish(TimeUnit.MILLISECONDS.toNanos(100));
+        stats.get(1).start();
+        stats.get(1).finish(TimeUnit.MILLISECONDS.toNanos(1));
+
+        // The faster endpoint is chosen until it has much more requests in progress.
+        for (int i = 0; i < 10; i++) {
+            assertThat(selector.select(newContext())).isEqualTo(BAR);
+        }
+        assertThat(stats.get(1).inFlightRequests()).isEqualTo(10);
+        assertThat(stats.get(0).inFlightRequests()).isZero();
+    }
+
+    @Test
+    public void shouldRespectWeight() {
+        final EndpointSelector selector = newSelector(new StaticEndpointGroup(FOO.withWeight(1),
+                                                                              BAR.withWeight(10)));
+        final List<EndpointStats> stats = stats(selector);
+        stats.forEach(s -> {
+            s.start();
+            s.finish(TimeUnit.MILLISECONDS.toNanos(10));
+        });
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(selector.select(newContext())).isEqualTo(BAR.withWeight(10));
+        }
+    }
+
+    @Test
+    public void shouldUpdateStatsOnCompletion() {
+        final EndpointSelector selector = newSelector(new StaticEndpointGroup(FOO));
+        final EndpointStats stats = stats(selector).get(0);
+
+        final ClientRequestContext ctx = newContext();
+        assertThat(selector.select(ctx)).isEqualTo(FOO);
+        assertThat(stats.inFlightRequests()).isEqualTo(1);
+        assertThat(stats.ewmaLatencyNanos()).isZero();
+
+        ctx.logBuilder().endRequest();
+        ctx.logBuilder().endResponse();
+        assertThat(stats.inFlightRequests()).isZero();
+        assertThat(stats.ewmaLatencyNanos()).isPositive();
+    }
+
+    @Test
+    public void shouldRetainStatsOfRemainingEndpoints() {
+        final DynamicEndpointGroup group = new DynamicEndpointGroup();
+        group.setEndpoints(ImmutableList.of(FOO));
+        final EndpointSelector selector = newSelector(group);
+        final EndpointStats fooStats = stats(selector).get(0);
+
+        group.setEndpoints(ImmutableList.of(FOO, BAR));
+        final List<EndpointStats> stats = stats(selector);
+        assertThat(stats).hasSize(2);
+        assertThat(stats).contains(fooStats);
+        assertThat(stats).anySatisfy(s -> assertThat(s.endpoint).isEqualTo(BAR));
+    }
+
+    @Test
+    public void selectEmpty() {
+        final EndpointSelector selector = newSelector(new StaticEndpointGroup());
+        assertThat(catchThrowable(() -> selector.select(newContext())))
+                .isInstanceOf(EndpointGroupException.class);
+    }
+
+    private static EndpointSelector newSelector(EndpointGroup group) {
+        return EndpointSelectionStrategy.LEAST_LOADED.newSelector(group);
+    }
+
+    private static List<EndpointStats> stats(EndpointSelector selector) {
+        return ((LeastLoadedStrategy.LeastLoadedSelector) selector).stats();
+    }
+
+    private static ClientRequestContext newContext() {
+        return ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import com.linecorp.armeria.client.Endpoint;
+
+public class MaglevLookupTableTest {
+
+    private static final int NUM_KEYS = 100_000;
+
+    @Test
+    public void shouldSelectAllEndpointsEvenly() {
+        final List<Endpoint> endpoints = endpoints(10);
+        final Map<Endpoint, Integer> counts = countKeys(new MaglevLookupTable(endpoints));
+        assertThat(counts.keySet()).containsExactlyInAnyOrderElementsOf(endpoints);
+        counts.values().forEach(count -> assertThat((double) count / NUM_KEYS).isCloseTo(0.1, within(0.01)));
+    }
+
+    @Test
+    public void shouldNotDependOnOrderOfEndpoints() {
+        final List<Endpoint> endpoints = endpoints(10);
+        final MaglevLookupTable table = new MaglevLookupTable(endpoints);
+        final MaglevLookupTable reversedTable = new MaglevLookupTable(Lists.reverse(endpoints));
+        for (long key = 0; key < NUM_KEYS; key++) {
+            assertThat(reversedTable.select(key)).isEqualTo(table.select(key));
+        }
+    }
+
+    @Test
+    public void shouldMoveOnlyFewKeysOfOtherEndpointsOnRemoval() {
+        final List<Endpoint> endpoints = endpoints(10);
+        final Endpoint removed = endpoints.get(3);
+        final MaglevLookupTable oldTable = new MaglevLookupTable(endpoints);
+        final List<Endpoint> newEndpoints = new ArrayList<>(endpoints);
+        newEndpoints.remove(removed);
+        final MaglevLookupTable newTable = new MaglevLookupTable(newEndpoints);
+
+        int numMovedKeys = 0;
+        for (long key = 0; key < NUM_KEYS; key++) {
+            final Endpoint oldEndpoint = oldTable.select(key);
+            final Endpoint newEndpoint = newTable.select(key);
+            assertThat(newEndpoint).isNotEqualTo(removed);
+            if (!removed.equals(oldEndpoint) && !oldEndpoint.equals(newEndpoint)) {
+                numMovedKeys++;
+            }
+        }
+        assertThat((double) numMovedKeys / NUM_KEYS).isLessThan(0.02);
+    }
+
+    @Test
+    public void shouldRespectWeight() {
+        final Endpoint foo = Endpoint.of("foo", 8080).withWeight(100);
+        final Endpoint bar = Endpoint.of("bar", 8080).withWeight(300);
+        final Endpoint baz = Endpoint.of("baz", 8080).withWeight(0);
+        final Map<Endpoint, Integer> counts = countKeys(new MaglevLookupTable(ImmutableList.of(foo, bar, baz)));
+        assertThat(counts).doesNotContainKey(baz);
+        assertThat((double) counts.get(foo) / NUM_KEYS).isCloseTo(0.25, within(0.01));
+        assertThat((double) counts.get(bar) / NUM_KEYS).isCloseTo(0.75, within(0.01));
+    }
+
+    @Test
+    public void selectEmpty() {
+        assertThat(new MaglevLookupTable(ImmutableList.of()).select(0)).isNull();
+        assertThat(new MaglevLookupTable(ImmutableList.of(Endpoint.of("foo").withWeight(0))).select(0))
+                .isNull();
+    }
+
+    private static List<Endpoint> endpoints(int numEndpoints) {
+        final ImmutableList.Builder<Endpoint> builder = ImmutableList.builder();
+        for (int i = 0; i < numEndpoints; i++) {
+            builder.add(Endpoint.of("127.0.0.1", 8000 + i));
+        }
+        return builder.build();
+    }
+
+    private static Map<Endpoint, Integer> countKeys(MaglevLookupTable table) {
+        final Map<Endpoint, Integer> counts = new HashMap<>();
+        for (long key = 0; key < NUM_KEYS; key++) {
+            counts.merge(table.select(key), 1, Integer::sum);
+        }
+        return counts;
+    }
+}
@@ -20,8 +20,13 @@ import static com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy.WEI
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -257,6 +262,59 @@ public class WeightedRoundRobinStrategyTest {
         assertThat(selector.select(ctx)).isEqualTo(Endpoint.of("127.0.0.1", 1111).withWeight(1));
     }
 
+    @Test
+    public void slowStart() {
+        final Endpoint a = Endpoint.of("127.0.0.1", 1111).withWeight(10);
+        final Endpoint b = Endpoint.of("127.0.0.1", 2222).withWeight(10);
+        final Endpoint c = Endpoint.of("127.0.0.1", 3333).withWeight(10);
+        final AtomicLong ticker = new AtomicLong();
+        final long windowNanos = TimeUnit.SECONDS.toNanos(10);
+        final TestDynamicEndpointGroup endpointGroup = new TestDynamicEndpointGroup();
+        endpointGroup.updateEndpoints(ImmutableList.of(a, b));
+        final EndpointSelector selector =
+                new WeightedRoundRobinStrategy(windowNanos, ticker::get).newSelector(endpointGroup);
+
+        // The initial endpoints do not start slowly.
+        assertThat(countSelections(selector, 20)).containsEntry(a, 10).containsEntry(b, 10);
+
+        // A new endpoint starts from a tenth of its weight.
+        endpointGroup.updateEndpoints(ImmutableList.of(a, b, c));
+        assertThat(countSelections(selector, 21)).containsEntry(a, 10).containsEntry(b, 10)
+                                                 .containsEntry(c, 1);
+
+        // The weight does not change within a step.
+        ticker.addAndGet(windowNanos / WeightedRoundRobinStrategy.NUM_SLOW_START_STEPS - 1);
+        assertThat(countSelections(selector, 21)).containsEntry(c, 1);
+
+        ticker.addAndGet(windowNanos / 2);
+        assertThat(countSelections(selector, 26)).containsEntry(a, 10).containsEntry(b, 10)
+                                                 .containsEntry(c, 6);
+
+        // Gets the full weight after the window.
+        ticker.addAndGet(windowNanos / 2);
+        assertThat(countSelections(selector, 30)).containsEntry(a, 10).containsEntry(b, 10)
+                                                 .containsEntry(c, 10);
+
+        // An endpoint starts slowly again when it is removed and added back.
+        endpointGroup.updateEndpoints(ImmutableList.of(a, b));
+        endpointGroup.updateEndpoints(ImmutableList.of(a, b, c));
+        assertThat(countSelections(selector, 21)).containsEntry(c, 1);
+    }
+
+    @Test
+    public void slowStartWithInvalidWindow() {
+        assertThat(catchThrowable(() -> EndpointSelectionStrategy.weightedRoundRobin(Duration.ZERO)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Map<Endpoint, Integer> countSelections(EndpointSelector selector, int numSelections) {
+        final Map<Endpoint, Integer> counts = new HashMap<>();
+        for (int i = 0; i < numSelections; i++) {
+            counts.merge(selector.select(ctx), 1, Integer::sum);
+        }
+        return counts;
+    }
+
     private static final class TestDynamicEndpointGroup extends DynamicEndpointGroup {
         void updateEndpoints(List<Endpoint> endpoints) {
             setEndpoints(endpoints);
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint.healthcheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.client.ClientFactory;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.DynamicEndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+
+public class HealthCheckedEndpointGroupTest {
+
+    private static final Endpoint FOO = Endpoint.of("foo", 8080);
+    private static final Endpoint BAR = Endpoint.of("bar", 8080);
+    private static final Endpoint BAZ = Endpoint.of("baz", 8080);
+
+    private final AtomicBoolean fooHealthy = new AtomicBoolean(true);
+    private final AtomicInteger numBarChecks = new AtomicInteger();
+
+    @Test
+    public void shouldUpdateEndpointsWithoutWaitingForOtherChecks() {
+        try (TestHealthCheckedEndpointGroup group =
+                     new TestHealthCheckedEndpointGroup(new TestEndpointGroup(FOO, BAR))) {
+            assertThat(group.endpoints()).containsExactlyInAnyOrder(FOO, BAR);
+
+            // The second check of BAR never completes.
+            await().untilAsserted(() -> assertThat(numBarChecks).hasValue(2));
+            fooHealthy.set(false);
+            await().untilAsserted(() -> assertThat(group.endpoints()).containsExactly(BAR));
+            fooHealthy.set(true);
+            await().untilAsserted(() -> assertThat(group.endpoints()).containsExactlyInAnyOrder(FOO, BAR));
+            assertThat(numBarChecks).hasValue(2);
+        }
+    }
+
+    @Test
+    public void shouldCheckNewEndpoints() {
+        final TestEndpointGroup delegate = new TestEndpointGroup(FOO);
+        try (TestHealthCheckedEndpointGroup group = new TestHealthCheckedEndpointGroup(delegate)) {
+            assertThat(group.endpoints()).containsExactly(FOO);
+
+            delegate.set(FOO, BAZ);
+            await().untilAsserted(() -> assertThat(group.endpoints()).containsExactlyInAnyOrder(FOO, BAZ));
+
+            delegate.set(BAZ);
+            await().untilAsserted(() -> assertThat(group.endpoints()).containsExactly(BAZ));
+        }
+    }
+
+    private final class TestHealthCheckedEndpointGroup extends HealthCheckedEndpointGroup {
+        TestHealthCheckedEndpointGroup(EndpointGroup delegate) {
+            super(ClientFactory.DEFAULT, delegate, Duration.ofMillis(100));
+            init();
+        }
+
+        @Override
+        protected EndpointHealthChecker createEndpointHealthChecker(Endpoint endpoint) {
+            if (endpoint.equals(FOO)) {
+                return unused -> CompletableFuture.completedFuture(fooHealthy.get());
+            }
+            if (endpoint.equals(BAR)) {
+                return unused -> numBarChecks.incrementAndGet() == 1 ? CompletableFuture.completedFuture(true)
+                                                                     : new CompletableFuture<>();
+            }
+            return unused -> CompletableFuture.completedFuture(true);
+        }
+    }
+
+    private static final class TestEndpointGroup extends DynamicEndpointGroup {
+        TestEndpointGroup(Endpoint... endpoints) {
+            set(endpoints);
+        }
+
+        void set(Endpoint... endpoints) {
+            setEndpoints(ImmutableList.copyOf(endpoints));
+        }
+    }
+}
@@ -21,7 +21,9 @@ import static com.linecorp.armeria.common.SessionProtocol.HTTPS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -35,10 +37,16 @@ import com.linecorp.armeria.client.ClientFactory;
 import com.linecorp.armeria.client.ClientFactoryBuilder;
 import com.linecorp.armeria.client.Endpoint;
 import com.linecorp.armeria.client.endpoint.StaticEndpointGroup;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.SessionProtocol;
 import com.linecorp.armeria.common.metric.MoreMeters;
 import com.linecorp.armeria.common.metric.PrometheusMeterRegistries;
 import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.server.file.HttpFileBuilder;
 import com.linecorp.armeria.server.healthcheck.HttpHealthCheckService;
 import com.linecorp.armeria.testing.junit4.server.ServerRule;
 
@@ -49,6 +57,8 @@ import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 public class HttpHealthCheckedEndpointGroupTest {
 
     private static final String HEALTH_CHECK_PATH = "/healthcheck";
+    private static final String STATIC_FILE_PATH = "/static";
+    private static final String EAGER_PATH = "/eager";
 
     @Parameters(name = "{index}: protocol={0}")
     public static Collection<SessionProtocol> protocols() {
@@ -57,6 +67,9 @@ public class HttpHealthCheckedEndpointGroupTest {
 
     private static class HealthCheckServerRule extends ServerRule {
 
+        final AtomicInteger staticFileRequests = new AtomicInteger();
+        final AtomicInteger eagerRequests = new AtomicInteger();
+
         protected HealthCheckServerRule() {
             super(false); // Disable auto-start.
         }
@@ -67,13 +80,27 @@ public class HttpHealthCheckedEndpointGroupTest {
             sb.https(0);
             sb.tlsSelfSigned();
             sb.service(HEALTH_CHECK_PATH, new HttpHealthCheckService());
+            // Responds with an ETag, and with '304 Not Modified' immediately for a matching If-None-Match.
+            sb.service(STATIC_FILE_PATH, HttpFileBuilder.of(HttpData.ofUtf8("ok")).build().asService()
+                                                        .decorate((delegate, ctx, req) -> {
+                                                            staticFileRequests.incrementAndGet();
+                                                            return delegate.serve(ctx, req);
+                                                        }));
+            // Claims to support long-polling, but responds with '304 Not Modified' without waiting.
+            sb.service(EAGER_PATH, (ctx, req) -> {
+                eagerRequests.incrementAndGet();
+                final HttpStatus status = req.headers().contains(HttpHeaderNames.IF_NONE_MATCH) ?
+                                          HttpStatus.NOT_MODIFIED : HttpStatus.OK;
+                return HttpResponse.of(ResponseHeaders.of(status, HttpHeaderNames.ETAG, "\"healthy\"",
+                                                          HttpHeaderNames.PREFERENCE_APPLIED, "wait=60"));
+            });
         }
     }
 
     private final MeterRegistry registry = PrometheusMeterRegistries.newRegistry();
 
     @Rule
-    public final ServerRule serverOne = new HealthCheckServerRule();
+    public final HealthCheckServerRule serverOne = new HealthCheckServerRule();
 
     @Rule
     public final ServerRule serverTwo = new HealthCheckServerRule();
@@ -134,6 +161,77 @@ public class HttpHealthCheckedEndpointGroupTest {
         });
     }
 
+    @Test
+    public void endpoints_longPolling() throws Exception {
+        serverOne.start();
+        serverTwo.start();
+
+        final int portOne = serverOne.port(protocol);
+        final int portTwo = serverTwo.port(protocol);
+        final HealthCheckedEndpointGroup endpointGroup = new HttpHealthCheckedEndpointGroupBuilder(
+                new StaticEndpointGroup(Endpoint.of("127.0.0.1", portOne),
+                                        Endpoint.of("127.0.0.1", portTwo)),
+                HEALTH_CHECK_PATH)
+                .protocol(protocol)
+                .clientFactory(clientFactory)
+                // Should detect the change before the next retry.
+                .retryInterval(Duration.ofMinutes(1))
+                .longPollingTimeout(Duration.ofMinutes(1))
+                .build();
+        assertThat(endpointGroup.endpoints()).containsExactlyInAnyOrder(
+                Endpoint.of("127.0.0.1", portOne),
+                Endpoint.of("127.0.0.1", portTwo));
+
+        serverTwo.stop().get();
+        await().untilAsserted(() -> assertThat(endpointGroup.endpoints()).containsExactly(
+                Endpoint.of("127.0.0.1", portOne)));
+        endpointGroup.close();
+    }
+
+    @Test
+    public void endpoints_longPollingNotSupported() throws Exception {
+        serverOne.start();
+
+        final int portOne = serverOne.port(protocol);
+        final HealthCheckedEndpointGroup endpointGroup = new HttpHealthCheckedEndpointGroupBuilder(
+                new StaticEndpointGroup(Endpoint.of("127.0.0.1", portOne)), STATIC_FILE_PATH)
+                .protocol(protocol)
+                .clientFactory(clientFactory)
+                .retryInterval(Duration.ofMinutes(1))
+                .longPollingTimeout(Duration.ofMinutes(1))
+                .build();
+        assertThat(endpointGroup.endpoints()).containsExactly(Endpoint.of("127.0.0.1", portOne));
+
+        // Should wait for the retry interval rather than send the requests in a busy loop,
+        // because the ETag of a static file does not mean that the server supports long-polling.
+        Thread.sleep(1000);
+        assertThat(serverOne.staticFileRequests).hasValue(1);
+        endpointGroup.close();
+    }
+
+    @Test
+    public void endpoints_longPollingNotModifiedEarly() throws Exception {
+        serverOne.start();
+
+        final int portOne = serverOne.port(protocol);
+        final HealthCheckedEndpointGroup endpointGroup = new HttpHealthCheckedEndpointGroupBuilder(
+                new StaticEndpointGroup(Endpoint.of("127.0.0.1", portOne)), EAGER_PATH)
+                .protocol(protocol)
+                .clientFactory(clientFactory)
+                .retryInterval(Duration.ofMinutes(1))
+                .longPollingTimeout(Duration.ofMinutes(1))
+                .build();
+        assertThat(endpointGroup.endpoints()).containsExactly(Endpoint.of("127.0.0.1", portOne));
+
+        // The second request is sent immediately, but the next one should wait for the retry interval
+        // because the server responded with '304 Not Modified' well before the requested wait time.
+        await().untilAsserted(() -> assertThat(serverOne.eagerRequests).hasValue(2));
+        Thread.sleep(1000);
+        assertThat(serverOne.eagerRequests).hasValue(2);
+        assertThat(endpointGroup.endpoints()).containsExactly(Endpoint.of("127.0.0.1", portOne));
+        endpointGroup.close();
+    }
+
     @Test
     public void endpoints_withIpAndNoIp() throws Exception {
         serverOne.start();
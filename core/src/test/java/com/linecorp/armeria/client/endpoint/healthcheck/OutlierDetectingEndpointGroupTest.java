@@ -0,0 +1,194 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint.healthcheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy;
+import com.linecorp.armeria.client.endpoint.EndpointSelector;
+import com.linecorp.armeria.client.endpoint.StaticEndpointGroup;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.common.metric.PrometheusMeterRegistries;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+public class OutlierDetectingEndpointGroupTest {
+
+    private static final Endpoint FOO = Endpoint.of("foo", 8080);
+    private static final Endpoint BAR = Endpoint.of("bar", 8080);
+    private static final Endpoint BAZ = Endpoint.of("baz", 8080);
+
+    private final AtomicLong ticker = new AtomicLong();
+    private OutlierDetectingEndpointGroup group;
+
+    @After
+    public void tearDown() {
+        if (group != null) {
+            group.close();
+        }
+    }
+
+    @Test
+    public void ejectOnConsecutiveFailures() {
+        group = newGroupBuilder().consecutiveFailures(3).build();
+        final MeterRegistry registry = PrometheusMeterRegistries.newRegistry();
+        group.newMeterBinder("foo").bindTo(registry);
+
+        group.record(FOO, failure());
+        group.record(FOO, failure());
+        group.record(FOO, success());
+        group.record(FOO, failure());
+        group.record(FOO, failure());
+        assertThat(group.endpoints()).containsExactlyInAnyOrder(FOO, BAR, BAZ);
+
+        group.record(FOO, failure());
+        assertThat(group.endpoints()).containsExactlyInAnyOrder(BAR, BAZ);
+        assertThat(MoreMeters.measureAll(registry))
+                .containsEntry("armeria.client.endpointGroup.outlier.ejected#value{name=foo}", 1.0)
+                .containsEntry("armeria.client.endpointGroup.outlier.ejections#count{name=foo}", 1.0);
+
+        // Added back after the base ejection time.
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        group.checkOutliers();
+        assertThat(group.endpoints()).containsExactlyInAnyOrder(FOO, BAR, BAZ);
+        assertThat(group.numEjectedEndpoints()).isZero();
+
+        // Ejected for twice longer when ejected again.
+        for (int i = 0; i < 3; i++) {
+            group.record(FOO, failure());
+        }
+        assertThat(group.endpoints()).containsExactlyInAnyOrder(BAR, BAZ);
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        group.checkOutliers();
+        assertThat(group.endpoints()).containsExactlyInAnyOrder(BAR, BAZ);
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        group.checkOutliers();
+        assertThat(group.endpoints()).containsExactlyInAnyOrder(FOO, BAR, BAZ);
+        assertThat(group.numEjections()).isEqualTo(2);
+    }
+
+    @Test
+    public void ejectOnFailureRate() {
+        group = newGroupBuilder().consecutiveFailures(3).minimumRequests(10).failureRateThreshold(0.5).build();
+        for (int i = 0; i < 5; i++) {
+            group.record(BAR, success());
+            group.record(BAR, failure());
+            group.record(BAZ, success());
+        }
+        assertThat(group.endpoints()).containsExactlyInAnyOrder(FOO, BAR, BAZ);
+
+        group.checkOutliers();
+        assertThat(group.endpoints()).containsExactlyInAnyOrder(FOO, BAZ);
+    }
+
+    @Test
+    public void shouldNotEjectMoreThanMaxEjectionPercent() {
+        group = newGroupBuilder().consecutiveFailures(1).maxEjectionPercent(50).build();
+        group.record(FOO, failure());
+        group.record(BAR, failure());
+        assertThat(group.endpoints()).containsExactlyInAnyOrder(BAR, BAZ);
+        assertThat(group.numEjectedEndpoints()).isOne();
+    }
+
+    @Test
+    public void shouldNotEjectLastAvailableEndpoint() {
+        group = newGroupBuilder().consecutiveFailures(1).build();
+        group.record(FOO, failure());
+        group.record(BAR, failure());
+        assertThat(group.endpoints()).containsExactly(BAZ);
+
+        group.record(BAZ, failure());
+        assertThat(group.endpoints()).containsExactly(BAZ);
+        assertThat(group.numEjectedEndpoints()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldNotEjectOnlyEndpoint() {
+        group = newGroupBuilder(new StaticEndpointGroup(FOO)).consecutiveFailures(1).build();
+        for (int i = 0; i < 3; i++) {
+            group.record(FOO, failure());
+        }
+        group.checkOutliers();
+        assertThat(group.endpoints()).containsExactly(FOO);
+        assertThat(group.numEjectedEndpoints()).isZero();
+        assertThat(group.numEjections()).isZero();
+    }
+
+    @Test
+    public void recordResultsOfSelectedEndpoints() {
+        group = newGroupBuilder().consecutiveFailures(1).build();
+        final EndpointSelector selector =
+                group.newSelectionStrategy(EndpointSelectionStrategy.ROUND_ROBIN).newSelector(group);
+
+        final ClientRequestContext ctx = ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+        final Endpoint selected = selector.select(ctx);
+        assertThat(group.endpoints()).contains(selected);
+
+        ctx.logBuilder().endRequest();
+        ctx.logBuilder().responseHeaders(ResponseHeaders.of(HttpStatus.SERVICE_UNAVAILABLE));
+        ctx.logBuilder().endResponse();
+        assertThat(group.endpoints()).hasSize(2).doesNotContain(selected);
+    }
+
+    private OutlierDetectingEndpointGroupBuilder newGroupBuilder() {
+        return newGroupBuilder(new StaticEndpointGroup(FOO, BAR, BAZ));
+    }
+
+    private OutlierDetectingEndpointGroupBuilder newGroupBuilder(EndpointGroup delegate) {
+        return new OutlierDetectingEndpointGroupBuilder(delegate)
+                .ticker(ticker::get)
+                // Check the outliers manually.
+                .interval(Duration.ofDays(1))
+                .baseEjectionTime(Duration.ofSeconds(10))
+                .maxEjectionTime(Duration.ofMinutes(1))
+                .maxEjectionPercent(100);
+    }
+
+    private static RequestLog success() {
+        return newLog(null);
+    }
+
+    private static RequestLog failure() {
+        return newLog(new RuntimeException());
+    }
+
+    private static RequestLog newLog(Throwable responseCause) {
+        final ClientRequestContext ctx = ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+        ctx.logBuilder().endRequest();
+        ctx.logBuilder().responseHeaders(ResponseHeaders.of(HttpStatus.OK));
+        if (responseCause != null) {
+            ctx.logBuilder().endResponse(responseCause);
+        } else {
+            ctx.logBuilder().endResponse();
+        }
+        return ctx.log();
+    }
+}
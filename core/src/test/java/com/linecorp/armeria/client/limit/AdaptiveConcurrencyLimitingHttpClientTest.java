@@ -0,0 +1,336 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.client.Client;
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.ClientRequestContextBuilder;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.ResponseTimeoutException;
+import com.linecorp.armeria.client.endpoint.EndpointGroupRegistry;
+import com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy;
+import com.linecorp.armeria.client.endpoint.StaticEndpointGroup;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpResponseWriter;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.stream.NoopSubscriber;
+import com.linecorp.armeria.internal.ClientUtil;
+import com.linecorp.armeria.testing.junit.common.EventLoopExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveConcurrencyLimitingHttpClientTest {
+
+    @RegisterExtension
+    static final EventLoopExtension eventLoop = new EventLoopExtension();
+
+    private static final Endpoint FOO = Endpoint.of("foo.com");
+    private static final Endpoint BAR = Endpoint.of("bar.com");
+
+    @Test
+    void shouldDeferAboveLimit() throws Exception {
+        final ClientRequestContext ctx1 = newContext(FOO);
+        final ClientRequestContext ctx2 = newContext(FOO);
+        final HttpRequest req1 = mock(HttpRequest.class);
+        final HttpRequest req2 = mock(HttpRequest.class);
+        final HttpResponseWriter actualRes1 = HttpResponse.streaming();
+        final HttpResponseWriter actualRes2 = HttpResponse.streaming();
+
+        @SuppressWarnings("unchecked")
+        final Client<HttpRequest, HttpResponse> delegate = mock(Client.class);
+        when(delegate.execute(ctx1, req1)).thenReturn(actualRes1);
+        when(delegate.execute(ctx2, req2)).thenReturn(actualRes2);
+
+        final AdaptiveConcurrencyLimitingHttpClient client = newClient(1, delegate);
+
+        // The first request should be delegated immediately.
+        final HttpResponse res1 = client.execute(ctx1, req1);
+        verify(delegate).execute(ctx1, req1);
+        assertThat(client.limit(FOO)).isEqualTo(1);
+        assertThat(client.numActiveRequests(FOO)).isEqualTo(1);
+
+        // The second request should never be delegated until the first response is closed.
+        final HttpResponse res2 = client.execute(ctx2, req2);
+        verify(delegate, never()).execute(ctx2, req2);
+        assertThat(res2.isOpen()).isTrue();
+        assertThat(client.numPendingRequests(FOO)).isEqualTo(1);
+
+        closeAndDrain(actualRes1, res1);
+        await().untilAsserted(() -> verify(delegate).execute(ctx2, req2));
+        assertThat(client.numActiveRequests(FOO)).isEqualTo(1);
+        assertThat(client.numPendingRequests(FOO)).isZero();
+
+        closeAndDrain(actualRes2, res2);
+        await().untilAsserted(() -> assertThat(client.numActiveRequests(FOO)).isZero());
+    }
+
+    @Test
+    void shouldLimitForEachEndpoint() throws Exception {
+        final ClientRequestContext ctx1 = newContext(FOO);
+        final ClientRequestContext ctx2 = newContext(BAR);
+        final HttpRequest req = mock(HttpRequest.class);
+
+        @SuppressWarnings("unchecked")
+        final Client<HttpRequest, HttpResponse> delegate = mock(Client.class);
+        when(delegate.execute(any(), any())).thenAnswer(invocation -> HttpResponse.streaming());
+
+        final AdaptiveConcurrencyLimitingHttpClient client = newClient(1, delegate);
+        client.execute(ctx1, req);
+        client.execute(ctx2, req);
+        verify(delegate).execute(ctx1, req);
+        verify(delegate).execute(ctx2, req);
+        assertThat(client.numActiveRequests(FOO)).isEqualTo(1);
+        assertThat(client.numActiveRequests(BAR)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLimitForEachHostOfGroup() throws Exception {
+        final String groupName = "adaptiveConcurrencyLimiting";
+        EndpointGroupRegistry.register(groupName, new StaticEndpointGroup(FOO, BAR),
+                                       EndpointSelectionStrategy.ROUND_ROBIN);
+        try {
+            final ClientRequestContext ctx1 = newContext(Endpoint.ofGroup(groupName));
+            final ClientRequestContext ctx2 = newContext(Endpoint.ofGroup(groupName));
+            final HttpRequest req = mock(HttpRequest.class);
+
+            @SuppressWarnings("unchecked")
+            final Client<HttpRequest, HttpResponse> delegate = mock(Client.class);
+            when(delegate.execute(any(), any())).thenAnswer(invocation -> HttpResponse.streaming());
+
+            final AdaptiveConcurrencyLimitingHttpClient client = newClient(1, delegate);
+            client.execute(ctx1, req);
+            client.execute(ctx2, req);
+            verify(delegate).execute(ctx1, req);
+            verify(delegate).execute(ctx2, req);
+            assertThat(client.numActiveRequests(FOO)).isEqualTo(1);
+            assertThat(client.numActiveRequests(BAR)).isEqualTo(1);
+
+            // The request should be sent to the host the limiter was applied for.
+            assertThat(ClientUtil.selectEndpoint(ctx1)).isEqualTo(FOO);
+            assertThat(ClientUtil.selectEndpoint(ctx2)).isEqualTo(BAR);
+        } finally {
+            EndpointGroupRegistry.unregister(groupName);
+        }
+    }
+
+    @Test
+    void shouldRejectTooManyPendingRequests() throws Exception {
+        final HttpRequest req = mock(HttpRequest.class);
+
+        @SuppressWarnings("unchecked")
+        final Client<HttpRequest, HttpResponse> delegate = mock(Client.class);
+        when(delegate.execute(any(), any())).thenAnswer(invocation -> HttpResponse.streaming());
+
+        final AdaptiveConcurrencyLimitingHttpClient client =
+                new AdaptiveConcurrencyLimitingHttpClientBuilder().initialLimit(1)
+                                                                  .minLimit(1)
+                                                                  .maxLimit(1)
+                                                                  .maxPendingRequests(1)
+                                                                  .build(delegate);
+        client.execute(newContext(FOO), req);
+        final HttpResponse res2 = client.execute(newContext(FOO), req);
+        final HttpResponse res3 = client.execute(newContext(FOO), req);
+        assertThat(res2.isOpen()).isTrue();
+        res3.subscribe(NoopSubscriber.get());
+        assertThatThrownBy(() -> res3.completionFuture().join())
+                .hasCauseInstanceOf(TooManyPendingRequestsException.class);
+        assertThat(client.numPendingRequests(FOO)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRemovePendingRequestOnTimeout() throws Exception {
+        final HttpRequest req = mock(HttpRequest.class);
+
+        @SuppressWarnings("unchecked")
+        final Client<HttpRequest, HttpResponse> delegate = mock(Client.class);
+        when(delegate.execute(any(), any())).thenAnswer(invocation -> HttpResponse.streaming());
+
+        final AdaptiveConcurrencyLimitingHttpClient client =
+                new AdaptiveConcurrencyLimitingHttpClientBuilder().initialLimit(1)
+                                                                  .minLimit(1)
+                                                                  .maxLimit(1)
+                                                                  .timeoutMillis(100)
+                                                                  .build(delegate);
+        client.execute(newContext(FOO), req);
+        final HttpResponse res2 = client.execute(newContext(FOO), req);
+        res2.subscribe(NoopSubscriber.get());
+        assertThatThrownBy(() -> res2.completionFuture().join())
+                .hasCauseInstanceOf(ResponseTimeoutException.class);
+        assertThat(client.numPendingRequests(FOO)).isZero();
+        assertThat(client.numActiveRequests(FOO)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldExecutePendingRequestAfterTimeout() throws Exception {
+        final HttpRequest req = mock(HttpRequest.class);
+        final HttpResponseWriter actualRes1 = HttpResponse.streaming();
+
+        @SuppressWarnings("unchecked")
+        final Client<HttpRequest, HttpResponse> delegate = mock(Client.class);
+        when(delegate.execute(any(), any())).thenReturn(actualRes1)
+                                            .thenAnswer(invocation -> HttpResponse.streaming());
+
+        final AdaptiveConcurrencyLimitingHttpClient client =
+                new AdaptiveConcurrencyLimitingHttpClientBuilder().initialLimit(1)
+                                                                  .minLimit(1)
+                                                                  .maxLimit(1)
+                                                                  .timeoutMillis(100)
+                                                                  .build(delegate);
+        final HttpResponse res1 = client.execute(newContext(FOO), req);
+        final HttpResponse res2 = client.execute(newContext(FOO), req);
+        res2.subscribe(NoopSubscriber.get());
+        assertThatThrownBy(() -> res2.completionFuture().join())
+                .hasCauseInstanceOf(ResponseTimeoutException.class);
+
+        // A request deferred after the timeout should be executed once the permit is released.
+        final ClientRequestContext ctx3 = newContext(FOO);
+        client.execute(ctx3, req);
+        assertThat(client.numPendingRequests(FOO)).isEqualTo(1);
+        closeAndDrain(actualRes1, res1);
+        await().untilAsserted(() -> verify(delegate).execute(ctx3, req));
+        assertThat(client.numPendingRequests(FOO)).isZero();
+    }
+
+    @Test
+    void shouldRemoveIdleLimiterAndMeters() throws Exception {
+        final HttpRequest req = mock(HttpRequest.class);
+        final AtomicLong ticker = new AtomicLong();
+        final MeterRegistry registry = new SimpleMeterRegistry();
+
+        @SuppressWarnings("unchecked")
+        final Client<HttpRequest, HttpResponse> delegate = mock(Client.class);
+        when(delegate.execute(any(), any())).thenAnswer(invocation -> HttpResponse.streaming());
+
+        final AdaptiveConcurrencyLimitingHttpClient client =
+                new AdaptiveConcurrencyLimitingHttpClientBuilder()
+                        .idleTimeoutMillis(1000)
+                        .meterIdPrefix(new MeterIdPrefix("foo"))
+                        .ticker(ticker::get)
+                        .build(delegate);
+        client.execute(newContext(FOO, registry), req);
+        assertThat(client.numActiveRequests(FOO)).isEqualTo(1);
+        assertThat(registry.find("foo.limit").tags("endpoint", "foo.com").gauge()).isNotNull();
+
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(client.limit(FOO)).isEqualTo(-1);
+
+        // A new request to another endpoint triggers the clean-up of the idle limiter.
+        client.execute(newContext(BAR, registry), req);
+        await().untilAsserted(
+                () -> assertThat(registry.find("foo.limit").tags("endpoint", "foo.com").gauge()).isNull());
+        assertThat(registry.find("foo.limit").tags("endpoint", "bar.com").gauge()).isNotNull();
+
+        // The limiter is created again with its meters.
+        client.execute(newContext(FOO, registry), req);
+        assertThat(client.numActiveRequests(FOO)).isEqualTo(1);
+        assertThat(registry.find("foo.activeRequests").tags("endpoint", "foo.com").gauge().value())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldBackOffOnFailure() throws Exception {
+        final HttpRequest req = mock(HttpRequest.class);
+
+        @SuppressWarnings("unchecked")
+        final Client<HttpRequest, HttpResponse> delegate = mock(Client.class);
+        when(delegate.execute(any(), any())).thenAnswer(invocation -> {
+            final HttpResponseWriter res = HttpResponse.streaming();
+            res.close(new IllegalStateException());
+            return res;
+        });
+
+        final AdaptiveConcurrencyLimitingHttpClient client =
+                new AdaptiveConcurrencyLimitingHttpClientBuilder().initialLimit(10)
+                                                                  .windowMillis(0)
+                                                                  .minWindowSamples(1)
+                                                                  .build(delegate);
+        for (int i = 0; i < 5; i++) {
+            final HttpResponse res = client.execute(newContext(FOO), req);
+            res.subscribe(NoopSubscriber.get());
+            res.completionFuture().handle((unused, cause) -> null).join();
+            waitForEventLoop();
+        }
+        assertThat(client.limit(FOO)).isLessThan(10);
+        assertThat(client.numActiveRequests(FOO)).isZero();
+    }
+
+    @Test
+    void invalidLimits() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimitingHttpClientBuilder().minLimit(10)
+                                                                                   .maxLimit(5)
+                                                                                   .newDecorator())
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimitingHttpClientBuilder().initialLimit(300)
+                                                                                   .newDecorator())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static AdaptiveConcurrencyLimitingHttpClient newClient(
+            int limit, Client<HttpRequest, HttpResponse> delegate) {
+        return new AdaptiveConcurrencyLimitingHttpClientBuilder().initialLimit(limit)
+                                                                 .minLimit(limit)
+                                                                 .maxLimit(limit)
+                                                                 .build(delegate);
+    }
+
+    private static ClientRequestContext newContext(Endpoint endpoint) {
+        return ClientRequestContextBuilder.of(HttpRequest.of(HttpMethod.GET, "/"))
+                                          .endpoint(endpoint)
+                                          .eventLoop(eventLoop.get())
+                                          .build();
+    }
+
+    private static ClientRequestContext newContext(Endpoint endpoint, MeterRegistry registry) {
+        return ClientRequestContextBuilder.of(HttpRequest.of(HttpMethod.GET, "/"))
+                                          .endpoint(endpoint)
+                                          .eventLoop(eventLoop.get())
+                                          .meterRegistry(registry)
+                                          .build();
+    }
+
+    /**
+     * Closes the response returned by the delegate and consumes everything from it, so that its close future
+     * is completed.
+     */
+    private static void closeAndDrain(HttpResponseWriter actualRes, HttpResponse deferredRes) {
+        actualRes.close();
+        deferredRes.subscribe(NoopSubscriber.get());
+        deferredRes.completionFuture().join();
+        waitForEventLoop();
+    }
+
+    private static void waitForEventLoop() {
+        eventLoop.get().submit(() -> { /* no-op */ }).syncUninterruptibly();
+    }
+}
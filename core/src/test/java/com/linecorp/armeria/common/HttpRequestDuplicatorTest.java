@@ -20,11 +20,21 @@ import static com.linecorp.armeria.common.HttpHeaderNames.CONTENT_LENGTH;
 import static com.linecorp.armeria.common.HttpHeaderNames.CONTENT_MD5;
 import static com.linecorp.armeria.common.MediaType.PLAIN_TEXT_UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 import java.nio.charset.StandardCharsets;
 
 import org.junit.jupiter.api.Test;
 
+import com.google.common.base.Strings;
+
+import com.linecorp.armeria.unsafe.ByteBufHttpData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
 public class HttpRequestDuplicatorTest {
 
     @Test
@@ -56,4 +66,59 @@ public class HttpRequestDuplicatorTest {
                 HttpHeaders.of(CONTENT_MD5, "37b51d194a7513e45b56f6524f2d51f2"));
         reqDuplicator.close();
     }
+
+    @Test
+    void spillToFile() {
+        final HttpRequestWriter publisher = HttpRequest.streaming(HttpMethod.POST, "/foo");
+        final HttpRequestDuplicator reqDuplicator =
+                new HttpRequestDuplicator(publisher, 0, ImmediateEventExecutor.INSTANCE, 16);
+
+        final String chunk = Strings.repeat("a", 10);
+        final ByteBuf inMemory = PooledByteBufAllocator.DEFAULT.buffer().writeBytes(chunk.getBytes());
+        final ByteBuf spilled = PooledByteBufAllocator.DEFAULT.buffer().writeBytes(chunk.getBytes());
+        publisher.write(new ByteBufHttpData(inMemory, false));
+        publisher.write(new ByteBufHttpData(spilled, false));
+        publisher.write(HttpData.ofUtf8("bcd"));
+        publisher.close();
+
+        final AggregatedHttpRequest req1 = reqDuplicator.duplicateStream().aggregate().join();
+        // The first chunk fits in memory, and the others are written into the spill file and released.
+        assertThat(inMemory.refCnt()).isOne();
+        assertThat(spilled.refCnt()).isZero();
+
+        final AggregatedHttpRequest req2 =
+                reqDuplicator.duplicateStream(true)
+                             .aggregateWithPooledObjects(PooledByteBufAllocator.DEFAULT).join();
+        assertThat(req1.contentUtf8()).isEqualTo(chunk + chunk + "bcd");
+        assertThat(req2.contentUtf8()).isEqualTo(chunk + chunk + "bcd");
+        ((ByteBufHttpData) req2.content()).release();
+
+        // The signals are cleared by the thread which delivered the last signal, which may be
+        // the blocking task executor that read the spill file.
+        await().untilAsserted(() -> assertThat(inMemory.refCnt()).isZero());
+    }
+
+    @Test
+    void spillToFileWithEventLoop() {
+        final EventExecutor eventLoop = CommonPools.workerGroup().next();
+        final HttpRequestWriter publisher = HttpRequest.streaming(HttpMethod.POST, "/foo");
+        final HttpRequestDuplicator reqDuplicator =
+                new HttpRequestDuplicator(publisher, 0, eventLoop, 16);
+
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            final String chunk = Strings.repeat(String.valueOf(i % 10), 10);
+            expected.append(chunk);
+            publisher.write(HttpData.ofUtf8(chunk));
+        }
+        publisher.close();
+
+        final AggregatedHttpRequest req1 = reqDuplicator.duplicateStream().aggregate(eventLoop).join();
+        final AggregatedHttpRequest req2 =
+                reqDuplicator.duplicateStream(true)
+                             .aggregateWithPooledObjects(eventLoop, PooledByteBufAllocator.DEFAULT).join();
+        assertThat(req1.contentUtf8()).isEqualTo(expected.toString());
+        assertThat(req2.contentUtf8()).isEqualTo(expected.toString());
+        ((ByteBufHttpData) req2.content()).release();
+    }
 }
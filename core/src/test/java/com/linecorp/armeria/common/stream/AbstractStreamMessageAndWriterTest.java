@@ -155,4 +155,17 @@ public abstract class AbstractStreamMessageAndWriterTest extends AbstractStreamM
         assertThatThrownBy(() -> stream.write(() -> data)).isInstanceOf(ClosedPublisherException.class);
         assertThat(data.refCnt()).isZero();
     }
+
+    @Test
+    public void releaseWhenWritingAllToClosedStream() {
+        final StreamMessageAndWriter<Object> stream = newStreamWriter(ImmutableList.of());
+        final ByteBuf buf = PooledByteBufAllocator.DEFAULT.buffer();
+        final ByteBufHttpData data = new ByteBufHttpData(newPooledBuffer(), true);
+        stream.close();
+
+        await().untilAsserted(() -> assertThat(stream.isOpen()).isFalse());
+        assertThat(stream.tryWriteAll(ImmutableList.of(buf, data))).isFalse();
+        assertThat(buf.refCnt()).isZero();
+        assertThat(data.refCnt()).isZero();
+    }
 }
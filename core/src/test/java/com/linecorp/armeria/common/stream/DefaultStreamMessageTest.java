@@ -16,12 +16,72 @@
 
 package com.linecorp.armeria.common.stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
 import java.util.List;
 
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+
+import com.google.common.collect.ImmutableList;
+
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
 public class DefaultStreamMessageTest extends AbstractStreamMessageAndWriterTest {
 
     @Override
     <T> StreamMessageAndWriter<T> newStreamWriter(List<T> unused) {
         return new DefaultStreamMessage<>();
     }
+
+    @Test
+    public void batchSubscriber() {
+        final DefaultStreamMessage<Integer> stream = new DefaultStreamMessage<>();
+        assertThat(stream.tryWriteAll(ImmutableList.of(1, 2, 3))).isTrue();
+
+        final List<List<Integer>> batches = new ArrayList<>();
+        final List<String> events = new ArrayList<>();
+        stream.subscribe(new BatchSubscriber<Integer>() {
+            private Subscription subscription;
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription = s;
+                s.request(1);
+            }
+
+            @Override
+            public void onNextBatch(List<Integer> elements) {
+                batches.add(ImmutableList.copyOf(elements));
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Integer value) {
+                events.add("onNext");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("onError");
+            }
+
+            @Override
+            public void onComplete() {
+                events.add("onComplete");
+            }
+        }, ImmediateEventExecutor.INSTANCE);
+
+        // All the queued elements are published in a batch, consuming one demand.
+        assertThat(batches).containsExactly(ImmutableList.of(1, 2, 3));
+
+        stream.write(4);
+        assertThat(stream.tryWriteAll(ImmutableList.of(5, 6))).isTrue();
+        stream.close();
+        assertThat(batches).containsExactly(ImmutableList.of(1, 2, 3),
+                                            ImmutableList.of(4),
+                                            ImmutableList.of(5, 6));
+        assertThat(events).containsExactly("onComplete");
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicLong ticker = new AtomicLong();
+    private AdaptiveConcurrencyLimit limit;
+
+    @BeforeEach
+    void setUp() {
+        limit = new AdaptiveConcurrencyLimit(20, 5, 100, 0.2, 1.5, WINDOW_NANOS, 1, ticker::get);
+    }
+
+    @Test
+    void shouldRejectAboveLimit() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.inFlight()).isEqualTo(20);
+
+        limit.release();
+        assertThat(limit.inFlight()).isEqualTo(19);
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void shouldAdaptToLatency() {
+        // Establish the long-term latency.
+        runWindow(LATENCY_NANOS, false);
+        assertThat(limit.limit()).isGreaterThanOrEqualTo(20);
+
+        // The limit should decrease while the latency is high.
+        int lastLimit = limit.limit();
+        for (int i = 0; i < 10; i++) {
+            runWindow(LATENCY_NANOS * 4, false);
+            assertThat(limit.limit()).isLessThanOrEqualTo(lastLimit);
+            lastLimit = limit.limit();
+        }
+        assertThat(lastLimit).isLessThan(20);
+
+        // The limit should increase once the latency goes back to normal.
+        for (int i = 0; i < 50; i++) {
+            runWindow(LATENCY_NANOS, false);
+        }
+        assertThat(limit.limit()).isGreaterThan(lastLimit);
+    }
+
+    @Test
+    void shouldBackOffWhenDropped() {
+        runWindow(LATENCY_NANOS, false);
+        final int limitBeforeDrop = limit.limit();
+        runWindow(LATENCY_NANOS, true);
+        assertThat(limit.limit()).isLessThan(limitBeforeDrop);
+
+        for (int i = 0; i < 100; i++) {
+            runWindow(LATENCY_NANOS, true);
+        }
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldNotChangeWhenLoadIsLow() {
+        runWindow(LATENCY_NANOS, false);
+        final int initialLimit = limit.limit();
+        for (int i = 0; i < 10; i++) {
+            // Only one request at a time.
+            assertThat(limit.tryAcquire()).isTrue();
+            ticker.addAndGet(WINDOW_NANOS);
+            limit.release(LATENCY_NANOS * 4, false);
+        }
+        assertThat(limit.limit()).isEqualTo(initialLimit);
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(1, 2, 3, 0.2, 1.5, 0, 1, ticker::get))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(2, 3, 2, 0.2, 1.5, 0, 1, ticker::get))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(2, 1, 3, 0, 1.5, 0, 1, ticker::get))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(2, 1, 3, 0.2, 0.5, 0, 1, ticker::get))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Sends as many requests as the current limit allows and completes them in a window.
+     */
+    private void runWindow(long latencyNanos, boolean dropLast) {
+        int acquired = 0;
+        while (limit.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired - 1; i++) {
+            limit.release(latencyNanos, false);
+        }
+        // Close the window with the last sample.
+        ticker.addAndGet(WINDOW_NANOS);
+        limit.release(latencyNanos, dropLast);
+        assertThat(limit.inFlight()).isZero();
+    }
+}
@@ -346,6 +346,41 @@ public class ArmeriaHttpUtilTest {
         assertThat(out.get(HttpHeaderNames.of("hello"))).isEqualTo("world");
     }
 
+    @Test
+    public void toHttp2HeadersInPlace() {
+        final HttpHeadersBuilder headers = HttpHeaders.builder();
+        headers.add(HttpHeaderNames.CONNECTION, "foo, keep-alive");
+        headers.add("foo", "bar");
+        headers.add(HttpHeaderNames.HOST, "example.com");
+        headers.add(HttpHeaderNames.TRANSFER_ENCODING, "chunked");
+        headers.add(HttpHeaderNames.TE, "gzip, trailers");
+        headers.add(HttpHeaderNames.COOKIE, "a=b;c=d");
+        headers.add(HttpHeaderNames.COOKIE, "e=f");
+        headers.add("hello", "world");
+
+        ArmeriaHttpUtil.toHttp2Headers(headers);
+        assertThat(headers.build()).isEqualTo(HttpHeaders.of(HttpHeaderNames.of("hello"), "world",
+                                                             HttpHeaderNames.TE, "trailers",
+                                                             HttpHeaderNames.COOKIE, "a=b; c=d; e=f"));
+    }
+
+    @Test
+    public void simpleOriginForm() {
+        assertThat(ArmeriaHttpUtil.isSimpleOriginForm("/")).isTrue();
+        assertThat(ArmeriaHttpUtil.isSimpleOriginForm("/foo/bar?a=b&c=d,e")).isTrue();
+        assertThat(ArmeriaHttpUtil.isSimpleOriginForm("/a:b@c;d=e~f!g'(h)*+$")).isTrue();
+
+        assertThat(ArmeriaHttpUtil.isSimpleOriginForm("")).isFalse();
+        assertThat(ArmeriaHttpUtil.isSimpleOriginForm("*")).isFalse();
+        assertThat(ArmeriaHttpUtil.isSimpleOriginForm("//foo")).isFalse();
+        assertThat(ArmeriaHttpUtil.isSimpleOriginForm("/foo?")).isFalse();
+        assertThat(ArmeriaHttpUtil.isSimpleOriginForm("/foo#bar")).isFalse();
+        assertThat(ArmeriaHttpUtil.isSimpleOriginForm("/foo%20bar")).isFalse();
+        assertThat(ArmeriaHttpUtil.isSimpleOriginForm("/foo bar")).isFalse();
+        assertThat(ArmeriaHttpUtil.isSimpleOriginForm("/[foo]")).isFalse();
+        assertThat(ArmeriaHttpUtil.isSimpleOriginForm("http://example.com/")).isFalse();
+    }
+
     @Test
     public void excludeBlacklistHeadersWhileHttp2ToHttp1() throws Http2Exception {
         final HttpHeaders in = HttpHeaders.builder()
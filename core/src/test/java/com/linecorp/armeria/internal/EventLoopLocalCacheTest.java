@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.metric.MoreMeters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+class EventLoopLocalCacheTest {
+
+    private static final ExecutorService executor =
+            Executors.newSingleThreadExecutor(new DefaultThreadFactory("event-loop-local-cache-test"));
+
+    @AfterAll
+    static void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void maximumSize() {
+        assertThat(EventLoopLocalCache.maximumSize("maximumSize=100")).isEqualTo(100);
+        assertThat(EventLoopLocalCache.maximumSize("expireAfterAccess=10m, maximumSize=200")).isEqualTo(200);
+        assertThat(EventLoopLocalCache.maximumSize("expireAfterAccess=10m")).isEqualTo(4096);
+    }
+
+    @Test
+    void shouldCacheOnlyInFastThreadLocalThread() throws Exception {
+        final EventLoopLocalCache<String, String> cache = new EventLoopLocalCache<>(16);
+
+        // Not an event loop thread.
+        cache.put("foo", "bar");
+        assertThat(cache.getIfPresent("foo")).isNull();
+        assertThat(cache.keys()).isEmpty();
+
+        executor.submit(() -> {
+            assertThat(cache.getIfPresent("foo")).isNull();
+            cache.put("foo", "bar");
+            assertThat(cache.getIfPresent("foo")).isEqualTo("bar");
+            cache.put("foo", "baz");
+            assertThat(cache.getIfPresent("foo")).isEqualTo("baz");
+        }).get(10, TimeUnit.SECONDS);
+
+        assertThat(cache.keys()).containsExactly("foo");
+        cache.clear();
+        assertThat(cache.keys()).isEmpty();
+    }
+
+    @Test
+    void shouldEvictUnreferencedEntry() throws Exception {
+        // All keys have the same hash code, so they compete for the same 8 slots.
+        final EventLoopLocalCache<CollidingKey, Integer> cache = new EventLoopLocalCache<>(8);
+        executor.submit(() -> {
+            for (int i = 0; i < 8; i++) {
+                cache.put(new CollidingKey(i), i);
+            }
+            // Reference all entries except the key 3.
+            for (int i = 0; i < 8; i++) {
+                if (i != 3) {
+                    assertThat(cache.getIfPresent(new CollidingKey(i))).isEqualTo(i);
+                }
+            }
+
+            cache.put(new CollidingKey(8), 8);
+            assertThat(cache.getIfPresent(new CollidingKey(3))).isNull();
+            assertThat(cache.getIfPresent(new CollidingKey(8))).isEqualTo(8);
+        }).get(10, TimeUnit.SECONDS);
+
+        assertThat(cache.keys()).hasSize(8);
+
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        cache.registerMetrics(registry, new MeterIdPrefix("cache"));
+        assertThat(MoreMeters.measureAll(registry))
+                .containsEntry("cache.requests#count{result=hit}", 8.0)
+                .containsEntry("cache.requests#count{result=miss}", 1.0)
+                .containsEntry("cache.evictions#count", 1.0)
+                .containsEntry("cache.estimatedSize#value", 8.0);
+    }
+
+    @Test
+    void shouldDropTableWhenThreadTerminates() throws Exception {
+        final EventLoopLocalCache<String, String> cache = new EventLoopLocalCache<>(16);
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        cache.registerMetrics(registry, new MeterIdPrefix("cache"));
+
+        final Thread thread = new DefaultThreadFactory("event-loop-local-cache-test-short-lived").newThread(
+                () -> {
+                    cache.put("foo", "bar");
+                    assertThat(cache.getIfPresent("foo")).isEqualTo("bar");
+                    assertThat(cache.numTables()).isOne();
+                });
+        thread.start();
+        thread.join(10000);
+
+        assertThat(thread.isAlive()).isFalse();
+        assertThat(cache.numTables()).isZero();
+        assertThat(cache.keys()).isEmpty();
+        // The counts of the dropped table are kept.
+        assertThat(MoreMeters.measureAll(registry))
+                .containsEntry("cache.requests#count{result=hit}", 1.0)
+                .containsEntry("cache.estimatedSize#value", 0.0);
+    }
+
+    private static final class CollidingKey {
+        private final int value;
+
+        CollidingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CollidingKey && ((CollidingKey) obj).value == value;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.FileRegion;
+
+class FileRegionHttpDataTest {
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("armeria", ".txt");
+        Files.write(file, "0123456789".getBytes(US_ASCII));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void mapOnContent() throws IOException {
+        final FileChannel channel = open();
+        final FileRegionHttpData data = new FileRegionHttpData(new SharedFileChannel(channel), 2, 5, true);
+        assertThat(data.length()).isEqualTo(5);
+        assertThat(data.isEndOfStream()).isTrue();
+        data.retain();
+
+        final ByteBuf buf = data.content();
+        assertThat(buf.isDirect()).isTrue();
+        assertThat(data.toStringAscii()).isEqualTo("23456");
+        assertThat(data.array()).containsExactly("23456".getBytes(US_ASCII));
+
+        // The reference count should be transferred to the mapped buffer.
+        assertThat(channel.isOpen()).isFalse();
+        assertThat(data.refCnt()).isEqualTo(2);
+        assertThat(buf.refCnt()).isEqualTo(2);
+
+        // A mapped region cannot be converted, but it is not released either.
+        assertThat(data.toFileRegion()).isNull();
+        assertThat(data.refCnt()).isEqualTo(2);
+
+        assertThat(data.release()).isFalse();
+        assertThat(data.release()).isTrue();
+        assertThat(buf.refCnt()).isZero();
+    }
+
+    @Test
+    void toFileRegion() throws IOException {
+        final FileChannel channel = open();
+        final FileRegionHttpData data = new FileRegionHttpData(new SharedFileChannel(channel), 3, 4, false);
+        final FileRegion region = data.toFileRegion();
+        assertThat(region).isNotNull();
+        assertThat(data.refCnt()).isZero();
+        assertThatThrownBy(data::toFileRegion).isInstanceOf(IllegalStateException.class);
+        assertThat(region.position()).isEqualTo(3);
+        assertThat(region.count()).isEqualTo(4);
+
+        // The region holds the reference of the channel.
+        assertThat(channel.isOpen()).isTrue();
+        region.release();
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    void closeOnRelease() throws IOException {
+        final FileChannel channel = open();
+        final FileRegionHttpData data = new FileRegionHttpData(new SharedFileChannel(channel), 0, 10, true);
+        assertThat(data.release()).isTrue();
+        assertThat(channel.isOpen()).isFalse();
+        assertThatThrownBy(data::toFileRegion).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shareChannel() throws IOException {
+        final FileChannel channel = open();
+        final SharedFileChannel in = new SharedFileChannel(channel);
+        final FileRegionHttpData data1 = new FileRegionHttpData(in.retain(), 0, 5, false);
+        final FileRegionHttpData data2 = new FileRegionHttpData(in.retain(), 5, 5, true);
+        assertThat(in.refCnt()).isEqualTo(3);
+
+        // The stream is closed before its chunks are written.
+        in.close();
+        in.close();
+        assertThat(in.isOpen()).isFalse();
+        assertThat(in.refCnt()).isEqualTo(2);
+        assertThat(channel.isOpen()).isTrue();
+
+        final FileRegion region = data1.toFileRegion();
+        assertThat(region).isNotNull();
+        assertThat(data2.toStringAscii()).isEqualTo("56789");
+        assertThat(in.refCnt()).isOne();
+        assertThat(channel.isOpen()).isTrue();
+
+        region.release();
+        assertThat(in.refCnt()).isZero();
+        assertThat(channel.isOpen()).isFalse();
+        assertThat(data2.release()).isTrue();
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+}
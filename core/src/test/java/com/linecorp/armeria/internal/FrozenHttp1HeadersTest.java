@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.ResponseHeaders;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.util.AsciiString;
+
+class FrozenHttp1HeadersTest {
+
+    @Test
+    void shouldEncodeAsNettyDoes() {
+        final FrozenHttp1Headers headers = new FrozenHttp1Headers();
+        headers.add("content-type", "text/plain; charset=utf-8");
+        headers.add("x-foo", "1");
+        headers.add("x-foo", "2");
+        assertThatThrownBy(() -> headers.encode(Unpooled.buffer())).isInstanceOf(IllegalStateException.class);
+        headers.freeze();
+        assertThatThrownBy(headers::freeze).isInstanceOf(IllegalStateException.class);
+
+        final ByteBuf buf = Unpooled.buffer();
+        headers.encode(buf);
+        headers.encode(buf);
+        final String expected = "content-type: text/plain; charset=utf-8\r\nx-foo: 1\r\nx-foo: 2\r\n";
+        assertThat(buf.toString(StandardCharsets.US_ASCII)).isEqualTo(expected + expected);
+        buf.release();
+
+        // Make sure the result is identical to what Netty produces.
+        final EmbeddedChannel ch = new EmbeddedChannel(new HttpResponseEncoder());
+        assertThat(ch.writeOutbound(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                                                            headers))).isTrue();
+        final ByteBuf out = ch.readOutbound();
+        assertThat(out.toString(StandardCharsets.US_ASCII))
+                .isEqualTo("HTTP/1.1 200 OK\r\n" + expected + "\r\n");
+        out.release();
+        ch.finishAndReleaseAll();
+    }
+
+    @Test
+    void shouldRejectModificationOnceFrozen() {
+        final FrozenHttp1Headers headers = new FrozenHttp1Headers();
+        headers.add("transfer-encoding", "chunked");
+        headers.add("x-foo", "1");
+        headers.freeze();
+
+        assertThatThrownBy(() -> headers.remove("transfer-encoding"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> headers.set("x-foo", "2")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> headers.add("x-bar", "3")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> headers.setInt("content-length", 0))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(headers::clear).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> headers.iteratorCharSequence().next().setValue("2"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> headers.iterator().next().setValue("2"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> headers.entries().get(0).setValue("2"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(headers.getAll("x-foo")).containsExactly("1");
+
+        // A copy can be modified.
+        assertThat(headers.copy().remove("transfer-encoding").contains("transfer-encoding")).isFalse();
+        assertThat(headers.contains("transfer-encoding")).isTrue();
+    }
+
+    @Test
+    void shouldCacheHttp2Headers() {
+        final ResponseHeaders headers = ResponseHeaders.builder(HttpStatus.OK)
+                                                       .contentType(MediaType.PLAIN_TEXT_UTF_8)
+                                                       .add("x-foo", "bar")
+                                                       .frozen(true)
+                                                       .build();
+        assertThat(headers.isFrozen()).isTrue();
+        assertThat(headers.toBuilder().build().isFrozen()).isTrue();
+        assertThat(headers.toBuilder().add("x-bar", "baz").build().isFrozen()).isFalse();
+
+        final FrozenHeadersCache cache = FrozenHeadersCache.get(headers);
+        assertThat(FrozenHeadersCache.get(headers)).isSameAs(cache);
+        // Equal but not identical headers should not share the cache.
+        final ResponseHeaders copy = headers.toBuilder().frozen(true).add("x-bar", "baz").build();
+        assertThat(FrozenHeadersCache.get(copy)).isNotSameAs(cache);
+
+        final Http2Headers http2Headers = cache.http2Headers(headers);
+        assertThat(cache.http2Headers(headers)).isSameAs(http2Headers);
+        assertThat(http2Headers.status()).isEqualTo(AsciiString.of("200"));
+        assertThat(http2Headers.get("x-foo")).isInstanceOf(AsciiString.class)
+                                             .isEqualTo(AsciiString.of("bar"));
+        assertThat(http2Headers.size()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+class ThreadLocalPoolTest {
+
+    private final AtomicInteger numCreated = new AtomicInteger();
+    private final List<StringBuilder> destroyed = new CopyOnWriteArrayList<>();
+    private final ThreadLocalPool<StringBuilder> pool = new ThreadLocalPool<>(
+            2, () -> {
+                numCreated.incrementAndGet();
+                return new StringBuilder();
+            }, buf -> buf.setLength(0), destroyed::add);
+
+    @Test
+    void shouldNotPoolInOtherThreads() {
+        final StringBuilder buf = pool.acquire();
+        pool.release(buf);
+        assertThat(pool.size()).isZero();
+        assertThat(destroyed).containsExactly(buf);
+    }
+
+    @Test
+    void shouldReuseAndDestroyWhenThreadTerminates() throws Exception {
+        final Thread thread = new DefaultThreadFactory("thread-local-pool-test").newThread(() -> {
+            final StringBuilder a = pool.acquire().append('a');
+            final StringBuilder b = pool.acquire();
+            final StringBuilder c = pool.acquire();
+            pool.release(a);
+            pool.release(b);
+            // The pool is full.
+            pool.release(c);
+            assertThat(pool.size()).isEqualTo(2);
+            assertThat(destroyed).containsExactly(c);
+
+            final StringBuilder reused = pool.acquire();
+            assertThat(reused).isSameAs(b);
+            pool.release(reused);
+            assertThat(a).isEmpty();
+        });
+        thread.start();
+        thread.join(10000);
+
+        assertThat(thread.isAlive()).isFalse();
+        assertThat(numCreated).hasValue(3);
+        // The pooled objects are destroyed when the thread terminates.
+        assertThat(destroyed).hasSize(3);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import static com.linecorp.armeria.server.RoutingContextTest.virtualHost;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+
+class CompiledRouterTest {
+
+    private static final BiConsumer<Route, Route> REJECT = (a, b) -> {
+        throw new IllegalStateException("duplicate route: " + a + "vs. " + b);
+    };
+
+    private static final List<Route> ROUTES = ImmutableList.of(
+            Route.builder().path("exact:/").build(),
+            Route.builder().path("exact:/users").build(),
+            Route.builder().path("/users/{id}").methods(HttpMethod.GET).build(),
+            Route.builder().path("/users/{id}").methods(HttpMethod.DELETE).build(),
+            Route.builder().path("/users/{id}/posts/{postId}").build(),
+            Route.builder().path("/users/{id}/").build(),
+            Route.builder().path("exact:/users/me").build(),
+            Route.builder().path("prefix:/static").build(),
+            Route.builder().path("prefix:/static/images").build(),
+            Route.builder().path("exact:/api/v1/hello").methods(HttpMethod.GET)
+                 .produces(MediaType.PLAIN_TEXT_UTF_8).build(),
+            Route.builder().path("exact:/api/v1/hello").methods(HttpMethod.GET)
+                 .produces(MediaType.JSON_UTF_8).build(),
+            Route.builder().path("exact:/api/v1/hello").methods(HttpMethod.POST)
+                 .consumes(MediaType.JSON_UTF_8).build(),
+            Route.builder().path("/api/v1/:name").build(),
+            Route.builder().path("exact:/a:b").build());
+
+    private static final List<String> PATHS = ImmutableList.of(
+            "/", "/users", "/users/", "/users/1", "/users/me", "/users/1/", "/users/1/posts",
+            "/users/1/posts/2", "/users/1/posts/2/", "/users//posts/2", "/static", "/static/",
+            "/static/js/main.js", "/static/images", "/static/images/a.png", "/api/v1/hello",
+            "/api/v1/goodbye", "/api/v1/goodbye/", "/api/v2/hello", "/a:b", "/a:c", "/unknown");
+
+    @Test
+    void shouldFindSameValuesWithTrieRouter() {
+        final Router<Route> trieRouter = router(RouterType.TRIE);
+        final Router<Route> compiledRouter = router(RouterType.COMPILED);
+
+        for (HttpMethod method : ImmutableList.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.DELETE)) {
+            for (String path : PATHS) {
+                final RoutingContext trieCtx = routingCtx(method, path, null, ImmutableList.of());
+                final RoutingContext compiledCtx = routingCtx(method, path, null, ImmutableList.of());
+                final Routed<Route> expected = trieRouter.find(trieCtx);
+                final Routed<Route> actual = compiledRouter.find(compiledCtx);
+
+                assertThat(actual.isPresent()).as("%s %s", method, path).isEqualTo(expected.isPresent());
+                if (expected.isPresent()) {
+                    assertThat(actual.value()).as("%s %s", method, path).isSameAs(expected.value());
+                    assertThat(actual.routingResult().pathParams())
+                            .isEqualTo(expected.routingResult().pathParams());
+                }
+                assertThat(compiledCtx.delayedThrowable().map(Object::toString))
+                        .as("%s %s", method, path)
+                        .isEqualTo(trieCtx.delayedThrowable().map(Object::toString));
+            }
+        }
+    }
+
+    @Test
+    void shouldNegotiateMediaTypes() {
+        final Router<Route> router = router(RouterType.COMPILED);
+
+        Routed<Route> routed = router.find(routingCtx(HttpMethod.GET, "/api/v1/hello", null,
+                                                      ImmutableList.of(MediaType.JSON_UTF_8)));
+        assertThat(routed.routingResult().negotiatedResponseMediaType()).isEqualTo(MediaType.JSON_UTF_8);
+
+        routed = router.find(routingCtx(HttpMethod.GET, "/api/v1/hello", null,
+                                        ImmutableList.of(MediaType.PLAIN_TEXT_UTF_8)));
+        assertThat(routed.routingResult().negotiatedResponseMediaType())
+                .isEqualTo(MediaType.PLAIN_TEXT_UTF_8);
+
+        final RoutingContext ctx = routingCtx(HttpMethod.POST, "/api/v1/hello", MediaType.PLAIN_TEXT_UTF_8,
+                                              ImmutableList.of());
+        assertThat(router.find(ctx).isPresent()).isFalse();
+        assertThat(ctx.delayedThrowable()).containsInstanceOf(HttpStatusException.class);
+        assertThat(((HttpStatusException) ctx.delayedThrowable().get()).httpStatus())
+                .isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+
+    @Test
+    void shouldDelayMethodNotAllowed() {
+        final Router<Route> router = router(RouterType.COMPILED);
+        final RoutingContext ctx = routingCtx(HttpMethod.PUT, "/users/1", null, ImmutableList.of());
+        assertThat(router.find(ctx).isPresent()).isFalse();
+        assertThat(((HttpStatusException) ctx.delayedThrowable().get()).httpStatus())
+                .isEqualTo(HttpStatus.METHOD_NOT_ALLOWED);
+    }
+
+    private static Router<Route> router(RouterType routerType) {
+        final List<Router<Route>> routers = Routers.routers(ROUTES, Function.identity(), REJECT, routerType);
+        assertThat(routers).hasSize(1);
+        assertThat(routers.get(0)).isInstanceOf(routerType == RouterType.COMPILED ? CompiledRouter.class
+                                                                                  : Router.class);
+        return routers.get(0);
+    }
+
+    private static RoutingContext routingCtx(HttpMethod method, String path,
+                                             @Nullable MediaType contentType, List<MediaType> acceptTypes) {
+        return new DefaultRoutingContext(virtualHost(), "example.com", method, path, null,
+                                         contentType, acceptTypes, false);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.testing.junit.server.ServerExtension;
+
+class FrozenResponseHeadersTest {
+
+    private static final ResponseHeaders OK_HEADERS =
+            ResponseHeaders.builder(HttpStatus.OK)
+                           .contentType(MediaType.PLAIN_TEXT_UTF_8)
+                           .add("x-frozen", "true")
+                           .frozen(true)
+                           .build();
+
+    private static final ResponseHeaders NO_CONTENT_HEADERS =
+            ResponseHeaders.builder(HttpStatus.NO_CONTENT)
+                           .add("x-frozen", "true")
+                           .frozen(true)
+                           .build();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.service("/content", (ctx, req) -> HttpResponse.of(OK_HEADERS, HttpData.ofUtf8("foo")));
+            sb.service("/stream", (ctx, req) -> HttpResponse.of(OK_HEADERS, HttpData.ofUtf8("foo"),
+                                                                HttpData.ofUtf8("bar")));
+            sb.service("/empty", (ctx, req) -> HttpResponse.of(OK_HEADERS));
+            sb.service("/no-content", (ctx, req) -> HttpResponse.of(NO_CONTENT_HEADERS));
+            sb.service("/additional", (ctx, req) -> {
+                ctx.addAdditionalResponseHeader("x-additional", "true");
+                return HttpResponse.of(OK_HEADERS, HttpData.ofUtf8("bar"));
+            });
+        }
+    };
+
+    @ParameterizedTest
+    @EnumSource(value = SessionProtocol.class, names = { "H1C", "H2C" })
+    void frozenHeadersShouldBeReused(SessionProtocol protocol) {
+        final HttpClient client = HttpClient.of(server.uri(protocol, "/"));
+        // Send the same requests more than once so that the cached form is used.
+        for (int i = 0; i < 3; i++) {
+            AggregatedHttpResponse res = client.get("/content").aggregate().join();
+            assertThat(res.status()).isEqualTo(HttpStatus.OK);
+            assertThat(res.contentType()).isEqualTo(MediaType.PLAIN_TEXT_UTF_8);
+            assertThat(res.headers().get("x-frozen")).isEqualTo("true");
+            assertThat(res.contentUtf8()).isEqualTo("foo");
+
+            res = client.get("/empty").aggregate().join();
+            assertThat(res.status()).isEqualTo(HttpStatus.OK);
+            assertThat(res.headers().get("x-frozen")).isEqualTo("true");
+            assertThat(res.content().isEmpty()).isTrue();
+
+            res = client.execute(RequestHeaders.of(HttpMethod.HEAD, "/content")).aggregate().join();
+            assertThat(res.status()).isEqualTo(HttpStatus.OK);
+            assertThat(res.headers().get("x-frozen")).isEqualTo("true");
+            assertThat(res.content().isEmpty()).isTrue();
+
+            res = client.get("/no-content").aggregate().join();
+            assertThat(res.status()).isEqualTo(HttpStatus.NO_CONTENT);
+            assertThat(res.headers().get("x-frozen")).isEqualTo("true");
+            assertThat(res.headers().contains(HttpHeaderNames.CONTENT_LENGTH)).isFalse();
+
+            res = client.get("/additional").aggregate().join();
+            assertThat(res.status()).isEqualTo(HttpStatus.OK);
+            assertThat(res.headers().get("x-frozen")).isEqualTo("true");
+            assertThat(res.headers().get("x-additional")).isEqualTo("true");
+            assertThat(res.contentUtf8()).isEqualTo("bar");
+        }
+    }
+
+    @Test
+    void connectShouldNotModifyFrozenHeaders() throws Exception {
+        // The encoder strips 'transfer-encoding' from a successful response to a CONNECT request.
+        try (Socket socket = new Socket()) {
+            socket.connect(server.httpSocketAddress());
+            socket.setSoTimeout(10000);
+            socket.getOutputStream().write("CONNECT /stream HTTP/1.1\r\nHost: foo\r\n\r\n"
+                                                   .getBytes(StandardCharsets.US_ASCII));
+            final BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            assertThat(in.readLine()).isEqualTo("HTTP/1.1 200 OK");
+            String line;
+            while (!(line = in.readLine()).isEmpty()) {
+                assertThat(line.toLowerCase()).doesNotStartWith("transfer-encoding");
+            }
+        }
+
+        // The other responses should not be affected.
+        final HttpClient client = HttpClient.of(server.uri(SessionProtocol.H1C, "/"));
+        for (int i = 0; i < 3; i++) {
+            final AggregatedHttpResponse res = client.get("/stream").aggregate().join();
+            assertThat(res.status()).isEqualTo(HttpStatus.OK);
+            assertThat(res.contentUtf8()).isEqualTo("foobar");
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.RequestHeadersBuilder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.AsciiString;
+
+class Http1ServerDecoderTest {
+
+    @Test
+    void requestWithoutContent() {
+        final EmbeddedChannel ch = newChannel(null);
+        ch.writeInbound(buf("GET /foo?bar=baz HTTP/1.1\r\n" +
+                            "Host: example.com\r\n" +
+                            "User-Agent: test\r\n" +
+                            "X-Custom-Header:  a\r\n" +
+                            "  b\r\n" +
+                            "Cookie: a=b\r\n" +
+                            "Cookie: c=d;e=f\r\n" +
+                            "Connection: keep-alive, x-hop\r\n" +
+                            "X-Hop: 1\r\n" +
+                            "\r\n"));
+
+        final Http1RequestHead head = ch.readInbound();
+        assertThat(head.decoderResult().isSuccess()).isTrue();
+        assertThat(head.method()).isEqualTo("GET");
+        assertThat(head.uri()).isEqualTo("/foo?bar=baz");
+        assertThat(head.protocolVersion()).isSameAs(HttpVersion.HTTP_1_1);
+        assertThat(head.host()).isEqualTo("example.com");
+        assertThat(head.isKeepAlive()).isTrue();
+
+        final RequestHeadersBuilder headers = head.headers();
+        assertThat(headers.get(HttpHeaderNames.USER_AGENT)).isEqualTo("test");
+        assertThat(headers.get("x-custom-header")).isEqualTo("a b");
+        assertThat(headers.getAll(HttpHeaderNames.COOKIE)).containsExactly("a=b; c=d; e=f");
+        assertThat(headers.contains(HttpHeaderNames.HOST)).isFalse();
+        assertThat(headers.contains(HttpHeaderNames.CONNECTION)).isFalse();
+        assertThat(headers.contains("x-hop")).isFalse();
+
+        // A well-known header name should be interned.
+        assertThat(headers.names()).anyMatch(name -> name == HttpHeaderNames.USER_AGENT);
+
+        assertThat((Object) ch.readInbound()).isSameAs(LastHttpContent.EMPTY_LAST_CONTENT);
+        assertThat((Object) ch.readInbound()).isNull();
+        assertThat(ch.finish()).isFalse();
+    }
+
+    @Test
+    void keepAlive() {
+        final EmbeddedChannel ch = newChannel(null);
+        ch.writeInbound(buf("GET / HTTP/1.1\r\nConnection: close\r\n\r\n" +
+                            "GET / HTTP/1.0\r\n\r\n" +
+                            "GET / HTTP/1.0\r\nConnection: Keep-Alive\r\n\r\n"));
+
+        assertThat(((Http1RequestHead) ch.readInbound()).isKeepAlive()).isFalse();
+        assertThat((Object) ch.readInbound()).isSameAs(LastHttpContent.EMPTY_LAST_CONTENT);
+        final Http1RequestHead head = ch.readInbound();
+        assertThat(head.protocolVersion()).isSameAs(HttpVersion.HTTP_1_0);
+        assertThat(head.isKeepAlive()).isFalse();
+        assertThat((Object) ch.readInbound()).isSameAs(LastHttpContent.EMPTY_LAST_CONTENT);
+        assertThat(((Http1RequestHead) ch.readInbound()).isKeepAlive()).isTrue();
+        assertThat((Object) ch.readInbound()).isSameAs(LastHttpContent.EMPTY_LAST_CONTENT);
+        assertThat(ch.finish()).isFalse();
+    }
+
+    @Test
+    void fixedLengthContent() {
+        final EmbeddedChannel ch = newChannel(null);
+        // Split the head and content into multiple buffers.
+        ch.writeInbound(buf("POST /upload HTTP/1.1\r\nContent-Le"));
+        assertThat((Object) ch.readInbound()).isNull();
+        ch.writeInbound(buf("ngth: 20\r\n\r\n0123456789"));
+        ch.writeInbound(buf("abcdefghij" + "GET / HTTP/1.1\r\n\r\n"));
+
+        final Http1RequestHead head = ch.readInbound();
+        assertThat(head.method()).isEqualTo("POST");
+        assertThat(head.headers().get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("20");
+
+        // The content is split into the chunks of 8 bytes at most.
+        assertThat(readContent(ch, false)).isEqualTo("01234567");
+        assertThat(readContent(ch, false)).isEqualTo("89");
+        assertThat(readContent(ch, false)).isEqualTo("abcdefgh");
+        assertThat(readContent(ch, true)).isEqualTo("ij");
+
+        assertThat(((Http1RequestHead) ch.readInbound()).method()).isEqualTo("GET");
+        assertThat((Object) ch.readInbound()).isSameAs(LastHttpContent.EMPTY_LAST_CONTENT);
+        assertThat(ch.finish()).isFalse();
+    }
+
+    @Test
+    void chunkedContent() {
+        final EmbeddedChannel ch = newChannel(null);
+        ch.writeInbound(buf("POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n" +
+                            "5;ext=1\r\nhello\r\n" +
+                            "a\r\n, world!!!\r\n" +
+                            "0\r\n" +
+                            "Foo: bar\r\n" +
+                            "Content-Length: 1\r\n" +
+                            "\r\n"));
+
+        final Http1RequestHead head = ch.readInbound();
+        assertThat(head.headers().contains(HttpHeaderNames.TRANSFER_ENCODING)).isFalse();
+        assertThat(readContent(ch, false)).isEqualTo("hello");
+        assertThat(readContent(ch, false)).isEqualTo(", world!");
+        assertThat(readContent(ch, false)).isEqualTo("!!");
+
+        final LastHttpContent last = ch.readInbound();
+        assertThat(last.content().readableBytes()).isZero();
+        assertThat(last.trailingHeaders().get("foo")).isEqualTo("bar");
+        assertThat(last.trailingHeaders().contains(HttpHeaderNames.CONTENT_LENGTH)).isFalse();
+        last.release();
+        assertThat(ch.finish()).isFalse();
+    }
+
+    @Test
+    void invalidChunkSize() {
+        final EmbeddedChannel ch = newChannel(null);
+        ch.writeInbound(buf("POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\nxyz\r\n"));
+        assertThat(((Http1RequestHead) ch.readInbound()).decoderResult().isSuccess()).isTrue();
+        final LastHttpContent last = ch.readInbound();
+        assertThat(last.decoderResult().isFailure()).isTrue();
+
+        // Should discard the following bytes.
+        ch.writeInbound(buf("GET / HTTP/1.1\r\n\r\n"));
+        assertThat((Object) ch.readInbound()).isNull();
+        assertThat(ch.finish()).isFalse();
+    }
+
+    @Test
+    void tooLongHeaders() {
+        final EmbeddedChannel ch = newChannel(null);
+        final StringBuilder buf = new StringBuilder("GET / HTTP/1.1\r\n");
+        for (int i = 0; i < 10; i++) {
+            buf.append("x-header-").append(i).append(": value\r\n");
+        }
+        ch.writeInbound(buf(buf.toString()));
+
+        final Http1RequestHead head = ch.readInbound();
+        assertThat(head.decoderResult().cause()).isInstanceOf(TooLongFrameException.class);
+        assertThat(ch.finish()).isFalse();
+    }
+
+    @Test
+    void invalidHeaders() {
+        for (String header : new String[] { "x header: value", ": value", "no-colon", "x-header: a\rb" }) {
+            final EmbeddedChannel ch = newChannel(null);
+            ch.writeInbound(buf("GET / HTTP/1.1\r\n" + header + "\r\n\r\n"));
+            final Http1RequestHead head = ch.readInbound();
+            assertThat(head.decoderResult().isFailure()).as(header).isTrue();
+            assertThat(ch.finish()).isFalse();
+        }
+    }
+
+    @Test
+    void unsupportedVersion() {
+        final EmbeddedChannel ch = newChannel(null);
+        ch.writeInbound(buf("GET / HTTP/2.0\r\n\r\n"));
+        final Http1RequestHead head = ch.readInbound();
+        assertThat(head.decoderResult().isFailure()).isTrue();
+        assertThat(ch.finish()).isFalse();
+    }
+
+    @Test
+    void upgradeRequest() {
+        final AtomicBoolean upgraded = new AtomicBoolean();
+        final EmbeddedChannel ch = newChannel(ctx -> {
+            upgraded.set(true);
+            ctx.pipeline().remove(ctx.handler());
+        });
+        final String request = "GET / HTTP/1.1\r\nUpgrade: h2c\r\nConnection: Upgrade, HTTP2-Settings\r\n" +
+                               "HTTP2-Settings: AAMAAABkAAQAAP__\r\n\r\n";
+        ch.writeInbound(buf(request));
+
+        assertThat(upgraded).isTrue();
+        // The request should be passed to the next handler as it is.
+        final ByteBuf forwarded = ch.readInbound();
+        assertThat(forwarded.toString(StandardCharsets.US_ASCII)).isEqualTo(request);
+        forwarded.release();
+        assertThat(ch.finish()).isFalse();
+    }
+
+    @Test
+    void upgradeHeaderIgnoredAfterFirstRequest() {
+        final AtomicBoolean upgraded = new AtomicBoolean();
+        final EmbeddedChannel ch = newChannel(ctx -> upgraded.set(true));
+        ch.writeInbound(buf("GET / HTTP/1.1\r\n\r\nGET / HTTP/1.1\r\nUpgrade: h2c\r\n\r\n"));
+
+        assertThat(upgraded).isFalse();
+        assertThat((Object) ch.readInbound()).isInstanceOf(Http1RequestHead.class);
+        assertThat((Object) ch.readInbound()).isSameAs(LastHttpContent.EMPTY_LAST_CONTENT);
+        final Http1RequestHead head = ch.readInbound();
+        assertThat(head.headers().contains(HttpHeaderNames.UPGRADE)).isFalse();
+        assertThat((Object) ch.readInbound()).isSameAs(LastHttpContent.EMPTY_LAST_CONTENT);
+        assertThat(ch.finish()).isFalse();
+    }
+
+    private static EmbeddedChannel newChannel(@Nullable Consumer<ChannelHandlerContext> upgradeHandler) {
+        final Http1ServerEncoder encoder = new Http1ServerEncoder();
+        return new EmbeddedChannel(new Http1ServerDecoder(64, 128, 8, encoder, upgradeHandler), encoder);
+    }
+
+    private static String readContent(EmbeddedChannel ch, boolean last) {
+        final HttpContent content = ch.readInbound();
+        assertThat(content instanceof LastHttpContent).isEqualTo(last);
+        try {
+            return content.content().toString(StandardCharsets.US_ASCII);
+        } finally {
+            content.release();
+        }
+    }
+
+    private static ByteBuf buf(String str) {
+        return Unpooled.directBuffer().writeBytes(AsciiString.of(str).array());
+    }
+}
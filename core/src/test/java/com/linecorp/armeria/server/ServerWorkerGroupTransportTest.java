@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.Flags;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.util.EventLoopThreadFactory;
+import com.linecorp.armeria.internal.TransportType;
+
+import io.netty.channel.EventLoopGroup;
+
+class ServerWorkerGroupTransportTest {
+
+    /**
+     * Makes sure the connections are accepted with the transport of the worker group, even if it is
+     * different from the default transport.
+     */
+    @ParameterizedTest
+    @EnumSource(TransportType.class)
+    void shouldAcceptWithTransportOfWorkerGroup(TransportType transportType) throws Exception {
+        assumeTrue(transportType != TransportType.EPOLL || Flags.useEpoll());
+
+        final EventLoopGroup workerGroup = transportType.newEventLoopGroup(
+                1, type -> new EventLoopThreadFactory("armeria-test-" + type.lowerCasedName()));
+        final Server server = new ServerBuilder()
+                .http(0)
+                .workerGroup(workerGroup, true)
+                .service("/", (ctx, req) -> HttpResponse.of(HttpStatus.OK))
+                .build();
+        try {
+            server.start().get(10, TimeUnit.SECONDS);
+            final int port = server.activePort().get().localAddress().getPort();
+            final AggregatedHttpResponse res =
+                    HttpClient.of("http://127.0.0.1:" + port).get("/").aggregate().get(10, TimeUnit.SECONDS);
+            assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        } finally {
+            server.stop().get(10, TimeUnit.SECONDS);
+        }
+    }
+}
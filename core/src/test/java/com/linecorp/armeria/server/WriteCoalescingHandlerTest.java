@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+class WriteCoalescingHandlerTest {
+
+    private DistributionSummary writesPerFlush;
+    private EmbeddedChannel ch;
+
+    @BeforeEach
+    void setUp() {
+        writesPerFlush = DistributionSummary.builder("writesPerFlush").register(new SimpleMeterRegistry());
+        ch = new EmbeddedChannel(new WriteCoalescingHandler(writesPerFlush));
+    }
+
+    @Test
+    void shouldCoalesceSmallWritesAndFlushes() {
+        final ChannelFuture f1 = ch.writeAndFlush(buf("foo"));
+        final ChannelFuture f2 = ch.writeAndFlush(buf("bar"));
+        final ChannelFuture f3 = ch.writeAndFlush(buf("baz"));
+
+        // Nothing is written until the current task finishes.
+        assertThat((Object) ch.readOutbound()).isNull();
+        assertThat(f1.isDone()).isFalse();
+
+        ch.runPendingTasks();
+        assertThat(readOutbound()).isEqualTo("foobarbaz");
+        assertThat((Object) ch.readOutbound()).isNull();
+        assertThat(f1.isSuccess()).isTrue();
+        assertThat(f2.isSuccess()).isTrue();
+        assertThat(f3.isSuccess()).isTrue();
+
+        assertThat(writesPerFlush.count()).isOne();
+        assertThat(writesPerFlush.totalAmount()).isEqualTo(3);
+        assertThat(ch.finish()).isFalse();
+    }
+
+    @Test
+    void shouldPreserveOrderOfLargeWrites() {
+        final String large = Strings.repeat("a", WriteCoalescingHandler.MAX_COALESCED_WRITE_LENGTH);
+        ch.write(buf("foo"));
+        ch.write(buf(large));
+        ch.writeAndFlush(buf("bar"));
+        ch.runPendingTasks();
+
+        assertThat(readOutbound()).isEqualTo("foo");
+        assertThat(readOutbound()).isEqualTo(large);
+        assertThat(readOutbound()).isEqualTo("bar");
+        assertThat(writesPerFlush.count()).isOne();
+        assertThat(writesPerFlush.totalAmount()).isEqualTo(3);
+        assertThat(ch.finish()).isFalse();
+    }
+
+    @Test
+    void shouldFlushOnClose() {
+        final ChannelFuture f = ch.writeAndFlush(buf("foo"));
+        ch.close();
+
+        assertThat(f.isSuccess()).isTrue();
+        assertThat(readOutbound()).isEqualTo("foo");
+        assertThat(writesPerFlush.count()).isOne();
+    }
+
+    private static ByteBuf buf(String content) {
+        return Unpooled.copiedBuffer(content, StandardCharsets.US_ASCII);
+    }
+
+    private String readOutbound() {
+        final ByteBuf buf = ch.readOutbound();
+        try {
+            return buf.toString(StandardCharsets.US_ASCII);
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.linecorp.armeria.common.stream.NoopSubscriber;
 import com.linecorp.armeria.unsafe.ByteBufHttpData;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.util.concurrent.ImmediateEventExecutor;
 
@@ -44,7 +45,7 @@ class HttpEncodedResponseTest {
                                           MediaType.PLAIN_TEXT_UTF_8,
                                           new ByteBufHttpData(buf, true)));
         final HttpEncodedResponse encoded = new HttpEncodedResponse(
-                orig, HttpEncodingType.DEFLATE, mediaType -> true, 1);
+                orig, HttpEncodingType.DEFLATE, mediaType -> true, 1, ByteBufAllocator.DEFAULT);
 
         // Drain the stream.
         encoded.subscribe(NoopSubscriber.get(), ImmediateEventExecutor.INSTANCE);
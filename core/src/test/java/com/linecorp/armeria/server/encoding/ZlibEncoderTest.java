@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.encoding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.FastThreadLocalThread;
+
+class ZlibEncoderTest {
+
+    private static final byte[] CONTENT =
+            Strings.repeat("Armeria is a microservice framework. ", 1024).getBytes(StandardCharsets.UTF_8);
+
+    @ParameterizedTest
+    @EnumSource(HttpEncodingType.class)
+    void shouldEncodeHeapAndDirectBuffers(HttpEncodingType encodingType) throws Exception {
+        final ByteBufAllocator alloc = ByteBufAllocator.DEFAULT;
+        final ZlibEncoder encoder = new ZlibEncoder(encodingType);
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+        final int half = CONTENT.length / 2;
+        final ByteBuf heap = Unpooled.wrappedBuffer(CONTENT, 0, half);
+        final ByteBuf direct = alloc.directBuffer().writeBytes(CONTENT, half, CONTENT.length - half);
+        try {
+            drain(encoder.encode(heap, alloc), encoded);
+            drain(encoder.encode(direct, alloc), encoded);
+            drain(encoder.finish(alloc), encoded);
+        } finally {
+            heap.release();
+            direct.release();
+        }
+
+        assertThat(encoded.size()).isLessThan(CONTENT.length / 10);
+        assertThat(decode(encodingType, encoded.toByteArray())).isEqualTo(CONTENT);
+        assertThatThrownBy(() -> encoder.encode(Unpooled.EMPTY_BUFFER, alloc))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @ParameterizedTest
+    @EnumSource(HttpEncodingType.class)
+    void shouldFlushEachChunk(HttpEncodingType encodingType) throws Exception {
+        final ZlibEncoder encoder = new ZlibEncoder(encodingType);
+        final ByteBuf out = encoder.encode(Unpooled.wrappedBuffer(CONTENT), ByteBufAllocator.DEFAULT);
+        try {
+            // The flushed output must be decodable without the end of the stream.
+            final InputStream in = decoder(encodingType, ByteBufUtil.getBytes(out));
+            final byte[] decoded = new byte[CONTENT.length];
+            ByteStreams.readFully(in, decoded);
+            assertThat(decoded).isEqualTo(CONTENT);
+        } finally {
+            out.release();
+            encoder.close();
+        }
+    }
+
+    @Test
+    void shouldReuseDeflatersOnFastThreadLocalThread() throws Exception {
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final Thread thread = new FastThreadLocalThread(() -> {
+            try {
+                assertThat(ZlibEncoder.numPooledDeflaters(HttpEncodingType.GZIP)).isZero();
+
+                final ZlibEncoder first = new ZlibEncoder(HttpEncodingType.GZIP);
+                first.finish(ByteBufAllocator.DEFAULT).release();
+                assertThat(ZlibEncoder.numPooledDeflaters(HttpEncodingType.GZIP)).isOne();
+                assertThat(ZlibEncoder.numPooledDeflaters(HttpEncodingType.DEFLATE)).isZero();
+
+                // The pooled Deflater must have been reset.
+                final ZlibEncoder second = new ZlibEncoder(HttpEncodingType.GZIP);
+                assertThat(ZlibEncoder.numPooledDeflaters(HttpEncodingType.GZIP)).isZero();
+                final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+                drain(second.encode(Unpooled.wrappedBuffer(CONTENT), ByteBufAllocator.DEFAULT), encoded);
+                drain(second.finish(ByteBufAllocator.DEFAULT), encoded);
+                assertThat(decode(HttpEncodingType.GZIP, encoded.toByteArray())).isEqualTo(CONTENT);
+
+                // Closing twice should not pool the same Deflater twice.
+                second.close();
+                assertThat(ZlibEncoder.numPooledDeflaters(HttpEncodingType.GZIP)).isOne();
+            } catch (Throwable t) {
+                error.set(t);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertThat(error.get()).isNull();
+
+        // Other threads do not have a pool.
+        new ZlibEncoder(HttpEncodingType.GZIP).close();
+        assertThat(ZlibEncoder.numPooledDeflaters(HttpEncodingType.GZIP)).isZero();
+    }
+
+    private static void drain(ByteBuf buf, ByteArrayOutputStream out) {
+        try {
+            out.write(ByteBufUtil.getBytes(buf), 0, buf.readableBytes());
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static byte[] decode(HttpEncodingType encodingType, byte[] encoded) throws Exception {
+        try (InputStream in = decoder(encodingType, encoded)) {
+            return ByteStreams.toByteArray(in);
+        }
+    }
+
+    private static InputStream decoder(HttpEncodingType encodingType, byte[] encoded) throws Exception {
+        final InputStream in = new ByteArrayInputStream(encoded);
+        return encodingType == HttpEncodingType.GZIP ? new GZIPInputStream(in) : new InflaterInputStream(in);
+    }
+}
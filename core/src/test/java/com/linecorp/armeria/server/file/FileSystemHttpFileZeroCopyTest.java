@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.linecorp.armeria.client.ClientFactory;
+import com.linecorp.armeria.client.ClientFactoryBuilder;
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.FilteredHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpHeaders;
+import com.linecorp.armeria.common.HttpObject;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit.server.ServerExtension;
+
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+
+class FileSystemHttpFileZeroCopyTest {
+
+    // Larger than the maximum chunk size, so that the file is served in more than one chunk.
+    private static final byte[] content = new byte[9 * 1024 * 1024 + 123];
+    private static final Path file;
+
+    static {
+        ThreadLocalRandom.current().nextBytes(content);
+        try {
+            file = Files.createTempFile("armeria", ".bin");
+            Files.write(file, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final ClientFactory clientFactory =
+            new ClientFactoryBuilder().sslContextCustomizer(
+                    b -> b.trustManager(InsecureTrustManagerFactory.INSTANCE)).build();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.http(0);
+            sb.https(0);
+            sb.tlsSelfSigned();
+            sb.service("/zero-copy", newFile(1).asService());
+            sb.service("/copy", newFile(0).asService());
+            // A decorator which accesses the content, so that the file regions are mapped before written.
+            sb.service("/mapped", newFile(1).asService().decorate((delegate, ctx, req) -> {
+                return new FilteredHttpResponse(delegate.serve(ctx, req)) {
+                    @Override
+                    protected HttpObject filter(HttpObject obj) {
+                        if (obj instanceof HttpData) {
+                            assertThat(((HttpData) obj).array()).isNotEmpty();
+                        }
+                        return obj;
+                    }
+                };
+            }));
+        }
+    };
+
+    private static HttpFile newFile(long zeroCopyThreshold) {
+        return new FileSystemHttpFile(file, false, Clock.systemUTC(), false, false, null,
+                                      HttpHeaders.of(), zeroCopyThreshold);
+    }
+
+    @AfterAll
+    static void deleteFile() throws IOException {
+        clientFactory.close();
+        Files.deleteIfExists(file);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "H1C", "H2C", "H1", "H2" })
+    void shouldServeWholeFile(SessionProtocol protocol) {
+        final HttpClient client = HttpClient.of(clientFactory, server.uri(protocol, "/"));
+        for (String path : new String[] { "/zero-copy", "/copy", "/mapped" }) {
+            final AggregatedHttpResponse res = client.get(path).aggregate().join();
+            assertThat(res.status()).isEqualTo(HttpStatus.OK);
+            assertThat(res.headers().getLong(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo(content.length);
+            assertThat(res.content().array()).isEqualTo(content);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit.server.ServerExtension;
+
+class HttpFileServiceCompressedCacheTest {
+
+    private static final Path rootDir;
+
+    static {
+        try {
+            rootDir = Files.createTempDirectory("armeria");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.serviceUnder("/fs", HttpFileServiceBuilder.forFileSystem(rootDir)
+                                                         .maxCompressedCacheSizeBytes(1024 * 1024)
+                                                         .build());
+        }
+    };
+
+    @AfterAll
+    static void deleteRootDir() throws IOException {
+        try (Stream<Path> files = Files.list(rootDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(rootDir);
+    }
+
+    @Test
+    void shouldServeCompressedVariant() throws Exception {
+        final String content = Strings.repeat("body { color: red; }\n", 100);
+        writeFile("style.css", content);
+
+        final AggregatedHttpResponse original = get("/fs/style.css", null);
+        assertThat(original.status()).isEqualTo(HttpStatus.OK);
+        assertThat(original.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isNull();
+        final String originalEtag = original.headers().get(HttpHeaderNames.ETAG);
+        assertThat(originalEtag).isNotNull();
+
+        // The original file is served until the variant is generated.
+        await().untilAsserted(() -> assertThat(get("/fs/style.css", "gzip").headers()
+                                                       .get(HttpHeaderNames.CONTENT_ENCODING))
+                .isEqualTo("gzip"));
+
+        final AggregatedHttpResponse gzipped = get("/fs/style.css", "gzip, deflate");
+        assertThat(gzipped.headers().contentType()).isEqualTo(original.headers().contentType());
+        assertThat(gzipped.headers().getInt(HttpHeaderNames.CONTENT_LENGTH))
+                .isEqualTo(gzipped.content().length())
+                .isLessThan(content.length());
+        assertThat(gzipped.headers().get(HttpHeaderNames.ETAG))
+                .isEqualTo(originalEtag.substring(0, originalEtag.length() - 1) + "-gzip\"");
+        assertThat(decompress(new GZIPInputStream(new ByteArrayInputStream(gzipped.content().array()))))
+                .isEqualTo(content);
+
+        await().untilAsserted(() -> assertThat(get("/fs/style.css", "deflate").headers()
+                                                       .get(HttpHeaderNames.CONTENT_ENCODING))
+                .isEqualTo("deflate"));
+        final AggregatedHttpResponse deflated = get("/fs/style.css", "deflate");
+        assertThat(decompress(new InflaterInputStream(new ByteArrayInputStream(deflated.content().array()))))
+                .isEqualTo(content);
+
+        // A conditional request with the entity tag of the variant.
+        final AggregatedHttpResponse notModified = HttpClient.of(server.uri("/")).execute(
+                RequestHeaders.of(HttpMethod.GET, "/fs/style.css",
+                                  HttpHeaderNames.ACCEPT_ENCODING, "gzip",
+                                  HttpHeaderNames.IF_NONE_MATCH, gzipped.headers().get(HttpHeaderNames.ETAG)))
+                                                                 .aggregate().join();
+        assertThat(notModified.status()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void shouldRegenerateVariantWhenFileChanges() throws Exception {
+        writeFile("app.js", Strings.repeat("console.log('foo');\n", 100));
+        await().untilAsserted(() -> assertThat(get("/fs/app.js", "gzip").headers()
+                                                       .get(HttpHeaderNames.CONTENT_ENCODING))
+                .isEqualTo("gzip"));
+
+        final String newContent = Strings.repeat("console.log('bar');\n", 200);
+        writeFile("app.js", newContent);
+        // Make sure the last modified time changes.
+        Files.setLastModifiedTime(rootDir.resolve("app.js"),
+                                  FileTime.fromMillis(System.currentTimeMillis() + 2000));
+        await().untilAsserted(() -> {
+            final AggregatedHttpResponse res = get("/fs/app.js", "gzip");
+            assertThat(res.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("gzip");
+            assertThat(decompress(new GZIPInputStream(new ByteArrayInputStream(res.content().array()))))
+                    .isEqualTo(newContent);
+        });
+    }
+
+    @Test
+    void shouldRespectQvalues() throws Exception {
+        writeFile("index.html", Strings.repeat("<p>Hello, world!</p>\n", 100));
+        await().untilAsserted(() -> assertThat(get("/fs/index.html", "gzip").headers()
+                                                       .get(HttpHeaderNames.CONTENT_ENCODING))
+                .isEqualTo("gzip"));
+        await().untilAsserted(() -> assertThat(get("/fs/index.html", "deflate").headers()
+                                                       .get(HttpHeaderNames.CONTENT_ENCODING))
+                .isEqualTo("deflate"));
+
+        assertThat(get("/fs/index.html", "gzip;q=0").headers().get(HttpHeaderNames.CONTENT_ENCODING))
+                .isNull();
+        assertThat(get("/fs/index.html", "gzip;q=0, deflate").headers()
+                                                              .get(HttpHeaderNames.CONTENT_ENCODING))
+                .isEqualTo("deflate");
+        assertThat(get("/fs/index.html", "gzip;q=0.5, deflate;q=0.8").headers()
+                                                                      .get(HttpHeaderNames.CONTENT_ENCODING))
+                .isEqualTo("deflate");
+        assertThat(get("/fs/index.html", "*;q=0").headers().get(HttpHeaderNames.CONTENT_ENCODING))
+                .isNull();
+        assertThat(get("/fs/index.html", "*").headers().get(HttpHeaderNames.CONTENT_ENCODING))
+                .isEqualTo("gzip");
+    }
+
+    @Test
+    void shouldVaryOnAcceptEncoding() throws Exception {
+        writeFile("vary.css", Strings.repeat("p { margin: 0; }\n", 100));
+        assertThat(get("/fs/vary.css", null).headers().get(HttpHeaderNames.VARY))
+                .isEqualTo("accept-encoding");
+        await().untilAsserted(() -> {
+            final AggregatedHttpResponse res = get("/fs/vary.css", "gzip");
+            assertThat(res.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("gzip");
+            assertThat(res.headers().get(HttpHeaderNames.VARY)).isEqualTo("accept-encoding");
+        });
+    }
+
+    @Test
+    void shouldNotCompressSmallOrBinaryFiles() throws Exception {
+        writeFile("small.css", "body { color: red; }");
+        writeFile("large.png", Strings.repeat("x", 4096));
+        for (int i = 0; i < 3; i++) {
+            assertThat(get("/fs/small.css", "gzip").headers().get(HttpHeaderNames.CONTENT_ENCODING)).isNull();
+            assertThat(get("/fs/large.png", "gzip").headers().get(HttpHeaderNames.CONTENT_ENCODING)).isNull();
+            Thread.sleep(100);
+        }
+    }
+
+    private static void writeFile(String name, String content) throws IOException {
+        Files.write(rootDir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static AggregatedHttpResponse get(String path, String acceptEncoding) {
+        final RequestHeaders headers =
+                acceptEncoding != null ? RequestHeaders.of(HttpMethod.GET, path,
+                                                           HttpHeaderNames.ACCEPT_ENCODING, acceptEncoding)
+                                       : RequestHeaders.of(HttpMethod.GET, path);
+        return HttpClient.of(server.uri("/")).execute(headers).aggregate().join();
+    }
+
+    private static String decompress(InputStream in) throws IOException {
+        try (InputStream ignored = in) {
+            return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -24,6 +24,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -35,9 +37,12 @@ import org.mockito.junit.MockitoRule;
 import com.google.common.io.ByteStreams;
 
 import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpMethod;
 import com.linecorp.armeria.common.HttpRequest;
 import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.RequestHeadersBuilder;
 import com.linecorp.armeria.server.Server;
 import com.linecorp.armeria.server.ServerBuilder;
 import com.linecorp.armeria.server.ServiceRequestContext;
@@ -108,6 +113,49 @@ public class HttpHealthCheckServiceTest {
         assertEquals("not ok", res.contentUtf8());
     }
 
+    @Test
+    public void longPolling() throws Exception {
+        when(health1.isHealthy()).thenReturn(true);
+        when(health2.isHealthy()).thenReturn(true);
+        when(health3.isHealthy()).thenReturn(true);
+
+        // Responds immediately with the ETag if If-None-Match is absent.
+        final AggregatedHttpResponse res = longPoll(null, 60).join();
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.headers().get(HttpHeaderNames.PREFERENCE_APPLIED)).isEqualTo("wait=60");
+        final String etag = res.headers().get(HttpHeaderNames.ETAG);
+        assertThat(etag).isNotNull();
+
+        // Responds when the health changes.
+        final CompletableFuture<AggregatedHttpResponse> future = longPoll(etag, 60);
+        Thread.sleep(500);
+        assertThat(future).isNotDone();
+        service.serverHealth.setHealthy(false);
+        final AggregatedHttpResponse unhealthyRes = future.get(10, TimeUnit.SECONDS);
+        assertThat(unhealthyRes.status()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(unhealthyRes.headers().get(HttpHeaderNames.ETAG)).isNotEqualTo(etag);
+        assertThat(unhealthyRes.headers().get(HttpHeaderNames.PREFERENCE_APPLIED)).isEqualTo("wait=60");
+
+        // Responds with 304 Not Modified when the health does not change until the timeout.
+        final AggregatedHttpResponse notModifiedRes =
+                longPoll(unhealthyRes.headers().get(HttpHeaderNames.ETAG), 1).get(10, TimeUnit.SECONDS);
+        assertThat(notModifiedRes.status()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModifiedRes.headers().get(HttpHeaderNames.PREFERENCE_APPLIED)).isEqualTo("wait=1");
+    }
+
+    private CompletableFuture<AggregatedHttpResponse> longPoll(String etag, long timeoutSeconds)
+            throws Exception {
+        final RequestHeadersBuilder headers = RequestHeaders.builder(HttpMethod.GET, "/")
+                                                            .set(HttpHeaderNames.PREFER,
+                                                                 "wait=" + timeoutSeconds);
+        if (etag != null) {
+            headers.set(HttpHeaderNames.IF_NONE_MATCH, etag);
+        }
+        final HttpRequest req = HttpRequest.of(headers.build());
+        final ServiceRequestContext context = ServiceRequestContext.of(req);
+        return service.serve(context, req).aggregate();
+    }
+
     @Test
     public void testGet() throws Exception {
         final ServerBuilder builder = new ServerBuilder();
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+class FileAccessLogWriterTest {
+
+    private Path path;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        path = Files.createTempFile("armeria-access.", ".log");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void shouldWriteAllLines() throws Exception {
+        final FileAccessLogWriter writer = new FileAccessLogWriterBuilder(path)
+                .format("%{x-id}i")
+                .queueCapacity(65536)
+                .build();
+
+        final int numThreads = 4;
+        final int numLinesPerThread = 2000;
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            final int threadId = i;
+            executor.execute(() -> {
+                for (int j = 0; j < numLinesPerThread; j++) {
+                    writer.log(newLog(threadId + "-" + j));
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        writer.shutdown().get(10, TimeUnit.SECONDS);
+
+        final List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(numThreads * numLinesPerThread);
+        assertThat(lines).contains("0-0", "3-1999");
+        assertThat(writer.writtenLines()).isEqualTo(numThreads * numLinesPerThread);
+        assertThat(writer.droppedLines()).isZero();
+    }
+
+    @Test
+    void shouldEncodeInUtf8AndTruncate() throws Exception {
+        final FileAccessLogWriter writer = new FileAccessLogWriterBuilder(path)
+                .format("%{x-id}i")
+                .maxLineLength(16)
+                .build();
+        // A Korean letter takes 3 bytes and a musical symbol takes 4 bytes in UTF-8.
+        writer.log(newLog("한𝄞"));
+        writer.log(newLog(Strings.repeat("a", 20)));
+        writer.shutdown().get(10, TimeUnit.SECONDS);
+
+        assertThat(Files.readAllLines(path, StandardCharsets.UTF_8))
+                .containsExactly("한𝄞", Strings.repeat("a", 15));
+    }
+
+    @Test
+    void shouldWakeUpParkedWriter() throws Exception {
+        final FileAccessLogWriter writer = new FileAccessLogWriterBuilder(path)
+                .format("%{x-id}i")
+                .build();
+        for (int i = 0; i < 3; i++) {
+            // Let the writer thread park before logging the next message.
+            Thread.sleep(100);
+            writer.log(newLog(String.valueOf(i)));
+            final long expectedLines = i + 1;
+            await().untilAsserted(() -> assertThat(writer.writtenLines()).isEqualTo(expectedLines));
+        }
+        writer.shutdown().get(10, TimeUnit.SECONDS);
+
+        assertThat(Files.readAllLines(path, StandardCharsets.UTF_8)).containsExactly("0", "1", "2");
+    }
+
+    @Test
+    void shouldRejectTooLargeQueueCapacity() {
+        final FileAccessLogWriterBuilder builder = new FileAccessLogWriterBuilder(path);
+        assertThatThrownBy(() -> builder.queueCapacity(65537)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.queueCapacity(0)).isInstanceOf(IllegalArgumentException.class);
+        builder.queueCapacity(65536);
+    }
+
+    @Test
+    void shouldDropLinesAfterShutdown() throws Exception {
+        final FileAccessLogWriter writer = new FileAccessLogWriterBuilder(path).build();
+        writer.shutdown().get(10, TimeUnit.SECONDS);
+        writer.log(newLog("foo"));
+        assertThat(writer.droppedLines()).isOne();
+        assertThat(Files.size(path)).isZero();
+    }
+
+    private static RequestLog newLog(String id) {
+        final HttpRequest req = HttpRequest.of(RequestHeaders.of(HttpMethod.GET, "/", "x-id", id));
+        return ServiceRequestContext.of(req).log();
+    }
+}
@@ -17,7 +17,9 @@ package com.linecorp.armeria.server.streaming;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.junit.ClassRule;
@@ -66,20 +68,23 @@ public class JsonTextSequencesTest {
     };
 
     @Test
-    public void fromPublisherOrStream() {
+    public void fromPublisherOrStream() throws Exception {
         final HttpClient client = HttpClient.of(rule.uri("/seq"));
         for (final String path : ImmutableList.of("/publisher", "/stream", "/custom-mapper")) {
             final HttpResponse response = client.get(path);
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
             StepVerifier.create(response)
                         .expectNext(ResponseHeaders.of(HttpStatus.OK,
                                                        HttpHeaderNames.CONTENT_TYPE, MediaType.JSON_SEQ))
-                        .assertNext(o -> ensureExpectedHttpData(o, "foo"))
-                        .assertNext(o -> ensureExpectedHttpData(o, "bar"))
-                        .assertNext(o -> ensureExpectedHttpData(o, "baz"))
-                        .assertNext(o -> ensureExpectedHttpData(o, "qux"))
+                        // The records written at once may be sent in a single DATA frame.
+                        .thenConsumeWhile(o -> o instanceof HttpData && !o.isEndOfStream(), o -> {
+                            final HttpData data = (HttpData) o;
+                            content.write(data.array(), 0, data.length());
+                        })
                         .assertNext(JsonTextSequencesTest::assertThatLastContent)
                         .expectComplete()
                         .verify();
+            assertThat(readRecords(content.toByteArray())).containsExactly("foo", "bar", "baz", "qux");
         }
     }
 
@@ -101,15 +106,18 @@ public class JsonTextSequencesTest {
         assertThat(lastContent.isEndOfStream()).isTrue();
     }
 
-    private static void ensureExpectedHttpData(HttpObject o, String expectedString) {
-        assertThat(o).isInstanceOf(HttpData.class);
-        final HttpData data = (HttpData) o;
-        try {
-            assertThat(mapper.readValue(data.array(), 1, data.length() - 2, String.class))
-                    .isEqualTo(expectedString);
-        } catch (IOException e) {
-            // Always false.
-            assertThat(e).isNull();
+    private static List<String> readRecords(byte[] content) throws IOException {
+        // Every record starts with a record separator and ends with a line feed.
+        final ImmutableList.Builder<String> records = ImmutableList.builder();
+        int start = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == 0x0A) {
+                assertThat(content[start]).isEqualTo((byte) 0x1E);
+                records.add(mapper.readValue(content, start + 1, i - start - 1, String.class));
+                start = i + 1;
+            }
         }
+        assertThat(start).isEqualTo(content.length);
+        return records.build();
     }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.throttling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit.server.ServerExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveConcurrencyThrottlingStrategyTest {
+
+    private static final BlockingQueue<CompletableFuture<HttpResponse>> pendingResponses =
+            new LinkedBlockingQueue<>();
+
+    private static final AdaptiveConcurrencyThrottlingStrategy<HttpRequest> strategy =
+            new AdaptiveConcurrencyThrottlingStrategyBuilder().initialLimit(2)
+                                                              .minLimit(2)
+                                                              .maxLimit(2)
+                                                              .meterIdPrefix(new MeterIdPrefix("foo"))
+                                                              .build();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.meterRegistry(new SimpleMeterRegistry());
+            sb.service("/", (ctx, req) -> {
+                final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+                pendingResponses.add(future);
+                return HttpResponse.from(future);
+            });
+            sb.decorator(ThrottlingHttpService.newDecorator(strategy));
+        }
+    };
+
+    @Test
+    void shouldRejectAboveLimit() throws Exception {
+        final HttpClient client = HttpClient.of(server.uri("/"));
+        final List<CompletableFuture<AggregatedHttpResponse>> accepted = new ArrayList<>();
+        accepted.add(client.get("/").aggregate());
+        accepted.add(client.get("/").aggregate());
+        await().until(() -> pendingResponses.size() == 2);
+        assertThat(strategy.inFlightRequests()).isEqualTo(2);
+
+        assertThat(client.get("/").aggregate().join().status()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(MoreMeters.measureAll(server.server().meterRegistry()))
+                .containsEntry("foo.limit#value", 2.0)
+                .containsEntry("foo.inFlightRequests#value", 2.0)
+                .containsEntry("foo.rejectedRequests#count", 1.0);
+
+        for (int i = 0; i < 2; i++) {
+            pendingResponses.take().complete(HttpResponse.of(HttpStatus.OK));
+        }
+        for (CompletableFuture<AggregatedHttpResponse> f : accepted) {
+            assertThat(f.join().status()).isEqualTo(HttpStatus.OK);
+        }
+        await().untilAsserted(() -> assertThat(strategy.inFlightRequests()).isZero());
+
+        // Should accept again once the in-flight requests are complete.
+        final CompletableFuture<AggregatedHttpResponse> res = client.get("/").aggregate();
+        pendingResponses.take().complete(HttpResponse.of(HttpStatus.OK));
+        assertThat(res.join().status()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void defaultMeterIdPrefix() {
+        final AdaptiveConcurrencyThrottlingStrategy<HttpRequest> strategy =
+                new AdaptiveConcurrencyThrottlingStrategyBuilder().name("bar").build();
+        assertThat(strategy.name()).isEqualTo("bar");
+        assertThat(strategy.limit()).isEqualTo(20);
+        assertThat(strategy.meterIdPrefix())
+                .isEqualTo(new MeterIdPrefix("armeria.server.throttling", "strategy", "bar"));
+    }
+}